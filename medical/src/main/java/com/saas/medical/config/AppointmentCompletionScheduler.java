@@ -0,0 +1,25 @@
+package com.saas.medical.config;
+
+import com.saas.medical.service.AppointmentCompletionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.appointments.auto-complete.enabled", havingValue = "true", matchIfMissing = true)
+public class AppointmentCompletionScheduler {
+
+    private final AppointmentCompletionService appointmentCompletionService;
+
+    /**
+     * Cierra los turnos confirmados que ya terminaron (por defecto cada 15 minutos)
+     */
+    @Scheduled(cron = "${app.appointments.auto-complete.cron:0 */15 * * * *}")
+    public void closeEndedAppointments() {
+        appointmentCompletionService.closeEndedAppointments(LocalDateTime.now());
+    }
+}
@@ -0,0 +1,45 @@
+package com.saas.medical.config;
+
+import com.saas.medical.service.OpenSlotService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "app.open-slots.refresher.enabled", havingValue = "true", matchIfMissing = true)
+public class OpenSlotScheduler {
+
+    private final OpenSlotService openSlotService;
+
+    /**
+     * Recalcula los días con cambios pendientes e informa el atraso del modelo
+     */
+    @Scheduled(fixedDelayString = "${app.open-slots.refresh-interval-ms:2000}")
+    public void refreshDirty() {
+        int refreshed = openSlotService.refreshDirty();
+        Duration staleness = openSlotService.staleness();
+        if (staleness.compareTo(openSlotService.maxStaleness()) > 0) {
+            log.warn("⏱️ Turnos libres: atraso de {} s, por encima del máximo; las lecturas afectadas van en vivo",
+                    staleness.toSeconds());
+        } else if (refreshed > 0) {
+            log.debug("Turnos libres: {} días recalculados, atraso {} s", refreshed, staleness.toSeconds());
+        }
+    }
+
+    /**
+     * Corre el horizonte y agrega los días nuevos (al iniciar y luego cada hora)
+     */
+    @Scheduled(fixedDelayString = "${app.open-slots.horizon-interval-ms:3600000}")
+    public void extendHorizon() {
+        int seeded = openSlotService.extendHorizon();
+        if (seeded > 0) {
+            log.info("📅 Turnos libres: {} días agregados al horizonte", seeded);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.saas.medical.config;
+
+import com.saas.medical.service.OutboxService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "app.outbox.dispatcher.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxScheduler {
+
+    private final OutboxService outboxService;
+
+    @Value("${app.outbox.retention-days:7}")
+    private int retentionDays;
+
+    /**
+     * Entrega las notificaciones pendientes del outbox
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:2000}")
+    public void dispatchPending() {
+        int delivered = outboxService.dispatchPending();
+        if (delivered > 0) {
+            log.debug("📬 Outbox: {} notificaciones entregadas", delivered);
+        }
+    }
+
+    /**
+     * Limpia eventos ya entregados cada día a las 2:00 AM
+     */
+    @Scheduled(cron = "0 0 2 * * *")
+    public void purgeSent() {
+        int deleted = outboxService.purgeSent(retentionDays);
+        log.info("🧹 Outbox: {} eventos entregados eliminados", deleted);
+    }
+}
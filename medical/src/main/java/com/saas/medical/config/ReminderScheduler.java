@@ -0,0 +1,36 @@
+package com.saas.medical.config;
+
+import com.saas.medical.service.ReminderService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "app.reminders.enabled", havingValue = "true", matchIfMissing = true)
+public class ReminderScheduler {
+
+    private final ReminderService reminderService;
+
+    /**
+     * Encola los recordatorios de la próxima ventana (por defecto cada 5 minutos)
+     */
+    @Scheduled(cron = "${app.reminders.cron:0 */5 * * * *}")
+    public void queueReminders() {
+        reminderService.runWindow(LocalDateTime.now());
+    }
+
+    /**
+     * Limpia reclamos de ventanas de más de una semana cada día a las 3:00 AM
+     */
+    @Scheduled(cron = "0 0 3 * * *")
+    public void purgeRuns() {
+        int deleted = reminderService.purgeRuns(LocalDateTime.now().minusDays(7));
+        log.info("🧹 Recordatorios: {} ventanas antiguas eliminadas", deleted);
+    }
+}
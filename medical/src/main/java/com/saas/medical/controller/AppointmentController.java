@@ -1,15 +1,21 @@
 package com.saas.medical.controller;
 
 import com.saas.medical.model.dto.appointment.AppointmentResponse;
+import com.saas.medical.model.dto.appointment.BulkStatusUpdateRequest;
+import com.saas.medical.model.dto.appointment.BulkStatusUpdateResponse;
+import com.saas.medical.model.dto.common.CursorPageResponse;
 import com.saas.medical.service.AppointmentService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -29,6 +35,23 @@ public class AppointmentController {
         return ResponseEntity.ok(appointments);
     }
 
+    @GetMapping("/page")
+    @Operation(summary = "Listar turnos paginados",
+               description = "Lista los turnos del tenant del más reciente al más antiguo con paginación por cursor y filtros opcionales")
+    @PreAuthorize("hasAnyRole('OWNER', 'STAFF', 'PROFESSIONAL')")
+    public ResponseEntity<CursorPageResponse<AppointmentResponse>> getAppointmentPage(
+            @Parameter(description = "Fecha desde (formato: YYYY-MM-DD)") @RequestParam(required = false) LocalDate from,
+            @Parameter(description = "Fecha hasta inclusive (formato: YYYY-MM-DD)") @RequestParam(required = false) LocalDate to,
+            @Parameter(description = "Estado (CONFIRMED, CANCELLED, COMPLETED, NO_SHOW)") @RequestParam(required = false) String status,
+            @Parameter(description = "ID del profesional") @RequestParam(required = false) Long professionalId,
+            @Parameter(description = "ID del procedimiento") @RequestParam(required = false) Long procedureId,
+            @Parameter(description = "Cursor devuelto por la página anterior") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página (máximo 200)") @RequestParam(required = false) Integer limit) {
+        CursorPageResponse<AppointmentResponse> page = appointmentService.findAppointmentPageByCurrentTenant(
+                from, to, status, professionalId, procedureId, cursor, limit);
+        return ResponseEntity.ok(page);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Obtener turno por ID", description = "Obtiene los detalles de un turno específico")
     @PreAuthorize("hasAnyRole('OWNER', 'STAFF', 'PROFESSIONAL')")
@@ -47,6 +70,15 @@ public class AppointmentController {
         return ResponseEntity.ok(appointment);
     }
 
+    @PutMapping("/status")
+    @Operation(summary = "Actualizar estado masivo",
+               description = "Cambia el estado de varios turnos (por ids o por profesional y día) en una sola operación. No permite cancelar")
+    @PreAuthorize("hasAnyRole('OWNER', 'STAFF', 'PROFESSIONAL')")
+    public ResponseEntity<BulkStatusUpdateResponse> bulkUpdateStatus(@Valid @RequestBody BulkStatusUpdateRequest request) {
+        BulkStatusUpdateResponse result = appointmentService.bulkUpdateStatus(request);
+        return ResponseEntity.ok(result);
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Cancelar turno", description = "Cancela un turno médico")
     @PreAuthorize("hasAnyRole('OWNER', 'STAFF', 'PROFESSIONAL')")
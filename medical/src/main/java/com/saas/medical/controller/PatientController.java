@@ -1,16 +1,20 @@
 package com.saas.medical.controller;
 
+import com.saas.medical.model.dto.appointment.PatientAppointmentResponse;
 import com.saas.medical.model.dto.clinical.ClinicalNoteRequest;
 import com.saas.medical.model.dto.clinical.ClinicalNoteResponse;
 import com.saas.medical.model.dto.clinical.PatientFileResponse;
+import com.saas.medical.model.dto.common.CursorPageResponse;
 import com.saas.medical.model.dto.patient.PatientRequest;
 import com.saas.medical.model.dto.patient.PatientResponse;
 import com.saas.medical.model.dto.patient.PatientSearchResponse;
 import com.saas.medical.model.dto.patient.PatientUpdateRequest;
 import com.saas.medical.model.entity.PatientFile;
+import com.saas.medical.service.AppointmentService;
 import com.saas.medical.service.ClinicalHistoryService;
 import com.saas.medical.service.PatientService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -37,6 +41,7 @@ public class PatientController {
 
     private final PatientService patientService;
     private final ClinicalHistoryService clinicalHistoryService;
+    private final AppointmentService appointmentService;
 
     @GetMapping
     @Operation(summary = "Listar pacientes", description = "Obtiene todos los pacientes del tenant actual con filtros opcionales")
@@ -86,9 +91,11 @@ public class PatientController {
     @PostMapping
     @Operation(summary = "Crear paciente", description = "Crea un nuevo paciente")
     @PreAuthorize("hasAnyRole('OWNER', 'STAFF')")
-    public ResponseEntity<PatientResponse> create(@Valid @RequestBody PatientRequest request) {
+    public ResponseEntity<PatientResponse> create(
+            @Valid @RequestBody PatientRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         log.info("POST /patients - Creating patient with DNI: {}", request.getDni());
-        PatientResponse patient = patientService.create(request);
+        PatientResponse patient = patientService.create(request, idempotencyKey);
         return ResponseEntity.status(HttpStatus.CREATED).body(patient);
     }
 
@@ -113,6 +120,18 @@ public class PatientController {
 
     // ==================== CLINICAL HISTORY (EVOLUCIONES) ====================
 
+    @GetMapping("/{id}/appointments")
+    @Operation(summary = "Historial de turnos", description = "Turnos del paciente, del más reciente al más antiguo, paginados por cursor")
+    @PreAuthorize("hasAnyRole('OWNER', 'STAFF', 'PROFESSIONAL')")
+    public ResponseEntity<CursorPageResponse<PatientAppointmentResponse>> getAppointments(
+            @PathVariable Long id,
+            @Parameter(description = "Estados a incluir (CONFIRMED, CANCELLED, COMPLETED, NO_SHOW); sin valor se incluyen todos") @RequestParam(required = false) List<String> status,
+            @Parameter(description = "Cursor devuelto por la página anterior") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página (máximo 200)") @RequestParam(required = false) Integer limit) {
+        log.info("GET /patients/{}/appointments - status: {}", id, status);
+        return ResponseEntity.ok(appointmentService.findPatientAppointmentPage(id, status, cursor, limit));
+    }
+
     @GetMapping("/{id}/clinical-history")
     @Operation(summary = "Obtener historia clínica", description = "Obtiene todas las evoluciones del paciente")
     @PreAuthorize("hasAnyRole('OWNER', 'PROFESSIONAL')")
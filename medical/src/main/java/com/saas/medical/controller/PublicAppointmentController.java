@@ -1,21 +1,39 @@
 package com.saas.medical.controller;
 
+import com.saas.medical.exception.BusinessException;
+import com.saas.medical.model.dto.appointment.AppointmentAccessCodeRequest;
+import com.saas.medical.model.dto.appointment.AppointmentAccessCodeResponse;
+import com.saas.medical.model.dto.appointment.AppointmentAccessRequest;
 import com.saas.medical.model.dto.appointment.AppointmentRequest;
 import com.saas.medical.model.dto.appointment.AppointmentResponse;
 import com.saas.medical.model.dto.appointment.AppointmentConfirmationResponse;
+import com.saas.medical.model.dto.appointment.AppointmentSeriesRequest;
+import com.saas.medical.model.dto.appointment.AppointmentSeriesResponse;
+import com.saas.medical.model.dto.appointment.SelfServiceAppointmentResponse;
 import com.saas.medical.model.dto.professional.ProfessionalResponse;
 import com.saas.medical.model.dto.professional.ProfessionalAvailabilityResponse;
 import com.saas.medical.model.dto.procedure.ProcedureResponse;
+import com.saas.medical.model.dto.slot.AvailableSlotResponse;
+import com.saas.medical.model.dto.slot.CalendarDayResponse;
+import com.saas.medical.model.dto.slot.FirstAvailableSlotResponse;
+import com.saas.medical.model.dto.slot.SlotHoldRequest;
+import com.saas.medical.model.dto.slot.SlotHoldResponse;
 import com.saas.medical.model.dto.specialty.SpecialtyResponse;
 import com.saas.medical.model.dto.tenant.TenantResponse;
+import com.saas.medical.model.dto.waitlist.WaitlistEntryResponse;
+import com.saas.medical.model.dto.waitlist.WaitlistRequest;
+import com.saas.medical.service.AppointmentSelfService;
 import com.saas.medical.service.AppointmentService;
 import com.saas.medical.service.ProcedureService;
 import com.saas.medical.service.ProfessionalService;
+import com.saas.medical.service.SlotService;
 import com.saas.medical.service.SpecialtyService;
 import com.saas.medical.service.TenantService;
+import com.saas.medical.service.WaitlistService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,6 +44,8 @@ import org.springframework.web.bind.annotation.*;
 import java.util.List;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 
 @RestController
 @RequestMapping("/t/{tenantSlug}")
@@ -35,10 +55,13 @@ import java.time.LocalDateTime;
 public class PublicAppointmentController {
 
     private final AppointmentService appointmentService;
+    private final AppointmentSelfService appointmentSelfService;
     private final ProcedureService procedureService;
     private final ProfessionalService professionalService;
     private final SpecialtyService specialtyService;
     private final TenantService tenantService;
+    private final SlotService slotService;
+    private final WaitlistService waitlistService;
 
     @GetMapping
     @Operation(summary = "Información del consultorio", description = "Obtiene información básica del consultorio")
@@ -68,6 +91,50 @@ public class PublicAppointmentController {
         return ResponseEntity.ok(availability);
     }
 
+    @GetMapping("/professionals/{professionalId}/slots")
+    @Operation(summary = "Obtener turnos libres de un profesional",
+               description = "Calcula los horarios reservables del rango combinando disponibilidad, bloqueos y turnos existentes")
+    public ResponseEntity<List<AvailableSlotResponse>> getProfessionalSlots(
+            @Parameter(description = "Slug del consultorio") @PathVariable String tenantSlug,
+            @Parameter(description = "ID del profesional") @PathVariable Long professionalId,
+            @Parameter(description = "Fecha desde (formato: YYYY-MM-DD)") @RequestParam LocalDate from,
+            @Parameter(description = "Fecha hasta inclusive (formato: YYYY-MM-DD)") @RequestParam LocalDate to,
+            @Parameter(description = "ID del procedimiento (define la duración del turno)") @RequestParam(required = false) Long procedureId) {
+        List<AvailableSlotResponse> slots = slotService.getAvailableSlots(tenantSlug, professionalId, from, to, procedureId);
+        return ResponseEntity.ok(slots);
+    }
+
+    @GetMapping("/professionals/{professionalId}/calendar")
+    @Operation(summary = "Calendario mensual de un profesional",
+               description = "Cantidad de turnos libres por día del mes, para marcar los días sin disponibilidad")
+    public ResponseEntity<List<CalendarDayResponse>> getProfessionalCalendar(
+            @Parameter(description = "Slug del consultorio") @PathVariable String tenantSlug,
+            @Parameter(description = "ID del profesional") @PathVariable Long professionalId,
+            @Parameter(description = "Mes (formato: YYYY-MM)") @RequestParam String month,
+            @Parameter(description = "ID del procedimiento (define la duración del turno)") @RequestParam(required = false) Long procedureId) {
+        YearMonth yearMonth;
+        try {
+            yearMonth = YearMonth.parse(month);
+        } catch (DateTimeParseException e) {
+            throw new BusinessException("Mes inválido: " + month + ". Formato esperado: YYYY-MM");
+        }
+        List<CalendarDayResponse> calendar = slotService.getMonthCalendar(tenantSlug, professionalId, yearMonth, procedureId);
+        return ResponseEntity.ok(calendar);
+    }
+
+    @GetMapping("/first-available")
+    @Operation(summary = "Primer turno disponible",
+               description = "Busca el turno libre más próximo entre los profesionales que cumplen los filtros de especialidad, procedimiento y obra social")
+    public ResponseEntity<FirstAvailableSlotResponse> getFirstAvailable(
+            @Parameter(description = "Slug del consultorio") @PathVariable String tenantSlug,
+            @Parameter(description = "ID de la especialidad") @RequestParam(required = false) Long specialtyId,
+            @Parameter(description = "ID del procedimiento (define especialidad y duración)") @RequestParam(required = false) Long procedureId,
+            @Parameter(description = "ID de la obra social que debe aceptar el profesional") @RequestParam(required = false) Long insuranceId,
+            @Parameter(description = "Buscar a partir de (formato: YYYY-MM-DDTHH:mm)") @RequestParam(required = false) LocalDateTime after) {
+        FirstAvailableSlotResponse slot = slotService.findFirstAvailable(tenantSlug, specialtyId, procedureId, insuranceId, after);
+        return ResponseEntity.ok(slot);
+    }
+
     @GetMapping("/professionals/{professionalId}/procedures")
     @Operation(summary = "Obtener procedimientos de un profesional",
                description = "Lista los procedimientos activos de la especialidad del profesional")
@@ -137,10 +204,89 @@ public class PublicAppointmentController {
                description = "Crea un nuevo turno médico para el paciente")
     public ResponseEntity<AppointmentConfirmationResponse> createAppointment(
             @Parameter(description = "Slug del consultorio") @PathVariable String tenantSlug,
-            @Valid @RequestBody AppointmentRequest request) {
-        AppointmentResponse appointment = appointmentService.createAppointment(tenantSlug, request);
+            @Valid @RequestBody AppointmentRequest request,
+            @Parameter(description = "Clave para reintentar sin duplicar el turno") @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        AppointmentResponse appointment = appointmentService.createAppointment(tenantSlug, request, idempotencyKey);
         AppointmentConfirmationResponse confirmation = AppointmentConfirmationResponse.from(appointment);
         return ResponseEntity.status(HttpStatus.CREATED).body(confirmation);
     }
 
+    @PostMapping("/holds")
+    @Operation(summary = "Reservar horario temporalmente",
+               description = "Aparta el horario por unos minutos mientras el paciente completa sus datos. " +
+                       "El token devuelto se envía como holdToken al crear el turno")
+    public ResponseEntity<SlotHoldResponse> createHold(
+            @Parameter(description = "Slug del consultorio") @PathVariable String tenantSlug,
+            @Valid @RequestBody SlotHoldRequest request) {
+        SlotHoldResponse hold = appointmentService.createHold(tenantSlug, request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(hold);
+    }
+
+    @DeleteMapping("/holds/{token}")
+    @Operation(summary = "Liberar horario reservado",
+               description = "Libera una reserva temporal antes de que venza (por ejemplo, si el paciente elige otro horario)")
+    public ResponseEntity<Void> releaseHold(
+            @Parameter(description = "Slug del consultorio") @PathVariable String tenantSlug,
+            @Parameter(description = "Token de la reserva temporal") @PathVariable String token) {
+        appointmentService.releaseHold(tenantSlug, token);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/waitlist")
+    @Operation(summary = "Anotarse en lista de espera",
+               description = "Registra al paciente para recibir un aviso si se libera un turno del profesional en el rango de fechas")
+    public ResponseEntity<WaitlistEntryResponse> joinWaitlist(
+            @Parameter(description = "Slug del consultorio") @PathVariable String tenantSlug,
+            @Valid @RequestBody WaitlistRequest request) {
+        WaitlistEntryResponse entry = waitlistService.join(tenantSlug, request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(entry);
+    }
+
+    @PostMapping("/my-appointments/code")
+    @Operation(summary = "Pedir código para consultar turnos",
+               description = "Envía un código de un solo uso al email del paciente si el DNI tiene turnos próximos. " +
+                       "La respuesta es la misma exista o no el DNI")
+    public ResponseEntity<AppointmentAccessCodeResponse> requestAccessCode(
+            @Parameter(description = "Slug del consultorio") @PathVariable String tenantSlug,
+            @Valid @RequestBody AppointmentAccessCodeRequest request,
+            HttpServletRequest httpRequest) {
+        AppointmentAccessCodeResponse response =
+                appointmentSelfService.requestCode(tenantSlug, request.getDni(), httpRequest.getRemoteAddr());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    @PostMapping("/my-appointments/lookup")
+    @Operation(summary = "Consultar mis turnos",
+               description = "Lista los próximos turnos del paciente identificado por DNI y código")
+    public ResponseEntity<List<SelfServiceAppointmentResponse>> lookupOwnAppointments(
+            @Parameter(description = "Slug del consultorio") @PathVariable String tenantSlug,
+            @Valid @RequestBody AppointmentAccessRequest request,
+            HttpServletRequest httpRequest) {
+        return ResponseEntity.ok(appointmentSelfService.findUpcoming(tenantSlug, request, httpRequest.getRemoteAddr()));
+    }
+
+    @PostMapping("/my-appointments/{appointmentId}/cancel")
+    @Operation(summary = "Cancelar mi turno",
+               description = "Cancela un turno confirmado y futuro del paciente identificado por DNI y código. El código queda consumido")
+    public ResponseEntity<Void> cancelOwnAppointment(
+            @Parameter(description = "Slug del consultorio") @PathVariable String tenantSlug,
+            @Parameter(description = "ID del turno") @PathVariable Long appointmentId,
+            @Valid @RequestBody AppointmentAccessRequest request,
+            HttpServletRequest httpRequest) {
+        appointmentSelfService.cancel(tenantSlug, appointmentId, request, httpRequest.getRemoteAddr());
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/appointments/series")
+    @Operation(summary = "Crear serie de turnos",
+               description = "Reserva sesiones repetidas (diarias o semanales) en una sola operación. " +
+                       "Si alguna sesión tiene conflicto no se crea ninguna y se responde 409 con el detalle por sesión")
+    public ResponseEntity<AppointmentSeriesResponse> createAppointmentSeries(
+            @Parameter(description = "Slug del consultorio") @PathVariable String tenantSlug,
+            @Valid @RequestBody AppointmentSeriesRequest request) {
+        AppointmentSeriesResponse series = appointmentService.createAppointmentSeries(tenantSlug, request);
+        HttpStatus status = series.isCreated() ? HttpStatus.CREATED : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).body(series);
+    }
+
 }
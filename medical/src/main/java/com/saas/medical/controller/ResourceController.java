@@ -0,0 +1,56 @@
+package com.saas.medical.controller;
+
+import com.saas.medical.model.dto.resource.ResourceRequest;
+import com.saas.medical.model.dto.resource.ResourceResponse;
+import com.saas.medical.service.ResourceService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/resources")
+@RequiredArgsConstructor
+@Tag(name = "Recursos", description = "APIs para gestión de salas y equipos compartidos")
+@SecurityRequirement(name = "bearerAuth")
+public class ResourceController {
+
+    private final ResourceService resourceService;
+
+    @GetMapping
+    @Operation(summary = "Listar recursos", description = "Lista las salas y equipos activos del tenant")
+    @PreAuthorize("hasAnyRole('OWNER', 'STAFF', 'PROFESSIONAL')")
+    public ResponseEntity<List<ResourceResponse>> getAllResources() {
+        return ResponseEntity.ok(resourceService.findAllByCurrentTenant());
+    }
+
+    @PostMapping
+    @Operation(summary = "Crear recurso", description = "Crea una sala o equipo que pueden requerir los procedimientos")
+    @PreAuthorize("hasAnyRole('OWNER', 'STAFF')")
+    public ResponseEntity<ResourceResponse> createResource(@Valid @RequestBody ResourceRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(resourceService.create(request));
+    }
+
+    @PutMapping("/{id}")
+    @Operation(summary = "Actualizar recurso", description = "Actualiza el nombre o la descripción de un recurso")
+    @PreAuthorize("hasAnyRole('OWNER', 'STAFF')")
+    public ResponseEntity<ResourceResponse> updateResource(@PathVariable Long id,
+                                                           @Valid @RequestBody ResourceRequest request) {
+        return ResponseEntity.ok(resourceService.update(id, request));
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Eliminar recurso", description = "Elimina (desactiva) un recurso")
+    @PreAuthorize("hasAnyRole('OWNER', 'STAFF')")
+    public ResponseEntity<Void> deleteResource(@PathVariable Long id) {
+        resourceService.delete(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,48 @@
+package com.saas.medical.controller;
+
+import com.saas.medical.model.dto.tenant.TenantClosureRequest;
+import com.saas.medical.model.dto.tenant.TenantClosureResponse;
+import com.saas.medical.service.TenantClosureService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/closures")
+@RequiredArgsConstructor
+@Tag(name = "Cierres", description = "APIs para feriados y cierres del consultorio completo")
+@SecurityRequirement(name = "bearerAuth")
+public class TenantClosureController {
+
+    private final TenantClosureService tenantClosureService;
+
+    @GetMapping
+    @Operation(summary = "Listar cierres", description = "Lista los cierres del consultorio que todavía no terminaron")
+    @PreAuthorize("hasAnyRole('OWNER', 'STAFF', 'PROFESSIONAL')")
+    public ResponseEntity<List<TenantClosureResponse>> getUpcomingClosures() {
+        return ResponseEntity.ok(tenantClosureService.findUpcomingByCurrentTenant());
+    }
+
+    @PostMapping
+    @Operation(summary = "Crear cierre", description = "Cierra el consultorio en un rango para todos sus profesionales")
+    @PreAuthorize("hasAnyRole('OWNER', 'STAFF')")
+    public ResponseEntity<TenantClosureResponse> createClosure(@Valid @RequestBody TenantClosureRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(tenantClosureService.create(request));
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Eliminar cierre", description = "Elimina un cierre y vuelve a habilitar sus horarios")
+    @PreAuthorize("hasAnyRole('OWNER', 'STAFF')")
+    public ResponseEntity<Void> deleteClosure(@PathVariable Long id) {
+        tenantClosureService.delete(id);
+        return ResponseEntity.noContent().build();
+    }
+}
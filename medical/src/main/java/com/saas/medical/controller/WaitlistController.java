@@ -0,0 +1,38 @@
+package com.saas.medical.controller;
+
+import com.saas.medical.model.dto.waitlist.WaitlistEntryResponse;
+import com.saas.medical.service.WaitlistService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/waitlist")
+@RequiredArgsConstructor
+@Tag(name = "Lista de Espera", description = "APIs para gestión de la lista de espera - requiere autenticación")
+@SecurityRequirement(name = "bearerAuth")
+public class WaitlistController {
+
+    private final WaitlistService waitlistService;
+
+    @GetMapping
+    @Operation(summary = "Listar lista de espera", description = "Lista los pacientes en espera del tenant autenticado, en orden de llegada")
+    @PreAuthorize("hasAnyRole('OWNER', 'STAFF')")
+    public ResponseEntity<List<WaitlistEntryResponse>> getWaitlist() {
+        return ResponseEntity.ok(waitlistService.findWaitingByCurrentTenant());
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Quitar de la lista de espera", description = "Cancela una entrada de la lista de espera")
+    @PreAuthorize("hasAnyRole('OWNER', 'STAFF')")
+    public ResponseEntity<Void> cancel(@PathVariable Long id) {
+        waitlistService.cancel(id);
+        return ResponseEntity.noContent().build();
+    }
+}
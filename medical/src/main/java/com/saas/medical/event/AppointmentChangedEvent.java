@@ -0,0 +1,56 @@
+package com.saas.medical.event;
+
+import com.saas.medical.model.entity.Appointment;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Se publica cada vez que un turno se crea o cambia de estado.
+ * Los listeners lo reciben después del commit, cuando el cambio ya es visible en la base.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class AppointmentChangedEvent {
+
+    private final UUID tenantId;
+    private final Long appointmentId;
+    private final Long professionalId;
+    private final Long procedureId;
+    private final LocalDateTime startDateTime;
+    private final LocalDateTime endDateTime;
+    private final Appointment.AppointmentStatus previousStatus;
+    private final Appointment.AppointmentStatus status;
+
+    public static AppointmentChangedEvent of(Appointment appointment, Appointment.AppointmentStatus previousStatus) {
+        return new AppointmentChangedEvent(
+                appointment.getTenantId(),
+                appointment.getId(),
+                appointment.getProfessional().getId(),
+                appointment.getProcedure() != null ? appointment.getProcedure().getId() : null,
+                appointment.getStartDateTime(),
+                appointment.getEndDateTime(),
+                previousStatus,
+                appointment.getStatus());
+    }
+
+    /**
+     * Indica si, tras el cambio, el turno ocupa su horario en la agenda del profesional.
+     */
+    public boolean occupiesSlot() {
+        return status != Appointment.AppointmentStatus.CANCELLED;
+    }
+
+    /**
+     * Indica si el cambio liberó un horario que antes estaba ocupado.
+     */
+    public boolean releasedSlot() {
+        return previousStatus != null
+                && previousStatus != Appointment.AppointmentStatus.CANCELLED
+                && status == Appointment.AppointmentStatus.CANCELLED;
+    }
+}
@@ -0,0 +1,21 @@
+package com.saas.medical.exception;
+
+import com.saas.medical.model.dto.professional.AvailabilityConflictResponse;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Las reglas de disponibilidad pedidas se solapan entre sí o con las guardadas. Lleva todos los
+ * pares en conflicto para que el cliente los corrija de una vez.
+ */
+@Getter
+public class AvailabilityOverlapException extends BusinessException {
+
+    private final List<AvailabilityConflictResponse> conflicts;
+
+    public AvailabilityOverlapException(String message, List<AvailabilityConflictResponse> conflicts) {
+        super(message);
+        this.conflicts = conflicts;
+    }
+}
@@ -1,9 +1,13 @@
 package com.saas.medical.exception;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.saas.medical.model.dto.professional.AvailabilityConflictResponse;
+import com.saas.medical.model.dto.slot.SlotAlternativesResponse;
 import lombok.Builder;
 import lombok.Data;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 @Data
@@ -15,4 +19,12 @@ public class ErrorResponse {
     private String message;
     private String path;
     private Map<String, String> validationErrors;
+
+    // Solo en conflictos de horario (409): turnos libres más cercanos al pedido
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private SlotAlternativesResponse alternatives;
+
+    // Solo en solapamientos de disponibilidad: todos los pares de reglas en conflicto
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<AvailabilityConflictResponse> conflicts;
 }
@@ -30,6 +30,36 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, ex.getStatus());
     }
 
+    @ExceptionHandler(SlotConflictException.class)
+    public ResponseEntity<ErrorResponse> handleSlotConflictException(SlotConflictException ex) {
+        log.warn("Conflicto de horario: {}", ex.getMessage());
+
+        ErrorResponse error = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(ex.getStatus().value())
+                .error(ex.getStatus().getReasonPhrase())
+                .message(ex.getMessage())
+                .alternatives(ex.getAlternatives())
+                .build();
+
+        return new ResponseEntity<>(error, ex.getStatus());
+    }
+
+    @ExceptionHandler(AvailabilityOverlapException.class)
+    public ResponseEntity<ErrorResponse> handleAvailabilityOverlapException(AvailabilityOverlapException ex) {
+        log.warn("Solapamiento de disponibilidad: {}", ex.getMessage());
+
+        ErrorResponse error = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(ex.getStatus().value())
+                .error(ex.getStatus().getReasonPhrase())
+                .message(ex.getMessage())
+                .conflicts(ex.getConflicts())
+                .build();
+
+        return new ResponseEntity<>(error, ex.getStatus());
+    }
+
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleResourceNotFoundException(ResourceNotFoundException ex) {
         log.error("Recurso no encontrado: {}", ex.getMessage());
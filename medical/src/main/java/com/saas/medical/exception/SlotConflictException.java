@@ -0,0 +1,20 @@
+package com.saas.medical.exception;
+
+import com.saas.medical.model.dto.slot.SlotAlternativesResponse;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * El horario pedido está ocupado. Lleva los turnos libres más cercanos para que el cliente
+ * pueda ofrecerlos sin volver a consultar la disponibilidad.
+ */
+@Getter
+public class SlotConflictException extends BusinessException {
+
+    private final SlotAlternativesResponse alternatives;
+
+    public SlotConflictException(String message, SlotAlternativesResponse alternatives) {
+        super(message, HttpStatus.CONFLICT);
+        this.alternatives = alternatives;
+    }
+}
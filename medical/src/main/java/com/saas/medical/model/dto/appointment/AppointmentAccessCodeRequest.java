@@ -0,0 +1,13 @@
+package com.saas.medical.model.dto.appointment;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class AppointmentAccessCodeRequest {
+
+    @NotBlank(message = "El DNI es requerido")
+    @Size(max = 20, message = "El DNI no puede tener más de 20 caracteres")
+    private String dni;
+}
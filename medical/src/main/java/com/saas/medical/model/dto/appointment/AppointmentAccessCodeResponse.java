@@ -0,0 +1,17 @@
+package com.saas.medical.model.dto.appointment;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentAccessCodeResponse {
+
+    private String message;
+
+    private long expiresInMinutes;
+}
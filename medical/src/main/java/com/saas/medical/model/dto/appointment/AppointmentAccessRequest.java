@@ -0,0 +1,20 @@
+package com.saas.medical.model.dto.appointment;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * DNI y código recibido por email: autoriza al paciente a ver y cancelar sus próximos turnos.
+ */
+@Data
+public class AppointmentAccessRequest {
+
+    @NotBlank(message = "El DNI es requerido")
+    @Size(max = 20, message = "El DNI no puede tener más de 20 caracteres")
+    private String dni;
+
+    @NotBlank(message = "El código es requerido")
+    @Size(max = 10, message = "El código no puede tener más de 10 caracteres")
+    private String code;
+}
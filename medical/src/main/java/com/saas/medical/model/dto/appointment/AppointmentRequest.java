@@ -20,6 +20,9 @@ public class AppointmentRequest {
 
     private String notes;
 
+    // Token de reserva temporal obtenido en POST /t/{tenantSlug}/holds (opcional)
+    private String holdToken;
+
     // Datos del paciente
     @NotNull(message = "Los datos del paciente son requeridos")
     private PatientInfo patient;
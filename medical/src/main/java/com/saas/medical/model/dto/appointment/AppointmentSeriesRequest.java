@@ -0,0 +1,57 @@
+package com.saas.medical.model.dto.appointment;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+public class AppointmentSeriesRequest {
+
+    @NotNull(message = "El profesional es requerido")
+    private Long professionalId;
+
+    @NotNull(message = "La fecha y hora de la primera sesión es requerida")
+    private LocalDateTime startDateTime;
+
+    private Integer durationMinutes;
+
+    private Long procedureId;
+
+    private String notes;
+
+    @NotNull(message = "La regla de repetición es requerida")
+    @Valid
+    private Recurrence recurrence;
+
+    // Datos del paciente
+    @NotNull(message = "Los datos del paciente son requeridos")
+    private AppointmentRequest.PatientInfo patient;
+
+    @Data
+    public static class Recurrence {
+
+        @NotNull(message = "La frecuencia es requerida")
+        private Frequency frequency;
+
+        // Cada cuántos días/semanas se repite (1 = todas las semanas)
+        @Min(value = 1, message = "El intervalo debe ser al menos 1")
+        @Max(value = 12, message = "El intervalo no puede superar 12")
+        private Integer interval = 1;
+
+        // Cantidad total de sesiones (incluida la primera); alternativa a 'until'
+        @Min(value = 1, message = "La cantidad de sesiones debe ser al menos 1")
+        private Integer count;
+
+        // Fecha de la última sesión posible (inclusive); alternativa a 'count'
+        private LocalDate until;
+    }
+
+    public enum Frequency {
+        DAILY, WEEKLY
+    }
+}
@@ -0,0 +1,39 @@
+package com.saas.medical.model.dto.appointment;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Resultado de una reserva de serie: o se crearon todas las sesiones, o ninguna y
+ * {@code occurrences} indica cuáles tienen conflicto.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentSeriesResponse {
+
+    private boolean created;
+    private int totalOccurrences;
+    private int conflictCount;
+    private List<Occurrence> occurrences;
+
+    // Turnos creados (solo si created = true)
+    private List<AppointmentResponse> appointments;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Occurrence {
+        private LocalDateTime startDateTime;
+        private LocalDateTime endDateTime;
+        private boolean available;
+        private String conflict;
+    }
+}
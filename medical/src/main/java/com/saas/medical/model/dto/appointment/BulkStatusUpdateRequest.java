@@ -0,0 +1,23 @@
+package com.saas.medical.model.dto.appointment;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Cambio de estado masivo: por lista de ids o por profesional y día (no ambos).
+ */
+@Data
+public class BulkStatusUpdateRequest {
+
+    @NotBlank(message = "El estado es requerido")
+    private String status;
+
+    private List<Long> ids;
+
+    private Long professionalId;
+
+    private LocalDate date;
+}
@@ -0,0 +1,19 @@
+package com.saas.medical.model.dto.appointment;
+
+import com.saas.medical.model.entity.Appointment;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusUpdateResponse {
+
+    private Appointment.AppointmentStatus status;
+
+    // Turnos que efectivamente cambiaron de estado
+    private int updated;
+}
@@ -0,0 +1,35 @@
+package com.saas.medical.model.dto.appointment;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Turno dentro del historial de un paciente: lo justo para listarlo; el detalle completo sale de
+ * {@code GET /appointments/{id}}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientAppointmentResponse {
+
+    private Long id;
+
+    private LocalDateTime startDateTime;
+
+    private LocalDateTime endDateTime;
+
+    private Integer durationMinutes;
+
+    private String status;
+
+    private Long professionalId;
+
+    private String professionalName;
+
+    private String procedureName;
+}
@@ -0,0 +1,34 @@
+package com.saas.medical.model.dto.appointment;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Turno tal como lo ve el propio paciente en la consulta pública: sin datos personales ni notas internas.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SelfServiceAppointmentResponse {
+
+    private Long id;
+
+    private LocalDateTime startDateTime;
+
+    private LocalDateTime endDateTime;
+
+    private Integer durationMinutes;
+
+    private String professionalName;
+
+    private String specialtyName;
+
+    private String procedureName;
+
+    private String status;
+}
@@ -4,6 +4,8 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
 
+import java.util.Set;
+
 @Data
 public class ProcedureRequest {
 
@@ -13,6 +15,13 @@ public class ProcedureRequest {
     @Min(value = 5, message = "La duración mínima es de 5 minutos")
     private Integer durationMinutes = 30;
 
+    // Pacientes por turno; más de uno define una sesión grupal
+    @Min(value = 1, message = "La capacidad mínima es de 1 paciente")
+    private Integer capacity;
+
     private Long specialtyId;
+
+    // Salas o equipos que ocupa el procedimiento; null los deja como estaban
+    private Set<Long> resourceIds;
 }
 
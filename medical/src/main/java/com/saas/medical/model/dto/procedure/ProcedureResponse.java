@@ -1,12 +1,14 @@
 package com.saas.medical.model.dto.procedure;
 
 import com.saas.medical.model.entity.Procedure;
+import com.saas.medical.model.entity.Resource;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @Builder
@@ -17,9 +19,11 @@ public class ProcedureResponse {
     private Long id;
     private String name;
     private Integer durationMinutes;
+    private Integer capacity;
     private Long specialtyId;
     private String specialtyName;
     private Boolean active;
+    private List<Long> resourceIds;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -28,9 +32,15 @@ public class ProcedureResponse {
                 .id(procedure.getId())
                 .name(procedure.getName())
                 .durationMinutes(procedure.getDurationMinutes())
+                .capacity(procedure.getCapacity())
                 .specialtyId(procedure.getSpecialty() != null ? procedure.getSpecialty().getId() : null)
                 .specialtyName(procedure.getSpecialty() != null ? procedure.getSpecialty().getName() : null)
                 .active(procedure.getActive())
+                .resourceIds(procedure.getResources().stream()
+                        .filter(Resource::getActive)
+                        .map(Resource::getId)
+                        .sorted()
+                        .toList())
                 .createdAt(procedure.getCreatedAt())
                 .updatedAt(procedure.getUpdatedAt())
                 .build();
@@ -0,0 +1,29 @@
+package com.saas.medical.model.dto.professional;
+
+import com.saas.medical.model.enums.DayOfWeek;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Par de reglas de disponibilidad que se solapan en el mismo día de la semana o la misma fecha.
+ * Si el conflicto es con una regla ya guardada, su id va en {@code conflictingAvailabilityId}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityConflictResponse {
+
+    private DayOfWeek dayOfWeek;
+    private LocalDate specificDate;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private LocalTime conflictingStartTime;
+    private LocalTime conflictingEndTime;
+    private Long conflictingAvailabilityId;
+}
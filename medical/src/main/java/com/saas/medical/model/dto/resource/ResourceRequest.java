@@ -0,0 +1,15 @@
+package com.saas.medical.model.dto.resource;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class ResourceRequest {
+
+    @NotBlank(message = "El nombre del recurso es requerido")
+    @Size(max = 200, message = "El nombre no puede superar los 200 caracteres")
+    private String name;
+
+    private String description;
+}
@@ -0,0 +1,24 @@
+package com.saas.medical.model.dto.slot;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailableSlotResponse {
+
+    private LocalDateTime startDateTime;
+    private LocalDateTime endDateTime;
+    private Integer durationMinutes;
+
+    // Solo en procedimientos grupales: cupos que quedan en el horario
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer availableSpots;
+}
@@ -0,0 +1,18 @@
+package com.saas.medical.model.dto.slot;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarDayResponse {
+
+    private LocalDate date;
+    private Integer freeSlots;
+}
@@ -0,0 +1,23 @@
+package com.saas.medical.model.dto.slot;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FirstAvailableSlotResponse {
+
+    private Long professionalId;
+    private String professionalName;
+    private Long specialtyId;
+    private String specialtyName;
+    private LocalDateTime startDateTime;
+    private LocalDateTime endDateTime;
+    private Integer durationMinutes;
+}
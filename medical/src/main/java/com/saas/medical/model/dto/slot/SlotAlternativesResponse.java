@@ -0,0 +1,21 @@
+package com.saas.medical.model.dto.slot;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Turnos libres más cercanos a un horario que no se pudo reservar, del más cercano al más lejano.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotAlternativesResponse {
+
+    private List<AvailableSlotResponse> before;
+    private List<AvailableSlotResponse> after;
+}
@@ -0,0 +1,20 @@
+package com.saas.medical.model.dto.slot;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class SlotHoldRequest {
+
+    @NotNull(message = "El profesional es requerido")
+    private Long professionalId;
+
+    @NotNull(message = "La fecha y hora de inicio es requerida")
+    private LocalDateTime startDateTime;
+
+    private Integer durationMinutes;
+
+    private Long procedureId;
+}
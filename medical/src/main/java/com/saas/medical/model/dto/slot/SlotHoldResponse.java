@@ -0,0 +1,23 @@
+package com.saas.medical.model.dto.slot;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotHoldResponse {
+
+    // Token a enviar como holdToken al confirmar el turno
+    private String token;
+    private Long professionalId;
+    private LocalDateTime startDateTime;
+    private LocalDateTime endDateTime;
+    private Integer durationMinutes;
+    private LocalDateTime expiresAt;
+}
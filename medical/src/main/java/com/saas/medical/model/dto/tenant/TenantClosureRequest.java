@@ -0,0 +1,20 @@
+package com.saas.medical.model.dto.tenant;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class TenantClosureRequest {
+
+    @NotNull(message = "El inicio del cierre es requerido")
+    private LocalDateTime startDateTime;
+
+    @NotNull(message = "El fin del cierre es requerido")
+    private LocalDateTime endDateTime;
+
+    @Size(max = 255, message = "El motivo no puede superar los 255 caracteres")
+    private String reason;
+}
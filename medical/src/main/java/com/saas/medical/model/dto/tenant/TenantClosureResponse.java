@@ -0,0 +1,32 @@
+package com.saas.medical.model.dto.tenant;
+
+import com.saas.medical.model.entity.TenantClosure;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TenantClosureResponse {
+
+    private Long id;
+    private LocalDateTime startDateTime;
+    private LocalDateTime endDateTime;
+    private String reason;
+    private LocalDateTime createdAt;
+
+    public static TenantClosureResponse fromEntity(TenantClosure closure) {
+        return TenantClosureResponse.builder()
+                .id(closure.getId())
+                .startDateTime(closure.getStartDateTime())
+                .endDateTime(closure.getEndDateTime())
+                .reason(closure.getReason())
+                .createdAt(closure.getCreatedAt())
+                .build();
+    }
+}
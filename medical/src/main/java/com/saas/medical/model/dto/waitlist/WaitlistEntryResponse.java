@@ -0,0 +1,30 @@
+package com.saas.medical.model.dto.waitlist;
+
+import com.saas.medical.model.entity.WaitlistEntry;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistEntryResponse {
+
+    private Long id;
+    private Long professionalId;
+    private String professionalName;
+    private Long procedureId;
+    private String procedureName;
+    private Long patientId;
+    private String patientName;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private WaitlistEntry.Status status;
+    private LocalDateTime offeredStartDateTime;
+    private LocalDateTime createdAt;
+}
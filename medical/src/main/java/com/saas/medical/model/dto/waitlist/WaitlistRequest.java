@@ -0,0 +1,26 @@
+package com.saas.medical.model.dto.waitlist;
+
+import com.saas.medical.model.dto.appointment.AppointmentRequest;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class WaitlistRequest {
+
+    @NotNull(message = "El profesional es requerido")
+    private Long professionalId;
+
+    // Opcional: sin procedimiento sirve cualquier horario liberado del profesional
+    private Long procedureId;
+
+    @NotNull(message = "La fecha desde es requerida")
+    private LocalDate fromDate;
+
+    @NotNull(message = "La fecha hasta es requerida")
+    private LocalDate toDate;
+
+    @NotNull(message = "Los datos del paciente son requeridos")
+    private AppointmentRequest.PatientInfo patient;
+}
@@ -9,12 +9,28 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "appointments")
+@NamedEntityGraph(
+    name = Appointment.DETAILS_GRAPH,
+    attributeNodes = {
+        @NamedAttributeNode(value = "professional", subgraph = "professional"),
+        @NamedAttributeNode("patient"),
+        @NamedAttributeNode("procedure")
+    },
+    subgraphs = @NamedSubgraph(name = "professional", attributeNodes = @NamedAttributeNode("specialty"))
+)
 @Data
 @EqualsAndHashCode(callSuper = false)
 public class Appointment {
 
+    /**
+     * Grafo con todo lo que usa AppointmentResponse: listados en una sola consulta, sin N+1.
+     */
+    public static final String DETAILS_GRAPH = "Appointment.details";
+
+    // Secuencia con asignación por bloques: a diferencia de IDENTITY, permite inserts en lote (series de turnos)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointments_seq")
+    @SequenceGenerator(name = "appointments_seq", sequenceName = "appointments_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "tenant_id", nullable = false)
@@ -41,6 +57,10 @@ public class Appointment {
     @JoinColumn(name = "procedure_id")
     private Procedure procedure;
 
+    // Sesión grupal a la que pertenece el turno; null en los turnos individuales
+    @Column(name = "group_session_id")
+    private Long groupSessionId;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
     private AppointmentStatus status = AppointmentStatus.CONFIRMED;
@@ -48,6 +68,10 @@ public class Appointment {
     @Column(columnDefinition = "TEXT")
     private String notes;
 
+    // Momento en que el recordatorio de 24 h quedó encolado; evita enviarlo dos veces
+    @Column(name = "reminder_sent_at")
+    private LocalDateTime reminderSentAt;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -66,6 +90,6 @@ public class Appointment {
     }
 
     public enum AppointmentStatus {
-        CONFIRMED, CANCELLED, COMPLETED
+        CONFIRMED, CANCELLED, COMPLETED, NO_SHOW
     }
 }
@@ -0,0 +1,55 @@
+package com.saas.medical.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Sesión grupal de un profesional (clase de preparto, kinesiología grupal): un único horario con
+ * varios pacientes. {@code booked} es el contador de cupos tomados; se modifica solo con UPDATE
+ * condicionales, así que nunca supera la capacidad aunque reserven varios pacientes a la vez.
+ */
+@Entity
+@Table(name = "group_sessions",
+       uniqueConstraints = @UniqueConstraint(name = "uk_group_sessions_professional_start",
+                                             columnNames = {"professional_id", "start_date_time"}))
+@Data
+@EqualsAndHashCode(callSuper = false)
+public class GroupSession {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private UUID tenantId;
+
+    @Column(name = "professional_id", nullable = false)
+    private Long professionalId;
+
+    @Column(name = "procedure_id", nullable = false)
+    private Long procedureId;
+
+    @Column(name = "start_date_time", nullable = false)
+    private LocalDateTime startDateTime;
+
+    @Column(name = "end_date_time", nullable = false)
+    private LocalDateTime endDateTime;
+
+    @Column(nullable = false)
+    private Integer capacity;
+
+    @Column(nullable = false)
+    private Integer booked = 0;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
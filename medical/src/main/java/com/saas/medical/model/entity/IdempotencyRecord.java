@@ -0,0 +1,66 @@
+package com.saas.medical.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Respuesta guardada de una operación invocada con {@code Idempotency-Key}. La clave primaria es el
+ * alcance más la clave del cliente, así que dos reintentos simultáneos no pueden ejecutar la operación
+ * dos veces: el segundo choca con la fila que insertó el primero.
+ */
+@Entity
+@Table(name = "idempotency_records")
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = false)
+public class IdempotencyRecord implements Persistable<String> {
+
+    // Alcance y clave del cliente, por ejemplo "appointments:consultorio-x:3f2a..."
+    @Id
+    @Column(name = "record_key", length = 400)
+    private String recordKey;
+
+    // SHA-256 del cuerpo de la solicitud original, para detectar una clave reutilizada con otro contenido
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Transient
+    private boolean isNew = true;
+
+    public IdempotencyRecord(String recordKey, String requestHash, LocalDateTime createdAt, LocalDateTime expiresAt) {
+        this.recordKey = recordKey;
+        this.requestHash = requestHash;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public String getId() {
+        return recordKey;
+    }
+
+    // Siempre se inserta con persist: una clave existente debe fallar, nunca actualizarse con merge
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    protected void markNotNew() {
+        isNew = false;
+    }
+}
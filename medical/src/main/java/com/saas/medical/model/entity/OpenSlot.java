@@ -0,0 +1,75 @@
+package com.saas.medical.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Turno libre materializado de un profesional. Las filas de un día se reemplazan juntas cuando ese
+ * día se recalcula; la fuente de verdad siguen siendo las reglas, los bloqueos y los turnos.
+ */
+@Entity
+@Table(name = "open_slots")
+@IdClass(OpenSlot.Key.class)
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = false)
+public class OpenSlot implements Persistable<OpenSlot.Key> {
+
+    @Id
+    @Column(name = "professional_id")
+    private Long professionalId;
+
+    @Id
+    @Column(name = "start_date_time")
+    private LocalDateTime startDateTime;
+
+    @Column(name = "end_date_time", nullable = false)
+    private LocalDateTime endDateTime;
+
+    @Column(name = "duration_minutes", nullable = false)
+    private Integer durationMinutes;
+
+    @Column(name = "slot_date", nullable = false)
+    private LocalDate slotDate;
+
+    @Column(name = "tenant_id", nullable = false)
+    private UUID tenantId;
+
+    @Transient
+    private boolean isNew = true;
+
+    @Override
+    public Key getId() {
+        return new Key(professionalId, startDateTime);
+    }
+
+    // La clave es asignada por la aplicación: se inserta con persist sin un SELECT previo
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    protected void markNotNew() {
+        isNew = false;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private Long professionalId;
+
+        private LocalDateTime startDateTime;
+    }
+}
@@ -0,0 +1,75 @@
+package com.saas.medical.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Estado de un día materializado en {@code open_slots}. {@code revision} cambia con cada
+ * modificación de la agenda de ese día y {@code dirtySince} indica desde cuándo espera recálculo.
+ */
+@Entity
+@Table(name = "open_slot_days")
+@IdClass(OpenSlotDay.Key.class)
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = false)
+public class OpenSlotDay implements Persistable<OpenSlotDay.Key> {
+
+    @Id
+    @Column(name = "professional_id")
+    private Long professionalId;
+
+    @Id
+    @Column(name = "slot_date")
+    private LocalDate slotDate;
+
+    @Column(name = "tenant_id", nullable = false)
+    private UUID tenantId;
+
+    @Column(nullable = false)
+    private Long revision = 0L;
+
+    @Column(name = "dirty_since")
+    private LocalDateTime dirtySince;
+
+    @Column(name = "refreshed_at")
+    private LocalDateTime refreshedAt;
+
+    @Transient
+    private boolean isNew = true;
+
+    @Override
+    public Key getId() {
+        return new Key(professionalId, slotDate);
+    }
+
+    // La clave es asignada por la aplicación: se inserta con persist sin un SELECT previo
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    protected void markNotNew() {
+        isNew = false;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private Long professionalId;
+
+        private LocalDate slotDate;
+    }
+}
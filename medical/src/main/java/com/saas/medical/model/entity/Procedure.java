@@ -3,8 +3,11 @@ package com.saas.medical.model.entity;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.UUID;
 
 @Entity
@@ -30,9 +33,28 @@ public class Procedure {
     @Column(name = "duration_minutes", nullable = false)
     private Integer durationMinutes = 30;
 
+    /**
+     * Pacientes por turno. Con más de uno el procedimiento es una sesión grupal (ver {@link GroupSession}).
+     */
+    @Column(nullable = false)
+    private Integer capacity = 1;
+
     @Column(nullable = false)
     private Boolean active = true;
 
+    /**
+     * Salas o equipos que el procedimiento ocupa durante todo el turno.
+     */
+    @ManyToMany(fetch = FetchType.LAZY)
+    @JoinTable(
+        name = "procedure_resources",
+        joinColumns = @JoinColumn(name = "procedure_id"),
+        inverseJoinColumns = @JoinColumn(name = "resource_id")
+    )
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Set<Resource> resources = new HashSet<>();
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -0,0 +1,62 @@
+package com.saas.medical.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reclamo de una ventana de recordatorios por un nodo. La clave primaria es el inicio de la
+ * ventana, así que solo un nodo puede insertarla; los demás reciben una violación de clave y la saltean.
+ */
+@Entity
+@Table(name = "reminder_runs")
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = false)
+public class ReminderRun implements Persistable<LocalDateTime> {
+
+    @Id
+    @Column(name = "window_start")
+    private LocalDateTime windowStart;
+
+    @Column(name = "claimed_by", nullable = false, length = 200)
+    private String claimedBy;
+
+    @Column(name = "claimed_at", nullable = false)
+    private LocalDateTime claimedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "reminders_queued")
+    private Integer remindersQueued;
+
+    @Transient
+    private boolean isNew = true;
+
+    public ReminderRun(LocalDateTime windowStart, String claimedBy, LocalDateTime claimedAt) {
+        this.windowStart = windowStart;
+        this.claimedBy = claimedBy;
+        this.claimedAt = claimedAt;
+    }
+
+    @Override
+    public LocalDateTime getId() {
+        return windowStart;
+    }
+
+    // Siempre se inserta con persist: un reclamo existente debe fallar, nunca actualizarse con merge
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    protected void markNotNew() {
+        isNew = false;
+    }
+}
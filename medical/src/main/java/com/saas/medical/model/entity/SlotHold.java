@@ -0,0 +1,63 @@
+package com.saas.medical.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Copia en base de una reserva temporal de horario, para que los demás nodos la respeten.
+ * Solo se escribe con {@code app.slot-holds.db-mirror=true}; la fuente principal es la memoria del nodo.
+ */
+@Entity
+@Table(name = "slot_holds")
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = false)
+public class SlotHold implements Persistable<String> {
+
+    @Id
+    @Column(length = 64)
+    private String token;
+
+    @Column(name = "tenant_id", nullable = false)
+    private UUID tenantId;
+
+    @Column(name = "professional_id", nullable = false)
+    private Long professionalId;
+
+    @Column(name = "start_date_time", nullable = false)
+    private LocalDateTime startDateTime;
+
+    @Column(name = "end_date_time", nullable = false)
+    private LocalDateTime endDateTime;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Transient
+    private boolean isNew = true;
+
+    @Override
+    public String getId() {
+        return token;
+    }
+
+    // El token es asignado por la aplicación: se inserta con persist sin un SELECT previo
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    protected void markNotNew() {
+        isNew = false;
+    }
+}
@@ -0,0 +1,76 @@
+package com.saas.medical.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Paciente en lista de espera para un profesional (y opcionalmente un procedimiento) dentro de un
+ * rango de fechas. Cuando se cancela un turno del rango se le ofrece el horario liberado.
+ */
+@Entity
+@Table(name = "waitlist_entries")
+@NamedEntityGraph(name = WaitlistEntry.DETAILS_GRAPH, attributeNodes = {
+        @NamedAttributeNode("professional"),
+        @NamedAttributeNode("patient"),
+        @NamedAttributeNode("procedure")
+})
+@Data
+@EqualsAndHashCode(callSuper = false)
+public class WaitlistEntry {
+
+    public static final String DETAILS_GRAPH = "WaitlistEntry.details";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private UUID tenantId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "professional_id", nullable = false)
+    private Professional professional;
+
+    // Sin procedimiento, cualquier horario liberado del profesional le sirve
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "procedure_id")
+    private Procedure procedure;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "patient_id", nullable = false)
+    private Patient patient;
+
+    @Column(name = "from_date", nullable = false)
+    private LocalDate fromDate;
+
+    @Column(name = "to_date", nullable = false)
+    private LocalDate toDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.WAITING;
+
+    // Horario liberado que se le ofreció
+    @Column(name = "offered_start_date_time")
+    private LocalDateTime offeredStartDateTime;
+
+    @Column(name = "offered_at")
+    private LocalDateTime offeredAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    public enum Status {
+        WAITING, OFFERED, CANCELLED
+    }
+}
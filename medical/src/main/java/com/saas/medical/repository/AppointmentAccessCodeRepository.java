@@ -0,0 +1,45 @@
+package com.saas.medical.repository;
+
+import com.saas.medical.model.entity.AppointmentAccessCode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface AppointmentAccessCodeRepository extends JpaRepository<AppointmentAccessCode, Long> {
+
+    /**
+     * Código vigente del paciente. Al emitir uno nuevo se invalidan los anteriores, así que hay a lo sumo uno.
+     */
+    @Query("SELECT c FROM AppointmentAccessCode c WHERE c.tenantId = :tenantId AND c.patientId = :patientId " +
+           "AND c.used = false AND c.expiresAt > :now")
+    Optional<AppointmentAccessCode> findActive(UUID tenantId, Long patientId, LocalDateTime now);
+
+    /**
+     * Consume un intento de verificación si quedan; devuelve 0 cuando el código ya agotó sus intentos.
+     */
+    @Modifying
+    @Query("UPDATE AppointmentAccessCode c SET c.attempts = c.attempts + 1 " +
+           "WHERE c.id = :id AND c.used = false AND c.attempts < :maxAttempts")
+    int registerAttempt(Long id, int maxAttempts);
+
+    @Modifying
+    @Query("UPDATE AppointmentAccessCode c SET c.used = true WHERE c.tenantId = :tenantId AND c.patientId = :patientId " +
+           "AND c.used = false")
+    int invalidateAll(UUID tenantId, Long patientId);
+
+    @Modifying
+    @Query("UPDATE AppointmentAccessCode c SET c.used = true WHERE c.id = :id")
+    int markUsed(Long id);
+
+    long countByTenantIdAndPatientIdAndCreatedAtAfter(UUID tenantId, Long patientId, LocalDateTime since);
+
+    @Modifying
+    @Query("DELETE FROM AppointmentAccessCode c WHERE c.expiresAt < :before")
+    int deleteExpiredBefore(LocalDateTime before);
+}
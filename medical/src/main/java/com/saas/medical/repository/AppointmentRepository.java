@@ -1,33 +1,116 @@
 package com.saas.medical.repository;
 
 import com.saas.medical.model.entity.Appointment;
+import com.saas.medical.repository.projection.AppointmentIntervalView;
+import com.saas.medical.repository.projection.PatientAppointmentView;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+public interface AppointmentRepository extends JpaRepository<Appointment, Long>, JpaSpecificationExecutor<Appointment> {
 
+    @EntityGraph(Appointment.DETAILS_GRAPH)
+    Optional<Appointment> findDetailedById(Long id);
+
+    @EntityGraph(Appointment.DETAILS_GRAPH)
+    List<Appointment> findDetailedByIdIn(Collection<Long> ids);
+
+    /**
+     * Siguiente lote de turnos confirmados sin recordatorio de los consultorios con zona horaria
+     * {@code timezone} (vacía para los que no tienen) que empiezan en [fromDateTime, toDateTime), en hora
+     * local de esa zona, continuando después de (afterStart, afterId) en orden (start_date_time, id). Las filas quedan
+     * bloqueadas con {@code FOR UPDATE SKIP LOCKED} hasta marcar el recordatorio, así dos nodos nunca
+     * encolan el mismo.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT a FROM Appointment a WHERE a.status = 'CONFIRMED' AND a.reminderSentAt IS NULL " +
+           "AND a.startDateTime >= :fromDateTime AND a.startDateTime < :toDateTime " +
+           "AND (a.startDateTime > :afterStart OR (a.startDateTime = :afterStart AND a.id > :afterId)) " +
+           "AND a.tenantId IN (SELECT t.id FROM Tenant t WHERE COALESCE(t.timezone, '') = :timezone) " +
+           "ORDER BY a.startDateTime, a.id")
+    List<Appointment> findReminderBatchForUpdate(String timezone, LocalDateTime fromDateTime, LocalDateTime toDateTime,
+                                                 LocalDateTime afterStart, Long afterId, Limit limit);
+
+    @Modifying
+    @Query("UPDATE Appointment a SET a.reminderSentAt = :sentAt WHERE a.id IN :ids AND a.reminderSentAt IS NULL")
+    int markReminderSent(Collection<Long> ids, LocalDateTime sentAt);
+
+    @EntityGraph(Appointment.DETAILS_GRAPH)
     @Query("SELECT a FROM Appointment a WHERE a.tenantId = :tenantId ORDER BY a.startDateTime")
     List<Appointment> findByTenantId(UUID tenantId);
 
+    @EntityGraph(Appointment.DETAILS_GRAPH)
     @Query("SELECT a FROM Appointment a WHERE a.tenantId = :tenantId ORDER BY a.startDateTime DESC")
     List<Appointment> findByTenantIdOrderByStartDateTimeDesc(UUID tenantId);
 
+    @EntityGraph(Appointment.DETAILS_GRAPH)
     @Query("SELECT a FROM Appointment a WHERE a.professional.id = :professionalId " +
            "AND a.startDateTime >= :fromDateTime AND a.startDateTime <= :toDateTime " +
            "AND a.status != 'CANCELLED' ORDER BY a.startDateTime")
     List<Appointment> findByProfessionalAndDateRange(Long professionalId, LocalDateTime fromDateTime, LocalDateTime toDateTime);
 
+    @EntityGraph(Appointment.DETAILS_GRAPH)
     @Query("SELECT a FROM Appointment a WHERE a.patient.id = :patientId ORDER BY a.startDateTime DESC")
     List<Appointment> findByPatientId(Long patientId);
 
+    /**
+     * Próximos turnos no cancelados de un paciente del consultorio, en orden y acotados por {@code limit}:
+     * lee solo el tramo del índice (patient_id, start_date_time DESC, id DESC) desde {@code from}.
+     */
+    @EntityGraph(Appointment.DETAILS_GRAPH)
+    @Query("SELECT a FROM Appointment a WHERE a.tenantId = :tenantId AND a.patient.id = :patientId " +
+           "AND a.startDateTime >= :from AND a.status != 'CANCELLED' ORDER BY a.startDateTime")
+    List<Appointment> findUpcomingByPatient(UUID tenantId, Long patientId, LocalDateTime from, Limit limit);
+
+    Optional<Appointment> findByIdAndTenantIdAndPatientId(Long id, UUID tenantId, Long patientId);
+
+    String PATIENT_HISTORY_QUERY = "SELECT a.id AS id, a.startDateTime AS startDateTime, a.endDateTime AS endDateTime, " +
+           "a.durationMinutes AS durationMinutes, a.status AS status, p.id AS professionalId, " +
+           "p.firstName AS professionalFirstName, p.lastName AS professionalLastName, pr.name AS procedureName " +
+           "FROM Appointment a JOIN a.professional p LEFT JOIN a.procedure pr " +
+           "WHERE a.tenantId = :tenantId AND a.patient.id = :patientId AND a.status IN :statuses " +
+           "AND (:professionalId IS NULL OR p.id = :professionalId) ";
+
+    /**
+     * Primera página del historial de un paciente, del turno más reciente al más antiguo, como proyección
+     * escalar. Recorre el índice (patient_id, start_date_time DESC, id DESC) y se corta en {@code limit}.
+     */
+    @Query(PATIENT_HISTORY_QUERY + "ORDER BY a.startDateTime DESC, a.id DESC")
+    List<PatientAppointmentView> findPatientHistory(UUID tenantId, Long patientId,
+                                                    Collection<Appointment.AppointmentStatus> statuses,
+                                                    Long professionalId, Limit limit);
+
+    /**
+     * Página siguiente del historial: los turnos anteriores a (afterStart, afterId) en el mismo orden.
+     */
+    @Query(PATIENT_HISTORY_QUERY +
+           "AND (a.startDateTime < :afterStart OR (a.startDateTime = :afterStart AND a.id < :afterId)) " +
+           "ORDER BY a.startDateTime DESC, a.id DESC")
+    List<PatientAppointmentView> findPatientHistoryBefore(UUID tenantId, Long patientId,
+                                                          Collection<Appointment.AppointmentStatus> statuses,
+                                                          Long professionalId, LocalDateTime afterStart,
+                                                          Long afterId, Limit limit);
+
+    boolean existsByGroupSessionIdAndPatientIdAndStatusNot(Long groupSessionId, Long patientId,
+                                                           Appointment.AppointmentStatus status);
+
     @Query("SELECT COUNT(a) > 0 FROM Appointment a WHERE a.professional.id = :professionalId " +
            "AND a.startDateTime = :startDateTime AND a.status != 'CANCELLED'")
     boolean existsAppointmentAtTime(Long professionalId, LocalDateTime startDateTime);
@@ -43,12 +126,79 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
            "AND a.endDateTime > :startDateTime")
     boolean existsOverlappingAppointment(Long professionalId, LocalDateTime startDateTime, LocalDateTime endDateTime);
 
+    /**
+     * Rangos horarios ocupados (turnos no cancelados) que se solapan con [fromDateTime, toDateTime).
+     * Devuelve solo id, inicio y fin para no hidratar profesional, paciente ni procedimiento.
+     */
+    @Query("SELECT a.id AS id, a.startDateTime AS startDateTime, a.endDateTime AS endDateTime " +
+           "FROM Appointment a WHERE a.professional.id = :professionalId " +
+           "AND a.status != 'CANCELLED' " +
+           "AND a.startDateTime < :toDateTime " +
+           "AND a.endDateTime > :fromDateTime " +
+           "ORDER BY a.startDateTime")
+    List<AppointmentIntervalView> findBusyIntervals(Long professionalId, LocalDateTime fromDateTime, LocalDateTime toDateTime);
+
+    /**
+     * Rangos ocupados por turnos no cancelados cuyo procedimiento usa alguno de los recursos,
+     * con una sola consulta para todos ellos y de cualquier profesional.
+     */
+    @Query("SELECT DISTINCT a.id AS id, a.startDateTime AS startDateTime, a.endDateTime AS endDateTime " +
+           "FROM Appointment a JOIN a.procedure p JOIN p.resources r " +
+           "WHERE r.id IN :resourceIds AND a.status != 'CANCELLED' " +
+           "AND a.startDateTime < :toDateTime AND a.endDateTime > :fromDateTime")
+    List<AppointmentIntervalView> findResourceBusyIntervals(Collection<Long> resourceIds,
+                                                            LocalDateTime fromDateTime, LocalDateTime toDateTime);
+
+    @EntityGraph(Appointment.DETAILS_GRAPH)
     @Query("SELECT a FROM Appointment a WHERE a.tenantId = :tenantId " +
            "AND a.startDateTime >= :fromDate AND a.startDateTime <= :toDate " +
            "ORDER BY a.startDateTime")
     List<Appointment> findByTenantIdAndDateRange(UUID tenantId, LocalDateTime fromDate, LocalDateTime toDate);
 
+    @EntityGraph(Appointment.DETAILS_GRAPH)
     @Query("SELECT a FROM Appointment a WHERE a.tenantId = :tenantId " +
            "AND a.professional.id = :professionalId ORDER BY a.startDateTime DESC")
     List<Appointment> findByTenantIdAndProfessionalId(UUID tenantId, Long professionalId);
+
+    /**
+     * Cambio de estado masivo por ids dentro del tenant, sin cargar entidades. Los turnos cancelados
+     * no se tocan (reactivarlos saltearía la verificación de solapamiento) ni se cuentan los que ya
+     * tenían el estado destino. Con {@code professionalId} se limita a la agenda de ese profesional.
+     */
+    @Modifying
+    @Query("UPDATE Appointment a SET a.status = :status, a.updatedAt = :updatedAt " +
+           "WHERE a.tenantId = :tenantId AND a.id IN :ids " +
+           "AND (:professionalId IS NULL OR a.professional.id = :professionalId) " +
+           "AND a.status <> 'CANCELLED' AND a.status <> :status")
+    int updateStatusByIds(UUID tenantId, Collection<Long> ids, Long professionalId,
+                          Appointment.AppointmentStatus status, LocalDateTime updatedAt);
+
+    /**
+     * Cambio de estado masivo de los turnos del profesional que empiezan en [fromDateTime, toDateTime).
+     */
+    @Modifying
+    @Query("UPDATE Appointment a SET a.status = :status, a.updatedAt = :updatedAt " +
+           "WHERE a.tenantId = :tenantId AND a.professional.id = :professionalId " +
+           "AND a.startDateTime >= :fromDateTime AND a.startDateTime < :toDateTime " +
+           "AND a.status <> 'CANCELLED' AND a.status <> :status")
+    int updateStatusByProfessionalAndRange(UUID tenantId, Long professionalId,
+                                           LocalDateTime fromDateTime, LocalDateTime toDateTime,
+                                           Appointment.AppointmentStatus status, LocalDateTime updatedAt);
+
+    /**
+     * Ids del siguiente lote de turnos confirmados de los consultorios de una zona que ya terminaron,
+     * para el cierre automático. {@code endedBefore} está expresado en la hora local de esa zona.
+     */
+    @Query("SELECT a.id FROM Appointment a WHERE a.status = 'CONFIRMED' AND a.endDateTime <= :endedBefore " +
+           "AND a.tenantId IN (SELECT t.id FROM Tenant t WHERE COALESCE(t.timezone, '') = :timezone) " +
+           "ORDER BY a.endDateTime, a.id")
+    List<Long> findConfirmedEndedBefore(String timezone, LocalDateTime endedBefore, Limit limit);
+
+    /**
+     * Cierra un lote de turnos que siguen confirmados; los que cambiaron mientras tanto se saltean.
+     */
+    @Modifying
+    @Query("UPDATE Appointment a SET a.status = :status, a.updatedAt = :updatedAt " +
+           "WHERE a.id IN :ids AND a.status = 'CONFIRMED'")
+    int closeConfirmed(Collection<Long> ids, Appointment.AppointmentStatus status, LocalDateTime updatedAt);
 }
@@ -0,0 +1,74 @@
+package com.saas.medical.repository;
+
+import com.saas.medical.model.entity.Appointment;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Filtros combinables para listados de turnos. Cada método devuelve {@code null} cuando el filtro
+ * no aplica, así Spring Data lo omite al combinarlos y la consulta solo lleva las condiciones usadas.
+ */
+public final class AppointmentSpecifications {
+
+    /**
+     * Orden del listado paginado: más recientes primero, con el id como desempate estable.
+     */
+    public static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("startDateTime"), Sort.Order.desc("id"));
+
+    /**
+     * Asociaciones que usa AppointmentResponse, para {@code FetchableFluentQuery#project} en consultas
+     * por Specification (equivalente a {@link Appointment#DETAILS_GRAPH}).
+     */
+    public static final List<String> DETAILS = List.of("professional", "professional.specialty", "patient", "procedure");
+
+    private AppointmentSpecifications() {
+    }
+
+    public static Specification<Appointment> tenant(UUID tenantId) {
+        return (root, query, cb) -> cb.equal(root.get("tenantId"), tenantId);
+    }
+
+    public static Specification<Appointment> professional(Long professionalId) {
+        return professionalId == null ? null
+                : (root, query, cb) -> cb.equal(root.get("professional").get("id"), professionalId);
+    }
+
+    public static Specification<Appointment> procedure(Long procedureId) {
+        return procedureId == null ? null
+                : (root, query, cb) -> cb.equal(root.get("procedure").get("id"), procedureId);
+    }
+
+    public static Specification<Appointment> status(Appointment.AppointmentStatus status) {
+        return status == null ? null
+                : (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Appointment> startsFrom(LocalDateTime from) {
+        return from == null ? null
+                : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("startDateTime"), from);
+    }
+
+    public static Specification<Appointment> startsBefore(LocalDateTime to) {
+        return to == null ? null
+                : (root, query, cb) -> cb.lessThan(root.get("startDateTime"), to);
+    }
+
+    /**
+     * Continúa después de la última fila de la página anterior en el orden {@link #NEWEST_FIRST}:
+     * {@code (start_date_time, id) < (cursorStart, cursorId)}.
+     */
+    public static Specification<Appointment> before(LocalDateTime cursorStart, Long cursorId) {
+        if (cursorStart == null || cursorId == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("startDateTime"), cursorStart),
+                cb.and(
+                        cb.equal(root.get("startDateTime"), cursorStart),
+                        cb.lessThan(root.get("id"), cursorId)));
+    }
+}
@@ -0,0 +1,61 @@
+package com.saas.medical.repository;
+
+import com.saas.medical.model.entity.GroupSession;
+import com.saas.medical.repository.projection.GroupSessionView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface GroupSessionRepository extends JpaRepository<GroupSession, Long> {
+
+    @Query("SELECT s.id AS id, s.procedureId AS procedureId, s.startDateTime AS startDateTime, " +
+           "s.endDateTime AS endDateTime, s.capacity AS capacity, s.booked AS booked " +
+           "FROM GroupSession s WHERE s.professionalId = :professionalId AND s.startDateTime = :startDateTime")
+    Optional<GroupSessionView> findSessionAt(Long professionalId, LocalDateTime startDateTime);
+
+    /**
+     * Sesiones del procedimiento en [fromDateTime, toDateTime) que ya tienen inscriptos y todavía cupos libres,
+     * según la capacidad fijada al abrir cada sesión.
+     */
+    @Query("SELECT s.id AS id, s.procedureId AS procedureId, s.startDateTime AS startDateTime, " +
+           "s.endDateTime AS endDateTime, s.capacity AS capacity, s.booked AS booked " +
+           "FROM GroupSession s WHERE s.professionalId = :professionalId AND s.procedureId = :procedureId " +
+           "AND s.startDateTime >= :fromDateTime AND s.startDateTime < :toDateTime " +
+           "AND s.booked > 0 AND s.booked < s.capacity ORDER BY s.startDateTime")
+    List<GroupSessionView> findOpenSessions(Long professionalId, Long procedureId,
+                                            LocalDateTime fromDateTime, LocalDateTime toDateTime);
+
+    /**
+     * Toma un cupo de una sesión en curso, con la capacidad que se fijó al abrirla: un cambio posterior
+     * de la capacidad del procedimiento solo alcanza a las sesiones nuevas. Devuelve 0 si se llenó o si ya
+     * no le queda ningún inscripto (en ese caso el horario se vuelve a abrir con la verificación completa).
+     */
+    @Modifying
+    @Query("UPDATE GroupSession s SET s.booked = s.booked + 1 WHERE s.id = :id AND s.booked > 0 AND s.booked < s.capacity")
+    int reserveSeat(Long id);
+
+    /**
+     * Vuelve a abrir una sesión sin inscriptos con su primer cupo tomado.
+     */
+    @Modifying
+    @Query("UPDATE GroupSession s SET s.booked = 1, s.procedureId = :procedureId, s.endDateTime = :endDateTime, " +
+           "s.capacity = :capacity WHERE s.id = :id AND s.booked = 0")
+    int reopen(Long id, Long procedureId, LocalDateTime endDateTime, int capacity);
+
+    /**
+     * Recupera el cupo de un turno cancelado que se vuelve a activar, si la sesión no se llenó.
+     */
+    @Modifying
+    @Query("UPDATE GroupSession s SET s.booked = s.booked + 1 WHERE s.id = :id AND s.booked < s.capacity")
+    int reclaimSeat(Long id);
+
+    @Modifying
+    @Query("UPDATE GroupSession s SET s.booked = s.booked - 1 WHERE s.id = :id AND s.booked > 0")
+    int releaseSeat(Long id);
+}
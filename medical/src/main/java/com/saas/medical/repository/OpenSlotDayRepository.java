@@ -0,0 +1,93 @@
+package com.saas.medical.repository;
+
+import com.saas.medical.model.entity.OpenSlotDay;
+import com.saas.medical.repository.projection.OpenSlotHorizonView;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface OpenSlotDayRepository extends JpaRepository<OpenSlotDay, OpenSlotDay.Key> {
+
+    /**
+     * Siguiente lote de días a recalcular, los que esperan hace más tiempo primero.
+     */
+    @Query("SELECT d FROM OpenSlotDay d WHERE d.dirtySince IS NOT NULL ORDER BY d.dirtySince")
+    List<OpenSlotDay> findDirty(Limit limit);
+
+    /**
+     * Marca los días del profesional en [from, to] como pendientes. Se ejecuta en la transacción que
+     * cambia la agenda, así que la marca se confirma junto con el cambio.
+     */
+    @Modifying
+    @Query("UPDATE OpenSlotDay d SET d.revision = d.revision + 1, d.dirtySince = COALESCE(d.dirtySince, :now) " +
+           "WHERE d.professionalId = :professionalId AND d.slotDate >= :from AND d.slotDate <= :to")
+    int markDirty(Long professionalId, LocalDate from, LocalDate to, LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE OpenSlotDay d SET d.revision = d.revision + 1, d.dirtySince = COALESCE(d.dirtySince, :now) " +
+           "WHERE d.professionalId = :professionalId AND d.slotDate IN :dates")
+    int markDirty(Long professionalId, Collection<LocalDate> dates, LocalDateTime now);
+
+    /**
+     * Marca los días [from, to] de todos los profesionales del consultorio, por ejemplo ante un cierre.
+     */
+    @Modifying
+    @Query("UPDATE OpenSlotDay d SET d.revision = d.revision + 1, d.dirtySince = COALESCE(d.dirtySince, :now) " +
+           "WHERE d.tenantId = :tenantId AND d.slotDate >= :from AND d.slotDate <= :to")
+    int markTenantDirty(UUID tenantId, LocalDate from, LocalDate to, LocalDateTime now);
+
+    /**
+     * Días recalculados antes de {@code refreshedBefore}: se vuelven a verificar para recoger cambios que no
+     * pasan por la aplicación (bloqueos cargados en la base, zona horaria del consultorio).
+     */
+    @Modifying
+    @Query("UPDATE OpenSlotDay d SET d.revision = d.revision + 1, d.dirtySince = :now " +
+           "WHERE d.dirtySince IS NULL AND d.refreshedAt < :refreshedBefore")
+    int markRefreshedBefore(LocalDateTime refreshedBefore, LocalDateTime now);
+
+    /**
+     * Deja el día al día solo si nadie lo modificó desde que se leyó {@code revision}.
+     */
+    @Modifying
+    @Query("UPDATE OpenSlotDay d SET d.dirtySince = NULL, d.refreshedAt = :now " +
+           "WHERE d.professionalId = :professionalId AND d.slotDate = :date AND d.revision = :revision")
+    int markRefreshed(Long professionalId, LocalDate date, Long revision, LocalDateTime now);
+
+    /**
+     * Cantidad de días de [from, to] materializados y pendientes desde después de {@code dirtyAfter}, como mucho.
+     */
+    @Query("SELECT COUNT(d) FROM OpenSlotDay d WHERE d.professionalId = :professionalId " +
+           "AND d.slotDate >= :from AND d.slotDate <= :to AND d.refreshedAt IS NOT NULL " +
+           "AND (d.dirtySince IS NULL OR d.dirtySince > :dirtyAfter)")
+    long countServable(Long professionalId, LocalDate from, LocalDate to, LocalDateTime dirtyAfter);
+
+    /**
+     * Profesionales que tienen servibles los {@code days} días de [from, to].
+     */
+    @Query("SELECT d.professionalId FROM OpenSlotDay d WHERE d.professionalId IN :professionalIds " +
+           "AND d.slotDate >= :from AND d.slotDate <= :to AND d.refreshedAt IS NOT NULL " +
+           "AND (d.dirtySince IS NULL OR d.dirtySince > :dirtyAfter) " +
+           "GROUP BY d.professionalId HAVING COUNT(d) = :days")
+    List<Long> findServableProfessionals(Collection<Long> professionalIds, LocalDate from, LocalDate to,
+                                         LocalDateTime dirtyAfter, long days);
+
+    @Query("SELECT d.professionalId AS professionalId, MAX(d.slotDate) AS lastDate " +
+           "FROM OpenSlotDay d GROUP BY d.professionalId")
+    List<OpenSlotHorizonView> findLastDates();
+
+    @Query("SELECT MIN(d.dirtySince) FROM OpenSlotDay d")
+    LocalDateTime findOldestDirtySince();
+
+    @Modifying
+    @Query("DELETE FROM OpenSlotDay d WHERE d.slotDate < :date")
+    int deleteBefore(LocalDate date);
+}
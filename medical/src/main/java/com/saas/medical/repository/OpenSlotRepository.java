@@ -0,0 +1,42 @@
+package com.saas.medical.repository;
+
+import com.saas.medical.model.entity.OpenSlot;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface OpenSlotRepository extends JpaRepository<OpenSlot, OpenSlot.Key> {
+
+    /**
+     * Turnos libres materializados del profesional que empiezan en [from, to), en orden.
+     */
+    @Query("SELECT s FROM OpenSlot s WHERE s.professionalId = :professionalId " +
+           "AND s.startDateTime >= :from AND s.startDateTime < :to ORDER BY s.startDateTime")
+    List<OpenSlot> findInRange(Long professionalId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Primeros turnos libres del consultorio entre los profesionales indicados, por inicio y profesional.
+     */
+    @Query("SELECT s FROM OpenSlot s WHERE s.tenantId = :tenantId AND s.professionalId IN :professionalIds " +
+           "AND s.startDateTime >= :from AND s.startDateTime < :to " +
+           "ORDER BY s.startDateTime, s.professionalId")
+    List<OpenSlot> findFirstOpen(UUID tenantId, Collection<Long> professionalIds,
+                                 LocalDateTime from, LocalDateTime to, Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM OpenSlot s WHERE s.professionalId = :professionalId AND s.slotDate IN :dates")
+    int deleteDays(Long professionalId, Collection<LocalDate> dates);
+
+    @Modifying
+    @Query("DELETE FROM OpenSlot s WHERE s.slotDate < :date")
+    int deleteBefore(LocalDate date);
+}
@@ -0,0 +1,47 @@
+package com.saas.medical.repository;
+
+import com.saas.medical.model.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Eventos pendientes cuyo próximo intento ya venció, bloqueados con {@code FOR UPDATE SKIP LOCKED}
+     * (timeout -2 de Hibernate): varios despachadores pueden reclamar lotes en paralelo sin esperarse
+     * ni tomar la misma fila.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.status = 'PENDING' AND e.nextAttemptAt <= :now ORDER BY e.id")
+    List<OutboxEvent> findDueForUpdate(LocalDateTime now, Limit limit);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = 'SENT', e.sentAt = :sentAt, e.lastError = null WHERE e.id = :id")
+    int markSent(Long id, LocalDateTime sentAt);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = 'SENT', e.sentAt = :sentAt, e.lastError = null WHERE e.id IN :ids")
+    int markAllSent(Collection<Long> ids, LocalDateTime sentAt);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = :status, e.nextAttemptAt = :nextAttemptAt, e.lastError = :error " +
+           "WHERE e.id = :id")
+    int markFailedAttempt(Long id, OutboxEvent.Status status, LocalDateTime nextAttemptAt, String error);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = 'SENT' AND e.sentAt < :before")
+    int deleteSentBefore(LocalDateTime before);
+}
@@ -23,6 +23,9 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
     @Query("SELECT p FROM Patient p WHERE p.tenant.id = :tenantId AND p.id = :id AND p.active = true")
     Optional<Patient> findByTenantIdAndId(UUID tenantId, Long id);
 
+    @Query("SELECT COUNT(p) > 0 FROM Patient p WHERE p.tenant.id = :tenantId AND p.id = :id AND p.active = true")
+    boolean existsByTenantIdAndId(UUID tenantId, Long id);
+
     @Query("SELECT p FROM Patient p JOIN FETCH p.tenant WHERE p.id = :id AND p.active = true")
     Optional<Patient> findByIdWithTenant(Long id);
 
@@ -1,6 +1,7 @@
 package com.saas.medical.repository;
 
 import com.saas.medical.model.entity.Procedure;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -12,14 +13,17 @@ import java.util.UUID;
 @Repository
 public interface ProcedureRepository extends JpaRepository<Procedure, Long> {
 
+    @EntityGraph(attributePaths = "resources")
     @Query("SELECT p FROM Procedure p WHERE p.tenantId = :tenantId AND p.active = true ORDER BY p.name")
     List<Procedure> findByTenantIdAndActiveTrue(UUID tenantId);
 
+    @EntityGraph(attributePaths = "resources")
     @Query("SELECT p FROM Procedure p WHERE p.tenantId = :tenantId ORDER BY p.name")
     List<Procedure> findByTenantId(UUID tenantId);
 
     Optional<Procedure> findByIdAndTenantId(Long id, UUID tenantId);
 
+    @EntityGraph(attributePaths = "resources")
     @Query("SELECT p FROM Procedure p LEFT JOIN FETCH p.specialty WHERE p.tenantId = :tenantId AND p.specialty.id = :specialtyId AND p.active = true ORDER BY p.name")
     List<Procedure> findByTenantIdAndSpecialtyIdAndActiveTrue(UUID tenantId, Long specialtyId);
 
@@ -10,6 +10,7 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +19,10 @@ public interface ProfessionalAvailabilityRepository extends JpaRepository<Profes
 
     List<ProfessionalAvailability> findByProfessionalIdAndActiveTrue(Long professionalId);
 
+    List<ProfessionalAvailability> findByProfessionalId(Long professionalId);
+
+    List<ProfessionalAvailability> findByProfessionalIdInAndActiveTrue(Collection<Long> professionalIds);
+
     @Query("SELECT pa FROM ProfessionalAvailability pa WHERE pa.professional.id = :professionalId " +
            "AND pa.dayOfWeek = :dayOfWeek AND pa.active = true AND pa.specificDate IS NULL")
     List<ProfessionalAvailability> findByProfessionalIdAndDayOfWeekAndActive(
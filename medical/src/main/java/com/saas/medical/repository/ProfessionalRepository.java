@@ -14,6 +14,8 @@ public interface ProfessionalRepository extends JpaRepository<Professional, Long
 
     List<Professional> findByTenantIdAndActive(UUID tenantId, Boolean active);
 
+    List<Professional> findByActiveTrue();
+
     @Query("SELECT DISTINCT p FROM Professional p " +
            "JOIN FETCH p.specialty " +
            "LEFT JOIN FETCH p.acceptedInsurances " +
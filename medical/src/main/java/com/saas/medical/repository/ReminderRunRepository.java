@@ -0,0 +1,30 @@
+package com.saas.medical.repository;
+
+import com.saas.medical.model.entity.ReminderRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ReminderRunRepository extends JpaRepository<ReminderRun, LocalDateTime> {
+
+    /**
+     * Toma una ventana que otro nodo reclamó pero no terminó antes de {@code staleBefore} (por ejemplo, si se cayó).
+     */
+    @Modifying
+    @Query("UPDATE ReminderRun r SET r.claimedBy = :claimedBy, r.claimedAt = :claimedAt " +
+           "WHERE r.windowStart = :windowStart AND r.completedAt IS NULL AND r.claimedAt < :staleBefore")
+    int takeOverStale(LocalDateTime windowStart, String claimedBy, LocalDateTime claimedAt, LocalDateTime staleBefore);
+
+    @Modifying
+    @Query("UPDATE ReminderRun r SET r.completedAt = :completedAt, r.remindersQueued = :remindersQueued " +
+           "WHERE r.windowStart = :windowStart AND r.claimedBy = :claimedBy")
+    int complete(LocalDateTime windowStart, String claimedBy, LocalDateTime completedAt, int remindersQueued);
+
+    @Modifying
+    @Query("DELETE FROM ReminderRun r WHERE r.windowStart < :before")
+    int deleteByWindowStartBefore(LocalDateTime before);
+}
@@ -0,0 +1,27 @@
+package com.saas.medical.repository;
+
+import com.saas.medical.model.entity.Resource;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ResourceRepository extends JpaRepository<Resource, Long> {
+
+    @Query("SELECT r FROM Resource r WHERE r.tenantId = :tenantId AND r.active = true ORDER BY r.name")
+    List<Resource> findByTenantIdAndActiveTrue(UUID tenantId);
+
+    Optional<Resource> findByIdAndTenantId(Long id, UUID tenantId);
+
+    @Query("SELECT r FROM Resource r WHERE r.tenantId = :tenantId AND r.id IN :ids AND r.active = true")
+    List<Resource> findActiveByTenantIdAndIdIn(UUID tenantId, Collection<Long> ids);
+
+    @Query("SELECT CASE WHEN COUNT(r) > 0 THEN true ELSE false END FROM Resource r " +
+           "WHERE r.tenantId = :tenantId AND r.name = :name AND r.active = true")
+    boolean existsByTenantIdAndName(UUID tenantId, String name);
+}
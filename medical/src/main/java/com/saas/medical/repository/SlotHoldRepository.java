@@ -0,0 +1,38 @@
+package com.saas.medical.repository;
+
+import com.saas.medical.model.entity.SlotHold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SlotHoldRepository extends JpaRepository<SlotHold, String> {
+
+    /**
+     * Reservas temporales del profesional que se solapan con [from, to), vigentes o no: el vencimiento
+     * se compara con el reloj del consultorio, que conoce el servicio.
+     */
+    @Query("SELECT h FROM SlotHold h WHERE h.professionalId = :professionalId " +
+           "AND h.startDateTime < :to AND h.endDateTime > :from")
+    List<SlotHold> findOverlapping(Long professionalId, LocalDateTime from, LocalDateTime to);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM SlotHold h WHERE h.token = :token")
+    int deleteByToken(String token);
+
+    /**
+     * Borra las reservas vencidas de los consultorios de una zona. {@code now} está expresado en la hora
+     * local de esa zona.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM SlotHold h WHERE h.expiresAt <= :now " +
+           "AND h.tenantId IN (SELECT t.id FROM Tenant t WHERE COALESCE(t.timezone, '') = :timezone)")
+    int deleteExpired(String timezone, LocalDateTime now);
+}
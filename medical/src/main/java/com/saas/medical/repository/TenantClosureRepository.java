@@ -0,0 +1,31 @@
+package com.saas.medical.repository;
+
+import com.saas.medical.model.entity.TenantClosure;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface TenantClosureRepository extends JpaRepository<TenantClosure, Long> {
+
+    /**
+     * Cierres del consultorio que terminan después de {@code after}, en orden.
+     */
+    @Query("SELECT c FROM TenantClosure c WHERE c.tenantId = :tenantId AND c.endDateTime > :after " +
+           "ORDER BY c.startDateTime")
+    List<TenantClosure> findEndingAfter(UUID tenantId, LocalDateTime after);
+
+    /**
+     * Cierres del consultorio que se solapan con [from, to).
+     */
+    @Query("SELECT c FROM TenantClosure c WHERE c.tenantId = :tenantId " +
+           "AND c.startDateTime < :to AND c.endDateTime > :from")
+    List<TenantClosure> findOverlapping(UUID tenantId, LocalDateTime from, LocalDateTime to);
+
+    Optional<TenantClosure> findByIdAndTenantId(Long id, UUID tenantId);
+}
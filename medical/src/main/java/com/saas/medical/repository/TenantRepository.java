@@ -2,8 +2,10 @@ package com.saas.medical.repository;
 
 import com.saas.medical.model.entity.Tenant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -17,4 +19,10 @@ public interface TenantRepository extends JpaRepository<Tenant, UUID> {
     boolean existsBySlug(String slug);
 
     boolean existsByEmail(String email);
+
+    /**
+     * Zonas horarias en uso por los consultorios; la de los que no tienen zona se informa vacía.
+     */
+    @Query("SELECT DISTINCT COALESCE(t.timezone, '') FROM Tenant t")
+    List<String> findDistinctTimezones();
 }
@@ -0,0 +1,41 @@
+package com.saas.medical.repository;
+
+import com.saas.medical.model.entity.WaitlistEntry;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    @EntityGraph(WaitlistEntry.DETAILS_GRAPH)
+    Optional<WaitlistEntry> findDetailedById(Long id);
+
+    @EntityGraph(WaitlistEntry.DETAILS_GRAPH)
+    List<WaitlistEntry> findByTenantIdAndStatusOrderByIdAsc(UUID tenantId, WaitlistEntry.Status status);
+
+    Optional<WaitlistEntry> findByIdAndTenantId(Long id, UUID tenantId);
+
+    /**
+     * Entradas que siguen esperando y cuyo rango no terminó, para construir el índice en memoria.
+     */
+    @Query("SELECT e FROM WaitlistEntry e WHERE e.status = 'WAITING' AND e.toDate >= :today")
+    List<WaitlistEntry> findWaitingFrom(LocalDate today);
+
+    /**
+     * Pasa la entrada a OFFERED solo si seguía esperando: si dos cancelaciones (o dos nodos) eligen
+     * la misma entrada, solo una la obtiene.
+     */
+    @Modifying
+    @Query("UPDATE WaitlistEntry e SET e.status = 'OFFERED', e.offeredStartDateTime = :slotStart, e.offeredAt = :offeredAt " +
+           "WHERE e.id = :id AND e.status = 'WAITING'")
+    int markOffered(Long id, LocalDateTime slotStart, LocalDateTime offeredAt);
+}
@@ -0,0 +1,16 @@
+package com.saas.medical.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Proyección liviana de un turno: solo el rango horario que ocupa.
+ * Evita hidratar la entidad completa cuando únicamente interesa saber qué horarios están tomados.
+ */
+public interface AppointmentIntervalView {
+
+    Long getId();
+
+    LocalDateTime getStartDateTime();
+
+    LocalDateTime getEndDateTime();
+}
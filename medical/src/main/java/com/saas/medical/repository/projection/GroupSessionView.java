@@ -0,0 +1,22 @@
+package com.saas.medical.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Estado de una sesión grupal leído directamente de la base, sin pasar por el contexto de
+ * persistencia: después de un UPDATE del contador la lectura siguiente ve el valor actual.
+ */
+public interface GroupSessionView {
+
+    Long getId();
+
+    Long getProcedureId();
+
+    LocalDateTime getStartDateTime();
+
+    LocalDateTime getEndDateTime();
+
+    Integer getCapacity();
+
+    Integer getBooked();
+}
@@ -0,0 +1,13 @@
+package com.saas.medical.repository.projection;
+
+import java.time.LocalDate;
+
+/**
+ * Último día materializado de un profesional, para extender el horizonte de {@code open_slots}.
+ */
+public interface OpenSlotHorizonView {
+
+    Long getProfessionalId();
+
+    LocalDate getLastDate();
+}
@@ -0,0 +1,30 @@
+package com.saas.medical.repository.projection;
+
+import com.saas.medical.model.entity.Appointment;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fila del historial de turnos de un paciente: columnas escalares del turno más el nombre del
+ * profesional y del procedimiento, sin hidratar entidades ni el grafo de especialidad.
+ */
+public interface PatientAppointmentView {
+
+    Long getId();
+
+    LocalDateTime getStartDateTime();
+
+    LocalDateTime getEndDateTime();
+
+    Integer getDurationMinutes();
+
+    Appointment.AppointmentStatus getStatus();
+
+    Long getProfessionalId();
+
+    String getProfessionalFirstName();
+
+    String getProfessionalLastName();
+
+    String getProcedureName();
+}
@@ -0,0 +1,92 @@
+package com.saas.medical.service;
+
+import com.saas.medical.model.entity.Appointment;
+import com.saas.medical.repository.AppointmentRepository;
+import com.saas.medical.repository.TenantRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Cierre automático de turnos confirmados que ya terminaron.
+ *
+ * <p>Los horarios de los turnos están en la hora local de cada consultorio, así que el corte se calcula
+ * por zona horaria (como en {@link ReminderService}) y cada zona se recorre con su propia consulta.
+ * Cada lote, en su propia transacción corta, lee solo los ids de hasta
+ * {@code app.appointments.auto-complete.batch-size} turnos y los pasa al estado configurado
+ * ({@code COMPLETED} o {@code NO_SHOW}) con un UPDATE que exige que sigan confirmados; así dos
+ * nodos que corren a la vez no se pisan y ningún lote retiene locks por mucho tiempo. El cambio
+ * no altera la ocupación de la agenda, por eso no se publican eventos por turno.</p>
+ */
+@Service
+@Slf4j
+public class AppointmentCompletionService {
+
+    private final AppointmentRepository appointmentRepository;
+    private final TenantRepository tenantRepository;
+    private final TenantTimeZones tenantTimeZones;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.appointments.auto-complete.target-status:COMPLETED}")
+    private Appointment.AppointmentStatus targetStatus;
+
+    @Value("${app.appointments.auto-complete.grace-minutes:60}")
+    private long graceMinutes;
+
+    @Value("${app.appointments.auto-complete.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.appointments.auto-complete.max-batches-per-run:100}")
+    private int maxBatchesPerRun;
+
+    public AppointmentCompletionService(AppointmentRepository appointmentRepository,
+                                        TenantRepository tenantRepository,
+                                        TenantTimeZones tenantTimeZones,
+                                        PlatformTransactionManager transactionManager) {
+        this.appointmentRepository = appointmentRepository;
+        this.tenantRepository = tenantRepository;
+        this.tenantTimeZones = tenantTimeZones;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Cierra los turnos confirmados que terminaron hace más de {@code grace-minutes} en la hora local
+     * de su consultorio. {@code now} es la hora del servidor. Devuelve la cantidad de turnos actualizados.
+     */
+    public int closeEndedAppointments(LocalDateTime now) {
+        if (targetStatus != Appointment.AppointmentStatus.COMPLETED && targetStatus != Appointment.AppointmentStatus.NO_SHOW) {
+            throw new IllegalStateException("Estado de cierre automático inválido: " + targetStatus);
+        }
+
+        Instant nowInstant = tenantTimeZones.of(ZoneId.systemDefault().getId()).toInstant(now);
+        int total = 0;
+        int batches = 0;
+        for (String timezone : tenantRepository.findDistinctTimezones()) {
+            LocalDateTime endedBefore = tenantTimeZones.of(timezone).toLocal(nowInstant).minusMinutes(graceMinutes);
+            while (batches < maxBatchesPerRun) {
+                batches++;
+                Integer updated = transactionTemplate.execute(status -> {
+                    List<Long> ids = appointmentRepository.findConfirmedEndedBefore(timezone, endedBefore, Limit.of(batchSize));
+                    return ids.isEmpty() ? -1 : appointmentRepository.closeConfirmed(ids, targetStatus, LocalDateTime.now());
+                });
+                if (updated == null || updated < 0) {
+                    break;
+                }
+                total += updated;
+            }
+        }
+
+        if (total > 0) {
+            log.info("Cierre automático: {} turnos pasados a {}", total, targetStatus);
+        }
+        return total;
+    }
+}
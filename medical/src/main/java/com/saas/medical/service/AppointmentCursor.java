@@ -0,0 +1,39 @@
+package com.saas.medical.service;
+
+import com.saas.medical.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posición opaca dentro del listado paginado de turnos: inicio e id de la última fila entregada.
+ * Se serializa en Base64 URL-safe para que el cliente la devuelva sin interpretarla.
+ */
+record AppointmentCursor(LocalDateTime startDateTime, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    String encode() {
+        String raw = startDateTime + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor recibido del cliente, o devuelve {@code null} si no se envió ninguno.
+     */
+    static AppointmentCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new AppointmentCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | StringIndexOutOfBoundsException e) {
+            throw new BusinessException("Cursor de paginación inválido");
+        }
+    }
+}
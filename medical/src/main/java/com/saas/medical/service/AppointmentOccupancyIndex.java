@@ -0,0 +1,297 @@
+package com.saas.medical.service;
+
+import com.saas.medical.event.AppointmentChangedEvent;
+import com.saas.medical.repository.AppointmentRepository;
+import com.saas.medical.repository.projection.AppointmentIntervalView;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Índice en memoria de la ocupación de cada profesional por día.
+ *
+ * <p>Cada día se carga de forma perezosa con una sola consulta (o una por rango de días faltantes)
+ * y luego se mantiene con los {@link AppointmentChangedEvent} que publica {@link AppointmentService}
+ * después de cada commit. La base sigue siendo la fuente de verdad: las entradas expiran tras
+ * {@code app.occupancy-index.ttl-seconds} para acotar la desactualización frente a escrituras de
+ * otros nodos, y con {@code app.occupancy-index.cross-check=true} cada consulta se verifica contra
+ * PostgreSQL, registrando e invalidando cualquier diferencia.</p>
+ */
+@Component
+@Slf4j
+public class AppointmentOccupancyIndex {
+
+    private final AppointmentRepository appointmentRepository;
+
+    @Value("${app.occupancy-index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.occupancy-index.cross-check:false}")
+    private boolean crossCheck;
+
+    @Value("${app.occupancy-index.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${app.occupancy-index.max-days:20000}")
+    private int maxDays;
+
+    private final Map<DayKey, DayOccupancy> days = new ConcurrentHashMap<>();
+
+    /**
+     * Contador de cambios por profesional. Una carga desde la base solo se instala si ningún
+     * evento llegó mientras se ejecutaba la consulta; así una lectura concurrente nunca pisa
+     * un cambio ya aplicado.
+     */
+    private final Map<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public AppointmentOccupancyIndex(AppointmentRepository appointmentRepository) {
+        this.appointmentRepository = appointmentRepository;
+    }
+
+    /**
+     * Indica si el profesional tiene algún turno no cancelado que se solape con [start, end).
+     */
+    public boolean hasOverlap(Long professionalId, LocalDateTime start, LocalDateTime end) {
+        if (!enabled) {
+            return appointmentRepository.existsOverlappingAppointment(professionalId, start, end);
+        }
+
+        boolean indexed = busyBetween(professionalId, start, end).overlaps(start, end);
+        if (crossCheck) {
+            boolean stored = appointmentRepository.existsOverlappingAppointment(professionalId, start, end);
+            if (stored != indexed) {
+                log.warn("Índice de ocupación desincronizado - profesional {}, {} a {}: índice={}, base={}",
+                        professionalId, start, end, indexed, stored);
+                invalidate(professionalId, start.toLocalDate(), end.toLocalDate());
+            }
+            return stored;
+        }
+        return indexed;
+    }
+
+    /**
+     * Horarios ocupados del profesional que tocan [from, to), fusionados en un único conjunto.
+     * Los días que no están en memoria (o expiraron) se cargan juntos con una sola consulta.
+     */
+    public IntervalSet busyBetween(Long professionalId, LocalDateTime from, LocalDateTime to) {
+        if (!enabled) {
+            return toIntervalSet(appointmentRepository.findBusyIntervals(professionalId, from, to));
+        }
+
+        LocalDate firstDay = from.toLocalDate();
+        LocalDate lastDay = lastDayOf(to);
+        long now = System.currentTimeMillis();
+
+        Map<LocalDate, DayOccupancy> snapshot = new HashMap<>();
+        LocalDate firstMissing = null;
+        LocalDate lastMissing = null;
+        for (LocalDate date = firstDay; !date.isAfter(lastDay); date = date.plusDays(1)) {
+            DayOccupancy day = days.get(new DayKey(professionalId, date));
+            if (day != null && !day.isExpired(now, ttlSeconds)) {
+                snapshot.put(date, day);
+            } else {
+                if (firstMissing == null) {
+                    firstMissing = date;
+                }
+                lastMissing = date;
+            }
+        }
+
+        if (firstMissing != null) {
+            snapshot.putAll(load(professionalId, firstMissing, lastMissing));
+        }
+
+        IntervalSet.Builder builder = IntervalSet.builder();
+        snapshot.values().forEach(day -> builder.addAll(day.busy()));
+        IntervalSet indexed = builder.build();
+
+        if (crossCheck) {
+            IntervalSet stored = toIntervalSet(appointmentRepository.findBusyIntervals(
+                    professionalId, firstDay.atStartOfDay(), lastDay.plusDays(1).atStartOfDay()));
+            if (!stored.equals(indexed)) {
+                log.warn("Índice de ocupación desincronizado - profesional {}, {} a {}: índice={}, base={}",
+                        professionalId, firstDay, lastDay, indexed, stored);
+                invalidate(professionalId, firstDay, lastDay);
+            }
+            return stored;
+        }
+        return indexed;
+    }
+
+    /**
+     * Aplica la creación, cancelación o cambio de estado de un turno a los días ya cargados.
+     * Los días que no están en memoria se leerán actualizados de la base cuando se necesiten.
+     * Corre antes que el resto de las sincronizaciones de fin de transacción para que el índice
+     * ya esté actualizado cuando {@link BookingLockService} libera la agenda del profesional.
+     */
+    @TransactionalEventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        generation(event.getProfessionalId()).incrementAndGet();
+
+        long start = IntervalSet.toMinutes(event.getStartDateTime());
+        long end = IntervalSet.toMinutes(event.getEndDateTime());
+        LocalDate lastDay = lastDayOf(event.getEndDateTime());
+        for (LocalDate date = event.getStartDateTime().toLocalDate(); !date.isAfter(lastDay); date = date.plusDays(1)) {
+            days.computeIfPresent(new DayKey(event.getProfessionalId(), date), (key, day) ->
+                    event.occupiesSlot()
+                            ? day.with(event.getAppointmentId(), start, end)
+                            : day.without(event.getAppointmentId()));
+        }
+    }
+
+    public void invalidate(Long professionalId, LocalDate from, LocalDate to) {
+        generation(professionalId).incrementAndGet();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            days.remove(new DayKey(professionalId, date));
+        }
+    }
+
+    public void invalidateProfessional(Long professionalId) {
+        generation(professionalId).incrementAndGet();
+        days.keySet().removeIf(key -> key.professionalId().equals(professionalId));
+    }
+
+    /**
+     * Descarta días pasados y entradas vencidas para que el índice no crezca indefinidamente.
+     */
+    @Scheduled(fixedDelayString = "${app.occupancy-index.purge-interval-ms:300000}")
+    public void purge() {
+        LocalDate today = LocalDate.now();
+        long now = System.currentTimeMillis();
+        int before = days.size();
+        days.entrySet().removeIf(entry -> entry.getKey().date().isBefore(today)
+                || entry.getValue().isExpired(now, ttlSeconds));
+        if (before != days.size()) {
+            log.debug("Índice de ocupación purgado: {} -> {} días en memoria", before, days.size());
+        }
+    }
+
+    /**
+     * Cantidad de días cargados, útil para diagnósticos.
+     */
+    public int size() {
+        return days.size();
+    }
+
+    private Map<LocalDate, DayOccupancy> load(Long professionalId, LocalDate firstDay, LocalDate lastDay) {
+        long generationBefore = generation(professionalId).get();
+        List<AppointmentIntervalView> intervals = appointmentRepository.findBusyIntervals(
+                professionalId, firstDay.atStartOfDay(), lastDay.plusDays(1).atStartOfDay());
+
+        Map<LocalDate, Map<Long, long[]>> byDay = new HashMap<>();
+        for (LocalDate date = firstDay; !date.isAfter(lastDay); date = date.plusDays(1)) {
+            byDay.put(date, new HashMap<>());
+        }
+        for (AppointmentIntervalView interval : intervals) {
+            long[] range = {IntervalSet.toMinutes(interval.getStartDateTime()), IntervalSet.toMinutes(interval.getEndDateTime())};
+            LocalDate last = lastDayOf(interval.getEndDateTime());
+            for (LocalDate date = interval.getStartDateTime().toLocalDate(); !date.isAfter(last); date = date.plusDays(1)) {
+                Map<Long, long[]> day = byDay.get(date);
+                if (day != null) {
+                    day.put(interval.getId(), range);
+                }
+            }
+        }
+
+        long loadedAt = System.currentTimeMillis();
+        Map<LocalDate, DayOccupancy> loaded = new HashMap<>();
+        byDay.forEach((date, appointments) -> loaded.put(date, DayOccupancy.of(appointments, loadedAt)));
+
+        if (days.size() + loaded.size() > maxDays) {
+            purge();
+            if (days.size() + loaded.size() > maxDays) {
+                log.warn("Índice de ocupación lleno ({} días), se vacía", days.size());
+                days.clear();
+            }
+        }
+
+        loaded.forEach((date, day) -> days.put(new DayKey(professionalId, date), day));
+        if (generation(professionalId).get() != generationBefore) {
+            // Llegó un cambio durante la consulta: no se puede saber si la lectura lo incluye
+            loaded.keySet().forEach(date -> days.remove(new DayKey(professionalId, date)));
+        }
+        return loaded;
+    }
+
+    private AtomicLong generation(Long professionalId) {
+        return generations.computeIfAbsent(professionalId, id -> new AtomicLong());
+    }
+
+    private static IntervalSet toIntervalSet(List<AppointmentIntervalView> intervals) {
+        IntervalSet.Builder builder = IntervalSet.builder();
+        intervals.forEach(interval -> builder.add(interval.getStartDateTime(), interval.getEndDateTime()));
+        return builder.build();
+    }
+
+    /**
+     * Último día que toca un rango que termina (exclusivo) en {@code end}.
+     */
+    private static LocalDate lastDayOf(LocalDateTime end) {
+        return end.minusNanos(1).toLocalDate();
+    }
+
+    private record DayKey(Long professionalId, LocalDate date) {
+    }
+
+    /**
+     * Ocupación inmutable de un día: turnos por id y su conjunto de intervalos ya fusionado.
+     */
+    private static final class DayOccupancy {
+
+        private final Map<Long, long[]> appointments;
+        private final IntervalSet busy;
+        private final long loadedAt;
+
+        private DayOccupancy(Map<Long, long[]> appointments, IntervalSet busy, long loadedAt) {
+            this.appointments = appointments;
+            this.busy = busy;
+            this.loadedAt = loadedAt;
+        }
+
+        static DayOccupancy of(Map<Long, long[]> appointments, long loadedAt) {
+            IntervalSet.Builder builder = IntervalSet.builder();
+            appointments.values().forEach(range -> builder.add(range[0], range[1]));
+            return new DayOccupancy(Collections.unmodifiableMap(appointments), builder.build(), loadedAt);
+        }
+
+        DayOccupancy with(Long appointmentId, long start, long end) {
+            Map<Long, long[]> updated = new HashMap<>(appointments);
+            updated.put(appointmentId, new long[]{start, end});
+            return of(updated, loadedAt);
+        }
+
+        DayOccupancy without(Long appointmentId) {
+            if (!appointments.containsKey(appointmentId)) {
+                return this;
+            }
+            Map<Long, long[]> updated = new HashMap<>(appointments);
+            updated.remove(appointmentId);
+            return of(updated, loadedAt);
+        }
+
+        IntervalSet busy() {
+            return busy;
+        }
+
+        boolean isExpired(long now, long ttlSeconds) {
+            return now - loadedAt > ttlSeconds * 1000;
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.saas.medical.service;
+
+import com.saas.medical.exception.BusinessException;
+import com.saas.medical.exception.ResourceNotFoundException;
+import com.saas.medical.model.dto.appointment.AppointmentAccessCodeResponse;
+import com.saas.medical.model.dto.appointment.AppointmentAccessRequest;
+import com.saas.medical.model.dto.appointment.SelfServiceAppointmentResponse;
+import com.saas.medical.model.entity.Appointment;
+import com.saas.medical.model.entity.AppointmentAccessCode;
+import com.saas.medical.model.entity.Patient;
+import com.saas.medical.model.entity.Tenant;
+import com.saas.medical.repository.AppointmentAccessCodeRepository;
+import com.saas.medical.repository.AppointmentRepository;
+import com.saas.medical.repository.PatientRepository;
+import com.saas.medical.repository.TenantRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.mail.MailException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Consulta y cancelación de turnos por el propio paciente desde la página pública del consultorio.
+ *
+ * <p>El paciente pide un código con su DNI y lo recibe en el email registrado; con DNI y código ve
+ * sus próximos turnos y puede cancelarlos. La respuesta al pedido de código es siempre la misma, así
+ * que no revela si el DNI existe. Cada código vence en {@code app.self-service.code-ttl-minutes},
+ * admite {@code max-code-attempts} verificaciones y se consume al cancelar un turno.</p>
+ *
+ * <p>Para que los endpoints no sirvan para recorrer la tabla de turnos, cada pedido pasa por un
+ * límite por dirección de origen y otro por DNI, los códigos emitidos por paciente se cuentan en la
+ * base, y la consulta lee a lo sumo {@link #MAX_RESULTS} turnos por el índice
+ * (patient_id, start_date_time, id). El límite por origen usa la dirección que resuelve el servidor
+ * ({@code server.forward-headers-strategy=native}: X-Forwarded-For solo se acepta de proxies internos);
+ * es un freno de mejor esfuerzo, el que protege a cada paciente es el límite por DNI.</p>
+ *
+ * <p>El email con el código sale después del commit y fuera del hilo del pedido: una falla de SMTP
+ * queda en el log, y ni la respuesta ni su demora dependen de que el DNI exista.</p>
+ */
+@Service
+@Slf4j
+public class AppointmentSelfService {
+
+    static final int MAX_RESULTS = 20;
+
+    static final String CODE_SENT_MESSAGE = "Si el DNI tiene turnos próximos, enviamos un código al email registrado";
+
+    static final String INVALID_CODE_MESSAGE = "Código inválido o vencido";
+
+    static final String TOO_MANY_REQUESTS_MESSAGE = "Demasiados intentos, espere unos minutos e intente nuevamente";
+
+    private final TenantRepository tenantRepository;
+    private final PatientRepository patientRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentAccessCodeRepository accessCodeRepository;
+    private final AppointmentService appointmentService;
+    private final EmailService emailService;
+    private final TenantTimeZones tenantTimeZones;
+    private final TransactionTemplate transactionTemplate;
+    private final FixedWindowRateLimiter clientLimiter;
+    private final FixedWindowRateLimiter dniLimiter;
+    private final ExecutorService mailExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "self-service-mail");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final SecureRandom random = new SecureRandom();
+
+    @Value("${app.self-service.code-ttl-minutes:15}")
+    private long codeTtlMinutes;
+
+    @Value("${app.self-service.max-code-attempts:5}")
+    private int maxCodeAttempts;
+
+    @Value("${app.self-service.max-codes-per-hour:3}")
+    private int maxCodesPerHour;
+
+    public AppointmentSelfService(TenantRepository tenantRepository,
+                                  PatientRepository patientRepository,
+                                  AppointmentRepository appointmentRepository,
+                                  AppointmentAccessCodeRepository accessCodeRepository,
+                                  AppointmentService appointmentService,
+                                  EmailService emailService,
+                                  TenantTimeZones tenantTimeZones,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${app.self-service.rate-limit.window-seconds:600}") long windowSeconds,
+                                  @Value("${app.self-service.rate-limit.per-client:30}") int perClient,
+                                  @Value("${app.self-service.rate-limit.per-dni:10}") int perDni,
+                                  @Value("${app.self-service.rate-limit.max-keys:10000}") int maxKeys) {
+        this.tenantRepository = tenantRepository;
+        this.patientRepository = patientRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.accessCodeRepository = accessCodeRepository;
+        this.appointmentService = appointmentService;
+        this.emailService = emailService;
+        this.tenantTimeZones = tenantTimeZones;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clientLimiter = new FixedWindowRateLimiter(perClient, windowSeconds * 1000, maxKeys);
+        this.dniLimiter = new FixedWindowRateLimiter(perDni, windowSeconds * 1000, maxKeys);
+    }
+
+    /**
+     * Envía un código al email del paciente si el DNI corresponde a un paciente con turnos próximos.
+     * La respuesta es la misma en todos los casos.
+     */
+    public AppointmentAccessCodeResponse requestCode(String tenantSlug, String dni, String clientAddress) {
+        Tenant tenant = findTenant(tenantSlug);
+        String normalizedDni = checkRate(tenant, dni, clientAddress);
+
+        IssuedCode issued = transactionTemplate.execute(status -> issueCode(tenant, normalizedDni));
+        if (issued != null) {
+            mailExecutor.execute(() -> deliver(tenant, issued));
+        }
+        return AppointmentAccessCodeResponse.builder()
+                .message(CODE_SENT_MESSAGE)
+                .expiresInMinutes(codeTtlMinutes)
+                .build();
+    }
+
+    /**
+     * Próximos turnos no cancelados del paciente, a lo sumo {@link #MAX_RESULTS}.
+     */
+    public List<SelfServiceAppointmentResponse> findUpcoming(String tenantSlug, AppointmentAccessRequest request,
+                                                             String clientAddress) {
+        Tenant tenant = findTenant(tenantSlug);
+        String dni = checkRate(tenant, request.getDni(), clientAddress);
+        Verified verified = verify(tenant, dni, request.getCode());
+
+        return appointmentRepository.findUpcomingByPatient(tenant.getId(), verified.patientId(),
+                        tenantTimeZones.of(tenant).now(), Limit.of(MAX_RESULTS)).stream()
+                .map(AppointmentSelfService::toResponse)
+                .toList();
+    }
+
+    /**
+     * Cancela un turno confirmado y futuro del paciente con el mismo flujo que la cancelación del
+     * consultorio (cupo grupal, lista de espera, email). El código queda consumido.
+     */
+    public void cancel(String tenantSlug, Long appointmentId, AppointmentAccessRequest request, String clientAddress) {
+        Tenant tenant = findTenant(tenantSlug);
+        String dni = checkRate(tenant, request.getDni(), clientAddress);
+        Verified verified = verify(tenant, dni, request.getCode());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Appointment appointment = appointmentRepository
+                    .findByIdAndTenantIdAndPatientId(appointmentId, tenant.getId(), verified.patientId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Turno no encontrado: " + appointmentId));
+            if (appointment.getStatus() != Appointment.AppointmentStatus.CONFIRMED
+                    || appointment.getStartDateTime().isBefore(tenantTimeZones.of(tenant).now())) {
+                throw new BusinessException("Solo se pueden cancelar turnos confirmados que todavía no empezaron");
+            }
+            appointmentService.cancel(appointment.getId());
+            accessCodeRepository.markUsed(verified.codeId());
+        });
+        log.info("Turno {} cancelado por el paciente desde la consulta pública", appointmentId);
+    }
+
+    /**
+     * Borra los códigos vencidos y las ventanas de límite que ya no cuentan.
+     */
+    @Scheduled(fixedDelayString = "${app.self-service.purge-interval-ms:3600000}")
+    public void purge() {
+        Integer deleted = transactionTemplate.execute(status ->
+                accessCodeRepository.deleteExpiredBefore(LocalDateTime.now().minusDays(1)));
+        long now = System.currentTimeMillis();
+        clientLimiter.purge(now);
+        dniLimiter.purge(now);
+        if (deleted != null && deleted > 0) {
+            log.debug("Códigos de acceso vencidos eliminados: {}", deleted);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        mailExecutor.shutdown();
+    }
+
+    /**
+     * Guarda un código nuevo y lo devuelve para enviarlo una vez confirmada la transacción, o null si
+     * el DNI no corresponde a un paciente con email y turnos próximos.
+     */
+    private IssuedCode issueCode(Tenant tenant, String dni) {
+        Patient patient = patientRepository.findByTenantIdAndDni(tenant.getId(), dni).orElse(null);
+        if (patient == null || patient.getEmail() == null || patient.getEmail().isBlank()) {
+            log.info("Pedido de código para DNI sin paciente o sin email en {}", tenant.getSlug());
+            return null;
+        }
+        if (appointmentRepository.findUpcomingByPatient(tenant.getId(), patient.getId(),
+                tenantTimeZones.of(tenant).now(), Limit.of(1)).isEmpty()) {
+            log.info("Pedido de código para paciente {} sin turnos próximos", patient.getId());
+            return null;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (accessCodeRepository.countByTenantIdAndPatientIdAndCreatedAtAfter(
+                tenant.getId(), patient.getId(), now.minusHours(1)) >= maxCodesPerHour) {
+            log.warn("Paciente {} excedió el límite de códigos por hora", patient.getId());
+            return null;
+        }
+
+        accessCodeRepository.invalidateAll(tenant.getId(), patient.getId());
+        String code = String.format("%06d", random.nextInt(1_000_000));
+        AppointmentAccessCode accessCode = new AppointmentAccessCode();
+        accessCode.setTenantId(tenant.getId());
+        accessCode.setPatientId(patient.getId());
+        accessCode.setCodeHash(hash(accessCode, code));
+        accessCode.setExpiresAt(now.plusMinutes(codeTtlMinutes));
+        accessCodeRepository.save(accessCode);
+        return new IssuedCode(patient, code);
+    }
+
+    /**
+     * Envía el código ya guardado. Si el SMTP falla el paciente puede pedir otro; el error solo se registra.
+     */
+    private void deliver(Tenant tenant, IssuedCode issued) {
+        try {
+            emailService.sendAppointmentAccessCode(issued.patient(), tenant, issued.code(), codeTtlMinutes);
+        } catch (MailException e) {
+            log.error("No se pudo enviar el código de acceso al paciente {}: {}", issued.patient().getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Verifica el código en su propia transacción: el intento queda registrado aunque después la
+     * consulta o la cancelación fallen.
+     */
+    private Verified verify(Tenant tenant, String dni, String code) {
+        Verified verified = transactionTemplate.execute(status -> {
+            Patient patient = patientRepository.findByTenantIdAndDni(tenant.getId(), dni).orElse(null);
+            if (patient == null) {
+                return null;
+            }
+            AppointmentAccessCode accessCode = accessCodeRepository
+                    .findActive(tenant.getId(), patient.getId(), LocalDateTime.now())
+                    .orElse(null);
+            if (accessCode == null || accessCodeRepository.registerAttempt(accessCode.getId(), maxCodeAttempts) == 0) {
+                return null;
+            }
+            boolean matches = MessageDigest.isEqual(
+                    accessCode.getCodeHash().getBytes(StandardCharsets.US_ASCII),
+                    hash(accessCode, code.trim()).getBytes(StandardCharsets.US_ASCII));
+            return matches ? new Verified(patient.getId(), accessCode.getId()) : null;
+        });
+        if (verified == null) {
+            throw new BusinessException(INVALID_CODE_MESSAGE);
+        }
+        return verified;
+    }
+
+    /**
+     * Aplica los límites por origen y por DNI antes de tocar la base. Devuelve el DNI normalizado.
+     */
+    private String checkRate(Tenant tenant, String dni, String clientAddress) {
+        String normalizedDni = dni.trim();
+        if (!clientLimiter.tryAcquire(clientAddress) || !dniLimiter.tryAcquire(tenant.getId() + ":" + normalizedDni)) {
+            log.warn("Límite de consultas públicas excedido - origen: {}, consultorio: {}", clientAddress, tenant.getSlug());
+            throw new BusinessException(TOO_MANY_REQUESTS_MESSAGE, HttpStatus.TOO_MANY_REQUESTS);
+        }
+        return normalizedDni;
+    }
+
+    private Tenant findTenant(String tenantSlug) {
+        return tenantRepository.findBySlugAndActive(tenantSlug, true)
+                .orElseThrow(() -> new ResourceNotFoundException("Consultorio no encontrado: " + tenantSlug));
+    }
+
+    private static String hash(AppointmentAccessCode accessCode, String code) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            String value = accessCode.getTenantId() + ":" + accessCode.getPatientId() + ":" + code;
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private static SelfServiceAppointmentResponse toResponse(Appointment appointment) {
+        return SelfServiceAppointmentResponse.builder()
+                .id(appointment.getId())
+                .startDateTime(appointment.getStartDateTime())
+                .endDateTime(appointment.getEndDateTime())
+                .durationMinutes(appointment.getDurationMinutes())
+                .professionalName(appointment.getProfessional().getFullName())
+                .specialtyName(appointment.getProfessional().getSpecialty() != null
+                        ? appointment.getProfessional().getSpecialty().getName() : null)
+                .procedureName(appointment.getProcedure() != null ? appointment.getProcedure().getName() : null)
+                .status(appointment.getStatus().name())
+                .build();
+    }
+
+    private record Verified(Long patientId, Long codeId) {
+    }
+
+    private record IssuedCode(Patient patient, String code) {
+    }
+}
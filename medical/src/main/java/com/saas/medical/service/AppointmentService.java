@@ -1,31 +1,54 @@
 package com.saas.medical.service;
 
+import com.saas.medical.event.AppointmentChangedEvent;
 import com.saas.medical.exception.BusinessException;
 import com.saas.medical.exception.ResourceNotFoundException;
+import com.saas.medical.exception.SlotConflictException;
 import com.saas.medical.model.dto.appointment.AppointmentRequest;
 import com.saas.medical.model.dto.appointment.AppointmentResponse;
+import com.saas.medical.model.dto.appointment.AppointmentSeriesRequest;
+import com.saas.medical.model.dto.appointment.AppointmentSeriesResponse;
+import com.saas.medical.model.dto.appointment.BulkStatusUpdateRequest;
+import com.saas.medical.model.dto.appointment.BulkStatusUpdateResponse;
+import com.saas.medical.model.dto.appointment.PatientAppointmentResponse;
+import com.saas.medical.model.dto.common.CursorPageResponse;
+import com.saas.medical.model.dto.slot.SlotHoldRequest;
+import com.saas.medical.model.dto.slot.SlotHoldResponse;
 import com.saas.medical.model.entity.Appointment;
+import com.saas.medical.model.entity.OutboxEvent;
 import com.saas.medical.model.entity.Patient;
 import com.saas.medical.model.entity.Procedure;
 import com.saas.medical.model.entity.Professional;
 import com.saas.medical.model.entity.Tenant;
 import com.saas.medical.repository.AppointmentRepository;
+import com.saas.medical.repository.AppointmentSpecifications;
 import com.saas.medical.repository.PatientRepository;
 import com.saas.medical.repository.ProcedureRepository;
 import com.saas.medical.repository.ProfessionalRepository;
 import com.saas.medical.repository.TenantRepository;
 import com.saas.medical.repository.UserRepository;
+import com.saas.medical.repository.projection.PatientAppointmentView;
 import com.saas.medical.security.TenantContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -34,16 +57,68 @@ import java.util.stream.Collectors;
 @Slf4j
 public class AppointmentService {
 
+    static final int MAX_SERIES_OCCURRENCES = 52;
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+
+    static final int MAX_PAGE_SIZE = 200;
+
+    static final int MAX_BULK_IDS = 500;
+
+    /**
+     * Turnos libres sugeridos antes y después del horario pedido cuando está ocupado.
+     */
+    static final int CONFLICT_ALTERNATIVES = 3;
+
+    static final String OVERLAP_MESSAGE = "El horario seleccionado no está disponible - existe solapamiento con otro turno";
+
+    static final String HELD_MESSAGE = "El horario seleccionado está reservado temporalmente por otro paciente";
+
+    static final String RESOURCE_MESSAGE = "El horario seleccionado no está disponible - la sala o el equipo que requiere el procedimiento está ocupado";
+
+    static final String DST_GAP_MESSAGE = "El horario seleccionado no existe en la zona horaria del consultorio por el cambio de hora";
+
+    static final String CLOSED_MESSAGE = "El consultorio está cerrado en el horario seleccionado";
+
+    /**
+     * Restricción de exclusión de la base que impide turnos solapados del mismo profesional (V18).
+     */
+    private static final String OVERLAP_CONSTRAINT = "appointments_no_overlap";
+
     private final AppointmentRepository appointmentRepository;
     private final PatientRepository patientRepository;
     private final ProfessionalRepository professionalRepository;
     private final ProcedureRepository procedureRepository;
     private final TenantRepository tenantRepository;
     private final UserRepository userRepository;
-    private final EmailService emailService;
+    private final OutboxService outboxService;
+    private final AppointmentOccupancyIndex occupancyIndex;
+    private final BookingLockService bookingLockService;
+    private final SlotHoldService slotHoldService;
+    private final SlotService slotService;
+    private final ResourceCalendar resourceCalendar;
+    private final GroupSessionService groupSessionService;
+    private final TenantTimeZones tenantTimeZones;
+    private final TenantClosures tenantClosures;
+    private final IdempotencyService idempotencyService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public AppointmentResponse createAppointment(String tenantSlug, AppointmentRequest request) {
+        return createAppointment(tenantSlug, request, null);
+    }
+
+    /**
+     * Crea el turno una sola vez por {@code idempotencyKey}: un reintento con la misma clave devuelve
+     * el turno ya creado sin repetir las búsquedas ni las validaciones.
+     */
+    @Transactional
+    public AppointmentResponse createAppointment(String tenantSlug, AppointmentRequest request, String idempotencyKey) {
+        return idempotencyService.execute("appointments:" + tenantSlug, idempotencyKey, request,
+                AppointmentResponse.class, () -> bookAppointment(tenantSlug, request));
+    }
+
+    private AppointmentResponse bookAppointment(String tenantSlug, AppointmentRequest request) {
         // Buscar tenant por slug
         Tenant tenant = tenantRepository.findBySlugAndActive(tenantSlug, true)
                 .orElseThrow(() -> new ResourceNotFoundException("Consultorio no encontrado: " + tenantSlug));
@@ -53,35 +128,47 @@ public class AppointmentService {
                 .orElseThrow(() -> new ResourceNotFoundException("Profesional no encontrado"));
 
         // Buscar procedimiento si se especifica
-        Procedure procedure = null;
-        Integer durationMinutes = tenant.getAppointmentDurationMinutes(); // Default del tenant
-
-        if (request.getProcedureId() != null) {
-            procedure = procedureRepository.findByIdAndTenantId(request.getProcedureId(), tenant.getId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Procedimiento no encontrado: " + request.getProcedureId()));
-            durationMinutes = procedure.getDurationMinutes();
-        }
-
-        // Si se especifica duración explícita, usarla (tiene prioridad)
-        if (request.getDurationMinutes() != null && request.getDurationMinutes() > 0) {
-            durationMinutes = request.getDurationMinutes();
-        }
+        Procedure procedure = findProcedure(tenant, request.getProcedureId());
+        Integer durationMinutes = resolveDuration(tenant, procedure, request.getDurationMinutes());
 
         LocalDateTime appointmentDateTime = request.getStartDateTime();
         LocalDateTime endDateTime = appointmentDateTime.plusMinutes(durationMinutes);
 
-        // Verificar que el horario esté disponible (considerando el rango completo)
-        if (appointmentRepository.existsOverlappingAppointment(professional.getId(), appointmentDateTime, endDateTime)) {
-            throw new BusinessException("El horario seleccionado no está disponible - existe solapamiento con otro turno");
-        }
-
-        // Verificar que la fecha no sea en el pasado
-        if (appointmentDateTime.isBefore(LocalDateTime.now())) {
-            throw new BusinessException("No se puede reservar un turno en el pasado");
+        validateLocalTime(tenant, appointmentDateTime, endDateTime);
+
+        Set<Long> resourceIds = resourceCalendar.resourceIdsOf(procedure);
+        boolean groupSession = groupSessionService.isGroup(procedure);
+
+        // En una sesión grupal ya abierta alcanza con tomar un cupo del contador, sin lock de agenda
+        Long groupSessionId = groupSession
+                ? groupSessionService.join(professional.getId(), procedure, appointmentDateTime, endDateTime)
+                : null;
+        SlotHoldService.Hold hold = null;
+        if (groupSessionId == null) {
+            // Serializar solo las reservas que compiten por la agenda de este profesional o por sus recursos
+            bookingLockService.lockProfessional(professional.getId());
+            bookingLockService.lockResources(resourceIds);
+
+            // Otra reserva pudo abrir la sesión mientras se esperaba el lock
+            groupSessionId = groupSession
+                    ? groupSessionService.join(professional.getId(), procedure, appointmentDateTime, endDateTime)
+                    : null;
+            if (groupSessionId == null) {
+                hold = checkSlotAvailable(tenant, professional, resourceIds, request.getHoldToken(),
+                        appointmentDateTime, endDateTime, durationMinutes);
+                if (groupSession) {
+                    groupSessionId = groupSessionService.open(tenant.getId(), professional.getId(), procedure,
+                            appointmentDateTime, endDateTime);
+                }
+            }
         }
 
         // Buscar o crear paciente
-        Patient patient = findOrCreatePatient(tenant.getId(), request);
+        Patient patient = findOrCreatePatient(tenant.getId(), request.getPatient());
+        if (groupSessionId != null && appointmentRepository.existsByGroupSessionIdAndPatientIdAndStatusNot(
+                groupSessionId, patient.getId(), Appointment.AppointmentStatus.CANCELLED)) {
+            throw new BusinessException("El paciente ya está inscripto en esta sesión grupal");
+        }
 
         // Crear appointment
         Appointment appointment = new Appointment();
@@ -92,24 +179,232 @@ public class AppointmentService {
         appointment.setEndDateTime(endDateTime);
         appointment.setDurationMinutes(durationMinutes);
         appointment.setProcedure(procedure);
+        appointment.setGroupSessionId(groupSessionId);
         appointment.setStatus(Appointment.AppointmentStatus.CONFIRMED);
         appointment.setNotes(request.getNotes());
 
-        appointment = appointmentRepository.save(appointment);
+        appointment = saveBookings(List.of(appointment)).get(0);
+        eventPublisher.publishEvent(AppointmentChangedEvent.of(appointment, null));
+        outboxService.enqueue(OutboxEvent.EventType.APPOINTMENT_CONFIRMATION, appointment);
+        if (hold != null) {
+            slotHoldService.releaseAfterCommit(hold.token());
+        }
 
         log.info("Turno creado: {} - {} {} con Dr. {} {}",
                 appointmentDateTime,
                 patient.getFirstName(), patient.getLastName(),
                 professional.getFirstName(), professional.getLastName());
 
-        // Enviar email de confirmación
-        try {
-            emailService.sendAppointmentConfirmation(appointment);
-        } catch (Exception e) {
-            log.error("Error enviando email de confirmación: {}", e.getMessage());
+        return mapToResponse(appointment, tenant);
+    }
+
+    /**
+     * Verifica, con el lock de agenda tomado, que el horario del turno individual (o de la sesión grupal
+     * que se abre) esté libre. Devuelve la reserva temporal vigente que lo cubre, si la hay.
+     */
+    private SlotHoldService.Hold checkSlotAvailable(Tenant tenant, Professional professional, Set<Long> resourceIds,
+                                                    String holdToken, LocalDateTime start, LocalDateTime end,
+                                                    int durationMinutes) {
+        // Una reserva temporal vigente que cubre el turno ya garantizó que el horario estaba libre.
+        // Se busca con el lock tomado: mientras siga vigente nadie más pudo reservar ni tomar ese horario.
+        SlotHoldService.Hold hold = slotHoldService.find(holdToken)
+                .filter(h -> h.covers(tenant.getId(), professional.getId(), start, end))
+                .orElse(null);
+        if (holdToken != null && hold == null) {
+            log.debug("Reserva temporal vencida o no coincidente, se valida el horario completo");
         }
 
-        return mapToResponse(appointment, tenant);
+        if (hold == null) {
+            // Verificar que el horario esté disponible (considerando el rango completo)
+            if (occupancyIndex.hasOverlap(professional.getId(), start, end)) {
+                throw slotConflict(OVERLAP_MESSAGE, tenant, professional.getId(), resourceIds, start, durationMinutes);
+            }
+            if (slotHoldService.isHeld(professional.getId(), start, end, null)) {
+                throw slotConflict(HELD_MESSAGE, tenant, professional.getId(), resourceIds, start, durationMinutes);
+            }
+        }
+        // La reserva temporal aparta solo la agenda del profesional: los recursos se verifican siempre
+        if (resourceCalendar.isBusy(resourceIds, start, end)) {
+            throw slotConflict(RESOURCE_MESSAGE, tenant, professional.getId(), resourceIds, start, durationMinutes);
+        }
+        return hold;
+    }
+
+    /**
+     * Reserva temporalmente un horario mientras el paciente completa la reserva pública. Se aplican
+     * las mismas validaciones que al crear el turno, así que al confirmarlo con el token no hace
+     * falta repetirlas. Los demás pacientes dejan de ver el horario hasta que la reserva vence.
+     */
+    @Transactional
+    public SlotHoldResponse createHold(String tenantSlug, SlotHoldRequest request) {
+        Tenant tenant = tenantRepository.findBySlugAndActive(tenantSlug, true)
+                .orElseThrow(() -> new ResourceNotFoundException("Consultorio no encontrado: " + tenantSlug));
+
+        Professional professional = professionalRepository.findByIdAndTenantId(request.getProfessionalId(), tenant.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Profesional no encontrado"));
+
+        Procedure procedure = findProcedure(tenant, request.getProcedureId());
+        Integer durationMinutes = resolveDuration(tenant, procedure, request.getDurationMinutes());
+
+        if (groupSessionService.isGroup(procedure)) {
+            throw new BusinessException("Las sesiones grupales no admiten reserva temporal: el cupo se toma al reservar");
+        }
+
+        LocalDateTime start = request.getStartDateTime();
+        LocalDateTime end = start.plusMinutes(durationMinutes);
+        validateLocalTime(tenant, start, end);
+
+        Set<Long> resourceIds = resourceCalendar.resourceIdsOf(procedure);
+        bookingLockService.lockProfessional(professional.getId());
+        bookingLockService.lockResources(resourceIds);
+
+        if (occupancyIndex.hasOverlap(professional.getId(), start, end)) {
+            throw slotConflict(OVERLAP_MESSAGE, tenant, professional.getId(), resourceIds, start, durationMinutes);
+        }
+        if (slotHoldService.isHeld(professional.getId(), start, end, null)) {
+            throw slotConflict(HELD_MESSAGE, tenant, professional.getId(), resourceIds, start, durationMinutes);
+        }
+        if (resourceCalendar.isBusy(resourceIds, start, end)) {
+            throw slotConflict(RESOURCE_MESSAGE, tenant, professional.getId(), resourceIds, start, durationMinutes);
+        }
+
+        SlotHoldService.Hold hold = slotHoldService.hold(tenant, professional.getId(), start, end);
+        log.info("Horario reservado temporalmente: profesional {} a las {} hasta {}",
+                professional.getId(), start, hold.expiresAt());
+
+        return SlotHoldResponse.builder()
+                .token(hold.token())
+                .professionalId(professional.getId())
+                .startDateTime(start)
+                .endDateTime(end)
+                .durationMinutes(durationMinutes)
+                .expiresAt(hold.expiresAt())
+                .build();
+    }
+
+    public void releaseHold(String tenantSlug, String token) {
+        Tenant tenant = tenantRepository.findBySlugAndActive(tenantSlug, true)
+                .orElseThrow(() -> new ResourceNotFoundException("Consultorio no encontrado: " + tenantSlug));
+
+        slotHoldService.find(token)
+                .filter(hold -> hold.tenantId().equals(tenant.getId()))
+                .ifPresent(hold -> slotHoldService.release(hold.token()));
+    }
+
+    /**
+     * Reserva una serie de sesiones a partir de una regla de repetición. Tenant, profesional,
+     * procedimiento y paciente se resuelven una sola vez, todas las sesiones se validan contra una
+     * única consulta de ocupación del rango completo y se insertan en lote. Si alguna sesión tiene
+     * conflicto no se crea ninguna y la respuesta detalla el resultado de cada una.
+     */
+    @Transactional
+    public AppointmentSeriesResponse createAppointmentSeries(String tenantSlug, AppointmentSeriesRequest request) {
+        Tenant tenant = tenantRepository.findBySlugAndActive(tenantSlug, true)
+                .orElseThrow(() -> new ResourceNotFoundException("Consultorio no encontrado: " + tenantSlug));
+
+        Professional professional = professionalRepository.findByIdAndTenantId(request.getProfessionalId(), tenant.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Profesional no encontrado"));
+
+        Procedure procedure = findProcedure(tenant, request.getProcedureId());
+        if (groupSessionService.isGroup(procedure)) {
+            throw new BusinessException("Las sesiones grupales se reservan de a una");
+        }
+        Integer durationMinutes = resolveDuration(tenant, procedure, request.getDurationMinutes());
+        List<LocalDateTime> starts = expandRecurrence(request.getStartDateTime(), request.getRecurrence());
+
+        Set<Long> resourceIds = resourceCalendar.resourceIdsOf(procedure);
+        bookingLockService.lockProfessional(professional.getId());
+        bookingLockService.lockResources(resourceIds);
+
+        // Una sola consulta para todo el rango de la serie (y otra para sus recursos, si tiene)
+        LocalDateTime rangeEnd = starts.get(starts.size() - 1).plusMinutes(durationMinutes);
+        IntervalSet.Builder busyBuilder = IntervalSet.builder();
+        appointmentRepository.findBusyIntervals(professional.getId(), starts.get(0), rangeEnd)
+                .forEach(interval -> busyBuilder.add(interval.getStartDateTime(), interval.getEndDateTime()));
+        IntervalSet busy = busyBuilder.build()
+                .union(slotHoldService.busyBetween(professional.getId(), starts.get(0), rangeEnd, null));
+        IntervalSet resourceBusy = resourceCalendar.busyBetween(resourceIds, starts.get(0), rangeEnd);
+        TenantZone zone = tenantTimeZones.of(tenant);
+        IntervalSet gaps = zone.gapsBetween(starts.get(0), rangeEnd);
+        IntervalSet closures = tenantClosures.of(tenant.getId(), zone);
+
+        LocalDateTime now = zone.now();
+        List<AppointmentSeriesResponse.Occurrence> occurrences = new ArrayList<>(starts.size());
+        int conflictCount = 0;
+        for (LocalDateTime start : starts) {
+            LocalDateTime end = start.plusMinutes(durationMinutes);
+            String conflict = null;
+            if (start.isBefore(now)) {
+                conflict = "La sesión queda en el pasado";
+            } else if (gaps.overlaps(start, end)) {
+                conflict = "El horario no existe por el cambio de hora";
+            } else if (closures.overlaps(start, end)) {
+                conflict = "El consultorio está cerrado en ese horario";
+            } else if (busy.overlaps(start, end)) {
+                conflict = "El horario no está disponible - existe solapamiento con otro turno";
+            } else if (resourceBusy.overlaps(start, end)) {
+                conflict = "El horario no está disponible - la sala o el equipo está ocupado";
+            }
+            if (conflict != null) {
+                conflictCount++;
+            }
+            occurrences.add(AppointmentSeriesResponse.Occurrence.builder()
+                    .startDateTime(start)
+                    .endDateTime(end)
+                    .available(conflict == null)
+                    .conflict(conflict)
+                    .build());
+        }
+
+        if (conflictCount > 0) {
+            log.info("Serie rechazada para profesional {}: {} de {} sesiones con conflicto",
+                    professional.getId(), conflictCount, starts.size());
+            return AppointmentSeriesResponse.builder()
+                    .created(false)
+                    .totalOccurrences(starts.size())
+                    .conflictCount(conflictCount)
+                    .occurrences(occurrences)
+                    .appointments(List.of())
+                    .build();
+        }
+
+        Patient patient = findOrCreatePatient(tenant.getId(), request.getPatient());
+
+        List<Appointment> appointments = new ArrayList<>(starts.size());
+        for (LocalDateTime start : starts) {
+            Appointment appointment = new Appointment();
+            appointment.setTenantId(tenant.getId());
+            appointment.setProfessional(professional);
+            appointment.setPatient(patient);
+            appointment.setStartDateTime(start);
+            appointment.setEndDateTime(start.plusMinutes(durationMinutes));
+            appointment.setDurationMinutes(durationMinutes);
+            appointment.setProcedure(procedure);
+            appointment.setStatus(Appointment.AppointmentStatus.CONFIRMED);
+            appointment.setNotes(request.getNotes());
+            appointments.add(appointment);
+        }
+
+        appointments = saveBookings(appointments);
+        for (Appointment appointment : appointments) {
+            eventPublisher.publishEvent(AppointmentChangedEvent.of(appointment, null));
+            outboxService.enqueue(OutboxEvent.EventType.APPOINTMENT_CONFIRMATION, appointment);
+        }
+
+        log.info("Serie creada: {} sesiones desde {} - {} {} con Dr. {} {}",
+                appointments.size(), starts.get(0),
+                patient.getFirstName(), patient.getLastName(),
+                professional.getFirstName(), professional.getLastName());
+
+        return AppointmentSeriesResponse.builder()
+                .created(true)
+                .totalOccurrences(appointments.size())
+                .conflictCount(0)
+                .occurrences(occurrences)
+                .appointments(appointments.stream()
+                        .map(appointment -> mapToResponse(appointment, tenant))
+                        .collect(Collectors.toList()))
+                .build();
     }
 
     @Transactional(readOnly = true)
@@ -130,9 +425,7 @@ public class AppointmentService {
         // Verificar si el usuario es PROFESSIONAL para filtrar solo sus turnos
         List<Appointment> appointments;
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        boolean isProfessional = authentication.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .anyMatch(auth -> auth.equals("ROLE_PROFESSIONAL"));
+        boolean isProfessional = isProfessional(authentication);
 
         if (isProfessional) {
             // Obtener el professionalId del usuario autenticado
@@ -163,6 +456,157 @@ public class AppointmentService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Listado paginado por cursor sobre (start_date_time, id), del más reciente al más antiguo.
+     * Cada página es una consulta acotada que el índice compuesto resuelve sin recorrer las
+     * páginas anteriores. Un usuario PROFESSIONAL solo ve sus propios turnos, igual que en
+     * {@link #findAppointmentsByCurrentTenant()}.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<AppointmentResponse> findAppointmentPageByCurrentTenant(
+            LocalDate from, LocalDate to, String status, Long professionalId, Long procedureId,
+            String cursor, Integer limit) {
+        UUID tenantId = getCurrentTenantId();
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (isProfessional(authentication)) {
+            Long ownProfessionalId = getProfessionalIdByEmail(authentication.getName());
+            if (ownProfessionalId == null) {
+                log.warn("Usuario PROFESSIONAL {} no tiene professional vinculado, retornando página vacía",
+                        authentication.getName());
+                return CursorPageResponse.<AppointmentResponse>builder().items(List.of()).hasMore(false).build();
+            }
+            professionalId = ownProfessionalId;
+        }
+
+        AppointmentCursor after = AppointmentCursor.decode(cursor);
+        Specification<Appointment> filters = Specification
+                .where(AppointmentSpecifications.tenant(tenantId))
+                .and(AppointmentSpecifications.professional(professionalId))
+                .and(AppointmentSpecifications.procedure(procedureId))
+                .and(AppointmentSpecifications.status(parseStatus(status)))
+                .and(AppointmentSpecifications.startsFrom(from != null ? from.atStartOfDay() : null))
+                .and(AppointmentSpecifications.startsBefore(to != null ? to.plusDays(1).atStartOfDay() : null))
+                .and(after != null ? AppointmentSpecifications.before(after.startDateTime(), after.id()) : null);
+
+        // Se pide una fila extra para saber si hay otra página sin ejecutar un COUNT
+        List<Appointment> rows = appointmentRepository.findBy(filters, query -> query
+                .sortBy(AppointmentSpecifications.NEWEST_FIRST)
+                .project(AppointmentSpecifications.DETAILS)
+                .limit(pageSize + 1)
+                .all());
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Appointment> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            Appointment last = page.get(page.size() - 1);
+            nextCursor = new AppointmentCursor(last.getStartDateTime(), last.getId()).encode();
+        }
+
+        Tenant tenant = tenantRepository.findById(tenantId)
+                .orElseThrow(() -> new ResourceNotFoundException("Tenant", "id", tenantId));
+
+        return CursorPageResponse.<AppointmentResponse>builder()
+                .items(page.stream()
+                        .map(appointment -> mapToResponse(appointment, tenant))
+                        .collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Historial de turnos de un paciente, del más reciente al más antiguo, paginado por cursor sobre
+     * (start_date_time, id). Devuelve una proyección liviana: no carga el grafo de profesional y
+     * especialidad de cada turno. Sin filtro de estado se incluyen todos; un usuario PROFESSIONAL
+     * solo ve los turnos que el paciente tuvo con él.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<PatientAppointmentResponse> findPatientAppointmentPage(
+            Long patientId, List<String> statuses, String cursor, Integer limit) {
+        UUID tenantId = getCurrentTenantId();
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+
+        if (!patientRepository.existsByTenantIdAndId(tenantId, patientId)) {
+            throw new ResourceNotFoundException("Paciente", "id", patientId);
+        }
+
+        Long professionalId = null;
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (isProfessional(authentication)) {
+            professionalId = getProfessionalIdByEmail(authentication.getName());
+            if (professionalId == null) {
+                log.warn("Usuario PROFESSIONAL {} no tiene professional vinculado, retornando página vacía",
+                        authentication.getName());
+                return CursorPageResponse.<PatientAppointmentResponse>builder().items(List.of()).hasMore(false).build();
+            }
+        }
+
+        Set<Appointment.AppointmentStatus> statusFilter = EnumSet.noneOf(Appointment.AppointmentStatus.class);
+        if (statuses != null) {
+            statuses.stream().map(this::parseStatus).filter(Objects::nonNull).forEach(statusFilter::add);
+        }
+        if (statusFilter.isEmpty()) {
+            statusFilter = EnumSet.allOf(Appointment.AppointmentStatus.class);
+        }
+
+        // Se pide una fila extra para saber si hay otra página sin ejecutar un COUNT
+        AppointmentCursor after = AppointmentCursor.decode(cursor);
+        List<PatientAppointmentView> rows = after == null
+                ? appointmentRepository.findPatientHistory(tenantId, patientId, statusFilter, professionalId,
+                        Limit.of(pageSize + 1))
+                : appointmentRepository.findPatientHistoryBefore(tenantId, patientId, statusFilter, professionalId,
+                        after.startDateTime(), after.id(), Limit.of(pageSize + 1));
+
+        boolean hasMore = rows.size() > pageSize;
+        List<PatientAppointmentView> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            PatientAppointmentView last = page.get(page.size() - 1);
+            nextCursor = new AppointmentCursor(last.getStartDateTime(), last.getId()).encode();
+        }
+
+        return CursorPageResponse.<PatientAppointmentResponse>builder()
+                .items(page.stream().map(this::mapToPatientAppointmentResponse).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private PatientAppointmentResponse mapToPatientAppointmentResponse(PatientAppointmentView view) {
+        return PatientAppointmentResponse.builder()
+                .id(view.getId())
+                .startDateTime(view.getStartDateTime())
+                .endDateTime(view.getEndDateTime())
+                .durationMinutes(view.getDurationMinutes())
+                .status(view.getStatus().name())
+                .professionalId(view.getProfessionalId())
+                .professionalName(view.getProfessionalFirstName() + " " + view.getProfessionalLastName())
+                .procedureName(view.getProcedureName())
+                .build();
+    }
+
+    private boolean isProfessional(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .anyMatch(auth -> auth.equals("ROLE_PROFESSIONAL"));
+    }
+
+    private Appointment.AppointmentStatus parseStatus(String status) {
+        if (status == null || status.isBlank()) {
+            return null;
+        }
+        try {
+            return Appointment.AppointmentStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Estado inválido: " + status + ". Estados válidos: CONFIRMED, CANCELLED, COMPLETED, NO_SHOW");
+        }
+    }
+
     /**
      * Obtiene el professionalId asociado al email del usuario
      */
@@ -195,8 +639,14 @@ public class AppointmentService {
         
         try {
             Appointment.AppointmentStatus newStatus = Appointment.AppointmentStatus.valueOf(status.toUpperCase());
+            Appointment.AppointmentStatus previousStatus = appointment.getStatus();
             appointment.setStatus(newStatus);
+            groupSessionService.onStatusChange(appointment, previousStatus);
             appointment = appointmentRepository.save(appointment);
+            eventPublisher.publishEvent(AppointmentChangedEvent.of(appointment, previousStatus));
+            if (newStatus == Appointment.AppointmentStatus.CANCELLED && previousStatus != newStatus) {
+                outboxService.enqueue(OutboxEvent.EventType.APPOINTMENT_CANCELLATION, appointment);
+            }
             
             log.info("Estado de turno actualizado - ID: {}, Nuevo estado: {}", id, newStatus);
             
@@ -206,8 +656,55 @@ public class AppointmentService {
             return mapToResponse(appointment, tenant);
             
         } catch (IllegalArgumentException e) {
-            throw new BusinessException("Estado inválido: " + status + ". Estados válidos: CONFIRMED, CANCELLED, COMPLETED");
+            throw new BusinessException("Estado inválido: " + status + ". Estados válidos: CONFIRMED, CANCELLED, COMPLETED, NO_SHOW");
+        }
+    }
+
+    /**
+     * Cambia el estado de varios turnos del tenant con un único UPDATE, sin cargarlos. Se puede
+     * pasar a CONFIRMED, COMPLETED o NO_SHOW; la cancelación sigue siendo de a un turno porque
+     * libera el horario, notifica al paciente y ofrece el lugar a la lista de espera. Un usuario
+     * PROFESSIONAL solo afecta sus propios turnos.
+     */
+    @Transactional
+    public BulkStatusUpdateResponse bulkUpdateStatus(BulkStatusUpdateRequest request) {
+        UUID tenantId = getCurrentTenantId();
+        Appointment.AppointmentStatus newStatus = parseStatus(request.getStatus());
+        if (newStatus == Appointment.AppointmentStatus.CANCELLED) {
+            throw new BusinessException("Los turnos se cancelan de a uno: la cancelación notifica al paciente y libera el horario");
         }
+
+        boolean byIds = request.getIds() != null && !request.getIds().isEmpty();
+        boolean byDay = request.getProfessionalId() != null && request.getDate() != null;
+        if (byIds == byDay) {
+            throw new BusinessException("Indique la lista de ids o el profesional y la fecha (no ambos)");
+        }
+        if (byIds && request.getIds().size() > MAX_BULK_IDS) {
+            throw new BusinessException("No se pueden actualizar más de " + MAX_BULK_IDS + " turnos por solicitud");
+        }
+
+        Long professionalId = request.getProfessionalId();
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && isProfessional(authentication)) {
+            Long ownProfessionalId = getProfessionalIdByEmail(authentication.getName());
+            if (ownProfessionalId == null || (professionalId != null && !professionalId.equals(ownProfessionalId))) {
+                throw new BusinessException("Solo puede actualizar sus propios turnos", HttpStatus.FORBIDDEN);
+            }
+            professionalId = ownProfessionalId;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int updated = byIds
+                ? appointmentRepository.updateStatusByIds(tenantId, request.getIds(), professionalId, newStatus, now)
+                : appointmentRepository.updateStatusByProfessionalAndRange(tenantId, professionalId,
+                        request.getDate().atStartOfDay(), request.getDate().plusDays(1).atStartOfDay(), newStatus, now);
+
+        log.info("Cambio de estado masivo - tenant: {}, nuevo estado: {}, turnos actualizados: {}", tenantId, newStatus, updated);
+
+        return BulkStatusUpdateResponse.builder()
+                .status(newStatus)
+                .updated(updated)
+                .build();
     }
 
     @Transactional
@@ -217,8 +714,14 @@ public class AppointmentService {
         
         // TODO: Verificar que el appointment pertenece al tenant actual del usuario
         
+        Appointment.AppointmentStatus previousStatus = appointment.getStatus();
         appointment.setStatus(Appointment.AppointmentStatus.CANCELLED);
+        groupSessionService.onStatusChange(appointment, previousStatus);
         appointmentRepository.save(appointment);
+        eventPublisher.publishEvent(AppointmentChangedEvent.of(appointment, previousStatus));
+        if (previousStatus != Appointment.AppointmentStatus.CANCELLED) {
+            outboxService.enqueue(OutboxEvent.EventType.APPOINTMENT_CANCELLATION, appointment);
+        }
         
         log.info("Turno cancelado - ID: {}", id);
     }
@@ -247,9 +750,106 @@ public class AppointmentService {
                 .collect(Collectors.toList());
     }
 
-    private Patient findOrCreatePatient(UUID tenantId, AppointmentRequest request) {
+    /**
+     * Conflicto de horario con los turnos libres más cercanos del mismo profesional y duración.
+     * La ocupación de esos días ya quedó en el índice con la verificación que detectó el conflicto.
+     */
+    private SlotConflictException slotConflict(String message, Tenant tenant, Long professionalId, Set<Long> resourceIds,
+                                               LocalDateTime start, int durationMinutes) {
+        return new SlotConflictException(message, slotService.findAlternatives(tenantTimeZones.of(tenant),
+                tenant.getId(), professionalId, resourceIds, start, durationMinutes, CONFLICT_ALTERNATIVES));
+    }
+
+    /**
+     * Los turnos se guardan en hora local del consultorio: se validan contra su reloj, no el del servidor,
+     * y no pueden tocar el horario que se saltea al adelantar la hora ni un cierre del consultorio.
+     */
+    private void validateLocalTime(Tenant tenant, LocalDateTime start, LocalDateTime end) {
+        TenantZone zone = tenantTimeZones.of(tenant);
+        if (start.isBefore(zone.now())) {
+            throw new BusinessException("No se puede reservar un turno en el pasado");
+        }
+        if (zone.crossesGap(start, end)) {
+            throw new BusinessException(DST_GAP_MESSAGE);
+        }
+        if (tenantClosures.of(tenant.getId(), zone).overlaps(start, end)) {
+            throw new BusinessException(CLOSED_MESSAGE);
+        }
+    }
+
+    /**
+     * Inserta los turnos forzando el flush para que una violación de la restricción de exclusión
+     * (por ejemplo, una reserva concurrente desde otro nodo) se informe como horario no disponible.
+     * Con ids por secuencia, Hibernate agrupa los inserts en lotes JDBC.
+     */
+    private List<Appointment> saveBookings(List<Appointment> appointments) {
+        try {
+            return appointmentRepository.saveAllAndFlush(appointments);
+        } catch (DataIntegrityViolationException e) {
+            String cause = e.getMostSpecificCause().getMessage();
+            if (cause != null && cause.contains(OVERLAP_CONSTRAINT)) {
+                log.warn("Reserva rechazada por la restricción de exclusión para profesional {} a partir de {}",
+                        appointments.get(0).getProfessional().getId(), appointments.get(0).getStartDateTime());
+                throw new BusinessException(OVERLAP_MESSAGE, HttpStatus.CONFLICT, e);
+            }
+            throw e;
+        }
+    }
+
+    private Procedure findProcedure(Tenant tenant, Long procedureId) {
+        if (procedureId == null) {
+            return null;
+        }
+        return procedureRepository.findByIdAndTenantId(procedureId, tenant.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Procedimiento no encontrado: " + procedureId));
+    }
+
+    /**
+     * Duración del turno: la explícita tiene prioridad, luego la del procedimiento y por último la del tenant.
+     */
+    private Integer resolveDuration(Tenant tenant, Procedure procedure, Integer requestedMinutes) {
+        if (requestedMinutes != null && requestedMinutes > 0) {
+            return requestedMinutes;
+        }
+        if (procedure != null) {
+            return procedure.getDurationMinutes();
+        }
+        return tenant.getAppointmentDurationMinutes();
+    }
+
+    /**
+     * Inicios de cada sesión de la serie según la regla, incluida la primera.
+     */
+    private List<LocalDateTime> expandRecurrence(LocalDateTime firstStart, AppointmentSeriesRequest.Recurrence recurrence) {
+        if (recurrence.getCount() == null && recurrence.getUntil() == null) {
+            throw new BusinessException("Debe indicar la cantidad de sesiones o la fecha de finalización de la serie");
+        }
+        if (recurrence.getUntil() != null && recurrence.getUntil().isBefore(firstStart.toLocalDate())) {
+            throw new BusinessException("La fecha de finalización debe ser posterior a la primera sesión");
+        }
+
+        int interval = recurrence.getInterval() != null ? recurrence.getInterval() : 1;
+        long stepDays = recurrence.getFrequency() == AppointmentSeriesRequest.Frequency.WEEKLY ? 7L * interval : interval;
+        int limit = recurrence.getCount() != null ? recurrence.getCount() : Integer.MAX_VALUE;
+
+        List<LocalDateTime> starts = new ArrayList<>();
+        for (LocalDateTime start = firstStart;
+             starts.size() < limit && (recurrence.getUntil() == null || !start.toLocalDate().isAfter(recurrence.getUntil()));
+             start = start.plusDays(stepDays)) {
+            if (starts.size() == MAX_SERIES_OCCURRENCES) {
+                throw new BusinessException("Una serie no puede superar las " + MAX_SERIES_OCCURRENCES + " sesiones");
+            }
+            starts.add(start);
+        }
+        return starts;
+    }
+
+    /**
+     * Busca el paciente del tenant por DNI o lo crea. También lo usa {@link WaitlistService}.
+     */
+    Patient findOrCreatePatient(UUID tenantId, AppointmentRequest.PatientInfo patientInfo) {
         // Buscar paciente existente por DNI
-        return patientRepository.findByTenantIdAndDni(tenantId, request.getPatient().getDni())
+        return patientRepository.findByTenantIdAndDni(tenantId, patientInfo.getDni())
                 .orElseGet(() -> {
                     // Crear nuevo paciente
                     Patient newPatient = new Patient();
@@ -257,13 +857,13 @@ public class AppointmentService {
                     Tenant tenant = tenantRepository.findById(tenantId)
                             .orElseThrow(() -> new ResourceNotFoundException("Tenant no encontrado"));
                     newPatient.setTenant(tenant);
-                    newPatient.setDni(request.getPatient().getDni());
-                    newPatient.setFirstName(request.getPatient().getFirstName());
-                    newPatient.setLastName(request.getPatient().getLastName());
-                    newPatient.setEmail(request.getPatient().getEmail());
-                    newPatient.setPhone(request.getPatient().getPhone());
+                    newPatient.setDni(patientInfo.getDni());
+                    newPatient.setFirstName(patientInfo.getFirstName());
+                    newPatient.setLastName(patientInfo.getLastName());
+                    newPatient.setEmail(patientInfo.getEmail());
+                    newPatient.setPhone(patientInfo.getPhone());
                     // Para compatibilidad con la API antigua, usar un valor por defecto
-                    newPatient.setInsuranceNumber(request.getPatient().getInsuranceNumber());
+                    newPatient.setInsuranceNumber(patientInfo.getInsuranceNumber());
                     newPatient.setActive(true);
 
                     return patientRepository.save(newPatient);
@@ -0,0 +1,106 @@
+package com.saas.medical.service;
+
+import com.saas.medical.model.dto.professional.ProfessionalAvailabilityRequest;
+import com.saas.medical.model.entity.ProfessionalAvailability;
+import com.saas.medical.model.enums.DayOfWeek;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Emparejamiento entre las reglas guardadas de un profesional y la lista que las reemplaza.
+ *
+ * <p>Primero se conservan las filas idénticas a una regla pedida, después se reutilizan las filas del
+ * mismo día (recurrente o fecha) y por último cualquier fila sobrante. Lo que queda sin fila se inserta y
+ * las filas sin regla se eliminan, así un cambio chico en la semana se traduce en pocas sentencias y
+ * las reglas que no cambiaron mantienen su id.</p>
+ */
+final class AvailabilityDiff {
+
+    /**
+     * Fila guardada que corresponde a cada regla pedida, en el mismo orden; {@code null} si hay que insertarla.
+     */
+    private final ProfessionalAvailability[] targets;
+
+    private final List<ProfessionalAvailability> removed;
+
+    /**
+     * Reglas pedidas que ya estaban guardadas tal cual.
+     */
+    private final int unchanged;
+
+    private AvailabilityDiff(ProfessionalAvailability[] targets, List<ProfessionalAvailability> removed, int unchanged) {
+        this.targets = targets;
+        this.removed = removed;
+        this.unchanged = unchanged;
+    }
+
+    static AvailabilityDiff of(List<ProfessionalAvailability> stored, List<ProfessionalAvailabilityRequest> requests) {
+        ProfessionalAvailability[] targets = new ProfessionalAvailability[requests.size()];
+        List<ProfessionalAvailability> unmatched = new ArrayList<>(stored);
+
+        int unchanged = 0;
+        for (int i = 0; i < requests.size(); i++) {
+            targets[i] = take(unmatched, requests.get(i), true);
+            if (targets[i] != null) {
+                unchanged++;
+            }
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            if (targets[i] == null) {
+                targets[i] = take(unmatched, requests.get(i), false);
+            }
+        }
+        Iterator<ProfessionalAvailability> leftovers = unmatched.iterator();
+        for (int i = 0; i < requests.size() && leftovers.hasNext(); i++) {
+            if (targets[i] == null) {
+                targets[i] = leftovers.next();
+                leftovers.remove();
+            }
+        }
+        return new AvailabilityDiff(targets, unmatched, unchanged);
+    }
+
+    ProfessionalAvailability targetOf(int index) {
+        return targets[index];
+    }
+
+    List<ProfessionalAvailability> removed() {
+        return removed;
+    }
+
+    /**
+     * Indica si el reemplazo cambia alguna regla: una fila a eliminar o una regla pedida sin su igual guardada.
+     */
+    boolean changesRules() {
+        return !removed.isEmpty() || unchanged < targets.length;
+    }
+
+    private static ProfessionalAvailability take(List<ProfessionalAvailability> unmatched,
+                                                 ProfessionalAvailabilityRequest request, boolean identical) {
+        for (Iterator<ProfessionalAvailability> it = unmatched.iterator(); it.hasNext(); ) {
+            ProfessionalAvailability candidate = it.next();
+            if (sameDay(candidate, request) && (!identical || sameRule(candidate, request))) {
+                it.remove();
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static boolean sameDay(ProfessionalAvailability stored, ProfessionalAvailabilityRequest request) {
+        LocalDate specificDate = request.getSpecificDate();
+        DayOfWeek dayOfWeek = specificDate != null ? null : request.getDayOfWeek();
+        return Objects.equals(stored.getSpecificDate(), specificDate) && Objects.equals(stored.getDayOfWeek(), dayOfWeek);
+    }
+
+    private static boolean sameRule(ProfessionalAvailability stored, ProfessionalAvailabilityRequest request) {
+        return Objects.equals(stored.getStartTime(), request.getStartTime())
+                && Objects.equals(stored.getEndTime(), request.getEndTime())
+                && Objects.equals(stored.getSlotDurationMinutes(), request.getSlotDurationMinutes())
+                && Objects.equals(stored.getActive(), request.getActive());
+    }
+}
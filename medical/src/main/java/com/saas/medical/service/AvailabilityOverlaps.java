@@ -0,0 +1,123 @@
+package com.saas.medical.service;
+
+import com.saas.medical.exception.AvailabilityOverlapException;
+import com.saas.medical.model.dto.professional.AvailabilityConflictResponse;
+import com.saas.medical.model.dto.professional.ProfessionalAvailabilityRequest;
+import com.saas.medical.model.entity.ProfessionalAvailability;
+import com.saas.medical.model.enums.DayOfWeek;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+/**
+ * Detección de solapamientos entre reglas de disponibilidad con un barrido por día.
+ *
+ * <p>Las reglas se ordenan por día (fecha específica o día de la semana) y hora de inicio, y se
+ * recorren una vez manteniendo las que siguen abiertas en una cola ordenada por hora de fin: cada
+ * regla choca exactamente con las abiertas al llegar a su inicio. El costo es O(n log n) más la
+ * cantidad de pares en conflicto, que se informan todos. Una fecha específica reemplaza al día
+ * recurrente, así que nunca choca con él; dos reglas ya guardadas tampoco se informan entre sí.</p>
+ */
+final class AvailabilityOverlaps {
+
+    private static final Comparator<Rule> BY_DAY_AND_START = Comparator
+            .comparing(Rule::specificDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Rule::dayOfWeek, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Rule::startTime);
+
+    private AvailabilityOverlaps() {
+    }
+
+    /**
+     * Lanza {@link AvailabilityOverlapException} con todos los pares en conflicto, si hay alguno.
+     */
+    static void check(List<ProfessionalAvailability> stored, List<ProfessionalAvailabilityRequest> requested) {
+        List<AvailabilityConflictResponse> conflicts = find(stored, requested);
+        if (conflicts.isEmpty()) {
+            return;
+        }
+        AvailabilityConflictResponse first = conflicts.get(0);
+        String day = first.getSpecificDate() != null
+                ? "fecha " + first.getSpecificDate()
+                : "día " + first.getDayOfWeek().getDisplayName();
+        String message = String.format("Los horarios solapan para %s: (%s - %s) con (%s - %s)",
+                day, first.getStartTime(), first.getEndTime(),
+                first.getConflictingStartTime(), first.getConflictingEndTime());
+        if (conflicts.size() > 1) {
+            message += String.format(" y %d solapamientos más", conflicts.size() - 1);
+        }
+        throw new AvailabilityOverlapException(message, conflicts);
+    }
+
+    static List<AvailabilityConflictResponse> find(List<ProfessionalAvailability> stored,
+                                                   List<ProfessionalAvailabilityRequest> requested) {
+        List<Rule> rules = new ArrayList<>(stored.size() + requested.size());
+        for (ProfessionalAvailability availability : stored) {
+            rules.add(new Rule(availability.getSpecificDate(),
+                    availability.getSpecificDate() != null ? null : availability.getDayOfWeek(),
+                    availability.getStartTime(), availability.getEndTime(), availability.getId()));
+        }
+        for (ProfessionalAvailabilityRequest request : requested) {
+            rules.add(new Rule(request.getSpecificDate(),
+                    request.getSpecificDate() != null ? null : request.getDayOfWeek(),
+                    request.getStartTime(), request.getEndTime(), null));
+        }
+        rules.sort(BY_DAY_AND_START);
+
+        List<AvailabilityConflictResponse> conflicts = new ArrayList<>();
+        PriorityQueue<Rule> open = new PriorityQueue<>(Comparator.comparing(Rule::endTime));
+        Rule previous = null;
+        for (Rule rule : rules) {
+            if (previous == null || !rule.sameDay(previous)) {
+                open.clear();
+            }
+            while (!open.isEmpty() && !open.peek().endTime().isAfter(rule.startTime())) {
+                open.poll();
+            }
+            for (Rule other : open) {
+                if (other.storedId() == null || rule.storedId() == null) {
+                    conflicts.add(conflict(rule, other));
+                }
+            }
+            open.add(rule);
+            previous = rule;
+        }
+        return conflicts;
+    }
+
+    /**
+     * La regla guardada, si la hay, va siempre como la regla con la que se choca.
+     */
+    private static AvailabilityConflictResponse conflict(Rule rule, Rule other) {
+        Rule requested = rule.storedId() == null ? rule : other;
+        Rule conflicting = requested == rule ? other : rule;
+        if (requested.storedId() == null && conflicting.storedId() == null
+                && conflicting.startTime().isBefore(requested.startTime())) {
+            Rule earlier = conflicting;
+            conflicting = requested;
+            requested = earlier;
+        }
+        return AvailabilityConflictResponse.builder()
+                .dayOfWeek(requested.dayOfWeek())
+                .specificDate(requested.specificDate())
+                .startTime(requested.startTime())
+                .endTime(requested.endTime())
+                .conflictingStartTime(conflicting.startTime())
+                .conflictingEndTime(conflicting.endTime())
+                .conflictingAvailabilityId(conflicting.storedId())
+                .build();
+    }
+
+    private record Rule(LocalDate specificDate, DayOfWeek dayOfWeek, LocalTime startTime, LocalTime endTime,
+                        Long storedId) {
+
+        boolean sameDay(Rule other) {
+            return Objects.equals(specificDate, other.specificDate) && Objects.equals(dayOfWeek, other.dayOfWeek);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.saas.medical.service;
+
+import com.saas.medical.model.entity.ProfessionalAvailability;
+import com.saas.medical.model.enums.DayOfWeek;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reglas de disponibilidad de un profesional compiladas para consultarse sin ir a la base.
+ *
+ * <p>Cada día de la semana y cada fecha con configuración propia se compila a un {@link Day}: las
+ * reglas ordenadas por inicio, con sus bordes en minutos del día, y un mapa de bits con una celda
+ * por cada {@link #RESOLUTION_MINUTES} minutos. Una configuración por fecha reemplaza a la recurrente
+ * de ese día, igual que en {@link ProfessionalService#getAvailabilityForDate}.</p>
+ *
+ * <p>La instancia es inmutable y no guarda entidades: se comparte entre hilos y transacciones
+ * desde {@link AvailabilitySchedules}.</p>
+ */
+public final class AvailabilitySchedule {
+
+    public static final int RESOLUTION_MINUTES = 5;
+
+    static final int CELLS_PER_DAY = 24 * 60 / RESOLUTION_MINUTES;
+
+    private static final int WORDS_PER_DAY = (CELLS_PER_DAY + 63) / 64;
+
+    private static final Day CLOSED = new Day(List.of());
+
+    public static final AvailabilitySchedule EMPTY = new AvailabilitySchedule(new EnumMap<>(DayOfWeek.class), Map.of());
+
+    private final Map<DayOfWeek, Day> weekly;
+    private final Map<LocalDate, Day> overrides;
+
+    private AvailabilitySchedule(Map<DayOfWeek, Day> weekly, Map<LocalDate, Day> overrides) {
+        this.weekly = weekly;
+        this.overrides = overrides;
+    }
+
+    /**
+     * Compila las reglas activas de un profesional. Las inactivas se ignoran.
+     */
+    public static AvailabilitySchedule compile(List<ProfessionalAvailability> availabilities) {
+        Map<DayOfWeek, List<Rule>> byDayOfWeek = new EnumMap<>(DayOfWeek.class);
+        Map<LocalDate, List<Rule>> byDate = new HashMap<>();
+        for (ProfessionalAvailability availability : availabilities) {
+            if (Boolean.FALSE.equals(availability.getActive())) {
+                continue;
+            }
+            Rule rule = Rule.of(availability);
+            if (availability.getSpecificDate() != null) {
+                byDate.computeIfAbsent(availability.getSpecificDate(), d -> new ArrayList<>()).add(rule);
+            } else if (availability.getDayOfWeek() != null) {
+                byDayOfWeek.computeIfAbsent(availability.getDayOfWeek(), d -> new ArrayList<>()).add(rule);
+            }
+        }
+
+        Map<DayOfWeek, Day> weekly = new EnumMap<>(DayOfWeek.class);
+        byDayOfWeek.forEach((dayOfWeek, rules) -> weekly.put(dayOfWeek, new Day(rules)));
+        Map<LocalDate, Day> overrides = new HashMap<>();
+        byDate.forEach((date, rules) -> overrides.put(date, new Day(rules)));
+        return new AvailabilitySchedule(weekly, Map.copyOf(overrides));
+    }
+
+    /**
+     * Día compilado que rige en {@code date}; sin reglas, un día cerrado.
+     */
+    public Day forDate(LocalDate date) {
+        Day specific = overrides.get(date);
+        if (specific != null) {
+            return specific;
+        }
+        return weekly.getOrDefault(DayOfWeek.fromLocalDate(date), CLOSED);
+    }
+
+    /**
+     * Indica si el minuto que empieza en {@code dateTime} cae dentro de algún bloque horario.
+     */
+    public boolean isOpen(LocalDateTime dateTime) {
+        return forDate(dateTime.toLocalDate()).isOpen(minuteOfDay(dateTime.toLocalTime()));
+    }
+
+    /**
+     * Bloques horarios abiertos de la fecha como intervalos en minutos locales, fusionados.
+     */
+    public IntervalSet openRanges(LocalDate date) {
+        Day day = forDate(date);
+        if (day.isClosed()) {
+            return IntervalSet.EMPTY;
+        }
+        long dayStart = IntervalSet.toMinutes(date.atStartOfDay());
+        IntervalSet.Builder builder = IntervalSet.builder();
+        for (Rule rule : day.rules()) {
+            builder.add(dayStart + rule.startMinute(), dayStart + rule.endMinute());
+        }
+        return builder.build();
+    }
+
+    public boolean isEmpty() {
+        return weekly.isEmpty() && overrides.isEmpty();
+    }
+
+    static int minuteOfDay(LocalTime time) {
+        return time.toSecondOfDay() / 60;
+    }
+
+    /**
+     * Reglas de un día, ordenadas por inicio. {@code full} marca las celdas cubiertas por completo;
+     * {@code partial}, las que un borde de regla corta a mitad de celda y se resuelven mirando las reglas.
+     */
+    public static final class Day {
+
+        private final List<Rule> rules;
+        private final long[] full = new long[WORDS_PER_DAY];
+        private final long[] partial = new long[WORDS_PER_DAY];
+
+        private Day(List<Rule> rules) {
+            List<Rule> sorted = new ArrayList<>(rules);
+            sorted.sort(Comparator.comparingInt(Rule::startMinute));
+            this.rules = List.copyOf(sorted);
+            for (Rule rule : this.rules) {
+                int firstCell = rule.startMinute() / RESOLUTION_MINUTES;
+                int lastCell = (rule.endMinute() - 1) / RESOLUTION_MINUTES;
+                for (int cell = firstCell; cell <= lastCell; cell++) {
+                    boolean covered = cell * RESOLUTION_MINUTES >= rule.startMinute()
+                            && (cell + 1) * RESOLUTION_MINUTES <= rule.endMinute();
+                    set(covered ? full : partial, cell);
+                }
+            }
+        }
+
+        public List<Rule> rules() {
+            return rules;
+        }
+
+        public boolean isClosed() {
+            return rules.isEmpty();
+        }
+
+        public boolean isOpen(int minuteOfDay) {
+            int cell = minuteOfDay / RESOLUTION_MINUTES;
+            if (get(full, cell)) {
+                return true;
+            }
+            if (!get(partial, cell)) {
+                return false;
+            }
+            for (Rule rule : rules) {
+                if (minuteOfDay >= rule.startMinute() && minuteOfDay < rule.endMinute()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static void set(long[] bits, int cell) {
+            bits[cell >>> 6] |= 1L << (cell & 63);
+        }
+
+        private static boolean get(long[] bits, int cell) {
+            return (bits[cell >>> 6] & (1L << (cell & 63))) != 0;
+        }
+    }
+
+    /**
+     * Copia inmutable de una regla de disponibilidad con sus bordes en minutos del día.
+     */
+    public record Rule(Long id, DayOfWeek dayOfWeek, LocalDate specificDate, LocalTime startTime, LocalTime endTime,
+                       int slotDurationMinutes, LocalDateTime createdAt, int startMinute, int endMinute) {
+
+        static Rule of(ProfessionalAvailability availability) {
+            return new Rule(availability.getId(), availability.getDayOfWeek(), availability.getSpecificDate(),
+                    availability.getStartTime(), availability.getEndTime(), availability.getSlotDurationMinutes(),
+                    availability.getCreatedAt(), minuteOfDay(availability.getStartTime()),
+                    minuteOfDay(availability.getEndTime()));
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.saas.medical.service;
+
+import com.saas.medical.model.entity.ProfessionalAvailability;
+import com.saas.medical.repository.ProfessionalAvailabilityRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Caché de {@link AvailabilitySchedule} por profesional.
+ *
+ * <p>La agenda compilada se arma con una consulta la primera vez que se pide y se descarta cuando
+ * {@link ProfessionalService} agrega, reemplaza o elimina reglas de ese profesional; la siguiente
+ * lectura la vuelve a compilar. El descarte se repite después del commit, y una compilación solo se
+ * instala si ningún cambio llegó mientras se leían las reglas: una lectura concurrente no deja en
+ * memoria la versión anterior. Las entradas expiran tras {@code app.availability-schedule.ttl-seconds}
+ * para acotar la desactualización frente a cambios hechos en otros nodos.</p>
+ */
+@Component
+@Slf4j
+public class AvailabilitySchedules {
+
+    private final ProfessionalAvailabilityRepository professionalAvailabilityRepository;
+
+    @Value("${app.availability-schedule.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private final Map<Long, Entry> schedules = new ConcurrentHashMap<>();
+
+    private final Map<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public AvailabilitySchedules(ProfessionalAvailabilityRepository professionalAvailabilityRepository) {
+        this.professionalAvailabilityRepository = professionalAvailabilityRepository;
+    }
+
+    public AvailabilitySchedule of(Long professionalId) {
+        long now = System.currentTimeMillis();
+        Entry entry = schedules.get(professionalId);
+        if (entry != null && !entry.isExpired(now, ttlSeconds)) {
+            return entry.schedule();
+        }
+        long generationBefore = generation(professionalId).get();
+        AvailabilitySchedule schedule = AvailabilitySchedule.compile(
+                professionalAvailabilityRepository.findByProfessionalIdAndActiveTrue(professionalId));
+        install(professionalId, schedule, generationBefore, now);
+        return schedule;
+    }
+
+    /**
+     * Agendas de varios profesionales; las que no están en memoria se leen juntas con una sola consulta.
+     */
+    public Map<Long, AvailabilitySchedule> of(Collection<Long> professionalIds) {
+        long now = System.currentTimeMillis();
+        Map<Long, AvailabilitySchedule> result = new HashMap<>();
+        Map<Long, Long> missing = new HashMap<>();
+        for (Long professionalId : professionalIds) {
+            Entry entry = schedules.get(professionalId);
+            if (entry != null && !entry.isExpired(now, ttlSeconds)) {
+                result.put(professionalId, entry.schedule());
+            } else {
+                missing.put(professionalId, generation(professionalId).get());
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Map<Long, List<ProfessionalAvailability>> byProfessional = professionalAvailabilityRepository
+                .findByProfessionalIdInAndActiveTrue(new ArrayList<>(missing.keySet())).stream()
+                .collect(Collectors.groupingBy(availability -> availability.getProfessional().getId()));
+        missing.forEach((professionalId, generationBefore) -> {
+            AvailabilitySchedule schedule = AvailabilitySchedule.compile(
+                    byProfessional.getOrDefault(professionalId, List.of()));
+            install(professionalId, schedule, generationBefore, now);
+            result.put(professionalId, schedule);
+        });
+        return result;
+    }
+
+    /**
+     * Descarta la agenda compilada del profesional ahora y, si hay una transacción en curso, otra vez
+     * después del commit.
+     */
+    public void invalidate(Long professionalId) {
+        evict(professionalId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(professionalId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Cantidad de agendas compiladas en memoria, útil para diagnósticos.
+     */
+    public int size() {
+        return schedules.size();
+    }
+
+    private void evict(Long professionalId) {
+        generation(professionalId).incrementAndGet();
+        schedules.remove(professionalId);
+    }
+
+    private void install(Long professionalId, AvailabilitySchedule schedule, long generationBefore, long loadedAt) {
+        AtomicLong generation = generation(professionalId);
+        schedules.compute(professionalId, (id, current) ->
+                generation.get() == generationBefore ? new Entry(schedule, loadedAt) : current);
+        log.debug("Agenda compilada para profesional {}", professionalId);
+    }
+
+    private AtomicLong generation(Long professionalId) {
+        return generations.computeIfAbsent(professionalId, id -> new AtomicLong());
+    }
+
+    private record Entry(AvailabilitySchedule schedule, long loadedAt) {
+
+        boolean isExpired(long now, long ttlSeconds) {
+            return now - loadedAt > ttlSeconds * 1000;
+        }
+    }
+}
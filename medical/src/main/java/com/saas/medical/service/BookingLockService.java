@@ -0,0 +1,151 @@
+package com.saas.medical.service;
+
+import com.saas.medical.exception.BusinessException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializa solo a los escritores que compiten por la agenda de un mismo profesional.
+ *
+ * <p>Dentro del nodo se usa un lock del arreglo de locks (striping por id de profesional), que se
+ * libera recién cuando la transacción termina; así el siguiente escritor ve el turno ya confirmado.
+ * Entre nodos se toma además un {@code pg_advisory_xact_lock(bigint)} sobre el espacio de claves y el id,
+ * que PostgreSQL libera automáticamente con el commit o el rollback. La restricción de exclusión sobre
+ * {@code appointments} queda como última garantía ante cualquier camino que no pase por aquí.</p>
+ */
+@Component
+@Slf4j
+public class BookingLockService {
+
+    /**
+     * Espacio de claves de los advisory locks de agenda de profesionales, para no chocar con otros usos.
+     */
+    static final int PROFESSIONAL_LOCK_NAMESPACE = 1;
+
+    /**
+     * Espacio de claves de los advisory locks de salas y equipos compartidos.
+     */
+    static final int RESOURCE_LOCK_NAMESPACE = 2;
+
+    /**
+     * Bits bajos de la clave del advisory lock que quedan para el id; los altos llevan el espacio de claves.
+     */
+    private static final int ID_BITS = 56;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReentrantLock[] stripes;
+    private final ReentrantLock[] resourceStripes;
+    private final long timeoutMillis;
+    private volatile Boolean postgres;
+
+    public BookingLockService(JdbcTemplate jdbcTemplate,
+                              @Value("${app.booking-lock.stripes:64}") int stripeCount,
+                              @Value("${app.booking-lock.timeout-ms:10000}") long timeoutMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.timeoutMillis = timeoutMillis;
+        this.stripes = newStripes(stripeCount);
+        this.resourceStripes = newStripes(stripeCount);
+    }
+
+    /**
+     * Toma el lock de agenda del profesional hasta el final de la transacción actual.
+     * Debe llamarse dentro de una transacción y antes de verificar solapamientos.
+     */
+    public void lockProfessional(Long professionalId) {
+        lock(stripes, PROFESSIONAL_LOCK_NAMESPACE, professionalId);
+    }
+
+    /**
+     * Toma los locks de las salas o equipos que ocupará el turno, hasta el final de la transacción.
+     * Se llama después de {@link #lockProfessional} y los toma siempre en el mismo orden (lock del
+     * arreglo y luego id), así dos reservas que comparten recursos nunca se esperan en ciclo.
+     */
+    public void lockResources(Collection<Long> resourceIds) {
+        resourceIds.stream().distinct()
+                .sorted(Comparator.comparingInt((Long id) -> stripeIndex(resourceStripes, id)).thenComparing(id -> id))
+                .forEach(resourceId -> lock(resourceStripes, RESOURCE_LOCK_NAMESPACE, resourceId));
+    }
+
+    private void lock(ReentrantLock[] stripeArray, int namespace, Long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("El lock de agenda requiere una transacción activa");
+        }
+
+        ReentrantLock stripe = stripeArray[stripeIndex(stripeArray, id)];
+        try {
+            if (!stripe.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new BusinessException("La agenda del profesional está ocupada, intente nuevamente",
+                        HttpStatus.SERVICE_UNAVAILABLE);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Reserva interrumpida, intente nuevamente", HttpStatus.SERVICE_UNAVAILABLE, e);
+        }
+
+        // Se libera en último lugar, después de que los listeners de commit actualicen el índice de ocupación
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                return Ordered.LOWEST_PRECEDENCE;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                stripe.unlock();
+            }
+        });
+
+        if (isPostgres()) {
+            jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", rs -> null, advisoryKey(namespace, id));
+        }
+    }
+
+    /**
+     * Clave única de 64 bits para {@code pg_advisory_xact_lock(bigint)}: el espacio de claves en los 8 bits
+     * altos y el id en los 56 bajos. Un id más grande solo comparte clave con otro (serializa de más), nunca falla.
+     */
+    static long advisoryKey(int namespace, long id) {
+        return ((long) namespace << ID_BITS) | (id & ((1L << ID_BITS) - 1));
+    }
+
+    private static int stripeIndex(ReentrantLock[] stripeArray, Long id) {
+        return Math.floorMod(Long.hashCode(id), stripeArray.length);
+    }
+
+    private static ReentrantLock[] newStripes(int count) {
+        ReentrantLock[] locks = new ReentrantLock[count];
+        for (int i = 0; i < count; i++) {
+            locks[i] = new ReentrantLock(true);
+        }
+        return locks;
+    }
+
+    private boolean isPostgres() {
+        Boolean detected = postgres;
+        if (detected == null) {
+            detected = jdbcTemplate.execute((Connection connection) -> {
+                try {
+                    return "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+                } catch (SQLException e) {
+                    log.warn("No se pudo detectar el motor de base de datos: {}", e.getMessage());
+                    return false;
+                }
+            });
+            postgres = detected;
+        }
+        return detected;
+    }
+}
@@ -1,20 +1,34 @@
 package com.saas.medical.service;
 
 import com.saas.medical.model.entity.Appointment;
+import com.saas.medical.model.entity.Patient;
+import com.saas.medical.model.entity.Tenant;
 import com.saas.medical.model.entity.User;
+import com.saas.medical.model.entity.WaitlistEntry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EmailService {
 
+    private static final DateTimeFormatter REMINDER_DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter REMINDER_TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
     private final JavaMailSender mailSender;
 
     @Value("${app.frontend.url}")
@@ -54,6 +68,142 @@ public class EmailService {
         log.info("✅ Recordatorio enviado (simulado)");
     }
 
+    /**
+     * Avisa a un paciente de la lista de espera que se liberó un horario dentro de su rango.
+     * El horario no queda reservado: el primero que lo confirme se lo queda.
+     */
+    public void sendWaitlistOffer(WaitlistEntry entry) {
+        String email = entry.getPatient().getEmail();
+        if (email == null || email.isBlank()) {
+            log.info("Paciente sin email, se omite el aviso de lista de espera {}", entry.getId());
+            return;
+        }
+        log.info("📧 Enviando aviso de horario liberado a: {}", email);
+
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(fromEmail);
+        message.setTo(email);
+        message.setSubject("Se liberó un turno - MediSaaS");
+        message.setText(String.format("""
+            Hola %s,
+            
+            Se liberó un turno el %s a las %s con %s, dentro de las fechas en que estás en lista de espera.
+            
+            Si te sirve, reservalo desde %s antes de que lo tome otro paciente.
+            
+            Saludos,
+            El equipo de MediSaaS
+            
+            ---
+            Este es un mensaje automático, por favor no respondas a este correo.
+            """, entry.getPatient().getFirstName(),
+                entry.getOfferedStartDateTime().toLocalDate().format(REMINDER_DATE_FORMAT),
+                entry.getOfferedStartDateTime().toLocalTime().format(REMINDER_TIME_FORMAT),
+                entry.getProfessional().getFullName(),
+                frontendUrl));
+        mailSender.send(message);
+
+        log.info("✅ Aviso de lista de espera enviado");
+    }
+
+    /**
+     * Envía el código para que el paciente consulte o cancele sus turnos desde la página del consultorio.
+     */
+    public void sendAppointmentAccessCode(Patient patient, Tenant tenant, String code, long expiresInMinutes) {
+        log.info("📧 Enviando código de acceso a turnos a: {}", patient.getEmail());
+
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(fromEmail);
+        message.setTo(patient.getEmail());
+        message.setSubject("Código para consultar tus turnos - " + tenant.getName());
+        message.setText(String.format("""
+            Hola %s,
+            
+            Tu código para consultar o cancelar tus turnos en %s es: %s
+            
+            El código vence en %d minutos. Si no lo pediste, puedes ignorar este correo.
+            
+            Saludos,
+            El equipo de MediSaaS
+            
+            ---
+            Este es un mensaje automático, por favor no respondas a este correo.
+            """, patient.getFirstName(), tenant.getName(), code, expiresInMinutes));
+        mailSender.send(message);
+
+        log.info("✅ Código de acceso enviado");
+    }
+
+    /**
+     * Envía un lote de recordatorios usando una sola conexión SMTP (JavaMailSender reutiliza el
+     * transporte para todos los mensajes del arreglo). Devuelve los turnos cuyo envío falló, con su error;
+     * los pacientes sin email se omiten.
+     */
+    public Map<Long, Exception> sendAppointmentReminders(List<Appointment> appointments) {
+        // Por identidad: SimpleMailMessage compara por contenido y dos recordatorios pueden ser iguales
+        Map<SimpleMailMessage, Long> appointmentByMessage = new IdentityHashMap<>();
+        List<SimpleMailMessage> messages = new ArrayList<>(appointments.size());
+        for (Appointment appointment : appointments) {
+            String email = appointment.getPatient().getEmail();
+            if (email == null || email.isBlank()) {
+                log.info("Paciente sin email, se omite el recordatorio del turno {}", appointment.getId());
+                continue;
+            }
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom(fromEmail);
+            message.setTo(email);
+            message.setSubject("Recordatorio de turno - MediSaaS");
+            message.setText(buildReminderEmailBody(appointment));
+            messages.add(message);
+            appointmentByMessage.put(message, appointment.getId());
+        }
+        if (messages.isEmpty()) {
+            return Map.of();
+        }
+
+        log.info("📧 Enviando {} recordatorios de turno", messages.size());
+        Map<Long, Exception> failures = new HashMap<>();
+        try {
+            mailSender.send(messages.toArray(new SimpleMailMessage[0]));
+        } catch (MailSendException e) {
+            // Falla parcial: solo los mensajes informados se reintentan (el mapa de la excepción compara por contenido)
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+            appointmentByMessage.forEach((message, appointmentId) -> {
+                Exception error = failedMessages.get(message);
+                if (error != null) {
+                    failures.put(appointmentId, error);
+                }
+            });
+            if (failures.isEmpty()) {
+                appointmentByMessage.values().forEach(id -> failures.put(id, e));
+            }
+        } catch (MailException e) {
+            // Falla de conexión o autenticación: no salió ningún mensaje
+            appointmentByMessage.values().forEach(id -> failures.put(id, e));
+        }
+        log.info("✅ Recordatorios enviados: {}, con error: {}", messages.size() - failures.size(), failures.size());
+        return failures;
+    }
+
+    private String buildReminderEmailBody(Appointment appointment) {
+        return String.format("""
+            Hola %s,
+            
+            Te recordamos tu turno del %s a las %s con %s.
+            
+            Si no podés asistir, por favor cancelá el turno para liberar el horario.
+            
+            Saludos,
+            El equipo de MediSaaS
+            
+            ---
+            Este es un mensaje automático, por favor no respondas a este correo.
+            """, appointment.getPatient().getFirstName(),
+                appointment.getStartDateTime().toLocalDate().format(REMINDER_DATE_FORMAT),
+                appointment.getStartDateTime().toLocalTime().format(REMINDER_TIME_FORMAT),
+                appointment.getProfessional().getFullName());
+    }
+
     /**
      * Envía email con enlace para resetear contraseña
      */
@@ -0,0 +1,52 @@
+package com.saas.medical.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Límite de pedidos por clave en ventanas fijas, en memoria del nodo. La cantidad de claves está
+ * acotada: al llenarse se descartan las ventanas vencidas y, si aun así no hay lugar, el pedido se
+ * rechaza, de modo que una ráfaga de claves distintas no hace crecer el mapa sin límite.
+ */
+final class FixedWindowRateLimiter {
+
+    private final int maxRequests;
+    private final long windowMillis;
+    private final int maxKeys;
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    FixedWindowRateLimiter(int maxRequests, long windowMillis, int maxKeys) {
+        this.maxRequests = maxRequests;
+        this.windowMillis = windowMillis;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Registra un pedido para la clave; devuelve {@code false} si ya agotó los de su ventana.
+     */
+    boolean tryAcquire(String key) {
+        long now = System.currentTimeMillis();
+        if (windows.size() >= maxKeys && !windows.containsKey(key)) {
+            purge(now);
+            if (windows.size() >= maxKeys) {
+                return false;
+            }
+        }
+        Window window = windows.compute(key, (k, current) -> current == null || current.expired(now, windowMillis)
+                ? new Window(now, 1)
+                : new Window(current.start(), current.count() + 1));
+        return window.count() <= maxRequests;
+    }
+
+    void purge(long now) {
+        windows.values().removeIf(window -> window.expired(now, windowMillis));
+    }
+
+    private record Window(long start, int count) {
+
+        boolean expired(long now, long windowMillis) {
+            return start + windowMillis <= now;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.saas.medical.service;
+
+import com.saas.medical.exception.BusinessException;
+import com.saas.medical.model.entity.Appointment;
+import com.saas.medical.model.entity.GroupSession;
+import com.saas.medical.model.entity.Procedure;
+import com.saas.medical.repository.GroupSessionRepository;
+import com.saas.medical.repository.projection.GroupSessionView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Cupos de las sesiones grupales. Cada sesión lleva un contador por (profesional, inicio) que se
+ * incrementa con un UPDATE condicional ({@code booked < capacity}, con la capacidad fijada al abrir la
+ * sesión): la base serializa los incrementos sobre la fila, así que sumarse a una clase de 20 o más no
+ * necesita el lock de agenda ni contar los turnos solapados en cada reserva. Solo abrir una sesión nueva pasa por el lock y
+ * por la verificación de solapamiento normal. Todos los métodos corren en la transacción de la reserva.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GroupSessionService {
+
+    static final String FULL_MESSAGE = "La sesión grupal no tiene cupos disponibles";
+
+    private final GroupSessionRepository groupSessionRepository;
+
+    public boolean isGroup(Procedure procedure) {
+        return procedure != null && procedure.getCapacity() != null && procedure.getCapacity() > 1;
+    }
+
+    /**
+     * Toma un cupo en la sesión en curso del profesional en ese horario. Devuelve el id de la sesión,
+     * o {@code null} si no hay una sesión con inscriptos para ese procedimiento y horario.
+     */
+    public Long join(Long professionalId, Procedure procedure, LocalDateTime start, LocalDateTime end) {
+        GroupSessionView session = groupSessionRepository.findSessionAt(professionalId, start).orElse(null);
+        if (session == null || session.getBooked() == 0 || !matches(session, procedure, end)) {
+            return null;
+        }
+        if (groupSessionRepository.reserveSeat(session.getId()) == 1) {
+            return session.getId();
+        }
+
+        // El UPDATE no tomó el cupo: o la sesión se llenó o se quedó sin inscriptos mientras tanto
+        boolean stillOpen = groupSessionRepository.findSessionAt(professionalId, start)
+                .map(current -> current.getBooked() > 0)
+                .orElse(false);
+        if (stillOpen) {
+            throw new BusinessException(FULL_MESSAGE, HttpStatus.CONFLICT);
+        }
+        return null;
+    }
+
+    /**
+     * Abre la sesión con el primer cupo tomado. Requiere el lock de agenda del profesional y que el
+     * horario ya se haya verificado libre; reutiliza la fila de una sesión anterior que quedó sin inscriptos.
+     */
+    public Long open(UUID tenantId, Long professionalId, Procedure procedure, LocalDateTime start, LocalDateTime end) {
+        GroupSessionView existing = groupSessionRepository.findSessionAt(professionalId, start).orElse(null);
+        if (existing == null) {
+            GroupSession session = new GroupSession();
+            session.setTenantId(tenantId);
+            session.setProfessionalId(professionalId);
+            session.setProcedureId(procedure.getId());
+            session.setStartDateTime(start);
+            session.setEndDateTime(end);
+            session.setCapacity(procedure.getCapacity());
+            session.setBooked(1);
+            session = groupSessionRepository.save(session);
+            log.info("Sesión grupal abierta: profesional {} a las {} ({} cupos)", professionalId, start, procedure.getCapacity());
+            return session.getId();
+        }
+        if (groupSessionRepository.reopen(existing.getId(), procedure.getId(), end, procedure.getCapacity()) != 1) {
+            // Con el horario verificado libre bajo el lock, la sesión no puede tener inscriptos
+            throw new BusinessException("El horario seleccionado no está disponible - existe solapamiento con otro turno",
+                    HttpStatus.CONFLICT);
+        }
+        return existing.getId();
+    }
+
+    /**
+     * Ajusta el contador cuando un turno de una sesión grupal se cancela o se vuelve a activar.
+     */
+    public void onStatusChange(Appointment appointment, Appointment.AppointmentStatus previousStatus) {
+        Long sessionId = appointment.getGroupSessionId();
+        if (sessionId == null || previousStatus == appointment.getStatus()) {
+            return;
+        }
+        if (appointment.getStatus() == Appointment.AppointmentStatus.CANCELLED) {
+            groupSessionRepository.releaseSeat(sessionId);
+        } else if (previousStatus == Appointment.AppointmentStatus.CANCELLED
+                && groupSessionRepository.reclaimSeat(sessionId) != 1) {
+            throw new BusinessException(FULL_MESSAGE, HttpStatus.CONFLICT);
+        }
+    }
+
+    private static boolean matches(GroupSessionView session, Procedure procedure, LocalDateTime end) {
+        return procedure.getId().equals(session.getProcedureId()) && end.equals(session.getEndDateTime());
+    }
+}
@@ -0,0 +1,194 @@
+package com.saas.medical.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saas.medical.exception.BusinessException;
+import com.saas.medical.model.entity.IdempotencyRecord;
+import com.saas.medical.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Reintentos seguros de operaciones que crean datos, identificados por el header {@code Idempotency-Key}.
+ *
+ * <p>La primera ejecución inserta una fila en {@code idempotency_records} dentro de la misma transacción
+ * que la operación y guarda ahí la respuesta; si la operación falla, la fila se descarta con el rollback
+ * y el cliente puede reintentar. Un reintento devuelve la respuesta guardada sin volver a ejecutar nada:
+ * primero se busca en una caché en memoria acotada ({@code app.idempotency.max-entries}) y después en la
+ * base, que es la que comparten los nodos. Las respuestas vencen tras {@code app.idempotency.ttl-hours}.</p>
+ */
+@Component
+@Slf4j
+public class IdempotencyService {
+
+    static final int MAX_KEY_LENGTH = 200;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final long ttlHours;
+    private final Map<String, CachedResponse> cache;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              ObjectMapper objectMapper,
+                              @Value("${app.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${app.idempotency.max-entries:10000}") int maxEntries) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.ttlHours = ttlHours;
+        // LRU por orden de acceso: al superar el máximo se descarta la respuesta usada hace más tiempo
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Ejecuta la operación una sola vez por clave dentro del alcance indicado (por ejemplo, el consultorio).
+     * Sin clave la operación se ejecuta normalmente. Debe llamarse dentro de la transacción de la operación.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public <T> T execute(String scope, String idempotencyKey, Object request, Class<T> responseType, Supplier<T> operation) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return operation.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException("La Idempotency-Key no puede superar los " + MAX_KEY_LENGTH + " caracteres");
+        }
+
+        String recordKey = scope + ":" + idempotencyKey;
+        String requestHash = hash(request);
+        LocalDateTime now = LocalDateTime.now();
+
+        CachedResponse cached = getCached(recordKey, now);
+        if (cached != null) {
+            return replay(recordKey, cached.requestHash(), cached.body(), requestHash, responseType);
+        }
+
+        Optional<IdempotencyRecord> stored = idempotencyRecordRepository.findById(recordKey);
+        if (stored.isPresent()) {
+            IdempotencyRecord record = stored.get();
+            if (record.getExpiresAt().isAfter(now) && record.getResponseBody() != null) {
+                putCached(recordKey, new CachedResponse(record.getRequestHash(), record.getResponseBody(), record.getExpiresAt()));
+                return replay(recordKey, record.getRequestHash(), record.getResponseBody(), requestHash, responseType);
+            }
+            idempotencyRecordRepository.delete(record);
+            idempotencyRecordRepository.flush();
+        }
+
+        IdempotencyRecord record = new IdempotencyRecord(recordKey, requestHash, now, now.plusHours(ttlHours));
+        try {
+            idempotencyRecordRepository.saveAndFlush(record);
+        } catch (DataIntegrityViolationException e) {
+            // Otro reintento con la misma clave insertó su fila primero y todavía no terminó
+            throw new BusinessException("Hay otra solicitud en curso con la misma Idempotency-Key, intente nuevamente",
+                    HttpStatus.CONFLICT, e);
+        }
+
+        T response = operation.get();
+
+        // La fila está administrada: la respuesta se escribe con el commit de la operación
+        String body = write(response);
+        record.setResponseBody(body);
+        CachedResponse entry = new CachedResponse(requestHash, body, record.getExpiresAt());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                putCached(recordKey, entry);
+            }
+        });
+        return response;
+    }
+
+    /**
+     * Descarta las respuestas vencidas, en memoria y en la base.
+     */
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:3600000}")
+    public void purge() {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (cache) {
+            cache.values().removeIf(entry -> !entry.expiresAt().isAfter(now));
+        }
+        int deleted = idempotencyRecordRepository.deleteExpired(now);
+        if (deleted > 0) {
+            log.debug("Respuestas idempotentes vencidas eliminadas: {}", deleted);
+        }
+    }
+
+    /**
+     * Cantidad de respuestas en memoria, útil para diagnósticos.
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private <T> T replay(String recordKey, String storedHash, String body, String requestHash, Class<T> responseType) {
+        if (!storedHash.equals(requestHash)) {
+            throw new BusinessException("La Idempotency-Key ya se usó con una solicitud distinta",
+                    HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+        log.info("Reintento con Idempotency-Key ya procesada, se devuelve la respuesta guardada: {}", recordKey);
+        try {
+            return objectMapper.readValue(body, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo leer la respuesta guardada de " + recordKey, e);
+        }
+    }
+
+    private CachedResponse getCached(String recordKey, LocalDateTime now) {
+        synchronized (cache) {
+            CachedResponse entry = cache.get(recordKey);
+            if (entry != null && !entry.expiresAt().isAfter(now)) {
+                cache.remove(recordKey);
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    private void putCached(String recordKey, CachedResponse entry) {
+        synchronized (cache) {
+            cache.put(recordKey, entry);
+        }
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la respuesta idempotente", e);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo calcular el hash de la solicitud", e);
+        }
+    }
+
+    private record CachedResponse(String requestHash, String body, LocalDateTime expiresAt) {
+    }
+}
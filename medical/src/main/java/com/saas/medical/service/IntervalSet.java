@@ -0,0 +1,225 @@
+package com.saas.medical.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+
+/**
+ * Conjunto inmutable de intervalos semiabiertos [inicio, fin) expresados en minutos locales
+ * (minutos transcurridos desde 1970-01-01T00:00 en la hora local del consultorio).
+ * Los intervalos se guardan ordenados y fusionados, por lo que consultar un solapamiento
+ * es una búsqueda binaria y unir dos conjuntos es una sola pasada lineal.
+ */
+public final class IntervalSet {
+
+    public static final IntervalSet EMPTY = new IntervalSet(new long[0], new long[0]);
+
+    private static final long MINUTES_PER_DAY = 24 * 60;
+
+    private final long[] starts;
+    private final long[] ends;
+
+    private IntervalSet(long[] starts, long[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static long toMinutes(LocalDateTime dateTime) {
+        return toMinutes(dateTime.toLocalDate(), dateTime.toLocalTime());
+    }
+
+    public static long toMinutes(LocalDate date, LocalTime time) {
+        return date.toEpochDay() * MINUTES_PER_DAY + time.toSecondOfDay() / 60;
+    }
+
+    public static LocalDateTime fromMinutes(long minutes) {
+        long epochDay = Math.floorDiv(minutes, MINUTES_PER_DAY);
+        long minuteOfDay = Math.floorMod(minutes, MINUTES_PER_DAY);
+        return LocalDate.ofEpochDay(epochDay).atTime(LocalTime.ofSecondOfDay(minuteOfDay * 60));
+    }
+
+    /**
+     * Indica si algún intervalo del conjunto se solapa con [start, end).
+     */
+    public boolean overlaps(long start, long end) {
+        int index = lastStartingBefore(end);
+        return index >= 0 && ends[index] > start;
+    }
+
+    public boolean overlaps(LocalDateTime start, LocalDateTime end) {
+        return overlaps(toMinutes(start), toMinutes(end));
+    }
+
+    /**
+     * Une dos conjuntos en una sola pasada sobre ambos arrays ordenados.
+     */
+    public IntervalSet union(IntervalSet other) {
+        if (other.isEmpty()) {
+            return this;
+        }
+        if (isEmpty()) {
+            return other;
+        }
+        Builder builder = new Builder(size() + other.size());
+        int i = 0;
+        int j = 0;
+        while (i < size() || j < other.size()) {
+            if (j >= other.size() || (i < size() && starts[i] <= other.starts[j])) {
+                builder.appendSorted(starts[i], ends[i]);
+                i++;
+            } else {
+                builder.appendSorted(other.starts[j], other.ends[j]);
+                j++;
+            }
+        }
+        return builder.buildSorted();
+    }
+
+    public boolean isEmpty() {
+        return starts.length == 0;
+    }
+
+    public int size() {
+        return starts.length;
+    }
+
+    public long startAt(int index) {
+        return starts[index];
+    }
+
+    public long endAt(int index) {
+        return ends[index];
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof IntervalSet set)) {
+            return false;
+        }
+        return Arrays.equals(starts, set.starts) && Arrays.equals(ends, set.ends);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(starts) + Arrays.hashCode(ends);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("[");
+        for (int i = 0; i < starts.length; i++) {
+            if (i > 0) {
+                text.append(", ");
+            }
+            text.append(fromMinutes(starts[i])).append(" - ").append(fromMinutes(ends[i]));
+        }
+        return text.append(']').toString();
+    }
+
+    /**
+     * Índice del último intervalo cuyo inicio es anterior a {@code minute}, o -1 si no hay ninguno.
+     */
+    private int lastStartingBefore(long minute) {
+        int low = 0;
+        int high = starts.length - 1;
+        int result = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] < minute) {
+                result = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return result;
+    }
+
+    public static final class Builder {
+
+        private long[] starts;
+        private long[] ends;
+        private int size;
+
+        private Builder() {
+            this(8);
+        }
+
+        private Builder(int capacity) {
+            this.starts = new long[Math.max(capacity, 1)];
+            this.ends = new long[Math.max(capacity, 1)];
+        }
+
+        public Builder add(LocalDateTime start, LocalDateTime end) {
+            return add(toMinutes(start), toMinutes(end));
+        }
+
+        public Builder add(long start, long end) {
+            if (end <= start) {
+                return this;
+            }
+            ensureCapacity();
+            starts[size] = start;
+            ends[size] = end;
+            size++;
+            return this;
+        }
+
+        public Builder addAll(IntervalSet set) {
+            for (int i = 0; i < set.size(); i++) {
+                add(set.starts[i], set.ends[i]);
+            }
+            return this;
+        }
+
+        public IntervalSet build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(starts[a], starts[b]));
+
+            Builder sorted = new Builder(size);
+            for (Integer index : order) {
+                sorted.appendSorted(starts[index], ends[index]);
+            }
+            return sorted.buildSorted();
+        }
+
+        /**
+         * Agrega un intervalo asumiendo que llega en orden de inicio, fusionándolo con el anterior si se tocan.
+         */
+        private void appendSorted(long start, long end) {
+            if (size > 0 && start <= ends[size - 1]) {
+                ends[size - 1] = Math.max(ends[size - 1], end);
+                return;
+            }
+            ensureCapacity();
+            starts[size] = start;
+            ends[size] = end;
+            size++;
+        }
+
+        private IntervalSet buildSorted() {
+            return new IntervalSet(Arrays.copyOf(starts, size), Arrays.copyOf(ends, size));
+        }
+
+        private void ensureCapacity() {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+        }
+    }
+}
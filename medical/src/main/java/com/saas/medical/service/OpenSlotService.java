@@ -0,0 +1,429 @@
+package com.saas.medical.service;
+
+import com.saas.medical.event.AppointmentChangedEvent;
+import com.saas.medical.model.dto.slot.AvailableSlotResponse;
+import com.saas.medical.model.entity.Appointment;
+import com.saas.medical.model.entity.OpenSlot;
+import com.saas.medical.model.entity.OpenSlotDay;
+import com.saas.medical.model.entity.Professional;
+import com.saas.medical.model.entity.ProfessionalBlock;
+import com.saas.medical.model.entity.Tenant;
+import com.saas.medical.model.entity.TenantClosure;
+import com.saas.medical.model.enums.DayOfWeek;
+import com.saas.medical.repository.AppointmentRepository;
+import com.saas.medical.repository.OpenSlotDayRepository;
+import com.saas.medical.repository.OpenSlotRepository;
+import com.saas.medical.repository.ProfessionalAvailabilityRepository;
+import com.saas.medical.repository.ProfessionalBlockRepository;
+import com.saas.medical.repository.ProfessionalRepository;
+import com.saas.medical.repository.TenantClosureRepository;
+import com.saas.medical.repository.TenantRepository;
+import com.saas.medical.repository.projection.AppointmentIntervalView;
+import com.saas.medical.repository.projection.OpenSlotHorizonView;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Turnos libres materializados en {@code open_slots} para los próximos {@code app.open-slots.horizon-days}
+ * días de cada profesional, para que la agenda pública y el primer turno libre sean lecturas por rango.
+ *
+ * <p>Cada día tiene una fila en {@code open_slot_days}. Los cambios de turnos, reglas y cierres marcan
+ * solo los días afectados, en la misma transacción que los produce; el recálculo toma los pendientes en lotes
+ * cortos, reemplaza los turnos de esos días y los da por al día solo si nadie los volvió a marcar
+ * mientras tanto. El atraso es la antigüedad del día pendiente más viejo: una lectura que toca un día
+ * sin materializar o pendiente hace más de {@code app.open-slots.max-staleness-seconds} vuelve al motor
+ * en vivo de {@link SlotService}. Las reservas temporales no se materializan: se descartan al leer.</p>
+ */
+@Service
+@Slf4j
+public class OpenSlotService {
+
+    /**
+     * Filas que se leen al buscar el primer turno libre; si todas están tomadas por reservas temporales
+     * la búsqueda sigue en vivo.
+     */
+    private static final int FIRST_OPEN_PAGE = 20;
+
+    private final OpenSlotRepository openSlotRepository;
+    private final OpenSlotDayRepository openSlotDayRepository;
+    private final ProfessionalRepository professionalRepository;
+    private final ProfessionalAvailabilityRepository professionalAvailabilityRepository;
+    private final ProfessionalBlockRepository professionalBlockRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final TenantRepository tenantRepository;
+    private final TenantClosureRepository tenantClosureRepository;
+    private final TenantTimeZones tenantTimeZones;
+    private final SlotHoldService slotHoldService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.open-slots.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.open-slots.horizon-days:60}")
+    private int horizonDays;
+
+    @Value("${app.open-slots.max-staleness-seconds:60}")
+    private long maxStalenessSeconds;
+
+    @Value("${app.open-slots.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.open-slots.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${app.open-slots.recheck-hours:6}")
+    private long recheckHours;
+
+    public OpenSlotService(OpenSlotRepository openSlotRepository,
+                           OpenSlotDayRepository openSlotDayRepository,
+                           ProfessionalRepository professionalRepository,
+                           ProfessionalAvailabilityRepository professionalAvailabilityRepository,
+                           ProfessionalBlockRepository professionalBlockRepository,
+                           AppointmentRepository appointmentRepository,
+                           TenantRepository tenantRepository,
+                           TenantClosureRepository tenantClosureRepository,
+                           TenantTimeZones tenantTimeZones,
+                           SlotHoldService slotHoldService,
+                           PlatformTransactionManager transactionManager) {
+        this.openSlotRepository = openSlotRepository;
+        this.openSlotDayRepository = openSlotDayRepository;
+        this.professionalRepository = professionalRepository;
+        this.professionalAvailabilityRepository = professionalAvailabilityRepository;
+        this.professionalBlockRepository = professionalBlockRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.tenantRepository = tenantRepository;
+        this.tenantClosureRepository = tenantClosureRepository;
+        this.tenantTimeZones = tenantTimeZones;
+        this.slotHoldService = slotHoldService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // ==================== LECTURA ====================
+
+    /**
+     * Turnos libres materializados del profesional en [from, to], sin los que ya empezaron ni los tomados
+     * por reservas temporales. Devuelve {@code null} si algún día del rango no se puede servir desde la tabla.
+     */
+    public List<AvailableSlotResponse> findSlots(TenantZone zone, Long professionalId, LocalDate from, LocalDate to) {
+        if (!enabled) {
+            return null;
+        }
+        LocalDateTime now = zone.now();
+        LocalDate first = from.isBefore(now.toLocalDate()) ? now.toLocalDate() : from;
+        if (first.isAfter(to)) {
+            return null;
+        }
+        long days = ChronoUnit.DAYS.between(first, to) + 1;
+        if (openSlotDayRepository.countServable(professionalId, first, to, staleBefore()) != days) {
+            return null;
+        }
+
+        LocalDateTime rangeStart = first.atStartOfDay();
+        LocalDateTime rangeEnd = to.plusDays(1).atStartOfDay();
+        IntervalSet held = slotHoldService.busyBetween(professionalId, rangeStart, rangeEnd, null);
+        List<AvailableSlotResponse> slots = new ArrayList<>();
+        for (OpenSlot slot : openSlotRepository.findInRange(professionalId, now.isAfter(rangeStart) ? now : rangeStart, rangeEnd)) {
+            if (!held.overlaps(IntervalSet.toMinutes(slot.getStartDateTime()), IntervalSet.toMinutes(slot.getEndDateTime()))) {
+                slots.add(AvailableSlotResponse.builder()
+                        .startDateTime(slot.getStartDateTime())
+                        .endDateTime(slot.getEndDateTime())
+                        .durationMinutes(slot.getDurationMinutes())
+                        .build());
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Primer turno libre materializado entre los profesionales desde {@code notBefore}. Devuelve {@code null}
+     * si la tabla no puede responder; si responde sin turno, {@link FirstOpenSlot#searchedThrough()} indica
+     * hasta qué día no hay ninguno.
+     */
+    public FirstOpenSlot findFirst(TenantZone zone, UUID tenantId, Collection<Long> professionalIds, LocalDateTime notBefore) {
+        if (!enabled || professionalIds.isEmpty()) {
+            return null;
+        }
+        LocalDate first = notBefore.toLocalDate();
+        LocalDate last = zone.now().toLocalDate().plusDays(horizonDays - 1);
+        if (first.isAfter(last)) {
+            return null;
+        }
+        long days = ChronoUnit.DAYS.between(first, last) + 1;
+        List<Long> servable = openSlotDayRepository.findServableProfessionals(
+                professionalIds, first, last, staleBefore(), days);
+        if (servable.size() != professionalIds.size()) {
+            return null;
+        }
+
+        List<OpenSlot> page = openSlotRepository.findFirstOpen(tenantId, professionalIds,
+                notBefore, last.plusDays(1).atStartOfDay(), Limit.of(FIRST_OPEN_PAGE));
+        for (OpenSlot slot : page) {
+            if (!slotHoldService.isHeld(slot.getProfessionalId(), slot.getStartDateTime(), slot.getEndDateTime(), null)) {
+                return new FirstOpenSlot(slot, last);
+            }
+        }
+        return page.size() < FIRST_OPEN_PAGE ? new FirstOpenSlot(null, last) : null;
+    }
+
+    // ==================== MARCAS ====================
+
+    /**
+     * Un turno nuevo o que pasa a cancelado (o deja de estarlo) cambia los días que ocupa. Corre dentro de
+     * la transacción del turno: la marca se confirma o se descarta junto con él.
+     */
+    @EventListener
+    @Transactional
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Appointment.AppointmentStatus previous = event.getPreviousStatus();
+        if (previous != null && (previous != Appointment.AppointmentStatus.CANCELLED) == event.occupiesSlot()) {
+            return;
+        }
+        markDirty(event.getProfessionalId(), event.getStartDateTime().toLocalDate(), lastDayOf(event.getEndDateTime()));
+    }
+
+    public void markDirty(Long professionalId, LocalDate from, LocalDate to) {
+        if (enabled) {
+            openSlotDayRepository.markDirty(professionalId, from, to, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Marca los días que cubre una regla: su fecha específica o cada día de la semana dentro del horizonte.
+     */
+    public void markRuleDirty(UUID tenantId, Long professionalId, DayOfWeek dayOfWeek, LocalDate specificDate) {
+        if (!enabled) {
+            return;
+        }
+        if (specificDate != null) {
+            markDirty(professionalId, specificDate, specificDate);
+            return;
+        }
+        if (dayOfWeek == null) {
+            return;
+        }
+        LocalDate today = zoneOf(tenantId).now().toLocalDate();
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = today.minusDays(1).with(TemporalAdjusters.nextOrSame(dayOfWeek.toJavaTime()));
+             !date.isAfter(lastSeededDay(today)); date = date.plusWeeks(1)) {
+            dates.add(date);
+        }
+        openSlotDayRepository.markDirty(professionalId, dates, LocalDateTime.now());
+    }
+
+    /**
+     * Marca los días que toca [start, end) para todos los profesionales del consultorio: una sola sentencia
+     * sobre las filas de esos días, sin recorrer el resto del horizonte ni de los consultorios.
+     */
+    public void markTenantDirty(UUID tenantId, LocalDateTime start, LocalDateTime end) {
+        if (enabled) {
+            int marked = openSlotDayRepository.markTenantDirty(tenantId, start.toLocalDate(), lastDayOf(end), LocalDateTime.now());
+            log.debug("Turnos libres: {} días marcados por un cambio del consultorio {}", marked, tenantId);
+        }
+    }
+
+    /**
+     * Marca todo el horizonte del profesional, para cambios que pueden tocar cualquier día.
+     */
+    public void markProfessionalDirty(UUID tenantId, Long professionalId) {
+        LocalDate today = zoneOf(tenantId).now().toLocalDate();
+        markDirty(professionalId, firstSeededDay(today), lastSeededDay(today));
+    }
+
+    // ==================== RECÁLCULO ====================
+
+    /**
+     * Recalcula los días pendientes en lotes de {@code batch-size}, cada profesional en su propia
+     * transacción corta. Devuelve la cantidad de días que quedaron al día.
+     */
+    public int refreshDirty() {
+        Map<UUID, TenantZone> zones = new HashMap<>();
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<OpenSlotDay> dirty = transactionTemplate.execute(status ->
+                    openSlotDayRepository.findDirty(Limit.of(batchSize)));
+            if (dirty == null || dirty.isEmpty()) {
+                break;
+            }
+            Map<Long, List<OpenSlotDay>> byProfessional = dirty.stream().collect(
+                    Collectors.groupingBy(OpenSlotDay::getProfessionalId, LinkedHashMap::new, Collectors.toList()));
+            for (List<OpenSlotDay> days : byProfessional.values()) {
+                Integer refreshed = transactionTemplate.execute(status -> refreshDays(days, zones));
+                total += refreshed != null ? refreshed : 0;
+            }
+            if (dirty.size() < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Reemplaza los turnos libres de los días indicados de un profesional. Las revisiones se leyeron
+     * antes que los turnos: si un cambio llega mientras tanto, el día queda pendiente para el próximo lote.
+     */
+    private int refreshDays(List<OpenSlotDay> days, Map<UUID, TenantZone> zones) {
+        Long professionalId = days.get(0).getProfessionalId();
+        TenantZone zone = zones.computeIfAbsent(days.get(0).getTenantId(), this::zoneOf);
+
+        LocalDate first = days.stream().map(OpenSlotDay::getSlotDate).min(LocalDate::compareTo).orElseThrow();
+        LocalDate last = days.stream().map(OpenSlotDay::getSlotDate).max(LocalDate::compareTo).orElseThrow();
+        LocalDateTime rangeStart = first.atStartOfDay();
+        LocalDateTime rangeEnd = last.plusDays(1).atStartOfDay();
+
+        // Reglas, bloqueos, cierres del consultorio y turnos leídos de la base: el recálculo no depende
+        // de cachés de este nodo
+        AvailabilitySchedule schedule = AvailabilitySchedule.compile(
+                professionalAvailabilityRepository.findByProfessionalIdAndActiveTrue(professionalId));
+        IntervalSet.Builder busy = IntervalSet.builder();
+        for (ProfessionalBlock block : professionalBlockRepository.findBlocksInRange(professionalId, rangeStart, rangeEnd)) {
+            busy.add(block.getStartDateTime(), block.getEndDateTime());
+        }
+        for (TenantClosure closure : tenantClosureRepository.findOverlapping(days.get(0).getTenantId(), rangeStart, rangeEnd)) {
+            busy.add(closure.getStartDateTime(), closure.getEndDateTime());
+        }
+        for (AppointmentIntervalView appointment : appointmentRepository.findBusyIntervals(professionalId, rangeStart, rangeEnd)) {
+            busy.add(appointment.getStartDateTime(), appointment.getEndDateTime());
+        }
+        IntervalSet occupied = busy.build().union(zone.gapsBetween(rangeStart, rangeEnd));
+
+        List<OpenSlot> slots = new ArrayList<>();
+        for (OpenSlotDay day : days) {
+            LocalDate date = day.getSlotDate();
+            SlotService.forEachFreeSlot(date, schedule.forDate(date), occupied, null, Long.MIN_VALUE, (start, duration) -> {
+                OpenSlot slot = new OpenSlot();
+                slot.setProfessionalId(professionalId);
+                slot.setTenantId(day.getTenantId());
+                slot.setSlotDate(date);
+                slot.setStartDateTime(IntervalSet.fromMinutes(start));
+                slot.setEndDateTime(IntervalSet.fromMinutes(start + duration));
+                slot.setDurationMinutes(duration);
+                slots.add(slot);
+                return true;
+            });
+        }
+
+        openSlotRepository.deleteDays(professionalId, days.stream().map(OpenSlotDay::getSlotDate).collect(Collectors.toList()));
+        openSlotRepository.saveAll(slots);
+        openSlotRepository.flush();
+
+        LocalDateTime now = LocalDateTime.now();
+        int refreshed = 0;
+        for (OpenSlotDay day : days) {
+            refreshed += openSlotDayRepository.markRefreshed(professionalId, day.getSlotDate(), day.getRevision(), now);
+        }
+        log.debug("Turnos libres materializados para profesional {}: {} días, {} turnos", professionalId, days.size(), slots.size());
+        return refreshed;
+    }
+
+    /**
+     * Corre el horizonte: borra los días pasados, agrega como pendientes los días nuevos de cada profesional
+     * activo y vuelve a marcar los días recalculados hace más de {@code recheck-hours}. Devuelve los días agregados.
+     * Cada profesional usa la fecha de su consultorio; solo se borra lo anterior al consultorio más atrasado.
+     */
+    public int extendHorizon() {
+        LocalDate earliestToday = tenantTimeZones.earliestToday(tenantRepository.findDistinctTimezones());
+        Map<UUID, LocalDate> todays = new HashMap<>();
+        Integer seeded = transactionTemplate.execute(status -> {
+            openSlotRepository.deleteBefore(firstSeededDay(earliestToday));
+            openSlotDayRepository.deleteBefore(firstSeededDay(earliestToday));
+
+            Map<Long, LocalDate> lastDates = openSlotDayRepository.findLastDates().stream()
+                    .collect(Collectors.toMap(OpenSlotHorizonView::getProfessionalId, OpenSlotHorizonView::getLastDate));
+            LocalDateTime now = LocalDateTime.now();
+            List<OpenSlotDay> days = new ArrayList<>();
+            for (Professional professional : professionalRepository.findByActiveTrue()) {
+                LocalDate today = todays.computeIfAbsent(professional.getTenantId(),
+                        tenantId -> zoneOf(tenantId).now().toLocalDate());
+                LocalDate firstDay = firstSeededDay(today);
+                LocalDate lastDay = lastSeededDay(today);
+                LocalDate lastDate = lastDates.get(professional.getId());
+                LocalDate date = lastDate == null || lastDate.isBefore(firstDay) ? firstDay : lastDate.plusDays(1);
+                for (; !date.isAfter(lastDay); date = date.plusDays(1)) {
+                    OpenSlotDay day = new OpenSlotDay();
+                    day.setProfessionalId(professional.getId());
+                    day.setSlotDate(date);
+                    day.setTenantId(professional.getTenantId());
+                    day.setDirtySince(now);
+                    days.add(day);
+                }
+            }
+            openSlotDayRepository.saveAll(days);
+
+            int rechecked = openSlotDayRepository.markRefreshedBefore(now.minusHours(recheckHours), now);
+            if (rechecked > 0) {
+                log.debug("Turnos libres: {} días marcados para verificar de nuevo", rechecked);
+            }
+            return days.size();
+        });
+        return seeded != null ? seeded : 0;
+    }
+
+    /**
+     * Atraso del modelo: antigüedad del día pendiente más viejo, o cero si no hay ninguno.
+     */
+    public Duration staleness() {
+        LocalDateTime oldest = openSlotDayRepository.findOldestDirtySince();
+        return oldest == null ? Duration.ZERO : Duration.between(oldest, LocalDateTime.now());
+    }
+
+    public Duration maxStaleness() {
+        return Duration.ofSeconds(maxStalenessSeconds);
+    }
+
+    /**
+     * Los días pendientes desde antes de este momento ya no se sirven desde la tabla.
+     */
+    private LocalDateTime staleBefore() {
+        return LocalDateTime.now().minusSeconds(maxStalenessSeconds);
+    }
+
+    private TenantZone zoneOf(UUID tenantId) {
+        return tenantTimeZones.of(tenantRepository.findById(tenantId).map(Tenant::getTimezone).orElse(null));
+    }
+
+    // Un día de margen hacia atrás sobre la fecha del consultorio
+    private static LocalDate firstSeededDay(LocalDate today) {
+        return today.minusDays(1);
+    }
+
+    private LocalDate lastSeededDay(LocalDate today) {
+        return today.plusDays(horizonDays);
+    }
+
+    /**
+     * Último día que ocupa un turno que termina en {@code end}: si termina a medianoche, el anterior.
+     */
+    private static LocalDate lastDayOf(LocalDateTime end) {
+        return end.toLocalTime().equals(LocalTime.MIDNIGHT) ? end.toLocalDate().minusDays(1) : end.toLocalDate();
+    }
+
+    /**
+     * Resultado de {@link #findFirst}: el turno encontrado, o {@code null} si no hay ninguno hasta {@code searchedThrough}.
+     */
+    public record FirstOpenSlot(OpenSlot slot, LocalDate searchedThrough) {
+    }
+}
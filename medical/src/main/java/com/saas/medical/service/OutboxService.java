@@ -0,0 +1,237 @@
+package com.saas.medical.service;
+
+import com.saas.medical.model.entity.Appointment;
+import com.saas.medical.model.entity.OutboxEvent;
+import com.saas.medical.model.entity.WaitlistEntry;
+import com.saas.medical.repository.AppointmentRepository;
+import com.saas.medical.repository.OutboxEventRepository;
+import com.saas.medical.repository.WaitlistEntryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Outbox transaccional de notificaciones de turnos.
+ *
+ * <p>{@link #enqueue} escribe el evento dentro de la transacción del turno, así la notificación
+ * existe si y solo si el cambio se confirmó. {@link #dispatchPending} reclama lotes con
+ * {@code FOR UPDATE SKIP LOCKED} en una transacción corta que solo adelanta {@code next_attempt_at}
+ * (un lease) y suma el intento; la entrega por email ocurre fuera de esa transacción, de modo que
+ * un SMTP lento no retiene locks. Si el nodo cae durante la entrega, el evento vuelve a quedar
+ * disponible al vencer el lease.</p>
+ */
+@Service
+@Slf4j
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.outbox.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${app.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Value("${app.outbox.backoff-base-seconds:30}")
+    private long backoffBaseSeconds;
+
+    @Value("${app.outbox.backoff-max-seconds:3600}")
+    private long backoffMaxSeconds;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository,
+                         AppointmentRepository appointmentRepository,
+                         WaitlistEntryRepository waitlistEntryRepository,
+                         EmailService emailService,
+                         PlatformTransactionManager transactionManager) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.waitlistEntryRepository = waitlistEntryRepository;
+        this.emailService = emailService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Registra una notificación del turno en la transacción en curso.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent enqueue(OutboxEvent.EventType eventType, Appointment appointment) {
+        return enqueue(eventType, appointment.getTenantId(), appointment.getId());
+    }
+
+    /**
+     * Registra una notificación de cualquier agregado (turno o entrada de lista de espera) en la transacción en curso.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent enqueue(OutboxEvent.EventType eventType, UUID tenantId, Long aggregateId) {
+        OutboxEvent event = new OutboxEvent();
+        event.setTenantId(tenantId);
+        event.setEventType(eventType);
+        event.setAggregateId(aggregateId);
+        return outboxEventRepository.save(event);
+    }
+
+    /**
+     * Entrega los eventos vencidos en lotes hasta vaciar la cola o alcanzar el máximo por ejecución.
+     * Devuelve la cantidad de eventos entregados.
+     */
+    public int dispatchPending() {
+        int delivered = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<OutboxEvent> claimed = transactionTemplate.execute(status -> claimBatch());
+            if (claimed == null || claimed.isEmpty()) {
+                break;
+            }
+            List<OutboxEvent> reminders = new ArrayList<>();
+            for (OutboxEvent event : claimed) {
+                if (event.getEventType() == OutboxEvent.EventType.APPOINTMENT_REMINDER) {
+                    reminders.add(event);
+                } else if (deliver(event)) {
+                    delivered++;
+                }
+            }
+            delivered += deliverReminders(reminders);
+            if (claimed.size() < batchSize) {
+                break;
+            }
+        }
+        return delivered;
+    }
+
+    /**
+     * Borra eventos ya entregados hace más de {@code retentionDays} días.
+     */
+    public int purgeSent(int retentionDays) {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deleteSentBefore(LocalDateTime.now().minusDays(retentionDays)));
+        return deleted != null ? deleted : 0;
+    }
+
+    private List<OutboxEvent> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> due = outboxEventRepository.findDueForUpdate(now, Limit.of(batchSize));
+        LocalDateTime leaseUntil = now.plusSeconds(leaseSeconds);
+        for (OutboxEvent event : due) {
+            event.setAttempts(event.getAttempts() + 1);
+            event.setNextAttemptAt(leaseUntil);
+        }
+        return due;
+    }
+
+    private boolean deliver(OutboxEvent event) {
+        try {
+            if (event.getEventType() == OutboxEvent.EventType.WAITLIST_OFFER) {
+                WaitlistEntry entry = waitlistEntryRepository.findDetailedById(event.getAggregateId())
+                        .orElseThrow(() -> new IllegalStateException("Entrada de lista de espera no encontrada: " + event.getAggregateId()));
+                emailService.sendWaitlistOffer(entry);
+            } else {
+                Appointment appointment = appointmentRepository.findDetailedById(event.getAggregateId())
+                        .orElseThrow(() -> new IllegalStateException("Turno no encontrado: " + event.getAggregateId()));
+
+                switch (event.getEventType()) {
+                    case APPOINTMENT_CONFIRMATION -> emailService.sendAppointmentConfirmation(appointment);
+                    case APPOINTMENT_CANCELLATION -> emailService.sendAppointmentCancellation(appointment);
+                    case APPOINTMENT_REMINDER -> emailService.sendAppointmentReminder(appointment);
+                    default -> throw new IllegalStateException("Tipo de evento sin entrega: " + event.getEventType());
+                }
+            }
+
+            transactionTemplate.executeWithoutResult(status ->
+                    outboxEventRepository.markSent(event.getId(), LocalDateTime.now()));
+            return true;
+        } catch (Exception e) {
+            recordFailure(event, e);
+            return false;
+        }
+    }
+
+    /**
+     * Los recordatorios del lote se envían juntos: una consulta para los turnos y una sola sesión SMTP.
+     */
+    private int deliverReminders(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return 0;
+        }
+        Map<Long, Appointment> appointments;
+        Map<Long, Exception> failures;
+        try {
+            appointments = appointmentRepository.findDetailedByIdIn(events.stream().map(OutboxEvent::getAggregateId).toList())
+                    .stream()
+                    .collect(Collectors.toMap(Appointment::getId, Function.identity()));
+            failures = emailService.sendAppointmentReminders(events.stream()
+                    .map(event -> appointments.get(event.getAggregateId()))
+                    .filter(Objects::nonNull)
+                    // Un turno cancelado después de encolar el recordatorio ya no se recuerda
+                    .filter(appointment -> appointment.getStatus() == Appointment.AppointmentStatus.CONFIRMED)
+                    .toList());
+        } catch (Exception e) {
+            events.forEach(event -> recordFailure(event, e));
+            return 0;
+        }
+
+        List<Long> sent = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            Exception failure = failures.get(event.getAggregateId());
+            if (!appointments.containsKey(event.getAggregateId())) {
+                recordFailure(event, new IllegalStateException("Turno no encontrado: " + event.getAggregateId()));
+            } else if (failure != null) {
+                recordFailure(event, failure);
+            } else {
+                sent.add(event.getId());
+            }
+        }
+        if (!sent.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status ->
+                    outboxEventRepository.markAllSent(sent, LocalDateTime.now()));
+        }
+        return sent.size();
+    }
+
+    private void recordFailure(OutboxEvent event, Exception error) {
+        boolean exhausted = event.getAttempts() >= maxAttempts;
+        OutboxEvent.Status status = exhausted ? OutboxEvent.Status.FAILED : OutboxEvent.Status.PENDING;
+        LocalDateTime nextAttemptAt = LocalDateTime.now().plusSeconds(backoffSeconds(event.getAttempts()));
+
+        if (exhausted) {
+            log.error("Evento de outbox {} ({}) descartado tras {} intentos: {}",
+                    event.getId(), event.getEventType(), event.getAttempts(), error.getMessage());
+        } else {
+            log.warn("Error entregando evento de outbox {} ({}), intento {}: {} - reintento a las {}",
+                    event.getId(), event.getEventType(), event.getAttempts(), error.getMessage(), nextAttemptAt);
+        }
+
+        transactionTemplate.executeWithoutResult(tx ->
+                outboxEventRepository.markFailedAttempt(event.getId(), status, nextAttemptAt, error.getMessage()));
+    }
+
+    /**
+     * Espera exponencial: base, 2×base, 4×base... con tope en {@code backoffMaxSeconds}.
+     */
+    long backoffSeconds(int attempts) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 20);
+        return Math.min(backoffBaseSeconds << exponent, backoffMaxSeconds);
+    }
+}
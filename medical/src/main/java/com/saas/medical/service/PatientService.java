@@ -38,6 +38,7 @@ public class PatientService {
     private final TenantRepository tenantRepository;
     private final InsuranceCompanyRepository insuranceCompanyRepository;
     private final ProfessionalRepository professionalRepository;
+    private final IdempotencyService idempotencyService;
 
     @Transactional(readOnly = true)
     public List<PatientResponse> findAllByTenant(String search, Long insuranceId, Long professionalId) {
@@ -113,7 +114,20 @@ public class PatientService {
 
     @Transactional
     public PatientResponse create(PatientRequest request) {
+        return create(request, null);
+    }
+
+    /**
+     * Crea el paciente una sola vez por {@code idempotencyKey} dentro del tenant actual.
+     */
+    @Transactional
+    public PatientResponse create(PatientRequest request, String idempotencyKey) {
         UUID tenantId = getCurrentTenantId();
+        return idempotencyService.execute("patients:" + tenantId, idempotencyKey, request,
+                PatientResponse.class, () -> createPatient(tenantId, request));
+    }
+
+    private PatientResponse createPatient(UUID tenantId, PatientRequest request) {
         log.info("Creando paciente para tenant: {} con DNI: {}", tenantId, request.getDni());
         
         // Verificar si existe un paciente inactivo con ese DNI para reactivarlo
@@ -5,9 +5,11 @@ import com.saas.medical.exception.ResourceNotFoundException;
 import com.saas.medical.model.dto.procedure.ProcedureRequest;
 import com.saas.medical.model.dto.procedure.ProcedureResponse;
 import com.saas.medical.model.entity.Procedure;
+import com.saas.medical.model.entity.Resource;
 import com.saas.medical.model.entity.Specialty;
 import com.saas.medical.model.entity.Tenant;
 import com.saas.medical.repository.ProcedureRepository;
+import com.saas.medical.repository.ResourceRepository;
 import com.saas.medical.repository.SpecialtyRepository;
 import com.saas.medical.repository.TenantRepository;
 import com.saas.medical.security.TenantContext;
@@ -25,6 +27,7 @@ import java.util.stream.Collectors;
 public class ProcedureService {
 
     private final ProcedureRepository procedureRepository;
+    private final ResourceRepository resourceRepository;
     private final SpecialtyRepository specialtyRepository;
     private final TenantRepository tenantRepository;
 
@@ -225,6 +228,7 @@ public class ProcedureService {
             procedure = existingProcedure.get();
             procedure.setActive(true);
             procedure.setDurationMinutes(request.getDurationMinutes() != null ? request.getDurationMinutes() : 30);
+            procedure.setCapacity(request.getCapacity() != null ? request.getCapacity() : 1);
 
             if (request.getSpecialtyId() != null) {
                 Specialty specialty = specialtyRepository.findById(request.getSpecialtyId())
@@ -232,6 +236,10 @@ public class ProcedureService {
                 procedure.setSpecialty(specialty);
             }
 
+            if (request.getResourceIds() != null) {
+                procedure.setResources(findResources(tenantId, request.getResourceIds()));
+            }
+
             procedure = procedureRepository.save(procedure);
             log.info("Procedimiento reactivado: {} (tenant: {})", procedure.getName(), tenantId);
         } else {
@@ -240,6 +248,7 @@ public class ProcedureService {
             procedure.setTenantId(tenantId);
             procedure.setName(request.getName());
             procedure.setDurationMinutes(request.getDurationMinutes() != null ? request.getDurationMinutes() : 30);
+            procedure.setCapacity(request.getCapacity() != null ? request.getCapacity() : 1);
 
             if (request.getSpecialtyId() != null) {
                 Specialty specialty = specialtyRepository.findById(request.getSpecialtyId())
@@ -247,6 +256,10 @@ public class ProcedureService {
                 procedure.setSpecialty(specialty);
             }
 
+            if (request.getResourceIds() != null) {
+                procedure.setResources(findResources(tenantId, request.getResourceIds()));
+            }
+
             procedure = procedureRepository.save(procedure);
             log.info("Procedimiento creado: {} (tenant: {})", procedure.getName(), tenantId);
         }
@@ -271,6 +284,9 @@ public class ProcedureService {
         if (request.getDurationMinutes() != null) {
             procedure.setDurationMinutes(request.getDurationMinutes());
         }
+        if (request.getCapacity() != null) {
+            procedure.setCapacity(request.getCapacity());
+        }
 
         if (request.getSpecialtyId() != null) {
             Specialty specialty = specialtyRepository.findById(request.getSpecialtyId())
@@ -280,6 +296,10 @@ public class ProcedureService {
             procedure.setSpecialty(null);
         }
 
+        if (request.getResourceIds() != null) {
+            procedure.setResources(findResources(tenantId, request.getResourceIds()));
+        }
+
         procedure = procedureRepository.save(procedure);
         log.info("Procedimiento actualizado: {} (tenant: {})", procedure.getName(), tenantId);
 
@@ -398,6 +418,20 @@ public class ProcedureService {
         return debug;
     }
 
+    /**
+     * Recursos activos del tenant con los ids indicados; falla si alguno no existe.
+     */
+    private Set<Resource> findResources(UUID tenantId, Set<Long> resourceIds) {
+        if (resourceIds.isEmpty()) {
+            return new HashSet<>();
+        }
+        List<Resource> resources = resourceRepository.findActiveByTenantIdAndIdIn(tenantId, resourceIds);
+        if (resources.size() != resourceIds.size()) {
+            throw new ResourceNotFoundException("Recurso no encontrado entre: " + resourceIds);
+        }
+        return new HashSet<>(resources);
+    }
+
     private UUID getCurrentTenantId() {
         String tenantId = TenantContext.getCurrentTenant();
         log.info("=== getCurrentTenantId() - TenantContext.getCurrentTenant() = '{}' ===", tenantId);
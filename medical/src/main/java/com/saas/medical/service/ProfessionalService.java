@@ -13,7 +13,6 @@ import com.saas.medical.model.entity.Tenant;
 import com.saas.medical.model.entity.InsuranceCompany;
 import com.saas.medical.model.entity.User;
 import com.saas.medical.model.entity.Role;
-import com.saas.medical.model.enums.DayOfWeek;
 import com.saas.medical.repository.ProfessionalRepository;
 import com.saas.medical.repository.ProfessionalAvailabilityRepository;
 import com.saas.medical.repository.SpecialtyRepository;
@@ -32,7 +31,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -49,6 +47,8 @@ public class ProfessionalService {
 
     private final ProfessionalRepository professionalRepository;
     private final ProfessionalAvailabilityRepository professionalAvailabilityRepository;
+    private final AvailabilitySchedules availabilitySchedules;
+    private final OpenSlotService openSlotService;
     private final SpecialtyRepository specialtyRepository;
     private final TenantRepository tenantRepository;
     private final InsuranceCompanyService insuranceCompanyService;
@@ -484,19 +484,9 @@ public class ProfessionalService {
         validateAvailabilityRequest(request);
         Professional professional = validateProfessionalAccess(professionalId);
         
-        // Verificar que no exista solapamiento de horarios
-        if (request.getSpecificDate() != null) {
-            // Para fecha específica, verificar solapamientos en esa fecha
-            validateNoTimeOverlapForDate(professionalId, request.getSpecificDate(), 
-                    request.getStartTime(), request.getEndTime(), null);
-        } else {
-            // Para configuración recurrente, verificar solapamientos en el día de la semana
-            if (request.getDayOfWeek() == null) {
-                throw new BusinessException("Debe especificar un día de la semana para configuraciones recurrentes");
-            }
-            validateNoTimeOverlap(professionalId, request.getDayOfWeek(), 
-                    request.getStartTime(), request.getEndTime(), null);
-        }
+        // Verificar que no exista solapamiento con las reglas activas, leídas con una sola consulta
+        AvailabilityOverlaps.check(professionalAvailabilityRepository.findByProfessionalIdAndActiveTrue(professionalId),
+                List.of(request));
         
         ProfessionalAvailability availability = new ProfessionalAvailability();
         availability.setProfessional(professional);
@@ -518,6 +508,9 @@ public class ProfessionalService {
         availability.setActive(request.getActive());
         
         availability = professionalAvailabilityRepository.save(availability);
+        availabilitySchedules.invalidate(professionalId);
+        openSlotService.markRuleDirty(professional.getTenantId(), professionalId,
+                availability.getDayOfWeek(), availability.getSpecificDate());
         
         if (request.getSpecificDate() != null) {
             log.info("Disponibilidad específica creada para fecha {}: {} para professional {}", 
@@ -550,72 +543,58 @@ public class ProfessionalService {
         // Validar todas las requests
         requests.forEach(this::validateAvailabilityRequest);
         
-        // Eliminar disponibilidades existentes
-        professionalAvailabilityRepository.deleteByProfessionalId(professionalId);
-        
-        // Crear nuevas disponibilidades
-        List<ProfessionalAvailabilityResponse> responses = new ArrayList<>();
-        for (ProfessionalAvailabilityRequest request : requests) {
-            log.info("🔍 DEBUG updateAvailability - specificDate: {}, dayOfWeek: {}", 
-                    request.getSpecificDate(), request.getDayOfWeek());
-            
-            // Validar solapamientos entre las nuevas configuraciones
-            validateNoTimeOverlapInList(requests, request);
-            
-            ProfessionalAvailability availability = new ProfessionalAvailability();
-            availability.setProfessional(professional);
-            
-            // Lógica: Si hay fecha específica, usar solo esa. Si no, usar dayOfWeek
-            if (request.getSpecificDate() != null) {
-                log.info("📅 Actualizando con disponibilidad ESPECÍFICA para fecha: {}", request.getSpecificDate());
-                availability.setSpecificDate(request.getSpecificDate());
-                availability.setDayOfWeek(null); // Ignorar dayOfWeek para fechas específicas
-            } else {
-                log.info("📅 Actualizando con disponibilidad RECURRENTE para día: {}", request.getDayOfWeek());
-                availability.setDayOfWeek(request.getDayOfWeek());
-                availability.setSpecificDate(null);
+        // Validar solapamientos entre las nuevas configuraciones: reemplazan a las guardadas
+        AvailabilityOverlaps.check(List.of(), requests);
+
+        // Comparar con las filas guardadas: solo se escriben las reglas que cambian
+        AvailabilityDiff diff = AvailabilityDiff.of(
+                professionalAvailabilityRepository.findByProfessionalId(professionalId), requests);
+
+        List<ProfessionalAvailability> availabilities = new ArrayList<>(requests.size());
+        List<ProfessionalAvailability> inserts = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            ProfessionalAvailability availability = diff.targetOf(i);
+            if (availability == null) {
+                availability = new ProfessionalAvailability();
+                availability.setProfessional(professional);
+                inserts.add(availability);
             }
-            
-            availability.setStartTime(request.getStartTime());
-            availability.setEndTime(request.getEndTime());
-            availability.setSlotDurationMinutes(request.getSlotDurationMinutes());
-            availability.setActive(request.getActive());
-            
-            availability = professionalAvailabilityRepository.save(availability);
-            responses.add(mapToAvailabilityResponse(availability));
+            // Las filas reutilizadas se actualizan por dirty checking en un mismo batch al hacer flush
+            applyAvailabilityRequest(availability, requests.get(i));
+            availabilities.add(availability);
         }
-        
-        log.info("Disponibilidades actualizadas para professional {}: {} configuraciones", 
-                professional.getFullName(), requests.size());
+
+        if (!diff.removed().isEmpty()) {
+            professionalAvailabilityRepository.deleteAllByIdInBatch(
+                    diff.removed().stream().map(ProfessionalAvailability::getId).collect(Collectors.toList()));
+        }
+        professionalAvailabilityRepository.saveAll(inserts);
+        availabilitySchedules.invalidate(professionalId);
+        if (diff.changesRules()) {
+            openSlotService.markProfessionalDirty(professional.getTenantId(), professionalId);
+        }
+
+        List<ProfessionalAvailabilityResponse> responses = availabilities.stream()
+                .map(this::mapToAvailabilityResponse)
+                .collect(Collectors.toList());
+
+        log.info("Disponibilidades actualizadas para professional {}: {} configuraciones ({} nuevas, {} eliminadas)",
+                professional.getFullName(), requests.size(), inserts.size(), diff.removed().size());
         
         return responses;
     }
 
     /**
-     * Busca disponibilidad para una fecha específica, priorizando configuraciones específicas sobre recurrentes
+     * Busca disponibilidad para una fecha específica, priorizando configuraciones específicas sobre recurrentes.
+     * Las reglas salen de la agenda compilada del profesional, sin consultas por fecha.
      */
     @Transactional(readOnly = true)
     public List<ProfessionalAvailabilityResponse> getAvailabilityForDate(Long professionalId, LocalDate date) {
         Professional professional = validateProfessionalAccess(professionalId);
-        
-        // Primero buscar configuraciones específicas para esa fecha
-        List<ProfessionalAvailability> specificAvailabilities = professionalAvailabilityRepository
-                .findByProfessionalIdAndSpecificDateAndActive(professionalId, date);
-        
-        if (!specificAvailabilities.isEmpty()) {
-            // Si existe configuración específica, usarla (incluso si está vacía para indicar día libre)
-            return specificAvailabilities.stream()
-                    .map(this::mapToAvailabilityResponse)
-                    .collect(Collectors.toList());
-        }
-        
-        // Si no hay configuración específica, usar la configuración recurrente del día de la semana
-        DayOfWeek dayOfWeek = DayOfWeek.fromLocalDate(date);
-        List<ProfessionalAvailability> recurringAvailabilities = professionalAvailabilityRepository
-                .findByProfessionalIdAndDayOfWeekAndActive(professionalId, dayOfWeek);
-        
-        return recurringAvailabilities.stream()
-                .map(this::mapToAvailabilityResponse)
+
+        // La configuración específica de la fecha, si existe, ya reemplaza a la recurrente del día de la semana
+        return availabilitySchedules.of(professionalId).forDate(date).rules().stream()
+                .map(rule -> mapToAvailabilityResponse(rule, professional))
                 .collect(Collectors.toList());
     }
 
@@ -628,6 +607,9 @@ public class ProfessionalService {
                 .orElseThrow(() -> new ResourceNotFoundException("Disponibilidad no encontrada: " + availabilityId));
         
         professionalAvailabilityRepository.delete(availability);
+        availabilitySchedules.invalidate(availability.getProfessional().getId());
+        openSlotService.markRuleDirty(tenantId, availability.getProfessional().getId(),
+                availability.getDayOfWeek(), availability.getSpecificDate());
         log.info("Disponibilidad eliminada: {} para professional {}", 
                 availability.getDayOfWeek().getDisplayName(), 
                 availability.getProfessional().getFullName());
@@ -809,85 +791,21 @@ public class ProfessionalService {
         // No es necesario validar que ambos estén presentes
     }
 
-    private void validateNoTimeOverlap(Long professionalId, com.saas.medical.model.enums.DayOfWeek dayOfWeek, 
-                                     LocalTime newStartTime, LocalTime newEndTime, Long excludeAvailabilityId) {
-        List<ProfessionalAvailability> existingAvailabilities = professionalAvailabilityRepository
-                .findByProfessionalIdAndDayOfWeekAndActive(professionalId, dayOfWeek);
-        
-        for (ProfessionalAvailability existing : existingAvailabilities) {
-            if (excludeAvailabilityId != null && existing.getId().equals(excludeAvailabilityId)) {
-                continue;
-            }
-            
-            if (timesOverlap(newStartTime, newEndTime, existing.getStartTime(), existing.getEndTime())) {
-                throw new BusinessException(String.format(
-                    "El horario solapa con una configuración existente para %s (%s - %s)",
-                    dayOfWeek.getDisplayName(),
-                    existing.getStartTime(),
-                    existing.getEndTime()
-                ));
-            }
-        }
-    }
-
-    private void validateNoTimeOverlapForDate(Long professionalId, LocalDate specificDate, 
-                                            LocalTime newStartTime, LocalTime newEndTime, Long excludeAvailabilityId) {
-        List<ProfessionalAvailability> existingAvailabilities = professionalAvailabilityRepository
-                .findByProfessionalIdAndSpecificDateAndActive(professionalId, specificDate);
-        
-        for (ProfessionalAvailability existing : existingAvailabilities) {
-            if (excludeAvailabilityId != null && existing.getId().equals(excludeAvailabilityId)) {
-                continue;
-            }
-            
-            if (timesOverlap(newStartTime, newEndTime, existing.getStartTime(), existing.getEndTime())) {
-                throw new BusinessException(String.format(
-                    "El horario solapa con una configuración existente para la fecha %s (%s - %s)",
-                    specificDate,
-                    existing.getStartTime(),
-                    existing.getEndTime()
-                ));
-            }
-        }
-    }
-
-    private void validateNoTimeOverlapInList(List<ProfessionalAvailabilityRequest> requests, 
-                                           ProfessionalAvailabilityRequest current) {
-        for (ProfessionalAvailabilityRequest other : requests) {
-            if (other == current) continue;
-            
-            boolean sameTimeSlot = false;
-            
-            // Comparar si son el mismo slot temporal
-            if (current.getSpecificDate() != null && other.getSpecificDate() != null) {
-                // Ambas son fechas específicas: comparar fechas exactas
-                sameTimeSlot = current.getSpecificDate().equals(other.getSpecificDate());
-            } else if (current.getDayOfWeek() != null && other.getDayOfWeek() != null) {
-                // Ambas son días recurrentes: comparar días de la semana
-                sameTimeSlot = current.getDayOfWeek().equals(other.getDayOfWeek());
-            }
-            // Si una es fecha específica y otra día recurrente, NO hay solapamiento
-            
-            if (sameTimeSlot &&
-                timesOverlap(current.getStartTime(), current.getEndTime(), 
-                           other.getStartTime(), other.getEndTime())) {
-                
-                String timeSlotDescription = current.getSpecificDate() != null 
-                    ? "fecha " + current.getSpecificDate()
-                    : "día " + (current.getDayOfWeek() != null ? current.getDayOfWeek().getDisplayName() : "desconocido");
-                    
-                throw new BusinessException(String.format(
-                    "Los horarios solapan para %s: (%s - %s) con (%s - %s)",
-                    timeSlotDescription,
-                    current.getStartTime(), current.getEndTime(),
-                    other.getStartTime(), other.getEndTime()
-                ));
-            }
+    /**
+     * Copia la regla pedida sobre la fila. Si hay fecha específica se usa solo esa; si no, el día de la semana.
+     */
+    private void applyAvailabilityRequest(ProfessionalAvailability availability, ProfessionalAvailabilityRequest request) {
+        if (request.getSpecificDate() != null) {
+            availability.setSpecificDate(request.getSpecificDate());
+            availability.setDayOfWeek(null); // Ignorar dayOfWeek para fechas específicas
+        } else {
+            availability.setDayOfWeek(request.getDayOfWeek());
+            availability.setSpecificDate(null);
         }
-    }
-
-    private boolean timesOverlap(LocalTime start1, LocalTime end1, LocalTime start2, LocalTime end2) {
-        return start1.isBefore(end2) && start2.isBefore(end1);
+        availability.setStartTime(request.getStartTime());
+        availability.setEndTime(request.getEndTime());
+        availability.setSlotDurationMinutes(request.getSlotDurationMinutes());
+        availability.setActive(request.getActive());
     }
 
     private ProfessionalAvailabilityResponse mapToAvailabilityResponse(ProfessionalAvailability availability) {
@@ -906,6 +824,23 @@ public class ProfessionalService {
                 .build();
     }
 
+    private ProfessionalAvailabilityResponse mapToAvailabilityResponse(AvailabilitySchedule.Rule rule,
+                                                                       Professional professional) {
+        return ProfessionalAvailabilityResponse.builder()
+                .id(rule.id())
+                .dayOfWeek(rule.dayOfWeek())
+                .dayOfWeekDisplay(rule.dayOfWeek() != null ? rule.dayOfWeek().getDisplayName() : null)
+                .specificDate(rule.specificDate())
+                .startTime(rule.startTime())
+                .endTime(rule.endTime())
+                .slotDurationMinutes(rule.slotDurationMinutes())
+                .active(true)
+                .createdAt(rule.createdAt())
+                .professionalId(professional.getId())
+                .professionalName(professional.getFullName())
+                .build();
+    }
+
     private UUID getCurrentTenantId() {
         String tenantId = TenantContext.getCurrentTenant();
         if (tenantId == null || tenantId.trim().isEmpty()) {
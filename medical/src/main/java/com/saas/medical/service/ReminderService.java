@@ -0,0 +1,186 @@
+package com.saas.medical.service;
+
+import com.saas.medical.model.entity.Appointment;
+import com.saas.medical.model.entity.OutboxEvent;
+import com.saas.medical.model.entity.ReminderRun;
+import com.saas.medical.repository.AppointmentRepository;
+import com.saas.medical.repository.ReminderRunRepository;
+import com.saas.medical.repository.TenantRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Encola los recordatorios de turnos que empiezan dentro de ~24 horas.
+ *
+ * <p>El tiempo se divide en ventanas fijas ({@code app.reminders.window-minutes}); cada ejecución
+ * reclama la ventana que empieza {@code lead-hours} después de ahora insertando una fila en
+ * {@code reminder_runs}, de modo que un solo nodo la procesa. Los turnos se recorren con un scan
+ * por keyset en lotes acotados: cada lote, en su propia transacción, bloquea sus filas, las marca
+ * con {@code reminder_sent_at} y encola un evento de recordatorio en el outbox. El envío lo hace
+ * {@link OutboxService}, que agrupa los recordatorios de cada lote en una sola sesión SMTP.</p>
+ *
+ * <p>Las ventanas se cuentan con el reloj del servidor, pero los turnos están en hora local de cada
+ * consultorio: la ventana se traduce a cada zona horaria en uso y se recorre por separado.</p>
+ */
+@Service
+@Slf4j
+public class ReminderService {
+
+    private final AppointmentRepository appointmentRepository;
+    private final ReminderRunRepository reminderRunRepository;
+    private final TenantRepository tenantRepository;
+    private final TenantTimeZones tenantTimeZones;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName();
+
+    @Value("${app.reminders.lead-hours:24}")
+    private long leadHours;
+
+    @Value("${app.reminders.window-minutes:5}")
+    private long windowMinutes;
+
+    @Value("${app.reminders.catch-up-minutes:60}")
+    private long catchUpMinutes;
+
+    @Value("${app.reminders.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.reminders.stale-claim-minutes:15}")
+    private long staleClaimMinutes;
+
+    public ReminderService(AppointmentRepository appointmentRepository,
+                           ReminderRunRepository reminderRunRepository,
+                           TenantRepository tenantRepository,
+                           TenantTimeZones tenantTimeZones,
+                           OutboxService outboxService,
+                           PlatformTransactionManager transactionManager) {
+        this.appointmentRepository = appointmentRepository;
+        this.reminderRunRepository = reminderRunRepository;
+        this.tenantRepository = tenantRepository;
+        this.tenantTimeZones = tenantTimeZones;
+        this.outboxService = outboxService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Procesa la ventana que corresponde a {@code now}, en hora del servidor. Devuelve la cantidad
+     * de recordatorios encolados, o -1 si otro nodo ya tiene la ventana.
+     */
+    public int runWindow(LocalDateTime now) {
+        LocalDateTime windowStart = windowStartFor(now.plusHours(leadHours));
+        LocalDateTime windowEnd = windowStart.plusMinutes(windowMinutes);
+
+        if (!claim(windowStart, now)) {
+            log.debug("Ventana de recordatorios {} reclamada por otro nodo", windowStart);
+            return -1;
+        }
+
+        // Se incluye un margen hacia atrás para recuperar ventanas que no se procesaron (nodo caído, deploy)
+        LocalDateTime scanFrom = windowStart.minusMinutes(catchUpMinutes);
+        if (scanFrom.isBefore(now)) {
+            scanFrom = now;
+        }
+
+        TenantZone serverZone = tenantTimeZones.of(ZoneId.systemDefault().getId());
+        Instant scanFromInstant = serverZone.toInstant(scanFrom);
+        Instant windowEndInstant = serverZone.toInstant(windowEnd);
+
+        int queued = 0;
+        for (String timezone : tenantRepository.findDistinctTimezones()) {
+            TenantZone zone = tenantTimeZones.of(timezone);
+            queued += queueWindow(timezone, zone.toLocal(scanFromInstant), zone.toLocal(windowEndInstant), now);
+        }
+
+        int total = queued;
+        transactionTemplate.executeWithoutResult(status ->
+                reminderRunRepository.complete(windowStart, nodeId, LocalDateTime.now(), total));
+        if (queued > 0) {
+            log.info("Recordatorios encolados para turnos entre {} y {}: {}", scanFrom, windowEnd, queued);
+        }
+        return queued;
+    }
+
+    /**
+     * Borra reclamos de ventanas viejas para que la tabla no crezca indefinidamente.
+     */
+    public int purgeRuns(LocalDateTime before) {
+        Integer deleted = transactionTemplate.execute(status -> reminderRunRepository.deleteByWindowStartBefore(before));
+        return deleted != null ? deleted : 0;
+    }
+
+    /**
+     * Recorre por keyset los turnos de los consultorios de una zona que empiezan en [from, to),
+     * expresados en la hora local de esa zona.
+     */
+    private int queueWindow(String timezone, LocalDateTime from, LocalDateTime to, LocalDateTime now) {
+        int queued = 0;
+        LocalDateTime afterStart = from.minusMinutes(1);
+        Long afterId = Long.MAX_VALUE;
+        while (true) {
+            LocalDateTime cursorStart = afterStart;
+            Long cursorId = afterId;
+            List<Appointment> batch = transactionTemplate.execute(status ->
+                    queueBatch(timezone, from, to, cursorStart, cursorId, now));
+            if (batch == null || batch.isEmpty()) {
+                break;
+            }
+            queued += batch.size();
+            Appointment last = batch.get(batch.size() - 1);
+            afterStart = last.getStartDateTime();
+            afterId = last.getId();
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+        return queued;
+    }
+
+    private List<Appointment> queueBatch(String timezone, LocalDateTime from, LocalDateTime to,
+                                         LocalDateTime afterStart, Long afterId, LocalDateTime now) {
+        List<Appointment> batch = appointmentRepository.findReminderBatchForUpdate(
+                timezone, from, to, afterStart, afterId, Limit.of(batchSize));
+        if (batch.isEmpty()) {
+            return batch;
+        }
+        appointmentRepository.markReminderSent(batch.stream().map(Appointment::getId).toList(), now);
+        for (Appointment appointment : batch) {
+            outboxService.enqueue(OutboxEvent.EventType.APPOINTMENT_REMINDER, appointment);
+        }
+        return batch;
+    }
+
+    private boolean claim(LocalDateTime windowStart, LocalDateTime now) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    reminderRunRepository.saveAndFlush(new ReminderRun(windowStart, nodeId, now)));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            Integer taken = transactionTemplate.execute(status -> reminderRunRepository.takeOverStale(
+                    windowStart, nodeId, now, now.minusMinutes(staleClaimMinutes)));
+            if (taken != null && taken > 0) {
+                log.warn("Ventana de recordatorios {} retomada: el reclamo anterior no terminó", windowStart);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private LocalDateTime windowStartFor(LocalDateTime dateTime) {
+        LocalDateTime startOfHour = dateTime.truncatedTo(ChronoUnit.HOURS);
+        long minutes = ChronoUnit.MINUTES.between(startOfHour, dateTime);
+        return startOfHour.plusMinutes(minutes - minutes % windowMinutes);
+    }
+}
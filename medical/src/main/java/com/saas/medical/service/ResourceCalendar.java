@@ -0,0 +1,55 @@
+package com.saas.medical.service;
+
+import com.saas.medical.model.entity.Procedure;
+import com.saas.medical.model.entity.Resource;
+import com.saas.medical.repository.AppointmentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Ocupación de las salas y equipos compartidos. Un recurso está ocupado mientras dure cualquier
+ * turno no cancelado cuyo procedimiento lo requiera, sea del profesional que sea. Todos los
+ * recursos de un procedimiento se resuelven con una sola consulta y quedan fusionados en un
+ * {@link IntervalSet}, que se une en una pasada con la agenda del profesional.
+ */
+@Component
+@RequiredArgsConstructor
+public class ResourceCalendar {
+
+    private final AppointmentRepository appointmentRepository;
+
+    /**
+     * Ids de los recursos activos que requiere el procedimiento; vacío si no requiere ninguno.
+     */
+    public Set<Long> resourceIdsOf(Procedure procedure) {
+        if (procedure == null) {
+            return Set.of();
+        }
+        return procedure.getResources().stream()
+                .filter(Resource::getActive)
+                .map(Resource::getId)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Horarios en que alguno de los recursos está ocupado dentro de [from, to).
+     */
+    public IntervalSet busyBetween(Collection<Long> resourceIds, LocalDateTime from, LocalDateTime to) {
+        if (resourceIds.isEmpty()) {
+            return IntervalSet.EMPTY;
+        }
+        IntervalSet.Builder builder = IntervalSet.builder();
+        appointmentRepository.findResourceBusyIntervals(resourceIds, from, to)
+                .forEach(interval -> builder.add(interval.getStartDateTime(), interval.getEndDateTime()));
+        return builder.build();
+    }
+
+    public boolean isBusy(Collection<Long> resourceIds, LocalDateTime start, LocalDateTime end) {
+        return busyBetween(resourceIds, start, end).overlaps(start, end);
+    }
+}
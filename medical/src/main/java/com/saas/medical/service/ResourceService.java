@@ -0,0 +1,95 @@
+package com.saas.medical.service;
+
+import com.saas.medical.exception.BusinessException;
+import com.saas.medical.exception.ResourceNotFoundException;
+import com.saas.medical.model.dto.resource.ResourceRequest;
+import com.saas.medical.model.dto.resource.ResourceResponse;
+import com.saas.medical.model.entity.Resource;
+import com.saas.medical.repository.ResourceRepository;
+import com.saas.medical.security.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ResourceService {
+
+    private final ResourceRepository resourceRepository;
+
+    @Transactional(readOnly = true)
+    public List<ResourceResponse> findAllByCurrentTenant() {
+        return resourceRepository.findByTenantIdAndActiveTrue(getCurrentTenantId())
+                .stream()
+                .map(ResourceResponse::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public ResourceResponse create(ResourceRequest request) {
+        UUID tenantId = getCurrentTenantId();
+        if (resourceRepository.existsByTenantIdAndName(tenantId, request.getName())) {
+            throw new BusinessException("Ya existe un recurso con el nombre: " + request.getName());
+        }
+
+        Resource resource = new Resource();
+        resource.setTenantId(tenantId);
+        resource.setName(request.getName());
+        resource.setDescription(request.getDescription());
+        resource = resourceRepository.save(resource);
+
+        log.info("Recurso creado: {} (tenant: {})", resource.getName(), tenantId);
+        return ResourceResponse.fromEntity(resource);
+    }
+
+    @Transactional
+    public ResourceResponse update(Long id, ResourceRequest request) {
+        UUID tenantId = getCurrentTenantId();
+        Resource resource = resourceRepository.findByIdAndTenantId(id, tenantId)
+                .orElseThrow(() -> new ResourceNotFoundException("Recurso no encontrado: " + id));
+
+        if (!resource.getName().equals(request.getName())
+                && resourceRepository.existsByTenantIdAndName(tenantId, request.getName())) {
+            throw new BusinessException("Ya existe un recurso con el nombre: " + request.getName());
+        }
+
+        resource.setName(request.getName());
+        resource.setDescription(request.getDescription());
+        resource = resourceRepository.save(resource);
+
+        log.info("Recurso actualizado: {} (tenant: {})", resource.getName(), tenantId);
+        return ResourceResponse.fromEntity(resource);
+    }
+
+    /**
+     * Baja lógica: los procedimientos que lo usaban dejan de esperar a que el recurso esté libre.
+     */
+    @Transactional
+    public void delete(Long id) {
+        UUID tenantId = getCurrentTenantId();
+        Resource resource = resourceRepository.findByIdAndTenantId(id, tenantId)
+                .orElseThrow(() -> new ResourceNotFoundException("Recurso no encontrado: " + id));
+
+        resource.setActive(false);
+        resourceRepository.save(resource);
+        log.info("Recurso eliminado (soft delete): {} (tenant: {})", resource.getName(), tenantId);
+    }
+
+    private UUID getCurrentTenantId() {
+        String tenantId = TenantContext.getCurrentTenant();
+        if (tenantId == null || tenantId.trim().isEmpty()) {
+            throw new BusinessException("No se pudo determinar el tenant actual. Verifique que esté autenticado correctamente.");
+        }
+        try {
+            return UUID.fromString(tenantId);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("ID de tenant inválido: " + tenantId);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.saas.medical.service;
+
+import com.saas.medical.exception.BusinessException;
+import com.saas.medical.model.entity.SlotHold;
+import com.saas.medical.model.entity.Tenant;
+import com.saas.medical.repository.SlotHoldRepository;
+import com.saas.medical.repository.TenantRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reservas temporales de horario mientras el paciente completa sus datos en la reserva pública.
+ *
+ * <p>Las reservas viven en memoria con un vencimiento de {@code app.slot-holds.ttl-seconds}, indexadas
+ * por token y por profesional para que la consulta de horarios libres solo recorra las del profesional.
+ * Con {@code app.slot-holds.db-mirror=true} cada reserva se copia además en {@code slot_holds} y las
+ * consultas leen también de ahí, para que los demás nodos la respeten. Una reserva no reemplaza a la
+ * restricción de exclusión de {@code appointments}: solo evita que otros pacientes elijan el mismo horario.</p>
+ *
+ * <p>El vencimiento se expresa en hora local del consultorio, como los horarios que aparta, y se compara
+ * siempre contra el reloj de ese consultorio.</p>
+ */
+@Component
+@Slf4j
+public class SlotHoldService {
+
+    private final SlotHoldRepository slotHoldRepository;
+    private final TenantRepository tenantRepository;
+    private final TenantTimeZones tenantTimeZones;
+
+    @Value("${app.slot-holds.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${app.slot-holds.max-holds:10000}")
+    private int maxHolds;
+
+    @Value("${app.slot-holds.db-mirror:false}")
+    private boolean dbMirror;
+
+    private final Map<String, Hold> holdsByToken = new ConcurrentHashMap<>();
+
+    private final Map<Long, Map<String, Hold>> holdsByProfessional = new ConcurrentHashMap<>();
+
+    public SlotHoldService(SlotHoldRepository slotHoldRepository, TenantRepository tenantRepository,
+                           TenantTimeZones tenantTimeZones) {
+        this.slotHoldRepository = slotHoldRepository;
+        this.tenantRepository = tenantRepository;
+        this.tenantTimeZones = tenantTimeZones;
+    }
+
+    /**
+     * Registra una reserva temporal para [start, end). Debe llamarse con la agenda del profesional
+     * bloqueada y después de verificar que el horario está libre.
+     */
+    public Hold hold(Tenant tenant, Long professionalId, LocalDateTime start, LocalDateTime end) {
+        if (holdsByToken.size() >= maxHolds) {
+            purge();
+            if (holdsByToken.size() >= maxHolds) {
+                log.warn("Límite de reservas temporales alcanzado ({})", maxHolds);
+                throw new BusinessException("Hay demasiadas reservas en curso, intente nuevamente en unos minutos",
+                        HttpStatus.SERVICE_UNAVAILABLE);
+            }
+        }
+
+        TenantZone zone = tenantTimeZones.of(tenant);
+        LocalDateTime now = zone.now();
+        Hold hold = new Hold(UUID.randomUUID().toString(), tenant.getId(), professionalId, start, end,
+                now.plusSeconds(ttlSeconds), zone);
+
+        if (dbMirror) {
+            SlotHold entity = new SlotHold();
+            entity.setToken(hold.token());
+            entity.setTenantId(tenant.getId());
+            entity.setProfessionalId(professionalId);
+            entity.setStartDateTime(start);
+            entity.setEndDateTime(end);
+            entity.setExpiresAt(hold.expiresAt());
+            entity.setCreatedAt(now);
+            slotHoldRepository.save(entity);
+        }
+
+        holdsByToken.put(hold.token(), hold);
+        holdsByProfessional.computeIfAbsent(professionalId, id -> new ConcurrentHashMap<>()).put(hold.token(), hold);
+        return hold;
+    }
+
+    /**
+     * Reserva vigente con ese token, buscándola en la base si fue creada por otro nodo.
+     */
+    public Optional<Hold> find(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        Hold hold = holdsByToken.get(token);
+        if (hold == null && dbMirror) {
+            hold = slotHoldRepository.findById(token)
+                    .map(entity -> Hold.of(entity, zoneOf(entity.getTenantId())))
+                    .orElse(null);
+        }
+        return Optional.ofNullable(hold).filter(Hold::isActive);
+    }
+
+    /**
+     * Horarios del profesional tomados por reservas vigentes que tocan [from, to), sin contar la
+     * reserva {@code exceptToken} (la del propio paciente que está confirmando).
+     */
+    public IntervalSet busyBetween(Long professionalId, LocalDateTime from, LocalDateTime to, String exceptToken) {
+        IntervalSet.Builder builder = IntervalSet.builder();
+        Map<String, Hold> holds = holdsByProfessional.get(professionalId);
+        if (holds != null) {
+            for (Hold hold : holds.values()) {
+                if (hold.isActive() && !hold.token().equals(exceptToken)
+                        && hold.start().isBefore(to) && hold.end().isAfter(from)) {
+                    builder.add(hold.start(), hold.end());
+                }
+            }
+        }
+        if (dbMirror) {
+            // Las reservas de un profesional son todas de su consultorio: un solo reloj para todas
+            List<SlotHold> mirrored = slotHoldRepository.findOverlapping(professionalId, from, to);
+            if (!mirrored.isEmpty()) {
+                LocalDateTime now = zoneOf(mirrored.get(0).getTenantId()).now();
+                for (SlotHold hold : mirrored) {
+                    if (hold.getExpiresAt().isAfter(now) && !hold.getToken().equals(exceptToken)) {
+                        builder.add(hold.getStartDateTime(), hold.getEndDateTime());
+                    }
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    public boolean isHeld(Long professionalId, LocalDateTime start, LocalDateTime end, String exceptToken) {
+        return busyBetween(professionalId, start, end, exceptToken).overlaps(start, end);
+    }
+
+    public void release(String token) {
+        forget(token);
+        if (dbMirror) {
+            slotHoldRepository.deleteByToken(token);
+        }
+    }
+
+    /**
+     * Libera la reserva cuando la transacción actual confirma el turno. Si la transacción falla,
+     * la reserva sigue vigente y el paciente puede reintentar con el mismo token.
+     *
+     * <p>La fila de la copia en base se borra dentro de la transacción actual, así se confirma o se
+     * revierte junto con el turno; en {@code afterCommit} ya no hay transacción para ejecutar el
+     * DELETE. Después del commit solo se quita la reserva de memoria.</p>
+     */
+    public void releaseAfterCommit(String token) {
+        if (dbMirror) {
+            slotHoldRepository.deleteByToken(token);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                forget(token);
+            }
+        });
+    }
+
+    private void forget(String token) {
+        Hold hold = holdsByToken.remove(token);
+        if (hold != null) {
+            holdsByProfessional.computeIfPresent(hold.professionalId(), (id, holds) -> {
+                holds.remove(token);
+                return holds.isEmpty() ? null : holds;
+            });
+        }
+    }
+
+    /**
+     * Descarta las reservas vencidas, en memoria y en la copia de la base. En la base se borra por zona
+     * horaria, cada una con la hora local de sus consultorios.
+     */
+    @Scheduled(fixedDelayString = "${app.slot-holds.purge-interval-ms:30000}")
+    public void purge() {
+        holdsByToken.values().removeIf(hold -> !hold.isActive());
+        holdsByProfessional.values().forEach(holds -> holds.values().removeIf(hold -> !hold.isActive()));
+        holdsByProfessional.values().removeIf(Map::isEmpty);
+        if (dbMirror) {
+            int deleted = 0;
+            for (String timezone : tenantRepository.findDistinctTimezones()) {
+                deleted += slotHoldRepository.deleteExpired(timezone, tenantTimeZones.of(timezone).now());
+            }
+            if (deleted > 0) {
+                log.debug("Reservas temporales vencidas eliminadas de la base: {}", deleted);
+            }
+        }
+    }
+
+    /**
+     * Cantidad de reservas en memoria, útil para diagnósticos.
+     */
+    public int size() {
+        return holdsByToken.size();
+    }
+
+    private TenantZone zoneOf(UUID tenantId) {
+        return tenantTimeZones.of(tenantRepository.findById(tenantId).map(Tenant::getTimezone).orElse(null));
+    }
+
+    public record Hold(String token, UUID tenantId, Long professionalId,
+                       LocalDateTime start, LocalDateTime end, LocalDateTime expiresAt, TenantZone zone) {
+
+        static Hold of(SlotHold entity, TenantZone zone) {
+            return new Hold(entity.getToken(), entity.getTenantId(), entity.getProfessionalId(),
+                    entity.getStartDateTime(), entity.getEndDateTime(), entity.getExpiresAt(), zone);
+        }
+
+        boolean isActive() {
+            return expiresAt.isAfter(zone.now());
+        }
+
+        /**
+         * Indica si la reserva cubre el turno [start, end) del profesional en ese consultorio.
+         */
+        public boolean covers(UUID tenantId, Long professionalId, LocalDateTime start, LocalDateTime end) {
+            return this.tenantId.equals(tenantId) && this.professionalId.equals(professionalId)
+                    && !start.isBefore(this.start) && !end.isAfter(this.end);
+        }
+    }
+}
@@ -0,0 +1,543 @@
+package com.saas.medical.service;
+
+import com.saas.medical.exception.BusinessException;
+import com.saas.medical.exception.ResourceNotFoundException;
+import com.saas.medical.model.dto.slot.AvailableSlotResponse;
+import com.saas.medical.model.dto.slot.CalendarDayResponse;
+import com.saas.medical.model.dto.slot.FirstAvailableSlotResponse;
+import com.saas.medical.model.dto.slot.SlotAlternativesResponse;
+import com.saas.medical.model.entity.Procedure;
+import com.saas.medical.model.entity.Professional;
+import com.saas.medical.model.entity.ProfessionalBlock;
+import com.saas.medical.model.entity.Tenant;
+import com.saas.medical.repository.GroupSessionRepository;
+import com.saas.medical.repository.ProcedureRepository;
+import com.saas.medical.repository.ProfessionalBlockRepository;
+import com.saas.medical.repository.ProfessionalRepository;
+import com.saas.medical.repository.TenantRepository;
+import com.saas.medical.repository.projection.GroupSessionView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Motor de turnos libres: combina la disponibilidad recurrente y por fecha, los bloqueos, los cierres
+ * del consultorio y los turnos no cancelados de un profesional para devolver los horarios reservables.
+ * Todo el rango se resuelve con una cantidad fija de consultas, sin importar cuántos días abarque.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SlotService {
+
+    static final int MAX_RANGE_DAYS = 62;
+
+    static final int FIRST_AVAILABLE_HORIZON_DAYS = 90;
+
+    /**
+     * Días de ocupación que se cargan juntos cuando la búsqueda del primer turno avanza sobre un profesional.
+     */
+    private static final int SEARCH_WINDOW_DAYS = 7;
+
+    /**
+     * Días hacia cada lado del horario pedido en los que se buscan alternativas ante un conflicto.
+     */
+    static final int ALTERNATIVES_WINDOW_DAYS = 3;
+
+    private final TenantRepository tenantRepository;
+    private final ProfessionalRepository professionalRepository;
+    private final ProcedureRepository procedureRepository;
+    private final AvailabilitySchedules availabilitySchedules;
+    private final ProfessionalBlockRepository professionalBlockRepository;
+    private final AppointmentOccupancyIndex occupancyIndex;
+    private final SlotHoldService slotHoldService;
+    private final ResourceCalendar resourceCalendar;
+    private final GroupSessionService groupSessionService;
+    private final GroupSessionRepository groupSessionRepository;
+    private final TenantTimeZones tenantTimeZones;
+    private final OpenSlotService openSlotService;
+    private final TenantClosures tenantClosures;
+
+    @Transactional(readOnly = true)
+    public List<AvailableSlotResponse> getAvailableSlots(String tenantSlug, Long professionalId,
+                                                         LocalDate from, LocalDate to, Long procedureId) {
+        validateRange(from, to);
+
+        Tenant tenant = tenantRepository.findBySlugAndActive(tenantSlug, true)
+                .orElseThrow(() -> new ResourceNotFoundException("Consultorio no encontrado: " + tenantSlug));
+
+        Professional professional = professionalRepository.findByTenantIdAndId(tenant.getId(), professionalId)
+                .orElseThrow(() -> new ResourceNotFoundException("Profesional no encontrado"));
+
+        // Si se indica procedimiento, su duración define el largo del turno; si no, la del bloque horario.
+        // Sus salas o equipos tienen que estar libres además del profesional.
+        Integer durationMinutes = null;
+        Set<Long> resourceIds = Set.of();
+        Procedure procedure = null;
+        if (procedureId != null) {
+            procedure = procedureRepository.findByIdAndTenantId(procedureId, tenant.getId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Procedimiento no encontrado: " + procedureId));
+            durationMinutes = procedure.getDurationMinutes();
+            resourceIds = resourceCalendar.resourceIdsOf(procedure);
+        }
+
+        // Las fechas y horas son las del consultorio: "ahora" y los saltos de cambio de hora salen de su zona
+        TenantZone zone = tenantTimeZones.of(tenant);
+
+        // Sin procedimiento los turnos son los de la regla: salen de la tabla materializada si está al día
+        if (procedureId == null) {
+            List<AvailableSlotResponse> materialized = openSlotService.findSlots(zone, professional.getId(), from, to);
+            if (materialized != null) {
+                log.debug("Turnos libres materializados para profesional {} entre {} y {}: {}",
+                        professionalId, from, to, materialized.size());
+                return materialized;
+            }
+        }
+
+        LocalDateTime rangeStart = from.atStartOfDay();
+        LocalDateTime rangeEnd = to.plusDays(1).atStartOfDay();
+        AvailabilitySchedule schedule = availabilitySchedules.of(professional.getId());
+        IntervalSet busy = loadBusyIntervals(professional.getId(), resourceIds, rangeStart, rangeEnd)
+                .union(zone.gapsBetween(rangeStart, rangeEnd))
+                .union(tenantClosures.of(tenant.getId(), zone));
+
+        List<AvailableSlotResponse> slots = new ArrayList<>();
+        long notBefore = IntervalSet.toMinutes(zone.now());
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            collectFreeSlots(date, schedule.forDate(date), busy, durationMinutes, notBefore, slots);
+        }
+        if (groupSessionService.isGroup(procedure)) {
+            slots = withOpenGroupSessions(slots, professional.getId(), procedure,
+                    IntervalSet.fromMinutes(Math.max(notBefore, IntervalSet.toMinutes(rangeStart))), rangeEnd);
+        }
+
+        log.debug("Turnos libres para profesional {} entre {} y {}: {}", professionalId, from, to, slots.size());
+        return slots;
+    }
+
+    /**
+     * Cantidad de turnos libres por día del mes, para que el calendario de reservas marque los días completos.
+     * Usa la agenda compilada del profesional, una consulta de bloqueos y una de turnos (servida por el índice de
+     * ocupación cuando el mes ya está en memoria), sin consultas por día.
+     */
+    @Transactional(readOnly = true)
+    public List<CalendarDayResponse> getMonthCalendar(String tenantSlug, Long professionalId, YearMonth month,
+                                                      Long procedureId) {
+        Tenant tenant = tenantRepository.findBySlugAndActive(tenantSlug, true)
+                .orElseThrow(() -> new ResourceNotFoundException("Consultorio no encontrado: " + tenantSlug));
+
+        Professional professional = professionalRepository.findByTenantIdAndId(tenant.getId(), professionalId)
+                .orElseThrow(() -> new ResourceNotFoundException("Profesional no encontrado"));
+
+        Integer durationMinutes = null;
+        Set<Long> resourceIds = Set.of();
+        if (procedureId != null) {
+            Procedure procedure = procedureRepository.findByIdAndTenantId(procedureId, tenant.getId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Procedimiento no encontrado: " + procedureId));
+            durationMinutes = procedure.getDurationMinutes();
+            resourceIds = resourceCalendar.resourceIdsOf(procedure);
+        }
+
+        LocalDate firstDay = month.atDay(1);
+        LocalDate lastDay = month.atEndOfMonth();
+
+        TenantZone zone = tenantTimeZones.of(tenant);
+        AvailabilitySchedule schedule = availabilitySchedules.of(professional.getId());
+        IntervalSet busy = loadBusyIntervals(professional.getId(), resourceIds,
+                firstDay.atStartOfDay(), lastDay.plusDays(1).atStartOfDay())
+                .union(zone.gapsBetween(firstDay.atStartOfDay(), lastDay.plusDays(1).atStartOfDay()))
+                .union(tenantClosures.of(tenant.getId(), zone));
+
+        List<CalendarDayResponse> days = new ArrayList<>(month.lengthOfMonth());
+        long notBefore = IntervalSet.toMinutes(zone.now());
+        for (LocalDate date = firstDay; !date.isAfter(lastDay); date = date.plusDays(1)) {
+            days.add(CalendarDayResponse.builder()
+                    .date(date)
+                    .freeSlots(countFreeSlots(date, schedule.forDate(date), busy, durationMinutes, notBefore))
+                    .build());
+        }
+        return days;
+    }
+
+    /**
+     * Primer turno libre del consultorio entre los profesionales que cumplen los filtros.
+     *
+     * <p>Cada profesional candidato es un cursor que avanza día por día; una cola de prioridad
+     * ordenada por el menor horario que el cursor todavía puede ofrecer decide cuál avanzar.
+     * Cuando sale de la cola un cursor con un turno concreto, ningún otro puede ofrecer uno
+     * anterior, así que la búsqueda termina sin calcular agendas completas.</p>
+     */
+    @Transactional(readOnly = true)
+    public FirstAvailableSlotResponse findFirstAvailable(String tenantSlug, Long specialtyId, Long procedureId,
+                                                         Long insuranceId, LocalDateTime after) {
+        Tenant tenant = tenantRepository.findBySlugAndActive(tenantSlug, true)
+                .orElseThrow(() -> new ResourceNotFoundException("Consultorio no encontrado: " + tenantSlug));
+
+        Integer durationMinutes = null;
+        Set<Long> resourceIds = Set.of();
+        if (procedureId != null) {
+            Procedure procedure = procedureRepository.findByIdAndTenantId(procedureId, tenant.getId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Procedimiento no encontrado: " + procedureId));
+            durationMinutes = procedure.getDurationMinutes();
+            resourceIds = resourceCalendar.resourceIdsOf(procedure);
+            if (procedure.getSpecialty() != null) {
+                if (specialtyId != null && !specialtyId.equals(procedure.getSpecialty().getId())) {
+                    throw new BusinessException("El procedimiento no pertenece a la especialidad indicada");
+                }
+                specialtyId = procedure.getSpecialty().getId();
+            }
+        }
+
+        Long requiredSpecialtyId = specialtyId;
+        List<Professional> candidates = professionalRepository.findByTenantIdWithSpecialty(tenant.getId()).stream()
+                .filter(p -> requiredSpecialtyId == null || requiredSpecialtyId.equals(p.getSpecialty().getId()))
+                .filter(p -> insuranceId == null || p.getAcceptedInsurances().stream()
+                        .anyMatch(insurance -> insuranceId.equals(insurance.getId())))
+                .collect(Collectors.toList());
+
+        // Agendas compiladas de los candidatos: las que no están en memoria se leen con una sola consulta
+        Map<Long, AvailabilitySchedule> schedules = availabilitySchedules.of(
+                candidates.stream().map(Professional::getId).collect(Collectors.toList()));
+
+        TenantZone zone = tenantTimeZones.of(tenant);
+        LocalDateTime now = zone.now();
+        LocalDateTime notBefore = after != null && after.isAfter(now) ? after : now;
+        LocalDate horizon = notBefore.toLocalDate().plusDays(FIRST_AVAILABLE_HORIZON_DAYS);
+
+        // Sin procedimiento, el tramo materializado se resuelve con una lectura ordenada por inicio;
+        // si no tiene turnos, la búsqueda en vivo sigue después de ese tramo
+        if (procedureId == null) {
+            OpenSlotService.FirstOpenSlot first = openSlotService.findFirst(zone, tenant.getId(), schedules.keySet(), notBefore);
+            if (first != null && first.slot() != null) {
+                Professional professional = candidates.stream()
+                        .filter(p -> p.getId().equals(first.slot().getProfessionalId()))
+                        .findFirst().orElseThrow();
+                log.debug("Primer turno libre materializado para {}: profesional {} a las {}",
+                        tenantSlug, professional.getId(), first.slot().getStartDateTime());
+                return FirstAvailableSlotResponse.builder()
+                        .professionalId(professional.getId())
+                        .professionalName(professional.getFullName())
+                        .specialtyId(professional.getSpecialty().getId())
+                        .specialtyName(professional.getSpecialty().getName())
+                        .startDateTime(first.slot().getStartDateTime())
+                        .endDateTime(first.slot().getEndDateTime())
+                        .durationMinutes(first.slot().getDurationMinutes())
+                        .build();
+            }
+            if (first != null) {
+                notBefore = first.searchedThrough().plusDays(1).atStartOfDay();
+            }
+        }
+
+        // Los recursos, los saltos de cambio de hora y los cierres del consultorio son compartidos por todos
+        // los candidatos: se cargan una sola vez para todo el horizonte
+        LocalDateTime horizonStart = notBefore.toLocalDate().atStartOfDay();
+        LocalDateTime horizonEnd = horizon.plusDays(1).atStartOfDay();
+        IntervalSet sharedBusy = resourceCalendar.busyBetween(resourceIds, horizonStart, horizonEnd)
+                .union(zone.gapsBetween(horizonStart, horizonEnd))
+                .union(tenantClosures.of(tenant.getId(), zone));
+
+        PriorityQueue<SlotCursor> queue = new PriorityQueue<>(
+                Comparator.comparingLong(SlotCursor::bound).thenComparing(cursor -> cursor.professional.getId()));
+        for (Professional professional : candidates) {
+            AvailabilitySchedule schedule = schedules.get(professional.getId());
+            if (!schedule.isEmpty()) {
+                queue.add(new SlotCursor(professional, schedule, sharedBusy, durationMinutes, notBefore));
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            SlotCursor cursor = queue.poll();
+            if (cursor.found()) {
+                log.debug("Primer turno libre para {}: profesional {} a las {}",
+                        tenantSlug, cursor.professional.getId(), IntervalSet.fromMinutes(cursor.slotStart));
+                return cursor.toResponse();
+            }
+            if (!cursor.date.isAfter(horizon)) {
+                cursor.advance();
+                queue.add(cursor);
+            }
+        }
+
+        throw new ResourceNotFoundException("No hay turnos disponibles en los próximos "
+                + FIRST_AVAILABLE_HORIZON_DAYS + " días para los criterios indicados");
+    }
+
+    /**
+     * Hasta {@code count} inicios libres antes y después de {@code requestedStart} para el profesional,
+     * los recursos y la duración pedida, dentro de {@link #ALTERNATIVES_WINDOW_DAYS} días alrededor. Se
+     * llama desde la reserva que acaba de detectar el conflicto: la ocupación de esos días ya está en el
+     * índice, las reglas en la agenda compilada y los cierres en la máscara del consultorio, así que solo se
+     * leen los bloqueos y, si hay, los recursos.
+     */
+    public SlotAlternativesResponse findAlternatives(TenantZone zone, UUID tenantId, Long professionalId,
+                                                     Set<Long> resourceIds, LocalDateTime requestedStart,
+                                                     int durationMinutes, int count) {
+        LocalDateTime now = zone.now();
+        LocalDate today = now.toLocalDate();
+        LocalDate requestedDay = requestedStart.toLocalDate();
+        LocalDate from = requestedDay.minusDays(ALTERNATIVES_WINDOW_DAYS);
+        if (from.isBefore(today)) {
+            from = today;
+        }
+        LocalDate to = requestedDay.plusDays(ALTERNATIVES_WINDOW_DAYS);
+        if (to.isBefore(from)) {
+            return SlotAlternativesResponse.builder().before(List.of()).after(List.of()).build();
+        }
+
+        AvailabilitySchedule schedule = availabilitySchedules.of(professionalId);
+        IntervalSet busy = loadBusyIntervals(professionalId, resourceIds, from.atStartOfDay(), to.plusDays(1).atStartOfDay())
+                .union(zone.gapsBetween(from.atStartOfDay(), to.plusDays(1).atStartOfDay()))
+                .union(tenantClosures.of(tenantId, zone));
+
+        long requested = IntervalSet.toMinutes(requestedStart);
+        long notBefore = IntervalSet.toMinutes(now);
+        ArrayDeque<AvailableSlotResponse> before = new ArrayDeque<>(count);
+        List<AvailableSlotResponse> after = new ArrayList<>(count);
+        for (LocalDate date = from; !date.isAfter(to) && after.size() < count; date = date.plusDays(1)) {
+            forEachFreeSlot(date, schedule.forDate(date), busy, durationMinutes, notBefore, (start, duration) -> {
+                AvailableSlotResponse slot = AvailableSlotResponse.builder()
+                        .startDateTime(IntervalSet.fromMinutes(start))
+                        .endDateTime(IntervalSet.fromMinutes(start + duration))
+                        .durationMinutes(duration)
+                        .build();
+                if (start < requested) {
+                    // Los inicios llegan en orden: se conservan solo los últimos antes del pedido
+                    if (before.size() == count) {
+                        before.removeFirst();
+                    }
+                    before.addLast(slot);
+                    return true;
+                }
+                if (start > requested) {
+                    after.add(slot);
+                }
+                return after.size() < count;
+            });
+        }
+
+        List<AvailableSlotResponse> nearestBefore = new ArrayList<>(before);
+        Collections.reverse(nearestBefore);
+        return SlotAlternativesResponse.builder()
+                .before(nearestBefore)
+                .after(after)
+                .build();
+    }
+
+    /**
+     * Bloqueos, turnos no cancelados y reservas temporales vigentes del profesional en el rango, más la
+     * ocupación de los recursos indicados, fusionados en un único conjunto ordenado. Los turnos salen del
+     * índice de ocupación en memoria; solo los días que no están cargados van a la base.
+     */
+    private IntervalSet loadBusyIntervals(Long professionalId, Set<Long> resourceIds,
+                                          LocalDateTime rangeStart, LocalDateTime rangeEnd) {
+        IntervalSet.Builder blocks = IntervalSet.builder();
+        for (ProfessionalBlock block : professionalBlockRepository.findBlocksInRange(professionalId, rangeStart, rangeEnd)) {
+            blocks.add(block.getStartDateTime(), block.getEndDateTime());
+        }
+        return blocks.build()
+                .union(occupancyIndex.busyBetween(professionalId, rangeStart, rangeEnd))
+                .union(slotHoldService.busyBetween(professionalId, rangeStart, rangeEnd, null))
+                .union(resourceCalendar.busyBetween(resourceIds, rangeStart, rangeEnd));
+    }
+
+    /**
+     * Para un procedimiento grupal, los horarios libres abren una sesión nueva con toda la capacidad y
+     * las sesiones en curso con cupo (que en la agenda figuran ocupadas) se suman con los cupos que les
+     * quedan según la capacidad con la que se abrieron. Ambas listas están ordenadas, así que se intercalan
+     * en una pasada.
+     */
+    private List<AvailableSlotResponse> withOpenGroupSessions(List<AvailableSlotResponse> freeSlots, Long professionalId,
+                                                              Procedure procedure, LocalDateTime from, LocalDateTime to) {
+        int capacity = procedure.getCapacity();
+        List<GroupSessionView> sessions = groupSessionRepository.findOpenSessions(
+                professionalId, procedure.getId(), from, to);
+
+        List<AvailableSlotResponse> merged = new ArrayList<>(freeSlots.size() + sessions.size());
+        int next = 0;
+        for (AvailableSlotResponse slot : freeSlots) {
+            while (next < sessions.size() && sessions.get(next).getStartDateTime().isBefore(slot.getStartDateTime())) {
+                merged.add(toSlot(sessions.get(next++)));
+            }
+            slot.setAvailableSpots(capacity);
+            merged.add(slot);
+        }
+        while (next < sessions.size()) {
+            merged.add(toSlot(sessions.get(next++)));
+        }
+        return merged;
+    }
+
+    private static AvailableSlotResponse toSlot(GroupSessionView session) {
+        return AvailableSlotResponse.builder()
+                .startDateTime(session.getStartDateTime())
+                .endDateTime(session.getEndDateTime())
+                .durationMinutes((int) ChronoUnit.MINUTES.between(session.getStartDateTime(), session.getEndDateTime()))
+                .availableSpots(session.getCapacity() - session.getBooked())
+                .build();
+    }
+
+    /**
+     * Agrega los inicios libres del día que no quedan en el pasado.
+     */
+    private static void collectFreeSlots(LocalDate date, AvailabilitySchedule.Day day, IntervalSet busy,
+                                         Integer durationMinutes, long notBefore, List<AvailableSlotResponse> slots) {
+        forEachFreeSlot(date, day, busy, durationMinutes, notBefore, (start, duration) -> {
+            slots.add(AvailableSlotResponse.builder()
+                    .startDateTime(IntervalSet.fromMinutes(start))
+                    .endDateTime(IntervalSet.fromMinutes(start + duration))
+                    .durationMinutes(duration)
+                    .build());
+            return true;
+        });
+    }
+
+    private static int countFreeSlots(LocalDate date, AvailabilitySchedule.Day day, IntervalSet busy,
+                                      Integer durationMinutes, long notBefore) {
+        int[] count = {0};
+        forEachFreeSlot(date, day, busy, durationMinutes, notBefore, (start, duration) -> {
+            count[0]++;
+            return true;
+        });
+        return count[0];
+    }
+
+    /**
+     * Recorre cada bloque horario del día en pasos de su duración de turno y entrega al visitante
+     * los inicios que no se solapan con ningún intervalo ocupado ni son anteriores a {@code notBefore}.
+     * Las reglas están ordenadas y no se solapan, así que los inicios llegan en orden cronológico.
+     */
+    static void forEachFreeSlot(LocalDate date, AvailabilitySchedule.Day day, IntervalSet busy,
+                                        Integer durationMinutes, long notBefore, FreeSlotVisitor visitor) {
+        long dayStart = IntervalSet.toMinutes(date.atStartOfDay());
+        for (AvailabilitySchedule.Rule rule : day.rules()) {
+            int step = rule.slotDurationMinutes();
+            int duration = durationMinutes != null ? durationMinutes : step;
+            long ruleStart = dayStart + rule.startMinute();
+            long ruleEnd = dayStart + rule.endMinute();
+
+            for (long start = ruleStart; start + duration <= ruleEnd; start += step) {
+                if (start < notBefore || busy.overlaps(start, start + duration)) {
+                    continue;
+                }
+                if (!visitor.visit(start, duration)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new BusinessException("Debe indicar las fechas desde y hasta");
+        }
+        if (to.isBefore(from)) {
+            throw new BusinessException("La fecha hasta debe ser igual o posterior a la fecha desde");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new BusinessException("El rango de fechas no puede superar los " + MAX_RANGE_DAYS + " días");
+        }
+    }
+
+    /**
+     * Avance perezoso sobre la agenda de un profesional para {@link #findFirstAvailable}.
+     * La ocupación se carga por ventanas de {@link #SEARCH_WINDOW_DAYS} días y solo cuando
+     * el día a revisar tiene reglas de disponibilidad.
+     */
+    private final class SlotCursor {
+
+        private final Professional professional;
+        private final AvailabilitySchedule schedule;
+        private final IntervalSet sharedBusy;
+        private final Integer durationMinutes;
+        private final long notBefore;
+
+        private LocalDate date;
+        private LocalDate windowEnd;
+        private IntervalSet busy = IntervalSet.EMPTY;
+        private long slotStart = -1;
+        private int slotDuration;
+
+        SlotCursor(Professional professional, AvailabilitySchedule schedule, IntervalSet sharedBusy,
+                   Integer durationMinutes, LocalDateTime notBefore) {
+            this.professional = professional;
+            this.schedule = schedule;
+            this.sharedBusy = sharedBusy;
+            this.durationMinutes = durationMinutes;
+            this.notBefore = IntervalSet.toMinutes(notBefore);
+            this.date = notBefore.toLocalDate();
+            this.windowEnd = date;
+        }
+
+        /**
+         * Menor horario que este cursor todavía puede ofrecer: el turno encontrado o el inicio del día pendiente.
+         */
+        long bound() {
+            return found() ? slotStart : Math.max(notBefore, IntervalSet.toMinutes(date.atStartOfDay()));
+        }
+
+        boolean found() {
+            return slotStart >= 0;
+        }
+
+        /**
+         * Revisa el día pendiente: o encuentra su primer turno libre o pasa al día siguiente.
+         */
+        void advance() {
+            AvailabilitySchedule.Day day = schedule.forDate(date);
+            if (!day.isClosed()) {
+                if (!date.isBefore(windowEnd)) {
+                    windowEnd = date.plusDays(SEARCH_WINDOW_DAYS);
+                    busy = loadBusyIntervals(professional.getId(), Set.of(), date.atStartOfDay(), windowEnd.atStartOfDay())
+                            .union(sharedBusy);
+                }
+                forEachFreeSlot(date, day, busy, durationMinutes, notBefore, (start, duration) -> {
+                    slotStart = start;
+                    slotDuration = duration;
+                    return false;
+                });
+                if (found()) {
+                    return;
+                }
+            }
+            date = date.plusDays(1);
+        }
+
+        FirstAvailableSlotResponse toResponse() {
+            return FirstAvailableSlotResponse.builder()
+                    .professionalId(professional.getId())
+                    .professionalName(professional.getFullName())
+                    .specialtyId(professional.getSpecialty().getId())
+                    .specialtyName(professional.getSpecialty().getName())
+                    .startDateTime(IntervalSet.fromMinutes(slotStart))
+                    .endDateTime(IntervalSet.fromMinutes(slotStart + slotDuration))
+                    .durationMinutes(slotDuration)
+                    .build();
+        }
+    }
+
+    @FunctionalInterface
+    interface FreeSlotVisitor {
+
+        /**
+         * Recibe un turno libre; devuelve {@code false} para cortar el recorrido.
+         */
+        boolean visit(long start, int duration);
+    }
+}
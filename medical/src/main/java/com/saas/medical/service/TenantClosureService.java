@@ -0,0 +1,102 @@
+package com.saas.medical.service;
+
+import com.saas.medical.exception.BusinessException;
+import com.saas.medical.exception.ResourceNotFoundException;
+import com.saas.medical.model.dto.tenant.TenantClosureRequest;
+import com.saas.medical.model.dto.tenant.TenantClosureResponse;
+import com.saas.medical.model.entity.Tenant;
+import com.saas.medical.model.entity.TenantClosure;
+import com.saas.medical.repository.TenantClosureRepository;
+import com.saas.medical.repository.TenantRepository;
+import com.saas.medical.security.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Calendario de cierres del consultorio. Un cierre es una sola fila para todos los profesionales:
+ * al guardarlo o eliminarlo se descarta la máscara del consultorio y se marcan para recálculo los
+ * días afectados de los turnos libres materializados, sin tocar las reglas de cada profesional.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TenantClosureService {
+
+    private final TenantClosureRepository tenantClosureRepository;
+    private final TenantClosures tenantClosures;
+    private final OpenSlotService openSlotService;
+    private final TenantRepository tenantRepository;
+    private final TenantTimeZones tenantTimeZones;
+
+    /**
+     * Cierres que todavía no terminaron según la hora local del consultorio, en orden.
+     */
+    @Transactional(readOnly = true)
+    public List<TenantClosureResponse> findUpcomingByCurrentTenant() {
+        UUID tenantId = getCurrentTenantId();
+        TenantZone zone = tenantTimeZones.of(tenantRepository.findById(tenantId).map(Tenant::getTimezone).orElse(null));
+        return tenantClosureRepository.findEndingAfter(tenantId, zone.now())
+                .stream()
+                .map(TenantClosureResponse::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public TenantClosureResponse create(TenantClosureRequest request) {
+        UUID tenantId = getCurrentTenantId();
+        if (!request.getEndDateTime().isAfter(request.getStartDateTime())) {
+            throw new BusinessException("El fin del cierre debe ser posterior al inicio");
+        }
+
+        TenantClosure closure = new TenantClosure();
+        closure.setTenantId(tenantId);
+        closure.setStartDateTime(request.getStartDateTime());
+        closure.setEndDateTime(request.getEndDateTime());
+        closure.setReason(request.getReason());
+        closure = tenantClosureRepository.save(closure);
+        invalidate(closure);
+
+        log.info("Cierre del consultorio creado: {} - {} ({}) (tenant: {})",
+                closure.getStartDateTime(), closure.getEndDateTime(), closure.getReason(), tenantId);
+        return TenantClosureResponse.fromEntity(closure);
+    }
+
+    @Transactional
+    public void delete(Long id) {
+        UUID tenantId = getCurrentTenantId();
+        TenantClosure closure = tenantClosureRepository.findByIdAndTenantId(id, tenantId)
+                .orElseThrow(() -> new ResourceNotFoundException("Cierre no encontrado: " + id));
+
+        tenantClosureRepository.delete(closure);
+        invalidate(closure);
+        log.info("Cierre del consultorio eliminado: {} - {} (tenant: {})",
+                closure.getStartDateTime(), closure.getEndDateTime(), tenantId);
+    }
+
+    /**
+     * La máscara es una por consultorio; en la tabla materializada solo cambian los días que toca el
+     * cierre, de cada profesional del consultorio.
+     */
+    private void invalidate(TenantClosure closure) {
+        tenantClosures.invalidate(closure.getTenantId());
+        openSlotService.markTenantDirty(closure.getTenantId(), closure.getStartDateTime(), closure.getEndDateTime());
+    }
+
+    private UUID getCurrentTenantId() {
+        String tenantId = TenantContext.getCurrentTenant();
+        if (tenantId == null || tenantId.trim().isEmpty()) {
+            throw new BusinessException("No se pudo determinar el tenant actual. Verifique que esté autenticado correctamente.");
+        }
+        try {
+            return UUID.fromString(tenantId);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("ID de tenant inválido: " + tenantId);
+        }
+    }
+}
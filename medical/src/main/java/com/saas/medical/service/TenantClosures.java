@@ -0,0 +1,95 @@
+package com.saas.medical.service;
+
+import com.saas.medical.model.entity.TenantClosure;
+import com.saas.medical.repository.TenantClosureRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Máscara de cierres por consultorio: un único {@link IntervalSet} compartido por todos sus
+ * profesionales, que el motor de turnos suma a la ocupación de cada uno.
+ *
+ * <p>Se arma con una consulta la primera vez que se pide y se descarta cuando {@link TenantClosureService}
+ * agrega o elimina un cierre; igual que {@link AvailabilitySchedules}, el descarte se repite después del
+ * commit y una carga solo se instala si ningún cambio llegó mientras tanto. Las entradas expiran tras
+ * {@code app.tenant-closures.ttl-seconds} para recoger cambios hechos en otros nodos.</p>
+ */
+@Component
+@Slf4j
+public class TenantClosures {
+
+    private final TenantClosureRepository tenantClosureRepository;
+
+    @Value("${app.tenant-closures.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private final Map<UUID, Entry> masks = new ConcurrentHashMap<>();
+
+    private final Map<UUID, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public TenantClosures(TenantClosureRepository tenantClosureRepository) {
+        this.tenantClosureRepository = tenantClosureRepository;
+    }
+
+    /**
+     * Cierres del consultorio que terminan desde el comienzo de su día de hoy, según la hora local del consultorio.
+     */
+    public IntervalSet of(UUID tenantId, TenantZone zone) {
+        long now = System.currentTimeMillis();
+        Entry entry = masks.get(tenantId);
+        if (entry != null && !entry.isExpired(now, ttlSeconds)) {
+            return entry.mask();
+        }
+        long generationBefore = generation(tenantId).get();
+        IntervalSet.Builder builder = IntervalSet.builder();
+        for (TenantClosure closure : tenantClosureRepository.findEndingAfter(tenantId,
+                zone.now().toLocalDate().atStartOfDay())) {
+            builder.add(closure.getStartDateTime(), closure.getEndDateTime());
+        }
+        IntervalSet mask = builder.build();
+        AtomicLong generation = generation(tenantId);
+        masks.compute(tenantId, (id, current) ->
+                generation.get() == generationBefore ? new Entry(mask, now) : current);
+        log.debug("Cierres cargados para consultorio {}: {} rangos", tenantId, mask.size());
+        return mask;
+    }
+
+    /**
+     * Descarta la máscara del consultorio ahora y, si hay una transacción en curso, otra vez después del commit.
+     */
+    public void invalidate(UUID tenantId) {
+        evict(tenantId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(tenantId);
+                }
+            });
+        }
+    }
+
+    private void evict(UUID tenantId) {
+        generation(tenantId).incrementAndGet();
+        masks.remove(tenantId);
+    }
+
+    private AtomicLong generation(UUID tenantId) {
+        return generations.computeIfAbsent(tenantId, id -> new AtomicLong());
+    }
+
+    private record Entry(IntervalSet mask, long loadedAt) {
+
+        boolean isExpired(long now, long ttlSeconds) {
+            return now - loadedAt > ttlSeconds * 1000;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.saas.medical.service;
+
+import com.saas.medical.model.entity.Tenant;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caché de {@link TenantZone} por identificador de zona: varios consultorios de la misma ciudad comparten
+ * la misma tabla de transiciones y la zona se resuelve una sola vez, no en cada turno o horario revisado.
+ * Una zona inválida o vacía cae en la zona por defecto de los consultorios.
+ */
+@Component
+@Slf4j
+public class TenantTimeZones {
+
+    public static final String DEFAULT_TIMEZONE = "America/Argentina/Buenos_Aires";
+
+    /**
+     * Años de transiciones precalculadas hacia atrás y hacia adelante; la tabla se rearma cuando
+     * la hora actual se acerca a su final.
+     */
+    private static final Duration TABLE_BEHIND = Duration.ofDays(366);
+    private static final Duration TABLE_AHEAD = Duration.ofDays(5 * 366);
+    private static final Duration REBUILD_MARGIN = Duration.ofDays(3 * 366);
+
+    private final Map<String, Entry> zones = new ConcurrentHashMap<>();
+
+    public TenantZone of(Tenant tenant) {
+        return of(tenant.getTimezone());
+    }
+
+    public TenantZone of(String timezone) {
+        String key = timezone == null || timezone.isBlank() ? DEFAULT_TIMEZONE : timezone;
+        Instant now = Instant.now();
+        Entry entry = zones.get(key);
+        if (entry == null || now.isAfter(entry.rebuildAfter)) {
+            entry = zones.compute(key, (k, current) ->
+                    current != null && !now.isAfter(current.rebuildAfter) ? current : build(k, now));
+        }
+        return entry.zone;
+    }
+
+    /**
+     * Fecha local más temprana entre las zonas indicadas, para los procesos que recorren todos los
+     * consultorios: ninguno de ellos está todavía en un día anterior.
+     */
+    public LocalDate earliestToday(Collection<String> timezones) {
+        return timezones.stream()
+                .map(timezone -> of(timezone).now().toLocalDate())
+                .min(Comparator.naturalOrder())
+                .orElseGet(() -> of(DEFAULT_TIMEZONE).now().toLocalDate());
+    }
+
+    private static Entry build(String timezone, Instant now) {
+        ZoneId zoneId;
+        try {
+            zoneId = ZoneId.of(timezone);
+        } catch (DateTimeException e) {
+            log.warn("Zona horaria inválida '{}', se usa {}", timezone, DEFAULT_TIMEZONE);
+            zoneId = ZoneId.of(DEFAULT_TIMEZONE);
+        }
+        Instant to = now.plus(TABLE_AHEAD);
+        return new Entry(TenantZone.of(zoneId, now.minus(TABLE_BEHIND), to), to.minus(REBUILD_MARGIN));
+    }
+
+    private record Entry(TenantZone zone, Instant rebuildAfter) {
+    }
+}
@@ -0,0 +1,209 @@
+package com.saas.medical.service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reglas horarias de un consultorio precalculadas para el camino caliente de la agenda.
+ *
+ * <p>Los turnos se guardan en hora local del consultorio. Para compararlos con el reloj, y para
+ * saber qué horarios no existen (el salto de un cambio de hora), se usa una tabla con las
+ * transiciones de la zona en un rango de años alrededor de su construcción: cada conversión es
+ * una búsqueda binaria sobre arreglos primitivos, sin pasar por el proveedor de zonas. Fuera de
+ * ese rango se consulta directamente {@link ZoneRules}, que queda resuelto en la instancia.</p>
+ *
+ * <p>Un horario que cae en el salto de primavera no existe; uno que cae en la hora repetida de
+ * otoño se interpreta con el offset anterior al cambio, igual que {@link java.time.ZonedDateTime}.</p>
+ */
+public final class TenantZone {
+
+    private final ZoneId zoneId;
+    private final ZoneRules rules;
+    private final ZoneOffset fixedOffset;
+
+    private final long tableFrom;
+    private final long tableTo;
+    private final ZoneOffset initialOffset;
+    private final long[] transitionEpochSeconds;
+    private final ZoneOffset[] offsetsBefore;
+    private final ZoneOffset[] offsetsAfter;
+    // Inicio y fin en hora local del tramo afectado por cada transición: el salto o la hora repetida
+    private final long[] localFrom;
+    private final long[] localTo;
+
+    private TenantZone(ZoneId zoneId, Instant from, Instant to) {
+        this.zoneId = zoneId;
+        this.rules = zoneId.getRules();
+        this.fixedOffset = rules.isFixedOffset() ? rules.getOffset(Instant.EPOCH) : null;
+        this.tableFrom = from.getEpochSecond();
+        this.tableTo = to.getEpochSecond();
+        this.initialOffset = rules.getOffset(from);
+
+        List<ZoneOffsetTransition> transitions = new ArrayList<>();
+        if (fixedOffset == null) {
+            ZoneOffsetTransition transition = rules.nextTransition(from);
+            while (transition != null && transition.getInstant().isBefore(to)) {
+                transitions.add(transition);
+                transition = rules.nextTransition(transition.getInstant());
+            }
+        }
+        int size = transitions.size();
+        this.transitionEpochSeconds = new long[size];
+        this.offsetsBefore = new ZoneOffset[size];
+        this.offsetsAfter = new ZoneOffset[size];
+        this.localFrom = new long[size];
+        this.localTo = new long[size];
+        for (int i = 0; i < size; i++) {
+            ZoneOffsetTransition transition = transitions.get(i);
+            long before = transition.getDateTimeBefore().toEpochSecond(ZoneOffset.UTC);
+            long after = transition.getDateTimeAfter().toEpochSecond(ZoneOffset.UTC);
+            transitionEpochSeconds[i] = transition.toEpochSecond();
+            offsetsBefore[i] = transition.getOffsetBefore();
+            offsetsAfter[i] = transition.getOffsetAfter();
+            localFrom[i] = Math.min(before, after);
+            localTo[i] = Math.max(before, after);
+        }
+    }
+
+    /**
+     * Tabla de transiciones entre {@code from} y {@code to}; conviene que cubra el horizonte de reserva.
+     */
+    static TenantZone of(ZoneId zoneId, Instant from, Instant to) {
+        return new TenantZone(zoneId, from, to);
+    }
+
+    public ZoneId getZoneId() {
+        return zoneId;
+    }
+
+    /**
+     * Hora local actual del consultorio.
+     */
+    public LocalDateTime now() {
+        return toLocal(Instant.now());
+    }
+
+    public LocalDateTime toLocal(Instant instant) {
+        return LocalDateTime.ofEpochSecond(instant.getEpochSecond(), instant.getNano(), offsetAt(instant.getEpochSecond()));
+    }
+
+    /**
+     * Instante de una hora local del consultorio. Un horario inexistente se corre hacia adelante
+     * el largo del salto y uno repetido toma el primero de los dos instantes.
+     */
+    public Instant toInstant(LocalDateTime localDateTime) {
+        long local = localDateTime.toEpochSecond(ZoneOffset.UTC);
+        ZoneOffset offset = offsetForLocal(local);
+        if (offset == null) {
+            return localDateTime.atZone(zoneId).toInstant();
+        }
+        return Instant.ofEpochSecond(local - offset.getTotalSeconds(), localDateTime.getNano());
+    }
+
+    /**
+     * Indica si el horario local no existe porque cae en el salto de un cambio de hora.
+     */
+    public boolean isGap(LocalDateTime localDateTime) {
+        long local = localDateTime.toEpochSecond(ZoneOffset.UTC);
+        if (!inTable(local)) {
+            return rules.getValidOffsets(localDateTime).isEmpty();
+        }
+        int index = lastTransitionStartingAtOrBefore(local);
+        return index >= 0 && isGapTransition(index) && local < localTo[index];
+    }
+
+    /**
+     * Indica si algún minuto de [start, end) no existe en la zona del consultorio.
+     */
+    public boolean crossesGap(LocalDateTime start, LocalDateTime end) {
+        return !gapsBetween(start, end).isEmpty();
+    }
+
+    /**
+     * Saltos de cambio de hora en [from, to) como intervalos de hora local, listos para sumarse a
+     * la ocupación de la agenda: un turno que toca un horario inexistente queda descartado.
+     */
+    public IntervalSet gapsBetween(LocalDateTime from, LocalDateTime to) {
+        if (fixedOffset != null) {
+            return IntervalSet.EMPTY;
+        }
+        long start = from.toEpochSecond(ZoneOffset.UTC);
+        long end = to.toEpochSecond(ZoneOffset.UTC);
+        if (!inTable(start) || !inTable(end)) {
+            return gapsFromRules(from, to);
+        }
+        IntervalSet.Builder gaps = IntervalSet.builder();
+        for (int i = Math.max(lastTransitionStartingAtOrBefore(start), 0); i < localFrom.length && localFrom[i] < end; i++) {
+            if (isGapTransition(i) && localTo[i] > start) {
+                gaps.add(Math.floorDiv(localFrom[i], 60), Math.floorDiv(localTo[i] + 59, 60));
+            }
+        }
+        return gaps.build();
+    }
+
+    private IntervalSet gapsFromRules(LocalDateTime from, LocalDateTime to) {
+        IntervalSet.Builder gaps = IntervalSet.builder();
+        ZoneOffsetTransition transition = rules.nextTransition(from.atZone(zoneId).toInstant().minusSeconds(86_400));
+        while (transition != null && transition.getDateTimeBefore().isBefore(to)) {
+            if (transition.isGap() && transition.getDateTimeAfter().isAfter(from)) {
+                gaps.add(transition.getDateTimeBefore(), transition.getDateTimeAfter());
+            }
+            transition = rules.nextTransition(transition.getInstant());
+        }
+        return gaps.build();
+    }
+
+    private ZoneOffset offsetAt(long epochSecond) {
+        if (fixedOffset != null) {
+            return fixedOffset;
+        }
+        if (epochSecond < tableFrom || epochSecond >= tableTo) {
+            return rules.getOffset(Instant.ofEpochSecond(epochSecond));
+        }
+        int index = Arrays.binarySearch(transitionEpochSeconds, epochSecond);
+        index = index >= 0 ? index : -index - 2;
+        return index >= 0 ? offsetsAfter[index] : initialOffset;
+    }
+
+    /**
+     * Offset a aplicar a una hora local, o {@code null} si está fuera de la tabla. Dentro del tramo
+     * de una transición (salto u hora repetida) vale el offset anterior al cambio.
+     */
+    private ZoneOffset offsetForLocal(long local) {
+        if (fixedOffset != null) {
+            return fixedOffset;
+        }
+        if (!inTable(local)) {
+            return null;
+        }
+        int index = lastTransitionStartingAtOrBefore(local);
+        if (index < 0) {
+            return initialOffset;
+        }
+        return local < localTo[index] ? offsetsBefore[index] : offsetsAfter[index];
+    }
+
+    private int lastTransitionStartingAtOrBefore(long local) {
+        int index = Arrays.binarySearch(localFrom, local);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private boolean isGapTransition(int index) {
+        return offsetsAfter[index].getTotalSeconds() > offsetsBefore[index].getTotalSeconds();
+    }
+
+    /**
+     * Las horas locales se comparan contra los bordes de la tabla con un día de margen, que supera
+     * cualquier offset posible.
+     */
+    private boolean inTable(long local) {
+        return local >= tableFrom + 86_400 && local < tableTo - 86_400;
+    }
+}
@@ -0,0 +1,137 @@
+package com.saas.medical.service;
+
+import com.saas.medical.model.entity.Tenant;
+import com.saas.medical.model.entity.WaitlistEntry;
+import com.saas.medical.repository.TenantRepository;
+import com.saas.medical.repository.WaitlistEntryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Índice en memoria de la lista de espera por profesional y día.
+ *
+ * <p>Cada entrada se registra en todos los días de su rango (acotado a
+ * {@link WaitlistService#MAX_WINDOW_DAYS}), en un conjunto ordenado por id, es decir, por orden de
+ * llegada. Una cancelación obtiene los candidatos de su día con una búsqueda en el mapa y recorre
+ * el conjunto desde el primero, sin consultar la tabla. El índice se reconstruye al iniciar y cada
+ * {@code app.waitlist.refresh-interval-ms} para incorporar altas de otros nodos; la base decide
+ * igualmente quién recibe el horario con una actualización condicional.</p>
+ */
+@Component
+@Slf4j
+public class WaitlistIndex {
+
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final TenantRepository tenantRepository;
+    private final TenantTimeZones tenantTimeZones;
+
+    private volatile Map<DayKey, NavigableSet<Candidate>> byDay = new ConcurrentHashMap<>();
+
+    public WaitlistIndex(WaitlistEntryRepository waitlistEntryRepository, TenantRepository tenantRepository,
+                         TenantTimeZones tenantTimeZones) {
+        this.waitlistEntryRepository = waitlistEntryRepository;
+        this.tenantRepository = tenantRepository;
+        this.tenantTimeZones = tenantTimeZones;
+    }
+
+    /**
+     * Candidatos del profesional para ese día, en orden de llegada.
+     */
+    public Iterable<Candidate> candidates(Long professionalId, LocalDate date) {
+        NavigableSet<Candidate> candidates = byDay.get(new DayKey(professionalId, date));
+        return candidates != null ? candidates : Collections.emptySet();
+    }
+
+    public synchronized void add(Candidate candidate) {
+        add(byDay, candidate);
+    }
+
+    public synchronized void remove(Candidate candidate) {
+        for (LocalDate date = candidate.fromDate(); !date.isAfter(candidate.toDate()); date = date.plusDays(1)) {
+            byDay.computeIfPresent(new DayKey(candidate.professionalId(), date), (key, candidates) -> {
+                candidates.remove(candidate);
+                return candidates.isEmpty() ? null : candidates;
+            });
+        }
+    }
+
+    /**
+     * Vuelve a cargar las entradas en espera con rango vigente; los días ya pasados en la fecha de cada
+     * consultorio quedan fuera.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.waitlist.refresh-interval-ms:600000}",
+            fixedDelayString = "${app.waitlist.refresh-interval-ms:600000}")
+    public synchronized void rebuild() {
+        List<WaitlistEntry> waiting = waitlistEntryRepository.findWaitingFrom(
+                tenantTimeZones.earliestToday(tenantRepository.findDistinctTimezones()));
+
+        Map<UUID, LocalDate> todays = new HashMap<>();
+        Map<DayKey, NavigableSet<Candidate>> rebuilt = new ConcurrentHashMap<>();
+        for (WaitlistEntry entry : waiting) {
+            LocalDate today = todays.computeIfAbsent(entry.getTenantId(), tenantId -> tenantTimeZones.of(
+                    tenantRepository.findById(tenantId).map(Tenant::getTimezone).orElse(null)).now().toLocalDate());
+            if (entry.getToDate().isBefore(today)) {
+                continue;
+            }
+            Candidate candidate = Candidate.of(entry);
+            add(rebuilt, candidate.fromDate().isBefore(today)
+                    ? new Candidate(candidate.entryId(), candidate.professionalId(), candidate.procedureId(), today, candidate.toDate())
+                    : candidate);
+        }
+        byDay = rebuilt;
+        log.debug("Índice de lista de espera reconstruido: {} entradas, {} días", waiting.size(), rebuilt.size());
+    }
+
+    /**
+     * Cantidad de días con candidatos, útil para diagnósticos.
+     */
+    public int size() {
+        return byDay.size();
+    }
+
+    private static void add(Map<DayKey, NavigableSet<Candidate>> index, Candidate candidate) {
+        for (LocalDate date = candidate.fromDate(); !date.isAfter(candidate.toDate()); date = date.plusDays(1)) {
+            index.computeIfAbsent(new DayKey(candidate.professionalId(), date), key -> new ConcurrentSkipListSet<>())
+                    .add(candidate);
+        }
+    }
+
+    private record DayKey(Long professionalId, LocalDate date) {
+    }
+
+    /**
+     * Datos de la entrada necesarios para elegir candidato sin leer la tabla.
+     */
+    public record Candidate(Long entryId, Long professionalId, Long procedureId, LocalDate fromDate, LocalDate toDate)
+            implements Comparable<Candidate> {
+
+        static Candidate of(WaitlistEntry entry) {
+            return new Candidate(entry.getId(), entry.getProfessional().getId(),
+                    entry.getProcedure() != null ? entry.getProcedure().getId() : null,
+                    entry.getFromDate(), entry.getToDate());
+        }
+
+        boolean accepts(Long freedProcedureId) {
+            return procedureId == null || procedureId.equals(freedProcedureId);
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            return entryId.compareTo(other.entryId);
+        }
+    }
+}
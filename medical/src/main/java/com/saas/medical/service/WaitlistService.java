@@ -0,0 +1,236 @@
+package com.saas.medical.service;
+
+import com.saas.medical.event.AppointmentChangedEvent;
+import com.saas.medical.exception.BusinessException;
+import com.saas.medical.exception.ResourceNotFoundException;
+import com.saas.medical.model.dto.waitlist.WaitlistEntryResponse;
+import com.saas.medical.model.dto.waitlist.WaitlistRequest;
+import com.saas.medical.model.entity.OutboxEvent;
+import com.saas.medical.model.entity.Patient;
+import com.saas.medical.model.entity.Procedure;
+import com.saas.medical.model.entity.Professional;
+import com.saas.medical.model.entity.Tenant;
+import com.saas.medical.model.entity.WaitlistEntry;
+import com.saas.medical.repository.ProcedureRepository;
+import com.saas.medical.repository.ProfessionalRepository;
+import com.saas.medical.repository.TenantRepository;
+import com.saas.medical.repository.WaitlistEntryRepository;
+import com.saas.medical.security.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Lista de espera: cuando se cancela un turno, el horario liberado se ofrece al primer paciente en
+ * espera para ese profesional y día (y procedimiento, si lo indicó). Los candidatos salen de
+ * {@link WaitlistIndex}, sin recorrer la tabla en cada cancelación, y el aviso se entrega por el
+ * outbox. El horario no se reserva automáticamente: el paciente lo confirma por la reserva pública.
+ */
+@Service
+@Slf4j
+public class WaitlistService {
+
+    static final int MAX_WINDOW_DAYS = 31;
+
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final TenantRepository tenantRepository;
+    private final ProfessionalRepository professionalRepository;
+    private final ProcedureRepository procedureRepository;
+    private final AppointmentService appointmentService;
+    private final OutboxService outboxService;
+    private final WaitlistIndex waitlistIndex;
+    private final TenantTimeZones tenantTimeZones;
+    private final TransactionTemplate offerTransaction;
+
+    @Value("${app.waitlist.enabled:true}")
+    private boolean enabled;
+
+    public WaitlistService(WaitlistEntryRepository waitlistEntryRepository,
+                           TenantRepository tenantRepository,
+                           ProfessionalRepository professionalRepository,
+                           ProcedureRepository procedureRepository,
+                           AppointmentService appointmentService,
+                           OutboxService outboxService,
+                           WaitlistIndex waitlistIndex,
+                           TenantTimeZones tenantTimeZones,
+                           PlatformTransactionManager transactionManager) {
+        this.waitlistEntryRepository = waitlistEntryRepository;
+        this.tenantRepository = tenantRepository;
+        this.professionalRepository = professionalRepository;
+        this.procedureRepository = procedureRepository;
+        this.appointmentService = appointmentService;
+        this.outboxService = outboxService;
+        this.waitlistIndex = waitlistIndex;
+        this.tenantTimeZones = tenantTimeZones;
+        // El aviso se registra después del commit de la cancelación, en una transacción propia
+        this.offerTransaction = new TransactionTemplate(transactionManager);
+        this.offerTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Transactional
+    public WaitlistEntryResponse join(String tenantSlug, WaitlistRequest request) {
+        Tenant tenant = tenantRepository.findBySlugAndActive(tenantSlug, true)
+                .orElseThrow(() -> new ResourceNotFoundException("Consultorio no encontrado: " + tenantSlug));
+
+        Professional professional = professionalRepository.findByIdAndTenantId(request.getProfessionalId(), tenant.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Profesional no encontrado"));
+
+        Procedure procedure = null;
+        if (request.getProcedureId() != null) {
+            procedure = procedureRepository.findByIdAndTenantId(request.getProcedureId(), tenant.getId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Procedimiento no encontrado: " + request.getProcedureId()));
+        }
+
+        // "Hoy" es el del consultorio, no el del servidor
+        if (request.getFromDate().isBefore(tenantTimeZones.of(tenant).now().toLocalDate())) {
+            throw new BusinessException("La fecha desde no puede ser anterior a hoy");
+        }
+        if (request.getToDate().isBefore(request.getFromDate())) {
+            throw new BusinessException("La fecha hasta debe ser posterior a la fecha desde");
+        }
+        if (request.getFromDate().plusDays(MAX_WINDOW_DAYS).isBefore(request.getToDate())) {
+            throw new BusinessException("El rango de la lista de espera no puede superar los " + MAX_WINDOW_DAYS + " días");
+        }
+
+        Patient patient = appointmentService.findOrCreatePatient(tenant.getId(), request.getPatient());
+
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setTenantId(tenant.getId());
+        entry.setProfessional(professional);
+        entry.setProcedure(procedure);
+        entry.setPatient(patient);
+        entry.setFromDate(request.getFromDate());
+        entry.setToDate(request.getToDate());
+        entry = waitlistEntryRepository.save(entry);
+
+        WaitlistIndex.Candidate candidate = WaitlistIndex.Candidate.of(entry);
+        afterCommit(() -> waitlistIndex.add(candidate));
+
+        log.info("Paciente {} {} en lista de espera de Dr. {} del {} al {}",
+                patient.getFirstName(), patient.getLastName(), professional.getFullName(),
+                entry.getFromDate(), entry.getToDate());
+
+        return mapToResponse(entry);
+    }
+
+    @Transactional(readOnly = true)
+    public List<WaitlistEntryResponse> findWaitingByCurrentTenant() {
+        return waitlistEntryRepository.findByTenantIdAndStatusOrderByIdAsc(getCurrentTenantId(), WaitlistEntry.Status.WAITING)
+                .stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public void cancel(Long id) {
+        WaitlistEntry entry = waitlistEntryRepository.findByIdAndTenantId(id, getCurrentTenantId())
+                .orElseThrow(() -> new ResourceNotFoundException("Entrada de lista de espera no encontrada: " + id));
+
+        WaitlistIndex.Candidate candidate = WaitlistIndex.Candidate.of(entry);
+        entry.setStatus(WaitlistEntry.Status.CANCELLED);
+        waitlistEntryRepository.save(entry);
+        afterCommit(() -> waitlistIndex.remove(candidate));
+
+        log.info("Entrada de lista de espera cancelada - ID: {}", id);
+    }
+
+    /**
+     * Ofrece el horario de un turno recién cancelado al primer candidato que lo acepte. La entrada
+     * se toma con una actualización condicional, así que dos cancelaciones simultáneas (o dos nodos)
+     * nunca avisan al mismo paciente; los candidatos que ya no estaban en espera se quitan del índice.
+     * Un error acá no afecta a la cancelación, que ya se confirmó.
+     */
+    @TransactionalEventListener
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        if (!enabled || !event.releasedSlot()) {
+            return;
+        }
+        // El horario liberado está en la hora local del consultorio: solo se ofrece si allí todavía no empezó
+        TenantZone zone = tenantTimeZones.of(tenantRepository.findById(event.getTenantId())
+                .map(Tenant::getTimezone).orElse(null));
+        if (!event.getStartDateTime().isAfter(zone.now())) {
+            return;
+        }
+
+        List<WaitlistIndex.Candidate> stale = new ArrayList<>();
+        try {
+            WaitlistIndex.Candidate offered = offerTransaction.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                for (WaitlistIndex.Candidate candidate :
+                        waitlistIndex.candidates(event.getProfessionalId(), event.getStartDateTime().toLocalDate())) {
+                    if (!candidate.accepts(event.getProcedureId())) {
+                        continue;
+                    }
+                    if (waitlistEntryRepository.markOffered(candidate.entryId(), event.getStartDateTime(), now) == 1) {
+                        outboxService.enqueue(OutboxEvent.EventType.WAITLIST_OFFER, event.getTenantId(), candidate.entryId());
+                        return candidate;
+                    }
+                    stale.add(candidate);
+                }
+                return null;
+            });
+
+            if (offered != null) {
+                waitlistIndex.remove(offered);
+                log.info("Horario liberado {} de profesional {} ofrecido a la entrada de lista de espera {}",
+                        event.getStartDateTime(), event.getProfessionalId(), offered.entryId());
+            }
+        } catch (RuntimeException e) {
+            log.error("No se pudo ofrecer el horario liberado del turno {} a la lista de espera: {}",
+                    event.getAppointmentId(), e.getMessage(), e);
+        } finally {
+            stale.forEach(waitlistIndex::remove);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private WaitlistEntryResponse mapToResponse(WaitlistEntry entry) {
+        return WaitlistEntryResponse.builder()
+                .id(entry.getId())
+                .professionalId(entry.getProfessional().getId())
+                .professionalName(entry.getProfessional().getFullName())
+                .procedureId(entry.getProcedure() != null ? entry.getProcedure().getId() : null)
+                .procedureName(entry.getProcedure() != null ? entry.getProcedure().getName() : null)
+                .patientId(entry.getPatient().getId())
+                .patientName(entry.getPatient().getFullName())
+                .fromDate(entry.getFromDate())
+                .toDate(entry.getToDate())
+                .status(entry.getStatus())
+                .offeredStartDateTime(entry.getOfferedStartDateTime())
+                .createdAt(entry.getCreatedAt())
+                .build();
+    }
+
+    private UUID getCurrentTenantId() {
+        String tenantId = TenantContext.getCurrentTenant();
+        if (tenantId == null || tenantId.trim().isEmpty()) {
+            throw new BusinessException("No se pudo determinar el tenant actual. Verifique que esté autenticado correctamente.");
+        }
+        try {
+            return UUID.fromString(tenantId);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("ID de tenant inválido: " + tenantId);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+/* V18: Impedir turnos solapados del mismo profesional a nivel de base de datos */
+
+/*
+ * La aplicación serializa las reservas por profesional (lock en memoria + pg_advisory_xact_lock),
+ * y esta restricción de exclusión es la última garantía: ningún par de turnos no cancelados
+ * del mismo profesional puede tener rangos [inicio, fin) que se intersecten.
+ * Las columnas son TIMESTAMP sin zona horaria, por lo que el rango es tsrange.
+ */
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE appointments
+    ADD CONSTRAINT appointments_no_overlap
+    EXCLUDE USING gist (
+        professional_id WITH =,
+        tsrange(start_date_time, end_date_time, '[)') WITH &&
+    )
+    WHERE (status <> 'CANCELLED');
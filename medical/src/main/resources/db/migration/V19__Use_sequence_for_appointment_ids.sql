@@ -0,0 +1,15 @@
+/* V19: Ids de turnos por secuencia para permitir inserts en lote */
+
+/*
+ * Con IDENTITY Hibernate debe ejecutar cada INSERT por separado para conocer el id.
+ * La secuencia avanza de a 50 (allocationSize de la entidad), así cada nodo reserva
+ * un bloque de ids y las series de turnos se insertan con batching JDBC.
+ */
+CREATE SEQUENCE appointments_seq INCREMENT BY 50;
+
+/* Arrancar por encima de los ids existentes, dejando libre el bloque que toma el optimizador pooled */
+SELECT setval('appointments_seq', COALESCE((SELECT MAX(id) FROM appointments), 0) + 50);
+
+ALTER TABLE appointments ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE appointments ALTER COLUMN id SET DEFAULT nextval('appointments_seq');
+ALTER SEQUENCE appointments_seq OWNED BY appointments.id;
@@ -0,0 +1,9 @@
+/* V20: Índices para el listado paginado por cursor de turnos */
+
+/* Orden (start_date_time DESC, id DESC) por tenant: cada página es un rango del índice */
+CREATE INDEX idx_appointments_tenant_start_id
+    ON appointments (tenant_id, start_date_time DESC, id DESC);
+
+/* Mismo orden filtrando por profesional (listado de usuarios PROFESSIONAL y filtro de staff) */
+CREATE INDEX idx_appointments_tenant_professional_start_id
+    ON appointments (tenant_id, professional_id, start_date_time DESC, id DESC);
@@ -0,0 +1,22 @@
+/* V21: Outbox transaccional para notificaciones de turnos */
+
+CREATE TABLE outbox_events (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    tenant_id UUID NOT NULL,
+    event_type VARCHAR(40) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    sent_at TIMESTAMP,
+    FOREIGN KEY (tenant_id) REFERENCES tenants(id),
+    CONSTRAINT chk_outbox_status CHECK (status IN ('PENDING', 'SENT', 'FAILED'))
+);
+
+/* El despachador solo recorre pendientes vencidos, en orden de llegada */
+CREATE INDEX idx_outbox_events_pending ON outbox_events (next_attempt_at, id) WHERE status = 'PENDING';
+
+/* Limpieza de entregados */
+CREATE INDEX idx_outbox_events_sent ON outbox_events (sent_at) WHERE status = 'SENT';
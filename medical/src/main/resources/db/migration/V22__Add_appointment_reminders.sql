@@ -0,0 +1,18 @@
+/* V22: Recordatorios de turnos de 24 horas */
+
+/* Momento en que se encoló el recordatorio; NULL = pendiente */
+ALTER TABLE appointments ADD COLUMN reminder_sent_at TIMESTAMP;
+
+/* Scan por keyset de turnos confirmados sin recordatorio, en orden (start_date_time, id) */
+CREATE INDEX idx_appointments_reminder_pending
+    ON appointments (start_date_time, id)
+    WHERE status = 'CONFIRMED' AND reminder_sent_at IS NULL;
+
+/* Reclamo de cada ventana de recordatorios: la clave primaria garantiza un solo nodo por ventana */
+CREATE TABLE reminder_runs (
+    window_start TIMESTAMP PRIMARY KEY,
+    claimed_by VARCHAR(200) NOT NULL,
+    claimed_at TIMESTAMP NOT NULL,
+    completed_at TIMESTAMP,
+    reminders_queued INT
+);
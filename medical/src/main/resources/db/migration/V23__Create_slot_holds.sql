@@ -0,0 +1,19 @@
+/* V23: Reservas temporales de horario durante la reserva pública (espejo opcional de la memoria) */
+
+CREATE TABLE slot_holds (
+    token VARCHAR(64) PRIMARY KEY,
+    tenant_id UUID NOT NULL,
+    professional_id BIGINT NOT NULL,
+    start_date_time TIMESTAMP NOT NULL,
+    end_date_time TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    FOREIGN KEY (tenant_id) REFERENCES tenants(id),
+    FOREIGN KEY (professional_id) REFERENCES professionals(id)
+);
+
+/* Consulta de reservas vigentes por profesional y rango */
+CREATE INDEX idx_slot_holds_professional ON slot_holds (professional_id, start_date_time);
+
+/* Purga de vencidas */
+CREATE INDEX idx_slot_holds_expires_at ON slot_holds (expires_at);
@@ -0,0 +1,12 @@
+/* V24: Respuestas guardadas de operaciones con Idempotency-Key, compartidas entre nodos */
+
+CREATE TABLE idempotency_records (
+    record_key VARCHAR(400) PRIMARY KEY,
+    request_hash VARCHAR(64) NOT NULL,
+    response_body TEXT,
+    created_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+
+/* Purga de vencidas */
+CREATE INDEX idx_idempotency_records_expires_at ON idempotency_records (expires_at);
@@ -0,0 +1,27 @@
+/* V25: Lista de espera por profesional, procedimiento y rango de fechas */
+
+CREATE TABLE waitlist_entries (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    tenant_id UUID NOT NULL,
+    professional_id BIGINT NOT NULL,
+    procedure_id BIGINT,
+    patient_id BIGINT NOT NULL,
+    from_date DATE NOT NULL,
+    to_date DATE NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'WAITING',
+    offered_start_date_time TIMESTAMP,
+    offered_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (tenant_id) REFERENCES tenants(id),
+    FOREIGN KEY (professional_id) REFERENCES professionals(id),
+    FOREIGN KEY (procedure_id) REFERENCES procedures(id),
+    FOREIGN KEY (patient_id) REFERENCES patients(id),
+    CONSTRAINT chk_waitlist_status CHECK (status IN ('WAITING', 'OFFERED', 'CANCELLED')),
+    CONSTRAINT chk_waitlist_range CHECK (to_date >= from_date)
+);
+
+/* Carga del índice en memoria: solo entradas en espera con rango vigente */
+CREATE INDEX idx_waitlist_entries_waiting ON waitlist_entries (to_date) WHERE status = 'WAITING';
+
+/* Listado por consultorio */
+CREATE INDEX idx_waitlist_entries_tenant ON waitlist_entries (tenant_id, status, id);
@@ -0,0 +1,6 @@
+/* V26: Cierre automático de turnos confirmados ya terminados */
+
+/* Lotes del cierre automático: solo turnos confirmados, en orden de finalización */
+CREATE INDEX idx_appointments_confirmed_end
+    ON appointments (end_date_time, id)
+    WHERE status = 'CONFIRMED';
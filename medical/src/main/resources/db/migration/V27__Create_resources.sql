@@ -0,0 +1,29 @@
+/* V27: Salas y equipos compartidos que requieren los procedimientos */
+
+CREATE TABLE resources (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    tenant_id UUID NOT NULL,
+    name VARCHAR(200) NOT NULL,
+    description TEXT,
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (tenant_id) REFERENCES tenants(id)
+);
+
+CREATE INDEX idx_resources_tenant ON resources (tenant_id);
+
+CREATE TABLE procedure_resources (
+    procedure_id BIGINT NOT NULL,
+    resource_id BIGINT NOT NULL,
+    PRIMARY KEY (procedure_id, resource_id),
+    FOREIGN KEY (procedure_id) REFERENCES procedures(id),
+    FOREIGN KEY (resource_id) REFERENCES resources(id)
+);
+
+/* Procedimientos que usan un recurso, para armar su calendario */
+CREATE INDEX idx_procedure_resources_resource ON procedure_resources (resource_id, procedure_id);
+
+/* Ocupación de un recurso: turnos no cancelados de esos procedimientos en un rango */
+CREATE INDEX idx_appointments_procedure_start ON appointments (procedure_id, start_date_time)
+    WHERE status <> 'CANCELLED';
@@ -0,0 +1,48 @@
+/* V28: Sesiones grupales con capacidad por procedimiento y contador de cupos */
+
+ALTER TABLE procedures ADD COLUMN capacity INT NOT NULL DEFAULT 1;
+ALTER TABLE procedures ADD CONSTRAINT chk_procedures_capacity CHECK (capacity >= 1);
+
+/*
+ * Una fila por (profesional, inicio). booked se modifica solo con UPDATE condicionales
+ * (booked < capacity), que PostgreSQL serializa sobre la fila.
+ */
+CREATE TABLE group_sessions (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    tenant_id UUID NOT NULL,
+    professional_id BIGINT NOT NULL,
+    procedure_id BIGINT NOT NULL,
+    start_date_time TIMESTAMP NOT NULL,
+    end_date_time TIMESTAMP NOT NULL,
+    capacity INT NOT NULL,
+    booked INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (tenant_id) REFERENCES tenants(id),
+    FOREIGN KEY (professional_id) REFERENCES professionals(id),
+    FOREIGN KEY (procedure_id) REFERENCES procedures(id),
+    CONSTRAINT uk_group_sessions_professional_start UNIQUE (professional_id, start_date_time),
+    CONSTRAINT chk_group_sessions_booked CHECK (booked >= 0 AND booked <= capacity)
+);
+
+/* Sesiones con cupo de un procedimiento, para la agenda pública */
+CREATE INDEX idx_group_sessions_procedure ON group_sessions (professional_id, procedure_id, start_date_time);
+
+ALTER TABLE appointments ADD COLUMN group_session_id BIGINT;
+ALTER TABLE appointments ADD CONSTRAINT fk_appointments_group_session
+    FOREIGN KEY (group_session_id) REFERENCES group_sessions(id);
+CREATE INDEX idx_appointments_group_session ON appointments (group_session_id, patient_id)
+    WHERE group_session_id IS NOT NULL;
+
+/*
+ * Los inscriptos de una misma sesión comparten horario: la restricción de V18 pasa a cubrir solo
+ * los turnos individuales. La sesión se abre con el lock de agenda y la verificación de solapamiento,
+ * y los cupos posteriores solo toman el contador.
+ */
+ALTER TABLE appointments DROP CONSTRAINT appointments_no_overlap;
+ALTER TABLE appointments
+    ADD CONSTRAINT appointments_no_overlap
+    EXCLUDE USING gist (
+        professional_id WITH =,
+        tsrange(start_date_time, end_date_time, '[)') WITH &&
+    )
+    WHERE (status <> 'CANCELLED' AND group_session_id IS NULL);
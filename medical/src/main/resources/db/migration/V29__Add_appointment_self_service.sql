@@ -0,0 +1,24 @@
+/* V29: Consulta y cancelación de turnos por el paciente con DNI y código de un solo uso */
+
+/* Próximos turnos de un paciente del consultorio: la consulta pública lee solo ese tramo, en orden */
+CREATE INDEX idx_appointments_tenant_patient_start ON appointments (tenant_id, patient_id, start_date_time);
+
+/*
+ * Códigos enviados al email del paciente. Solo se guarda el hash; attempts se incrementa con un
+ * UPDATE condicional antes de comparar, así los intentos fallidos cuentan aunque la consulta falle.
+ */
+CREATE TABLE appointment_access_codes (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    tenant_id UUID NOT NULL,
+    patient_id BIGINT NOT NULL,
+    code_hash VARCHAR(64) NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    used BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (tenant_id) REFERENCES tenants(id),
+    FOREIGN KEY (patient_id) REFERENCES patients(id)
+);
+
+CREATE INDEX idx_appointment_access_codes_patient ON appointment_access_codes (tenant_id, patient_id, created_at);
+CREATE INDEX idx_appointment_access_codes_expires ON appointment_access_codes (expires_at);
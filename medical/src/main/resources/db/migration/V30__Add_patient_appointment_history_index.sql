@@ -0,0 +1,10 @@
+/* V30: Historial de turnos por paciente paginado por cursor */
+
+/*
+ * El historial recorre los turnos de un paciente del más reciente al más antiguo, desempatando por id.
+ * El índice de V29 (tenant_id, patient_id, start_date_time) se mantiene para la consulta pública de
+ * próximos turnos; el de V1 sobre patient_id queda cubierto por el prefijo de este.
+ */
+CREATE INDEX idx_appointments_patient_start ON appointments (patient_id, start_date_time DESC, id DESC);
+
+DROP INDEX IF EXISTS idx_appointments_patient;
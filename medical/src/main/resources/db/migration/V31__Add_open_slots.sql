@@ -0,0 +1,44 @@
+/* V31: Turnos libres materializados para la agenda pública, con recálculo por profesional y día */
+
+/*
+ * Estado de cada día materializado. revision se incrementa en la misma transacción que cambia la
+ * agenda (turno, reglas) y dirty_since guarda desde cuándo el día espera recálculo: el recálculo solo
+ * lo limpia si revision no cambió mientras calculaba. Un día sin fila o sin refreshed_at no está
+ * materializado y se resuelve con el motor en vivo.
+ */
+CREATE TABLE open_slot_days (
+    professional_id BIGINT NOT NULL,
+    slot_date DATE NOT NULL,
+    tenant_id UUID NOT NULL,
+    revision BIGINT NOT NULL DEFAULT 0,
+    dirty_since TIMESTAMP,
+    refreshed_at TIMESTAMP,
+    PRIMARY KEY (professional_id, slot_date),
+    FOREIGN KEY (tenant_id) REFERENCES tenants(id),
+    FOREIGN KEY (professional_id) REFERENCES professionals(id)
+);
+
+/* Días pendientes de recálculo, los más atrasados primero */
+CREATE INDEX idx_open_slot_days_dirty ON open_slot_days (dirty_since) WHERE dirty_since IS NOT NULL;
+
+/* Días a verificar de nuevo por antigüedad (cambios hechos fuera de la aplicación, como bloqueos) */
+CREATE INDEX idx_open_slot_days_refreshed ON open_slot_days (refreshed_at);
+
+/* Un inicio libre por fila; la agenda de un profesional es un rango sobre la clave primaria */
+CREATE TABLE open_slots (
+    professional_id BIGINT NOT NULL,
+    start_date_time TIMESTAMP NOT NULL,
+    end_date_time TIMESTAMP NOT NULL,
+    duration_minutes INT NOT NULL,
+    slot_date DATE NOT NULL,
+    tenant_id UUID NOT NULL,
+    PRIMARY KEY (professional_id, start_date_time),
+    FOREIGN KEY (tenant_id) REFERENCES tenants(id),
+    FOREIGN KEY (professional_id) REFERENCES professionals(id)
+);
+
+/* Primer turno libre del consultorio: recorrido por inicio entre todos sus profesionales */
+CREATE INDEX idx_open_slots_tenant_start ON open_slots (tenant_id, start_date_time);
+
+/* Recálculo de un día: se borran sus filas antes de insertar las nuevas */
+CREATE INDEX idx_open_slots_professional_date ON open_slots (professional_id, slot_date);
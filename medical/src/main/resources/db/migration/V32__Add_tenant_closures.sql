@@ -0,0 +1,18 @@
+/* V32: Cierres del consultorio (feriados, mantenimiento) aplicados a todos sus profesionales */
+
+CREATE TABLE tenant_closures (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    tenant_id UUID NOT NULL,
+    start_date_time TIMESTAMP NOT NULL,
+    end_date_time TIMESTAMP NOT NULL,
+    reason VARCHAR(255),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (tenant_id) REFERENCES tenants(id),
+    CONSTRAINT chk_tenant_closures_range CHECK (end_date_time > start_date_time)
+);
+
+/* Cierres vigentes de un consultorio: la máscara se arma con los que todavía no terminaron */
+CREATE INDEX idx_tenant_closures_tenant_end ON tenant_closures (tenant_id, end_date_time);
+
+/* Un cierre marca los días afectados de todos los profesionales del consultorio con un solo UPDATE */
+CREATE INDEX idx_open_slot_days_tenant_date ON open_slot_days (tenant_id, slot_date);
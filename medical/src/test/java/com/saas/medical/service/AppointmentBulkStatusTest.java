@@ -0,0 +1,120 @@
+package com.saas.medical.service;
+
+import com.saas.medical.exception.BusinessException;
+import com.saas.medical.model.dto.appointment.BulkStatusUpdateRequest;
+import com.saas.medical.model.entity.Appointment;
+import com.saas.medical.model.entity.Professional;
+import com.saas.medical.model.entity.Tenant;
+import com.saas.medical.repository.AppointmentRepository;
+import com.saas.medical.security.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static com.saas.medical.service.SchedulingFixtures.bookingRequest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AppointmentBulkStatusTest {
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentCompletionService appointmentCompletionService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private SchedulingFixtures fixtures;
+
+    @AfterEach
+    void clearTenant() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void bulkTransitionsSkipCancelledAndReturnCounts() {
+        String suffix = SchedulingFixtures.suffix();
+        Tenant tenant = fixtures.tenant("masivo", suffix);
+        Professional professional = fixtures.professional(tenant, "Julia");
+
+        LocalDate day = LocalDate.now().plusDays(6);
+        Long first = book(tenant.getSlug(), professional.getId(), day.atTime(9, 0), "71" + suffix);
+        Long second = book(tenant.getSlug(), professional.getId(), day.atTime(10, 0), "72" + suffix);
+        Long cancelled = book(tenant.getSlug(), professional.getId(), day.atTime(11, 0), "73" + suffix);
+        Long nextDay = book(tenant.getSlug(), professional.getId(), day.plusDays(1).atTime(9, 0), "74" + suffix);
+        appointmentService.cancel(cancelled);
+
+        TenantContext.setCurrentTenant(tenant.getId().toString());
+
+        assertEquals(2, appointmentService.bulkUpdateStatus(byIds("NO_SHOW", first, second, cancelled)).getUpdated());
+        assertEquals(0, appointmentService.bulkUpdateStatus(byIds("NO_SHOW", first, second)).getUpdated());
+        assertEquals(Appointment.AppointmentStatus.CANCELLED, statusOf(cancelled));
+
+        BulkStatusUpdateRequest byDay = new BulkStatusUpdateRequest();
+        byDay.setStatus("COMPLETED");
+        byDay.setProfessionalId(professional.getId());
+        byDay.setDate(day);
+        assertEquals(2, appointmentService.bulkUpdateStatus(byDay).getUpdated());
+        assertEquals(Appointment.AppointmentStatus.COMPLETED, statusOf(first));
+        assertEquals(Appointment.AppointmentStatus.CONFIRMED, statusOf(nextDay));
+
+        assertThrows(BusinessException.class, () -> appointmentService.bulkUpdateStatus(byIds("CANCELLED", nextDay)));
+
+        // Otro tenant no puede tocar estos turnos
+        TenantContext.setCurrentTenant(UUID.randomUUID().toString());
+        assertEquals(0, appointmentService.bulkUpdateStatus(byIds("COMPLETED", nextDay)).getUpdated());
+
+        appointmentCompletionService.closeEndedAppointments(day.plusDays(3).atStartOfDay());
+        assertEquals(Appointment.AppointmentStatus.COMPLETED, statusOf(nextDay));
+        assertEquals(Appointment.AppointmentStatus.CANCELLED, statusOf(cancelled));
+    }
+
+    @Test
+    void autoCloseUsesEachTenantsClock() {
+        // Pago Pago va 11 horas detrás de UTC: con el reloj del servidor sus turnos de hoy parecerían terminados
+        String suffix = SchedulingFixtures.suffix();
+        Tenant tenant = fixtures.tenant("cierre-zona", suffix, "Pacific/Pago_Pago");
+        Professional professional = fixtures.professional(tenant, "Julia");
+        LocalDateTime nowThere = LocalDateTime.now(ZoneId.of("Pacific/Pago_Pago")).truncatedTo(ChronoUnit.MINUTES);
+
+        Long upcoming = book(tenant.getSlug(), professional.getId(), nowThere.plusHours(2), "75" + suffix);
+        Long ended = book(tenant.getSlug(), professional.getId(), nowThere.plusHours(4), "76" + suffix);
+        Appointment past = appointmentRepository.findById(ended).orElseThrow();
+        past.setStartDateTime(nowThere.minusHours(3));
+        past.setEndDateTime(nowThere.minusHours(3).plusMinutes(30));
+        appointmentRepository.save(past);
+
+        appointmentCompletionService.closeEndedAppointments(LocalDateTime.now());
+        assertEquals(Appointment.AppointmentStatus.CONFIRMED, statusOf(upcoming));
+        assertEquals(Appointment.AppointmentStatus.COMPLETED, statusOf(ended));
+    }
+
+    private Long book(String tenantSlug, Long professionalId, LocalDateTime slot, String dni) {
+        return appointmentService.createAppointment(tenantSlug, bookingRequest(professionalId, slot, dni)).getId();
+    }
+
+    private Appointment.AppointmentStatus statusOf(Long id) {
+        return appointmentRepository.findById(id).orElseThrow().getStatus();
+    }
+
+    private static BulkStatusUpdateRequest byIds(String status, Long... ids) {
+        BulkStatusUpdateRequest request = new BulkStatusUpdateRequest();
+        request.setStatus(status);
+        request.setIds(List.of(ids));
+        return request;
+    }
+}
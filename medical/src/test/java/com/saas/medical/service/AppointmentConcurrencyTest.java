@@ -0,0 +1,101 @@
+package com.saas.medical.service;
+
+import com.saas.medical.exception.BusinessException;
+import com.saas.medical.model.dto.appointment.AppointmentRequest;
+import com.saas.medical.model.entity.Professional;
+import com.saas.medical.model.entity.Tenant;
+import com.saas.medical.repository.AppointmentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.saas.medical.service.SchedulingFixtures.bookingRequest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Slf4j
+class AppointmentConcurrencyTest {
+
+    private static final int ATTEMPTS = 300;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private SchedulingFixtures fixtures;
+
+    @Test
+    void concurrentBookingsForSameSlotHaveExactlyOneWinner() throws Exception {
+        String suffix = SchedulingFixtures.suffix();
+        Tenant tenant = fixtures.tenant("concurrencia", suffix);
+        Professional professional = fixtures.professional(tenant, "Ana");
+
+        LocalDateTime slot = LocalDate.now().plusDays(7).atTime(10, 0);
+        String tenantSlug = tenant.getSlug();
+        Long professionalId = professional.getId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < ATTEMPTS; i++) {
+            AppointmentRequest request = bookingRequest(professionalId, slot, "30" + suffix.hashCode() + i);
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    appointmentService.createAppointment(tenantSlug, request);
+                    succeeded.incrementAndGet();
+                } catch (BusinessException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+        executor.shutdown();
+
+        assertEquals(1, succeeded.get());
+        assertEquals(ATTEMPTS - 1, rejected.get());
+        assertEquals(1, appointmentRepository.findBusyIntervals(professionalId, slot, slot.plusMinutes(30)).size());
+
+        log.info("Reservas concurrentes: {} intentos en {} ms ({} reservas/s), 1 ganadora",
+                ATTEMPTS, elapsedMillis, ATTEMPTS * 1000L / Math.max(elapsedMillis, 1));
+    }
+
+    @Test
+    void advisoryKeysCoverIdsBeyondIntRange() {
+        long large = Integer.MAX_VALUE + 10L;
+        long professionalKey = BookingLockService.advisoryKey(BookingLockService.PROFESSIONAL_LOCK_NAMESPACE, large);
+        long resourceKey = BookingLockService.advisoryKey(BookingLockService.RESOURCE_LOCK_NAMESPACE, large);
+
+        assertNotEquals(professionalKey, resourceKey);
+        assertNotEquals(professionalKey, BookingLockService.advisoryKey(BookingLockService.PROFESSIONAL_LOCK_NAMESPACE, large + 1));
+        assertEquals(large, professionalKey & 0xFFFF_FFFF_FFFFL);
+    }
+}
@@ -0,0 +1,243 @@
+package com.saas.medical.service;
+
+import com.saas.medical.exception.BusinessException;
+import com.saas.medical.exception.ResourceNotFoundException;
+import com.saas.medical.model.dto.appointment.AppointmentResponse;
+import com.saas.medical.model.dto.appointment.PatientAppointmentResponse;
+import com.saas.medical.model.dto.common.CursorPageResponse;
+import com.saas.medical.model.entity.Appointment;
+import com.saas.medical.model.entity.Patient;
+import com.saas.medical.model.entity.Procedure;
+import com.saas.medical.model.entity.Professional;
+import com.saas.medical.model.entity.Tenant;
+import com.saas.medical.model.entity.User;
+import com.saas.medical.repository.AppointmentRepository;
+import com.saas.medical.repository.PatientRepository;
+import com.saas.medical.repository.ProcedureRepository;
+import com.saas.medical.repository.ProfessionalRepository;
+import com.saas.medical.repository.UserRepository;
+import com.saas.medical.security.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Listados paginados de turnos del consultorio y del historial de un paciente: recorrido completo
+ * por cursor, filtros y alcance de un usuario PROFESSIONAL.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class AppointmentPageTest {
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private ProcedureRepository procedureRepository;
+
+    @Autowired
+    private ProfessionalRepository professionalRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SchedulingFixtures fixtures;
+
+    private String suffix;
+    private Professional own;
+    private Professional other;
+    private Procedure procedure;
+    private Patient patient;
+    private LocalDate day;
+    private List<Appointment> appointments;
+
+    @BeforeEach
+    void setUp() {
+        suffix = SchedulingFixtures.suffix();
+        Tenant tenant = fixtures.tenant("paginas", suffix);
+        own = fixtures.professional(tenant, "Paula");
+        other = fixtures.professional(tenant, "Raúl");
+
+        User user = new User();
+        user.setTenantId(tenant.getId());
+        user.setEmail("paula@" + suffix + ".test");
+        user.setPasswordHash("-");
+        user.setFirstName("Paula");
+        user.setLastName("Sosa");
+        own.setUser(userRepository.save(user));
+        own = professionalRepository.save(own);
+
+        procedure = new Procedure();
+        procedure.setTenantId(tenant.getId());
+        procedure.setName("Control " + suffix);
+        procedure = procedureRepository.save(procedure);
+
+        Patient newPatient = new Patient();
+        newPatient.setTenant(tenant);
+        newPatient.setDni("74" + Math.abs(suffix.hashCode() % 1_000_000));
+        newPatient.setFirstName("Paciente");
+        newPatient.setLastName(suffix);
+        newPatient.setPhone("1100000000");
+        patient = patientRepository.save(newPatient);
+
+        // Tres días con cuatro turnos cada uno; los dos profesionales comparten horarios, así el cursor
+        // tiene que desempatar por id
+        day = LocalDate.now().plusDays(20);
+        List<Appointment> rows = new ArrayList<>();
+        for (int d = 0; d < 3; d++) {
+            for (int i = 0; i < 4; i++) {
+                Appointment appointment = new Appointment();
+                appointment.setTenantId(tenant.getId());
+                appointment.setProfessional(i % 2 == 0 ? own : other);
+                appointment.setPatient(patient);
+                appointment.setProcedure(i < 2 ? procedure : null);
+                appointment.setStartDateTime(day.plusDays(d).atTime(9, 0).plusMinutes(30L * (i / 2)));
+                appointment.setEndDateTime(appointment.getStartDateTime().plusMinutes(30));
+                appointment.setStatus(i == 3 ? Appointment.AppointmentStatus.CANCELLED : Appointment.AppointmentStatus.CONFIRMED);
+                rows.add(appointment);
+            }
+        }
+        appointments = appointmentRepository.saveAll(rows);
+
+        TenantContext.setCurrentTenant(tenant.getId().toString());
+        authenticate("staff@" + suffix + ".test", "ROLE_STAFF");
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void cursorWalksEveryAppointmentOnceNewestFirst() {
+        List<Long> expected = appointments.stream()
+                .sorted(Comparator.comparing(Appointment::getStartDateTime).thenComparing(Appointment::getId).reversed())
+                .map(Appointment::getId)
+                .toList();
+
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPageResponse<AppointmentResponse> page = appointmentService.findAppointmentPageByCurrentTenant(
+                    day, day.plusDays(2), null, null, null, cursor, 5);
+            page.getItems().forEach(item -> walked.add(item.getId()));
+            assertEquals(page.isHasMore(), page.getNextCursor() != null);
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(expected, walked);
+        assertEquals(3, pages);
+        assertThrows(BusinessException.class, () -> appointmentService.findAppointmentPageByCurrentTenant(
+                null, null, null, null, null, "no-es-un-cursor", 5));
+    }
+
+    @Test
+    void filtersNarrowThePage() {
+        assertEquals(4, ids(day.plusDays(1), day.plusDays(1), null, null, null).size());
+        assertEquals(3, ids(day, day.plusDays(2), "CANCELLED", null, null).size());
+        assertEquals(6, ids(day, day.plusDays(2), null, other.getId(), null).size());
+        assertEquals(6, ids(day, day.plusDays(2), null, null, procedure.getId()).size());
+        // Turnos del profesional con el procedimiento, del primer día, confirmados
+        List<Long> combined = ids(day, day, "confirmed", own.getId(), procedure.getId());
+        assertEquals(List.of(appointments.get(0).getId()), combined);
+
+        assertThrows(BusinessException.class, () -> ids(day, day, "PENDIENTE", null, null));
+    }
+
+    @Test
+    void professionalOnlySeesOwnAppointments() {
+        authenticate("paula@" + suffix + ".test", "ROLE_PROFESSIONAL");
+
+        // Pedir los turnos de otro profesional no cambia el alcance
+        List<Long> scoped = ids(day, day.plusDays(2), null, other.getId(), null);
+        assertEquals(6, scoped.size());
+        assertTrue(appointmentRepository.findAllById(scoped).stream()
+                .allMatch(appointment -> appointment.getProfessional().getId().equals(own.getId())));
+
+        // Un usuario PROFESSIONAL sin profesional vinculado recibe una página vacía
+        authenticate("sin-agenda@" + suffix + ".test", "ROLE_PROFESSIONAL");
+        CursorPageResponse<AppointmentResponse> empty = appointmentService.findAppointmentPageByCurrentTenant(
+                null, null, null, null, null, null, 5);
+        assertTrue(empty.getItems().isEmpty());
+        assertFalse(empty.isHasMore());
+        assertNull(empty.getNextCursor());
+    }
+
+    @Test
+    void patientHistoryPagesThroughOwnAppointmentsOnly() {
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageResponse<PatientAppointmentResponse> page =
+                    appointmentService.findPatientAppointmentPage(patient.getId(), null, cursor, 4);
+            page.getItems().forEach(item -> walked.add(item.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(appointments.stream()
+                .sorted(Comparator.comparing(Appointment::getStartDateTime).thenComparing(Appointment::getId).reversed())
+                .map(Appointment::getId)
+                .toList(), walked);
+
+        PatientAppointmentResponse newest = appointmentService.findPatientAppointmentPage(
+                patient.getId(), List.of("CANCELLED"), null, 1).getItems().get(0);
+        assertEquals(appointments.get(11).getId(), newest.getId());
+        assertEquals("CANCELLED", newest.getStatus());
+        assertEquals(other.getId(), newest.getProfessionalId());
+        assertEquals("Raúl Sosa", newest.getProfessionalName());
+        assertNull(newest.getProcedureName());
+        assertEquals(9, appointmentService.findPatientAppointmentPage(
+                patient.getId(), List.of("CONFIRMED", "COMPLETED"), null, 50).getItems().size());
+
+        // Un PROFESSIONAL solo ve los turnos que el paciente tuvo con él
+        authenticate("paula@" + suffix + ".test", "ROLE_PROFESSIONAL");
+        List<PatientAppointmentResponse> scoped = appointmentService.findPatientAppointmentPage(
+                patient.getId(), null, null, 50).getItems();
+        assertEquals(6, scoped.size());
+        assertTrue(scoped.stream().allMatch(item -> item.getProfessionalId().equals(own.getId())));
+
+        // Un paciente de otro consultorio no existe para este
+        Tenant foreign = fixtures.tenant("paginas", SchedulingFixtures.suffix());
+        TenantContext.setCurrentTenant(foreign.getId().toString());
+        assertThrows(ResourceNotFoundException.class,
+                () -> appointmentService.findPatientAppointmentPage(patient.getId(), null, null, 5));
+    }
+
+    private List<Long> ids(LocalDate from, LocalDate to, String status, Long professionalId, Long procedureId) {
+        return appointmentService.findAppointmentPageByCurrentTenant(from, to, status, professionalId, procedureId, null, 50)
+                .getItems().stream()
+                .map(AppointmentResponse::getId)
+                .toList();
+    }
+
+    private static void authenticate(String email, String role) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                email, null, List.of(new SimpleGrantedAuthority(role))));
+    }
+}
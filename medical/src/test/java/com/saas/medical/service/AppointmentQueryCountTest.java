@@ -0,0 +1,184 @@
+package com.saas.medical.service;
+
+import com.saas.medical.model.dto.appointment.AppointmentResponse;
+import com.saas.medical.model.dto.appointment.PatientAppointmentResponse;
+import com.saas.medical.model.dto.common.CursorPageResponse;
+import com.saas.medical.model.entity.Appointment;
+import com.saas.medical.model.entity.Patient;
+import com.saas.medical.model.entity.Procedure;
+import com.saas.medical.model.entity.Professional;
+import com.saas.medical.model.entity.Specialty;
+import com.saas.medical.model.entity.Tenant;
+import com.saas.medical.repository.AppointmentRepository;
+import com.saas.medical.repository.PatientRepository;
+import com.saas.medical.repository.ProcedureRepository;
+import com.saas.medical.security.TenantContext;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica que los listados de turnos no vuelvan a disparar una consulta por asociación y por fila.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class AppointmentQueryCountTest {
+
+    private static final int PATIENTS = 10;
+    private static final int APPOINTMENTS = 40;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private SchedulingFixtures fixtures;
+
+    @Autowired
+    private ProcedureRepository procedureRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Long historyPatientId;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = SchedulingFixtures.suffix();
+        Tenant tenant = fixtures.tenant("listados", suffix);
+        Specialty specialty = fixtures.specialty("Kinesiología");
+
+        List<Professional> professionals = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            professionals.add(fixtures.professional(tenant, specialty, "Profesional" + i));
+        }
+
+        Procedure procedure = new Procedure();
+        procedure.setTenantId(tenant.getId());
+        procedure.setSpecialty(specialty);
+        procedure.setName("Sesión " + suffix);
+        procedure = procedureRepository.save(procedure);
+
+        List<Patient> patients = new ArrayList<>();
+        for (int i = 0; i < PATIENTS; i++) {
+            Patient patient = new Patient();
+            patient.setTenant(tenant);
+            patient.setDni("40" + i + suffix.hashCode());
+            patient.setFirstName("Paciente" + i);
+            patient.setLastName(suffix);
+            patient.setPhone("1100000000");
+            patients.add(patientRepository.save(patient));
+        }
+
+        LocalDateTime firstStart = LocalDate.now().plusDays(1).atTime(8, 0);
+        List<Appointment> appointments = new ArrayList<>();
+        for (int i = 0; i < APPOINTMENTS; i++) {
+            Appointment appointment = new Appointment();
+            appointment.setTenantId(tenant.getId());
+            appointment.setProfessional(professionals.get(i % professionals.size()));
+            appointment.setPatient(patients.get(i % PATIENTS));
+            appointment.setProcedure(i % 2 == 0 ? procedure : null);
+            appointment.setStartDateTime(firstStart.plusMinutes(30L * i));
+            appointment.setEndDateTime(firstStart.plusMinutes(30L * i + 30));
+            appointments.add(appointment);
+        }
+        appointmentRepository.saveAll(appointments);
+        historyPatientId = patients.get(0).getId();
+
+        TenantContext.setCurrentTenant(tenant.getId().toString());
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "staff@" + suffix + ".test", null, List.of(new SimpleGrantedAuthority("ROLE_STAFF"))));
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void fullListingUsesConstantNumberOfStatements() {
+        List<AppointmentResponse> appointments = appointmentService.findAppointmentsByCurrentTenant();
+
+        assertEquals(APPOINTMENTS, appointments.size());
+        // turnos con sus asociaciones + tenant
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void keysetPagesUseConstantNumberOfStatements() {
+        CursorPageResponse<AppointmentResponse> first = appointmentService.findAppointmentPageByCurrentTenant(
+                null, null, null, null, null, null, 15);
+        assertEquals(15, first.getItems().size());
+        assertTrue(first.isHasMore());
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        CursorPageResponse<AppointmentResponse> second = appointmentService.findAppointmentPageByCurrentTenant(
+                null, null, "CONFIRMED", null, null, first.getNextCursor(), 15);
+        assertEquals(15, second.getItems().size());
+        assertTrue(second.getItems().get(0).getStartDateTime()
+                .isBefore(first.getItems().get(first.getItems().size() - 1).getStartDateTime()));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void patientHistoryPagesUseProjectionAndConstantStatements() {
+        // El paciente 0 tiene los turnos 0, 10, 20 y 30; el 20 se cancela
+        Appointment cancelled = appointmentRepository.findByPatientId(historyPatientId).get(1);
+        cancelled.setStatus(Appointment.AppointmentStatus.CANCELLED);
+        appointmentRepository.save(cancelled);
+        statistics.clear();
+
+        CursorPageResponse<PatientAppointmentResponse> first =
+                appointmentService.findPatientAppointmentPage(historyPatientId, null, null, 3);
+        assertEquals(3, first.getItems().size());
+        assertTrue(first.isHasMore());
+        assertEquals(cancelled.getId(), first.getItems().get(1).getId());
+        // validación del paciente + página, sin hidratar turnos, profesionales ni especialidades
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        statistics.clear();
+        CursorPageResponse<PatientAppointmentResponse> second =
+                appointmentService.findPatientAppointmentPage(historyPatientId, null, first.getNextCursor(), 3);
+        assertEquals(1, second.getItems().size());
+        assertFalse(second.isHasMore());
+        assertTrue(second.getItems().get(0).getStartDateTime().isBefore(first.getItems().get(2).getStartDateTime()));
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        CursorPageResponse<PatientAppointmentResponse> confirmed = appointmentService.findPatientAppointmentPage(
+                historyPatientId, List.of("CONFIRMED", "COMPLETED"), null, 3);
+        assertEquals(3, confirmed.getItems().size());
+        assertFalse(confirmed.isHasMore());
+        assertTrue(confirmed.getItems().stream().noneMatch(item -> item.getId().equals(cancelled.getId())));
+    }
+}
@@ -0,0 +1,183 @@
+package com.saas.medical.service;
+
+import com.saas.medical.exception.BusinessException;
+import com.saas.medical.exception.ResourceNotFoundException;
+import com.saas.medical.model.dto.appointment.AppointmentAccessCodeResponse;
+import com.saas.medical.model.dto.appointment.AppointmentAccessRequest;
+import com.saas.medical.model.dto.appointment.SelfServiceAppointmentResponse;
+import com.saas.medical.model.entity.Appointment;
+import com.saas.medical.model.entity.Patient;
+import com.saas.medical.model.entity.Professional;
+import com.saas.medical.model.entity.Tenant;
+import com.saas.medical.repository.AppointmentAccessCodeRepository;
+import com.saas.medical.repository.AppointmentRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.mail.MailSendException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AppointmentSelfServiceTest {
+
+    @Autowired
+    private AppointmentSelfService appointmentSelfService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AppointmentAccessCodeRepository accessCodeRepository;
+
+    @Autowired
+    private SchedulingFixtures fixtures;
+
+    // Mismo reemplazo que OutboxDispatchTest, así ambos comparten el contexto
+    @SpyBean
+    private EmailService emailService;
+
+    @Test
+    void patientLooksUpAndCancelsWithOneTimeCode() {
+        String suffix = SchedulingFixtures.suffix();
+        String client = "10.0.0." + suffix;
+        Tenant tenant = fixtures.tenant("autogestion", suffix);
+        Professional professional = fixtures.professional(tenant, "Marta");
+        String dni = "91" + Math.abs(suffix.hashCode() % 1_000_000);
+
+        LocalDate day = LocalDate.now().plusDays(5);
+        Long first = book(tenant, professional, day.atTime(9, 0), dni);
+        Long second = book(tenant, professional, day.plusDays(1).atTime(9, 0), dni);
+        Long foreign = book(tenant, professional, day.atTime(10, 0), "92" + Math.abs(suffix.hashCode() % 1_000_000));
+
+        String code = requestCode(tenant, dni, client);
+
+        // Un DNI desconocido recibe la misma respuesta y no dispara ningún email
+        assertEquals(AppointmentSelfService.CODE_SENT_MESSAGE,
+                appointmentSelfService.requestCode(tenant.getSlug(), "00000000", client).getMessage());
+        verify(emailService, times(1)).sendAppointmentAccessCode(any(), any(), anyString(), anyLong());
+
+        assertThrows(BusinessException.class,
+                () -> appointmentSelfService.findUpcoming(tenant.getSlug(), access(dni, wrong(code)), client));
+        List<SelfServiceAppointmentResponse> upcoming =
+                appointmentSelfService.findUpcoming(tenant.getSlug(), access(dni, code), client);
+        assertEquals(List.of(first, second), upcoming.stream().map(SelfServiceAppointmentResponse::getId).toList());
+
+        // Otro paciente del consultorio no puede usar su código sobre turnos ajenos
+        assertThrows(ResourceNotFoundException.class,
+                () -> appointmentSelfService.cancel(tenant.getSlug(), foreign, access(dni, code), client));
+
+        appointmentSelfService.cancel(tenant.getSlug(), first, access(dni, code), client);
+        assertEquals(Appointment.AppointmentStatus.CANCELLED, appointmentRepository.findById(first).orElseThrow().getStatus());
+
+        // El código se consumió con la cancelación
+        assertThrows(BusinessException.class,
+                () -> appointmentSelfService.cancel(tenant.getSlug(), second, access(dni, code), client));
+        assertEquals(Appointment.AppointmentStatus.CONFIRMED, appointmentRepository.findById(second).orElseThrow().getStatus());
+    }
+
+    @Test
+    void codeStopsWorkingAfterTooManyWrongAttempts() {
+        String suffix = SchedulingFixtures.suffix();
+        String client = "10.0.1." + suffix;
+        Tenant tenant = fixtures.tenant("autogestion", suffix);
+        Professional professional = fixtures.professional(tenant, "Marta");
+        String dni = "93" + Math.abs(suffix.hashCode() % 1_000_000);
+        book(tenant, professional, LocalDate.now().plusDays(6).atTime(9, 0), dni);
+
+        String code = requestCode(tenant, dni, client);
+        for (int i = 0; i < 5; i++) {
+            assertThrows(BusinessException.class,
+                    () -> appointmentSelfService.findUpcoming(tenant.getSlug(), access(dni, wrong(code)), client));
+        }
+        assertThrows(BusinessException.class,
+                () -> appointmentSelfService.findUpcoming(tenant.getSlug(), access(dni, code), client));
+    }
+
+    @Test
+    void lookupsAreRateLimitedPerDni() {
+        String suffix = SchedulingFixtures.suffix();
+        Tenant tenant = fixtures.tenant("autogestion", suffix);
+        String dni = "94" + Math.abs(suffix.hashCode() % 1_000_000);
+
+        // Cambiar de origen no evita el límite por DNI
+        for (int i = 0; i < 10; i++) {
+            assertThrows(BusinessException.class,
+                    () -> appointmentSelfService.findUpcoming(tenant.getSlug(), access(dni, "123456"), "10.0.2." + UUID.randomUUID()));
+        }
+        BusinessException limited = assertThrows(BusinessException.class,
+                () -> appointmentSelfService.findUpcoming(tenant.getSlug(), access(dni, "123456"), "10.0.3." + suffix));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, limited.getStatus());
+        verify(emailService, never()).sendAppointmentAccessCode(any(), any(), anyString(), anyLong());
+    }
+
+    @Test
+    void smtpFailureDoesNotChangeTheResponse() {
+        String suffix = SchedulingFixtures.suffix();
+        String client = "10.0.4." + suffix;
+        Tenant tenant = fixtures.tenant("autogestion", suffix);
+        Professional professional = fixtures.professional(tenant, "Marta");
+        String dni = "95" + Math.abs(suffix.hashCode() % 1_000_000);
+        book(tenant, professional, LocalDate.now().plusDays(7).atTime(9, 0), dni);
+        doThrow(new MailSendException("SMTP no disponible"))
+                .when(emailService).sendAppointmentAccessCode(any(), any(), anyString(), anyLong());
+
+        AppointmentAccessCodeResponse known = appointmentSelfService.requestCode(tenant.getSlug(), dni, client);
+        AppointmentAccessCodeResponse unknown = appointmentSelfService.requestCode(tenant.getSlug(), "00000001", client);
+
+        assertEquals(unknown, known);
+        verify(emailService, timeout(5000)).sendAppointmentAccessCode(any(), any(), anyString(), anyLong());
+        // El código quedó guardado aunque el email falló: el paciente puede pedir otro
+        assertEquals(1, accessCodeRepository.findAll().stream()
+                .filter(code -> code.getTenantId().equals(tenant.getId()))
+                .count());
+    }
+
+    private String requestCode(Tenant tenant, String dni, String client) {
+        doNothing().when(emailService).sendAppointmentAccessCode(any(), any(), anyString(), anyLong());
+        appointmentSelfService.requestCode(tenant.getSlug(), dni, client);
+
+        ArgumentCaptor<String> code = ArgumentCaptor.forClass(String.class);
+        verify(emailService, timeout(5000)).sendAppointmentAccessCode(any(Patient.class), any(Tenant.class), code.capture(), anyLong());
+        return code.getValue();
+    }
+
+    private static String wrong(String code) {
+        return code.equals("000000") ? "000001" : "000000";
+    }
+
+    private static AppointmentAccessRequest access(String dni, String code) {
+        AppointmentAccessRequest request = new AppointmentAccessRequest();
+        request.setDni(dni);
+        request.setCode(code);
+        return request;
+    }
+
+    private Long book(Tenant tenant, Professional professional, LocalDateTime start, String dni) {
+        return appointmentService.createAppointment(tenant.getSlug(),
+                SchedulingFixtures.bookingRequest(professional.getId(), start, dni)).getId();
+    }
+}
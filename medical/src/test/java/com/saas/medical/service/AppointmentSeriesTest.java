@@ -0,0 +1,168 @@
+package com.saas.medical.service;
+
+import com.saas.medical.exception.BusinessException;
+import com.saas.medical.model.dto.appointment.AppointmentResponse;
+import com.saas.medical.model.dto.appointment.AppointmentSeriesRequest;
+import com.saas.medical.model.dto.appointment.AppointmentSeriesResponse;
+import com.saas.medical.model.entity.Professional;
+import com.saas.medical.model.entity.Tenant;
+import com.saas.medical.repository.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static com.saas.medical.service.SchedulingFixtures.bookingRequest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reserva de series: todo o nada con el detalle por sesión, tope de sesiones, regla por cantidad o
+ * por fecha final, e ids tomados de la secuencia en bloques.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class AppointmentSeriesTest {
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private SchedulingFixtures fixtures;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Tenant tenant;
+    private Professional professional;
+    private LocalDateTime firstStart;
+
+    @BeforeEach
+    void setUp() {
+        tenant = fixtures.tenant("series", SchedulingFixtures.suffix());
+        professional = fixtures.professional(tenant, "Elena");
+        fixtures.weekdays(professional, LocalTime.of(8, 0), LocalTime.of(18, 0));
+        firstStart = SchedulingFixtures.nextWeekday(LocalDate.now().plusDays(3)).atTime(10, 0);
+    }
+
+    @Test
+    void conflictingSessionRejectsTheWholeSeries() {
+        LocalDateTime taken = firstStart.plusWeeks(2);
+        appointmentService.createAppointment(tenant.getSlug(), bookingRequest(professional.getId(), taken, "71000001"));
+
+        AppointmentSeriesResponse series = appointmentService.createAppointmentSeries(tenant.getSlug(),
+                series(weekly(4, null)));
+
+        assertFalse(series.isCreated());
+        assertEquals(4, series.getTotalOccurrences());
+        assertEquals(1, series.getConflictCount());
+        assertTrue(series.getAppointments().isEmpty());
+        for (AppointmentSeriesResponse.Occurrence occurrence : series.getOccurrences()) {
+            boolean conflicting = occurrence.getStartDateTime().equals(taken);
+            assertEquals(!conflicting, occurrence.isAvailable());
+            if (conflicting) {
+                assertEquals("El horario no está disponible - existe solapamiento con otro turno", occurrence.getConflict());
+            } else {
+                assertNull(occurrence.getConflict());
+            }
+        }
+        // Ninguna sesión quedó guardada: solo el turno que ya existía
+        assertEquals(1, appointmentRepository.findBusyIntervals(professional.getId(),
+                firstStart, firstStart.plusWeeks(4)).size());
+    }
+
+    @Test
+    void countAndUntilProduceTheSameSessions() {
+        AppointmentSeriesResponse byCount = appointmentService.createAppointmentSeries(tenant.getSlug(),
+                series(weekly(4, null)));
+        assertTrue(byCount.isCreated());
+        assertEquals(List.of(firstStart, firstStart.plusWeeks(1), firstStart.plusWeeks(2), firstStart.plusWeeks(3)),
+                starts(byCount));
+
+        // La fecha final es inclusiva y no tiene por qué caer en una sesión
+        firstStart = firstStart.withHour(15);
+        AppointmentSeriesResponse byUntil = appointmentService.createAppointmentSeries(tenant.getSlug(),
+                series(weekly(null, firstStart.toLocalDate().plusWeeks(3).plusDays(2))));
+        assertTrue(byUntil.isCreated());
+        assertEquals(List.of(firstStart, firstStart.plusWeeks(1), firstStart.plusWeeks(2), firstStart.plusWeeks(3)),
+                starts(byUntil));
+
+        AppointmentSeriesRequest everyOtherDay = series(weekly(3, null));
+        everyOtherDay.getRecurrence().setFrequency(AppointmentSeriesRequest.Frequency.DAILY);
+        everyOtherDay.getRecurrence().setInterval(2);
+        everyOtherDay.setStartDateTime(firstStart.withHour(17));
+        AppointmentSeriesResponse daily = appointmentService.createAppointmentSeries(tenant.getSlug(), everyOtherDay);
+        assertEquals(List.of(firstStart.withHour(17), firstStart.withHour(17).plusDays(2), firstStart.withHour(17).plusDays(4)),
+                starts(daily));
+
+        assertThrows(BusinessException.class, () -> appointmentService.createAppointmentSeries(tenant.getSlug(),
+                series(weekly(null, null))));
+        assertThrows(BusinessException.class, () -> appointmentService.createAppointmentSeries(tenant.getSlug(),
+                series(weekly(null, firstStart.toLocalDate().minusDays(1)))));
+    }
+
+    @Test
+    void seriesIsCappedAtFiftyTwoSessions() {
+        String slug = tenant.getSlug();
+        assertThrows(BusinessException.class, () -> appointmentService.createAppointmentSeries(slug,
+                series(weekly(AppointmentService.MAX_SERIES_OCCURRENCES + 1, null))));
+        assertThrows(BusinessException.class, () -> appointmentService.createAppointmentSeries(slug,
+                series(weekly(null, firstStart.toLocalDate().plusYears(2)))));
+        assertTrue(appointmentRepository.findBusyIntervals(professional.getId(), firstStart, firstStart.plusYears(2)).isEmpty());
+
+        AppointmentSeriesResponse full = appointmentService.createAppointmentSeries(slug,
+                series(weekly(AppointmentService.MAX_SERIES_OCCURRENCES, null)));
+        assertTrue(full.isCreated());
+        assertEquals(AppointmentService.MAX_SERIES_OCCURRENCES, full.getAppointments().size());
+    }
+
+    @Test
+    void seriesIdsComeFromTheSequenceInBlocks() {
+        assertEquals(50L, jdbcTemplate.queryForObject(
+                "SELECT INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES WHERE UPPER(SEQUENCE_NAME) = 'APPOINTMENTS_SEQ'",
+                Long.class));
+
+        AppointmentSeriesResponse series = appointmentService.createAppointmentSeries(tenant.getSlug(),
+                series(weekly(12, null)));
+
+        // El optimizador pooled reparte ids de un bloque ya reservado: sin huecos entre sesiones
+        List<Long> ids = series.getAppointments().stream().map(AppointmentResponse::getId).toList();
+        for (int i = 1; i < ids.size(); i++) {
+            assertEquals(ids.get(i - 1) + 1, ids.get(i));
+        }
+    }
+
+    private AppointmentSeriesRequest series(AppointmentSeriesRequest.Recurrence recurrence) {
+        AppointmentSeriesRequest request = new AppointmentSeriesRequest();
+        request.setProfessionalId(professional.getId());
+        request.setStartDateTime(firstStart);
+        request.setRecurrence(recurrence);
+        request.setPatient(SchedulingFixtures.patient("72000001"));
+        return request;
+    }
+
+    private static AppointmentSeriesRequest.Recurrence weekly(Integer count, LocalDate until) {
+        AppointmentSeriesRequest.Recurrence recurrence = new AppointmentSeriesRequest.Recurrence();
+        recurrence.setFrequency(AppointmentSeriesRequest.Frequency.WEEKLY);
+        recurrence.setCount(count);
+        recurrence.setUntil(until);
+        return recurrence;
+    }
+
+    private static List<LocalDateTime> starts(AppointmentSeriesResponse series) {
+        return series.getAppointments().stream().map(AppointmentResponse::getStartDateTime).toList();
+    }
+}
@@ -0,0 +1,113 @@
+package com.saas.medical.service;
+
+import com.saas.medical.exception.AvailabilityOverlapException;
+import com.saas.medical.model.dto.professional.AvailabilityConflictResponse;
+import com.saas.medical.model.dto.professional.ProfessionalAvailabilityRequest;
+import com.saas.medical.model.entity.ProfessionalAvailability;
+import com.saas.medical.model.enums.DayOfWeek;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Barrido de solapamientos entre reglas de disponibilidad, sin contexto de Spring.
+ */
+class AvailabilityOverlapsTest {
+
+    // Un lunes
+    private static final LocalDate DATE = LocalDate.of(2030, 3, 4);
+
+    @Test
+    void everyConflictingPairIsReported() {
+        List<AvailabilityConflictResponse> conflicts = AvailabilityOverlaps.find(List.of(), List.of(
+                request(DayOfWeek.MONDAY, 8, 12),
+                request(DayOfWeek.MONDAY, 9, 10),
+                request(DayOfWeek.MONDAY, 11, 14),
+                request(DayOfWeek.TUESDAY, 9, 10)));
+
+        // 8-12 choca con 9-10 y con 11-14; 9-10 y 11-14 no se tocan; el martes va aparte
+        assertEquals(2, conflicts.size());
+        for (AvailabilityConflictResponse conflict : conflicts) {
+            assertEquals(DayOfWeek.MONDAY, conflict.getDayOfWeek());
+            assertEquals(LocalTime.of(8, 0), conflict.getStartTime());
+            assertNull(conflict.getConflictingAvailabilityId());
+        }
+        assertEquals(List.of(LocalTime.of(9, 0), LocalTime.of(11, 0)),
+                conflicts.stream().map(AvailabilityConflictResponse::getConflictingStartTime).sorted().toList());
+
+        AvailabilityOverlapException exception = assertThrows(AvailabilityOverlapException.class, () ->
+                AvailabilityOverlaps.check(List.of(), List.of(
+                        request(DayOfWeek.MONDAY, 8, 12),
+                        request(DayOfWeek.MONDAY, 9, 10),
+                        request(DayOfWeek.MONDAY, 11, 14))));
+        assertEquals(2, exception.getConflicts().size());
+        assertTrue(exception.getMessage().endsWith("y 1 solapamientos más"));
+    }
+
+    @Test
+    void touchingBlocksDoNotOverlap() {
+        assertDoesNotThrow(() -> AvailabilityOverlaps.check(
+                List.of(stored(1L, DayOfWeek.WEDNESDAY, 8, 10)),
+                List.of(request(DayOfWeek.WEDNESDAY, 10, 12), request(DayOfWeek.WEDNESDAY, 12, 14))));
+    }
+
+    @Test
+    void specificDateNeverConflictsWithWeekdayRule() {
+        ProfessionalAvailabilityRequest onDate = request(null, 9, 11);
+        onDate.setSpecificDate(DATE);
+
+        assertTrue(AvailabilityOverlaps.find(List.of(stored(1L, DayOfWeek.MONDAY, 8, 12)), List.of(onDate)).isEmpty());
+
+        // Dos configuraciones para la misma fecha sí chocan
+        ProfessionalAvailabilityRequest sameDate = request(null, 10, 12);
+        sameDate.setSpecificDate(DATE);
+        List<AvailabilityConflictResponse> conflicts = AvailabilityOverlaps.find(List.of(), List.of(onDate, sameDate));
+        assertEquals(1, conflicts.size());
+        assertEquals(DATE, conflicts.get(0).getSpecificDate());
+        assertNull(conflicts.get(0).getDayOfWeek());
+    }
+
+    @Test
+    void conflictWithStoredRuleCarriesItsId() {
+        AvailabilityOverlapException exception = assertThrows(AvailabilityOverlapException.class, () ->
+                AvailabilityOverlaps.check(
+                        List.of(stored(41L, DayOfWeek.FRIDAY, 9, 13), stored(42L, DayOfWeek.FRIDAY, 12, 15)),
+                        List.of(request(DayOfWeek.FRIDAY, 8, 10))));
+
+        // Las dos guardadas se solapan entre sí, pero eso no se informa: solo la pedida contra la 41
+        assertEquals(1, exception.getConflicts().size());
+        AvailabilityConflictResponse conflict = exception.getConflicts().get(0);
+        assertEquals(LocalTime.of(8, 0), conflict.getStartTime());
+        assertEquals(LocalTime.of(10, 0), conflict.getEndTime());
+        assertEquals(41L, conflict.getConflictingAvailabilityId());
+        assertEquals(LocalTime.of(9, 0), conflict.getConflictingStartTime());
+        assertEquals(LocalTime.of(13, 0), conflict.getConflictingEndTime());
+    }
+
+    private static ProfessionalAvailabilityRequest request(DayOfWeek dayOfWeek, int startHour, int endHour) {
+        ProfessionalAvailabilityRequest request = new ProfessionalAvailabilityRequest();
+        request.setDayOfWeek(dayOfWeek);
+        request.setStartTime(LocalTime.of(startHour, 0));
+        request.setEndTime(LocalTime.of(endHour, 0));
+        request.setSlotDurationMinutes(30);
+        return request;
+    }
+
+    private static ProfessionalAvailability stored(Long id, DayOfWeek dayOfWeek, int startHour, int endHour) {
+        ProfessionalAvailability availability = new ProfessionalAvailability();
+        availability.setId(id);
+        availability.setDayOfWeek(dayOfWeek);
+        availability.setStartTime(LocalTime.of(startHour, 0));
+        availability.setEndTime(LocalTime.of(endHour, 0));
+        availability.setSlotDurationMinutes(30);
+        return availability;
+    }
+}
@@ -0,0 +1,137 @@
+package com.saas.medical.service;
+
+import com.saas.medical.model.dto.professional.ProfessionalAvailabilityRequest;
+import com.saas.medical.model.dto.professional.ProfessionalAvailabilityResponse;
+import com.saas.medical.model.entity.Professional;
+import com.saas.medical.model.entity.ProfessionalAvailability;
+import com.saas.medical.model.entity.Tenant;
+import com.saas.medical.model.enums.DayOfWeek;
+import com.saas.medical.repository.ProfessionalAvailabilityRepository;
+import com.saas.medical.security.TenantContext;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AvailabilityScheduleTest {
+
+    @Autowired
+    private AvailabilitySchedules availabilitySchedules;
+
+    @Autowired
+    private ProfessionalService professionalService;
+
+    @Autowired
+    private SlotService slotService;
+
+    @Autowired
+    private SchedulingFixtures fixtures;
+
+    @Autowired
+    private ProfessionalAvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void clearTenant() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void compiledDayAnswersOpenMinutesAndRanges() {
+        LocalDate monday = LocalDate.now().plusWeeks(1).with(TemporalAdjusters.next(java.time.DayOfWeek.MONDAY));
+        LocalDate holiday = monday.plusWeeks(1);
+        AvailabilitySchedule schedule = AvailabilitySchedule.compile(List.of(
+                rule(null, DayOfWeek.MONDAY, LocalTime.of(8, 0), LocalTime.of(12, 0)),
+                rule(null, DayOfWeek.MONDAY, LocalTime.of(14, 7), LocalTime.of(16, 3)),
+                rule(holiday, null, LocalTime.of(10, 0), LocalTime.of(11, 0))));
+
+        assertTrue(schedule.isOpen(monday.atTime(8, 0)));
+        assertTrue(schedule.isOpen(monday.atTime(11, 59)));
+        assertFalse(schedule.isOpen(monday.atTime(12, 0)));
+        // Bordes que no caen en una celda de 5 minutos se resuelven contra la regla
+        assertFalse(schedule.isOpen(monday.atTime(14, 6)));
+        assertTrue(schedule.isOpen(monday.atTime(14, 7)));
+        assertTrue(schedule.isOpen(monday.atTime(16, 2)));
+        assertFalse(schedule.isOpen(monday.atTime(16, 3)));
+        assertFalse(schedule.isOpen(monday.plusDays(1).atTime(9, 0)));
+
+        // La fecha con configuración propia reemplaza a la recurrente de ese lunes
+        assertFalse(schedule.isOpen(holiday.atTime(9, 0)));
+        assertTrue(schedule.isOpen(holiday.atTime(10, 30)));
+        assertEquals(IntervalSet.builder().add(holiday.atTime(10, 0), holiday.atTime(11, 0)).build(),
+                schedule.openRanges(holiday));
+        assertEquals(2, schedule.openRanges(monday).size());
+    }
+
+    @Test
+    void scheduleIsCachedAndRebuiltWhenRulesChange() {
+        Tenant tenant = fixtures.tenant("agenda", SchedulingFixtures.suffix());
+        Professional professional = fixtures.professional(tenant, "Laura");
+
+        ProfessionalAvailability availability = rule(null, DayOfWeek.TUESDAY, LocalTime.of(9, 0), LocalTime.of(11, 0));
+        availability.setProfessional(professional);
+        availability.setSlotDurationMinutes(60);
+        availabilityRepository.save(availability);
+
+        TenantContext.setCurrentTenant(tenant.getId().toString());
+        Long professionalId = professional.getId();
+        LocalDate tuesday = LocalDate.now().plusWeeks(1).with(TemporalAdjusters.next(java.time.DayOfWeek.TUESDAY));
+
+        AvailabilitySchedule first = availabilitySchedules.of(professionalId);
+        assertEquals(2, slotService.getAvailableSlots(tenant.getSlug(), professionalId, tuesday, tuesday.plusDays(6), null).size());
+
+        // Las reglas ya están compiladas: consultar la fecha no vuelve a leer las disponibilidades
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<ProfessionalAvailabilityResponse> forDate = professionalService.getAvailabilityForDate(professionalId, tuesday);
+        assertEquals(1, forDate.size());
+        assertEquals(LocalTime.of(9, 0), forDate.get(0).getStartTime());
+        assertEquals(0, statistics.getEntityStatistics(ProfessionalAvailability.class.getName()).getLoadCount());
+        assertSame(first, availabilitySchedules.of(professionalId));
+
+        ProfessionalAvailabilityRequest request = new ProfessionalAvailabilityRequest();
+        request.setSpecificDate(tuesday);
+        request.setStartTime(LocalTime.of(15, 0));
+        request.setEndTime(LocalTime.of(16, 0));
+        request.setSlotDurationMinutes(30);
+        professionalService.addAvailability(professionalId, request);
+
+        AvailabilitySchedule rebuilt = availabilitySchedules.of(professionalId);
+        assertNotSame(first, rebuilt);
+        assertTrue(rebuilt.isOpen(tuesday.atTime(15, 30)));
+        assertFalse(rebuilt.isOpen(tuesday.atTime(9, 30)));
+        assertTrue(rebuilt.isOpen(tuesday.plusWeeks(1).atTime(9, 30)));
+        assertEquals(List.of(LocalTime.of(15, 0), LocalTime.of(15, 30)),
+                slotService.getAvailableSlots(tenant.getSlug(), professionalId, tuesday, tuesday, null).stream()
+                        .map(slot -> slot.getStartDateTime().toLocalTime()).toList());
+    }
+
+    private static ProfessionalAvailability rule(LocalDate specificDate, DayOfWeek dayOfWeek, LocalTime start, LocalTime end) {
+        ProfessionalAvailability availability = new ProfessionalAvailability();
+        availability.setSpecificDate(specificDate);
+        availability.setDayOfWeek(dayOfWeek);
+        availability.setStartTime(start);
+        availability.setEndTime(end);
+        availability.setSlotDurationMinutes(30);
+        return availability;
+    }
+}
@@ -0,0 +1,250 @@
+package com.saas.medical.service;
+
+import com.saas.medical.exception.AvailabilityOverlapException;
+import com.saas.medical.model.dto.professional.AvailabilityConflictResponse;
+import com.saas.medical.model.dto.professional.ProfessionalAvailabilityRequest;
+import com.saas.medical.model.dto.professional.ProfessionalAvailabilityResponse;
+import com.saas.medical.model.entity.Professional;
+import com.saas.medical.model.entity.ProfessionalAvailability;
+import com.saas.medical.model.entity.Tenant;
+import com.saas.medical.model.enums.DayOfWeek;
+import com.saas.medical.repository.ProfessionalAvailabilityRepository;
+import com.saas.medical.repository.ProfessionalRepository;
+import com.saas.medical.security.TenantContext;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("test")
+class AvailabilityUpdateTest {
+
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private ProfessionalService professionalService;
+
+    @Autowired
+    private AvailabilitySchedules availabilitySchedules;
+
+    @Autowired
+    private SchedulingFixtures fixtures;
+
+    @Autowired
+    private ProfessionalRepository professionalRepository;
+
+    @Autowired
+    private ProfessionalAvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long professionalId;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Tenant tenant = fixtures.tenant("horarios", SchedulingFixtures.suffix());
+        professionalId = fixtures.professional(tenant, "Inés").getId();
+
+        TenantContext.setCurrentTenant(tenant.getId().toString());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void clearTenant() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void replacementOnlyWritesTheRulesThatChanged() {
+        LocalDate holiday = LocalDate.now().plusDays(20);
+        List<ProfessionalAvailabilityResponse> initial = professionalService.updateAvailability(professionalId, List.of(
+                request(DayOfWeek.MONDAY, null, 8, 12),
+                request(DayOfWeek.MONDAY, null, 14, 18),
+                request(DayOfWeek.WEDNESDAY, null, 9, 13),
+                request(null, holiday, 10, 11)));
+
+        statistics.clear();
+        List<ProfessionalAvailabilityResponse> replaced = professionalService.updateAvailability(professionalId, List.of(
+                request(DayOfWeek.MONDAY, null, 8, 12),
+                request(DayOfWeek.MONDAY, null, 15, 19),
+                request(DayOfWeek.FRIDAY, null, 9, 13)));
+
+        // El lunes 8-12 no cambia, el otro bloque del lunes y el miércoles pasado a viernes se actualizan
+        // sobre sus filas y solo la fecha específica se elimina
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertEquals(2, statistics.getEntityUpdateCount());
+
+        // La respuesta sigue el orden pedido
+        assertEquals(List.of(initial.get(0).getId(), initial.get(1).getId(), initial.get(2).getId()),
+                replaced.stream().map(ProfessionalAvailabilityResponse::getId).toList());
+        assertEquals(LocalTime.of(15, 0), replaced.get(1).getStartTime());
+        assertEquals(DayOfWeek.FRIDAY, replaced.get(2).getDayOfWeek());
+
+        List<Long> stored = availabilityRepository.findByProfessionalId(professionalId).stream()
+                .map(ProfessionalAvailability::getId).sorted().toList();
+        assertEquals(replaced.stream().map(ProfessionalAvailabilityResponse::getId).sorted().toList(), stored);
+
+        // La agenda compilada ya no tiene la fecha específica
+        assertTrue(availabilitySchedules.of(professionalId).forDate(holiday).rules().stream()
+                .allMatch(rule -> rule.specificDate() == null));
+    }
+
+    @Test
+    void benchmarkThirtyRuleScheduleAgainstDeleteAndReinsert() {
+        List<ProfessionalAvailabilityRequest> week = thirtyRuleWeek();
+        // Tres cambios sobre el mismo horario: dos bloques corridos y uno que pasa a otro día
+        List<ProfessionalAvailabilityRequest> edited = new ArrayList<>(week);
+        edited.set(0, request(DayOfWeek.MONDAY, null, 7, 8));
+        edited.set(7, request(DayOfWeek.TUESDAY, null, 20, 21));
+        edited.set(29, request(DayOfWeek.SUNDAY, null, 9, 10));
+
+        professionalService.updateAvailability(professionalId, week);
+
+        statistics.clear();
+        professionalService.updateAvailability(professionalId, week);
+        long unchangedStatements = statistics.getPrepareStatementCount();
+        assertEquals(0, statistics.getEntityInsertCount() + statistics.getEntityUpdateCount());
+
+        statistics.clear();
+        professionalService.updateAvailability(professionalId, edited);
+        long diffStatements = statistics.getPrepareStatementCount();
+        assertEquals(3, statistics.getEntityUpdateCount());
+
+        statistics.clear();
+        deleteAndReinsert(week);
+        long reinsertStatements = statistics.getPrepareStatementCount();
+
+        assertEquals(2, unchangedStatements, "Reenviar el mismo horario solo lee el profesional y sus reglas");
+        assertTrue(diffStatements < reinsertStatements / 5,
+                "diff=" + diffStatements + " borrar y reinsertar=" + reinsertStatements);
+
+        long diffNanos = 0;
+        long reinsertNanos = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long started = System.nanoTime();
+            professionalService.updateAvailability(professionalId, i % 2 == 0 ? edited : week);
+            diffNanos += System.nanoTime() - started;
+
+            started = System.nanoTime();
+            deleteAndReinsert(i % 2 == 0 ? edited : week);
+            reinsertNanos += System.nanoTime() - started;
+        }
+        log.info("Reemplazo de 30 reglas: diff {} sentencias ({} sin cambios) y {} µs por llamada; "
+                        + "borrar y reinsertar {} sentencias y {} µs por llamada",
+                diffStatements, unchangedStatements, diffNanos / ROUNDS / 1000,
+                reinsertStatements, reinsertNanos / ROUNDS / 1000);
+    }
+
+    @Test
+    void overlapsAreReportedTogetherInOnePass() {
+        LocalDate day = LocalDate.now().plusDays(30);
+        AvailabilityOverlapException inList = assertThrows(AvailabilityOverlapException.class, () ->
+                professionalService.updateAvailability(professionalId, List.of(
+                        request(DayOfWeek.MONDAY, null, 8, 12),
+                        request(DayOfWeek.MONDAY, null, 9, 10),
+                        request(DayOfWeek.MONDAY, null, 11, 13),
+                        request(DayOfWeek.MONDAY, null, 13, 14),
+                        request(DayOfWeek.TUESDAY, null, 8, 12),
+                        request(null, day, 8, 12),
+                        request(null, day, 10, 11))));
+        // 8-12 choca con 9-10 y con 11-13; 13-14 empieza cuando 11-13 termina. La fecha no choca con el día recurrente
+        assertEquals(3, inList.getConflicts().size());
+        assertEquals(2, inList.getConflicts().stream().filter(c -> c.getDayOfWeek() == DayOfWeek.MONDAY).count());
+        assertTrue(inList.getConflicts().stream().allMatch(c -> c.getConflictingAvailabilityId() == null));
+        assertTrue(availabilityRepository.findByProfessionalId(professionalId).isEmpty());
+
+        List<ProfessionalAvailabilityResponse> stored = professionalService.updateAvailability(professionalId, List.of(
+                request(DayOfWeek.MONDAY, null, 8, 12),
+                request(DayOfWeek.MONDAY, null, 14, 18)));
+
+        statistics.clear();
+        AvailabilityOverlapException withStored = assertThrows(AvailabilityOverlapException.class, () ->
+                professionalService.addAvailability(professionalId, request(DayOfWeek.MONDAY, null, 11, 15)));
+        // El profesional y todas sus reglas activas, sin una consulta por regla
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(List.of(stored.get(0).getId(), stored.get(1).getId()), withStored.getConflicts().stream()
+                .map(AvailabilityConflictResponse::getConflictingAvailabilityId).sorted().toList());
+
+        // Un horario grande sin solapamientos pasa en una sola pasada
+        List<ProfessionalAvailabilityRequest> dense = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            int minute = (i % 280) * 5;
+            ProfessionalAvailabilityRequest request = request(null, day.plusDays(i / 280), 0, 1);
+            request.setStartTime(LocalTime.MIN.plusMinutes(minute));
+            request.setEndTime(LocalTime.MIN.plusMinutes(minute + 5));
+            dense.add(request);
+        }
+        assertTrue(AvailabilityOverlaps.find(List.of(), dense).isEmpty());
+    }
+
+    /**
+     * Camino anterior de {@link ProfessionalService#updateAvailability}: borrado derivado fila por fila
+     * y un INSERT por regla.
+     */
+    private void deleteAndReinsert(List<ProfessionalAvailabilityRequest> requests) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Professional professional = professionalRepository.findById(professionalId).orElseThrow();
+            availabilityRepository.deleteByProfessionalId(professionalId);
+            for (ProfessionalAvailabilityRequest request : requests) {
+                ProfessionalAvailability availability = new ProfessionalAvailability();
+                availability.setProfessional(professional);
+                availability.setDayOfWeek(request.getDayOfWeek());
+                availability.setSpecificDate(request.getSpecificDate());
+                availability.setStartTime(request.getStartTime());
+                availability.setEndTime(request.getEndTime());
+                availability.setSlotDurationMinutes(request.getSlotDurationMinutes());
+                availability.setActive(request.getActive());
+                availabilityRepository.save(availability);
+            }
+        });
+    }
+
+    /**
+     * Lunes a sábado, cinco bloques de una hora por día.
+     */
+    private static List<ProfessionalAvailabilityRequest> thirtyRuleWeek() {
+        List<ProfessionalAvailabilityRequest> week = new ArrayList<>();
+        for (DayOfWeek day : List.of(DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY,
+                DayOfWeek.THURSDAY, DayOfWeek.FRIDAY, DayOfWeek.SATURDAY)) {
+            for (int hour = 9; hour < 19; hour += 2) {
+                week.add(request(day, null, hour, hour + 1));
+            }
+        }
+        return week;
+    }
+
+    private static ProfessionalAvailabilityRequest request(DayOfWeek dayOfWeek, LocalDate specificDate, int fromHour, int toHour) {
+        ProfessionalAvailabilityRequest request = new ProfessionalAvailabilityRequest();
+        request.setDayOfWeek(dayOfWeek);
+        request.setSpecificDate(specificDate);
+        request.setStartTime(LocalTime.of(fromHour, 0));
+        request.setEndTime(LocalTime.of(toHour, 0));
+        request.setSlotDurationMinutes(30);
+        return request;
+    }
+}
@@ -0,0 +1,136 @@
+package com.saas.medical.service;
+
+import com.saas.medical.exception.BusinessException;
+import com.saas.medical.model.dto.appointment.AppointmentRequest;
+import com.saas.medical.model.dto.appointment.AppointmentResponse;
+import com.saas.medical.model.dto.slot.AvailableSlotResponse;
+import com.saas.medical.model.entity.Procedure;
+import com.saas.medical.model.entity.Professional;
+import com.saas.medical.model.entity.Tenant;
+import com.saas.medical.repository.AppointmentRepository;
+import com.saas.medical.repository.GroupSessionRepository;
+import com.saas.medical.repository.ProcedureRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.saas.medical.service.SchedulingFixtures.bookingRequest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class GroupSessionTest {
+
+    private static final int CAPACITY = 20;
+    private static final int ATTEMPTS = 40;
+    private static final int THREADS = 16;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private SlotService slotService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private GroupSessionRepository groupSessionRepository;
+
+    @Autowired
+    private SchedulingFixtures fixtures;
+
+    @Autowired
+    private ProcedureRepository procedureRepository;
+
+    @Test
+    void concurrentBookingsFillGroupSessionUpToCapacity() throws Exception {
+        String suffix = SchedulingFixtures.suffix();
+        Tenant tenant = fixtures.tenant("grupal", suffix);
+        Professional professional = fixtures.professional(tenant, fixtures.specialty("Obstetricia"), "Julia");
+        LocalDate day = LocalDate.now().plusDays(8);
+        fixtures.availability(professional, day, LocalTime.of(10, 0), LocalTime.of(12, 0), 60);
+
+        Procedure procedure = new Procedure();
+        procedure.setTenantId(tenant.getId());
+        procedure.setName("Curso de preparto " + suffix);
+        procedure.setDurationMinutes(60);
+        procedure.setCapacity(CAPACITY);
+        procedure = procedureRepository.save(procedure);
+
+        String tenantSlug = tenant.getSlug();
+        Long professionalId = professional.getId();
+        Long procedureId = procedure.getId();
+        LocalDateTime slot = day.atTime(10, 0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+        ConcurrentLinkedQueue<AppointmentResponse> booked = new ConcurrentLinkedQueue<>();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < ATTEMPTS; i++) {
+            AppointmentRequest request = bookingRequest(professionalId, procedureId, slot, "70" + i + suffix);
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    booked.add(appointmentService.createAppointment(tenantSlug, request));
+                } catch (BusinessException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(CAPACITY, booked.size());
+        assertEquals(ATTEMPTS - CAPACITY, rejected.get());
+        assertEquals(CAPACITY, groupSessionRepository.findSessionAt(professionalId, slot).orElseThrow().getBooked());
+        assertEquals(CAPACITY, appointmentRepository.findBusyIntervals(professionalId, slot, slot.plusMinutes(60)).size());
+
+        // Sesión llena: no aparece en la agenda; el horario siguiente abre una sesión nueva con todos los cupos
+        List<AvailableSlotResponse> slots = slotService.getAvailableSlots(tenantSlug, professionalId, day, day, procedureId);
+        assertEquals(List.of(day.atTime(11, 0)), slots.stream().map(AvailableSlotResponse::getStartDateTime).toList());
+        assertEquals(CAPACITY, slots.get(0).getAvailableSpots());
+
+        // Una baja libera un cupo y la sesión vuelve a ofrecerse
+        appointmentService.cancel(booked.peek().getId());
+        assertEquals(CAPACITY - 1, groupSessionRepository.findSessionAt(professionalId, slot).orElseThrow().getBooked());
+        Optional<AvailableSlotResponse> reopened = slotService.getAvailableSlots(tenantSlug, professionalId, day, day, procedureId)
+                .stream().filter(s -> s.getStartDateTime().equals(slot)).findFirst();
+        assertTrue(reopened.isPresent());
+        assertEquals(1, reopened.get().getAvailableSpots());
+
+        // Achicar el procedimiento no reescribe la sesión abierta: conserva la capacidad con la que se abrió
+        procedure.setCapacity(5);
+        procedureRepository.save(procedure);
+        assertEquals(1, slotService.getAvailableSlots(tenantSlug, professionalId, day, day, procedureId).stream()
+                .filter(s -> s.getStartDateTime().equals(slot)).findFirst().orElseThrow().getAvailableSpots());
+        appointmentService.createAppointment(tenantSlug, bookingRequest(professionalId, procedureId, slot, "78" + suffix));
+        assertEquals(CAPACITY, groupSessionRepository.findSessionAt(professionalId, slot).orElseThrow().getBooked());
+        assertEquals(CAPACITY, groupSessionRepository.findSessionAt(professionalId, slot).orElseThrow().getCapacity());
+
+        // Un turno individual no puede superponerse con la sesión
+        assertThrows(BusinessException.class, () ->
+                appointmentService.createAppointment(tenantSlug, bookingRequest(professionalId, null, slot, "79" + suffix)));
+    }
+}
@@ -0,0 +1,117 @@
+package com.saas.medical.service;
+
+import com.saas.medical.exception.BusinessException;
+import com.saas.medical.model.dto.appointment.AppointmentRequest;
+import com.saas.medical.model.dto.appointment.AppointmentResponse;
+import com.saas.medical.model.dto.patient.PatientRequest;
+import com.saas.medical.model.dto.patient.PatientResponse;
+import com.saas.medical.model.entity.Professional;
+import com.saas.medical.model.entity.Tenant;
+import com.saas.medical.repository.AppointmentRepository;
+import com.saas.medical.repository.PatientRepository;
+import com.saas.medical.security.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static com.saas.medical.service.SchedulingFixtures.bookingRequest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class IdempotencyTest {
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private SchedulingFixtures fixtures;
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void retryWithSameKeyReturnsStoredAppointment() {
+        String suffix = SchedulingFixtures.suffix();
+        Tenant tenant = fixtures.tenant("reintentos", suffix);
+        Professional professional = fixtures.professional(tenant, "Marta");
+
+        LocalDateTime slot = LocalDate.now().plusDays(3).atTime(9, 0);
+        AppointmentRequest request = bookingRequest(professional.getId(), slot, "51" + suffix);
+        String key = UUID.randomUUID().toString();
+
+        AppointmentResponse first = appointmentService.createAppointment(tenant.getSlug(), request, key);
+        AppointmentResponse retry = appointmentService.createAppointment(tenant.getSlug(), request, key);
+
+        assertEquals(first.getId(), retry.getId());
+        assertEquals(first.getStartDateTime(), retry.getStartDateTime());
+        assertEquals(1, appointmentRepository.findBusyIntervals(professional.getId(), slot, slot.plusMinutes(30)).size());
+
+        // La misma clave con otro contenido se rechaza en lugar de devolver una respuesta ajena
+        String tenantSlug = tenant.getSlug();
+        AppointmentRequest other = bookingRequest(professional.getId(), slot.plusHours(1), "52" + suffix);
+        BusinessException error = assertThrows(BusinessException.class,
+                () -> appointmentService.createAppointment(tenantSlug, other, key));
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, error.getStatus());
+    }
+
+    @Test
+    void retryWithSameKeyReturnsStoredPatient() {
+        String suffix = SchedulingFixtures.suffix();
+        Tenant tenant = fixtures.tenant("reintentos", suffix);
+        TenantContext.setCurrentTenant(tenant.getId().toString());
+        PatientRequest request = patientRequest("53" + suffix);
+        String key = UUID.randomUUID().toString();
+
+        PatientResponse first = patientService.create(request, key);
+        // Si el alta se ejecutara de nuevo fallaría por DNI repetido
+        PatientResponse retry = patientService.create(request, key);
+
+        assertEquals(first.getId(), retry.getId());
+        assertEquals(first.getDni(), retry.getDni());
+        assertEquals(first.getId(), patientRepository.findByTenantIdAndDni(tenant.getId(), request.getDni())
+                .orElseThrow().getId());
+
+        // La misma clave con otro paciente se rechaza
+        PatientRequest other = patientRequest("54" + suffix);
+        BusinessException error = assertThrows(BusinessException.class, () -> patientService.create(other, key));
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, error.getStatus());
+        assertTrue(patientRepository.findByTenantIdAndDni(tenant.getId(), other.getDni()).isEmpty());
+
+        // La clave vale dentro del consultorio: en otro, el mismo pedido crea su propio paciente
+        Tenant otherTenant = fixtures.tenant("reintentos", SchedulingFixtures.suffix());
+        TenantContext.setCurrentTenant(otherTenant.getId().toString());
+        PatientResponse elsewhere = patientService.create(request, key);
+        assertNotEquals(first.getId(), elsewhere.getId());
+    }
+
+    private static PatientRequest patientRequest(String dni) {
+        PatientRequest request = new PatientRequest();
+        request.setFirstName("Paciente");
+        request.setLastName(dni);
+        request.setDni(dni);
+        request.setPhone("1100000000");
+        return request;
+    }
+}
@@ -0,0 +1,173 @@
+package com.saas.medical.service;
+
+import com.saas.medical.model.dto.appointment.AppointmentResponse;
+import com.saas.medical.model.dto.slot.AvailableSlotResponse;
+import com.saas.medical.model.dto.slot.FirstAvailableSlotResponse;
+import com.saas.medical.model.entity.OpenSlot;
+import com.saas.medical.model.entity.OpenSlotDay;
+import com.saas.medical.model.entity.Professional;
+import com.saas.medical.model.entity.Specialty;
+import com.saas.medical.model.entity.Tenant;
+import com.saas.medical.repository.OpenSlotDayRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.saas.medical.service.SchedulingFixtures.bookingRequest;
+import static com.saas.medical.service.SchedulingFixtures.nextWeekday;
+import static com.saas.medical.service.SchedulingFixtures.starts;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Contexto propio (horizonte corto): los días materializados acá no alcanzan a los demás tests.
+ */
+@SpringBootTest(properties = "app.open-slots.horizon-days=30")
+@ActiveProfiles("test")
+@Slf4j
+class OpenSlotTest {
+
+    private static final int ROUNDS = 200;
+
+    @Autowired
+    private OpenSlotService openSlotService;
+
+    @Autowired
+    private SlotService slotService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private SchedulingFixtures fixtures;
+
+    @Autowired
+    private OpenSlotDayRepository openSlotDayRepository;
+
+    @Autowired
+    private TenantTimeZones tenantTimeZones;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void bookingsRefreshOnlyTheirDayAndStaleDaysGoLive() {
+        String suffix = SchedulingFixtures.suffix();
+        Tenant tenant = fixtures.tenant("materializado", suffix);
+        Professional professional = fixtures.professional(tenant, "Inés");
+        fixtures.weekdays(professional, LocalTime.of(9, 0), LocalTime.of(12, 0));
+
+        String slug = tenant.getSlug();
+        Long professionalId = professional.getId();
+        LocalDate day = nextWeekday(LocalDate.now().plusDays(3));
+        LocalDate to = day.plusDays(13);
+        List<AvailableSlotResponse> live = slotService.getAvailableSlots(slug, professionalId, day, to, null);
+
+        openSlotService.extendHorizon();
+        openSlotService.refreshDirty();
+        assertEquals(Duration.ZERO, openSlotService.staleness());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<AvailableSlotResponse> materialized = slotService.getAvailableSlots(slug, professionalId, day, to, null);
+        assertEquals(starts(live), starts(materialized));
+        assertTrue(statistics.getEntityStatistics(OpenSlot.class.getName()).getLoadCount() > 0);
+        // Consultorio, profesional, días servibles y el rango de turnos
+        assertEquals(4, statistics.getPrepareStatementCount());
+
+        // La reserva marca solo su día, en la misma transacción; mientras tanto el día se sirve dentro del atraso permitido
+        AppointmentResponse booked = appointmentService.createAppointment(slug, bookingRequest(professionalId, day.atTime(10, 0), "61" + suffix));
+        OpenSlotDay bookedDay = openSlotDayRepository.findById(new OpenSlotDay.Key(professionalId, day)).orElseThrow();
+        assertNotNull(bookedDay.getDirtySince());
+        assertTrue(starts(slotService.getAvailableSlots(slug, professionalId, day, day, null)).contains(day.atTime(10, 0)));
+
+        assertEquals(1, openSlotService.refreshDirty());
+        List<LocalDateTime> expected = new ArrayList<>(starts(live));
+        expected.remove(day.atTime(10, 0));
+        assertEquals(expected, starts(slotService.getAvailableSlots(slug, professionalId, day, to, null)));
+
+        appointmentService.cancel(booked.getId());
+        assertEquals(1, openSlotService.refreshDirty());
+        assertEquals(starts(live), starts(slotService.getAvailableSlots(slug, professionalId, day, to, null)));
+
+        // Un día pendiente hace más que el máximo ya no se sirve de la tabla: la lectura va en vivo
+        OpenSlotDay stale = openSlotDayRepository.findById(new OpenSlotDay.Key(professionalId, day.plusDays(1))).orElseThrow();
+        stale.setDirtySince(LocalDateTime.now().minusMinutes(5));
+        openSlotDayRepository.save(stale);
+        assertTrue(openSlotService.staleness().compareTo(openSlotService.maxStaleness()) > 0);
+
+        statistics.clear();
+        assertEquals(starts(live), starts(slotService.getAvailableSlots(slug, professionalId, day, to, null)));
+        assertEquals(0, statistics.getEntityStatistics(OpenSlot.class.getName()).getLoadCount());
+
+        assertEquals(1, openSlotService.refreshDirty());
+        assertEquals(Duration.ZERO, openSlotService.staleness());
+    }
+
+    @Test
+    void firstAvailableIsARangeScanOverTheTenant() {
+        Tenant tenant = fixtures.tenant("materializado", SchedulingFixtures.suffix());
+        Specialty specialty = fixtures.specialty("Clínica");
+        List<Professional> professionals = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Professional professional = fixtures.professional(tenant, specialty, "Profesional " + i);
+            // Cada profesional atiende desde una hora distinta: el primero libre es el que empieza antes
+            fixtures.weekdays(professional, LocalTime.of(13 - i % 5, 0), LocalTime.of(18, 0));
+            professionals.add(professional);
+        }
+
+        String slug = tenant.getSlug();
+        LocalDate day = nextWeekday(LocalDate.now().plusDays(3));
+        LocalDateTime after = day.atStartOfDay();
+        FirstAvailableSlotResponse live = slotService.findFirstAvailable(slug, null, null, null, after);
+
+        long started = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            slotService.getAvailableSlots(slug, professionals.get(i % 10).getId(), day, day.plusDays(13), null);
+        }
+        long liveNanos = System.nanoTime() - started;
+
+        openSlotService.extendHorizon();
+        openSlotService.refreshDirty();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        FirstAvailableSlotResponse materialized = slotService.findFirstAvailable(slug, null, null, null, after);
+        assertEquals(live.getProfessionalId(), materialized.getProfessionalId());
+        assertEquals(live.getStartDateTime(), materialized.getStartDateTime());
+        assertEquals(day.atTime(9, 0), materialized.getStartDateTime());
+        // Consultorio, candidatos, días servibles y una lectura ordenada por inicio, sin ocupación por profesional
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getEntityStatistics(OpenSlot.class.getName()).getLoadCount() > 0);
+
+        started = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            slotService.getAvailableSlots(slug, professionals.get(i % 10).getId(), day, day.plusDays(13), null);
+        }
+        long materializedNanos = System.nanoTime() - started;
+
+        log.info("Agenda pública de 14 días, {} lecturas: motor en vivo {} ms, tabla materializada {} ms",
+                ROUNDS, liveNanos / 1_000_000, materializedNanos / 1_000_000);
+
+        // Un procedimiento o un día fuera del horizonte siguen en vivo
+        assertNull(openSlotService.findSlots(tenantTimeZones.of(tenant), professionals.get(0).getId(),
+                day, LocalDate.now().plusDays(45)));
+        assertFalse(slotService.getAvailableSlots(slug, professionals.get(0).getId(),
+                LocalDate.now().plusDays(40), LocalDate.now().plusDays(46), null).isEmpty());
+    }
+}
@@ -0,0 +1,120 @@
+package com.saas.medical.service;
+
+import com.saas.medical.model.dto.appointment.AppointmentResponse;
+import com.saas.medical.model.entity.Appointment;
+import com.saas.medical.model.entity.OutboxEvent;
+import com.saas.medical.model.entity.Professional;
+import com.saas.medical.model.entity.Tenant;
+import com.saas.medical.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.mail.MailSendException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static com.saas.medical.service.SchedulingFixtures.bookingRequest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * El envío de emails queda fuera de la transacción del turno: el EmailService real solo registra
+ * en el log (no hay SMTP), y el spy permite simular fallas de entrega.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OutboxDispatchTest {
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private SchedulingFixtures fixtures;
+
+    @SpyBean
+    private EmailService emailService;
+
+    private Tenant tenant;
+    private Professional professional;
+
+    @BeforeEach
+    void setUp() {
+        reset(emailService);
+        outboxService.dispatchPending();
+        reset(emailService);
+
+        tenant = fixtures.tenant("outbox", SchedulingFixtures.suffix());
+        professional = fixtures.professional(tenant, fixtures.specialty("Odontología"), "Luis");
+    }
+
+    @Test
+    void confirmationAndCancellationAreDeliveredThroughOutbox() {
+        AppointmentResponse appointment = book(LocalDate.now().plusDays(3).atTime(9, 0));
+
+        verify(emailService, times(0)).sendAppointmentConfirmation(any());
+        OutboxEvent pending = onlyEventFor(appointment.getId(), OutboxEvent.EventType.APPOINTMENT_CONFIRMATION);
+        assertEquals(OutboxEvent.Status.PENDING, pending.getStatus());
+
+        assertEquals(1, outboxService.dispatchPending());
+        verify(emailService, times(1)).sendAppointmentConfirmation(any(Appointment.class));
+        OutboxEvent sent = outboxEventRepository.findById(pending.getId()).orElseThrow();
+        assertEquals(OutboxEvent.Status.SENT, sent.getStatus());
+        assertEquals(1, sent.getAttempts());
+        assertNotNull(sent.getSentAt());
+
+        appointmentService.cancel(appointment.getId());
+        assertEquals(1, outboxService.dispatchPending());
+        verify(emailService, times(1)).sendAppointmentCancellation(any(Appointment.class));
+    }
+
+    @Test
+    void failedDeliveryIsRetriedWithBackoff() {
+        doThrow(new MailSendException("SMTP no disponible"))
+                .when(emailService).sendAppointmentConfirmation(any(Appointment.class));
+
+        AppointmentResponse appointment = book(LocalDate.now().plusDays(4).atTime(11, 0));
+        LocalDateTime before = LocalDateTime.now();
+
+        assertEquals(0, outboxService.dispatchPending());
+        OutboxEvent failed = onlyEventFor(appointment.getId(), OutboxEvent.EventType.APPOINTMENT_CONFIRMATION);
+        assertEquals(OutboxEvent.Status.PENDING, failed.getStatus());
+        assertEquals(1, failed.getAttempts());
+        assertEquals("SMTP no disponible", failed.getLastError());
+        assertTrue(failed.getNextAttemptAt().isAfter(before.plusSeconds(outboxService.backoffSeconds(1) - 5)));
+
+        // Todavía no venció la espera: no se vuelve a intentar
+        assertEquals(0, outboxService.dispatchPending());
+        verify(emailService, times(1)).sendAppointmentConfirmation(any(Appointment.class));
+    }
+
+    private AppointmentResponse book(LocalDateTime start) {
+        String dni = String.valueOf(Math.abs(UUID.randomUUID().getMostSignificantBits() % 100_000_000L));
+        return appointmentService.createAppointment(tenant.getSlug(), bookingRequest(professional.getId(), start, dni));
+    }
+
+    private OutboxEvent onlyEventFor(Long appointmentId, OutboxEvent.EventType type) {
+        List<OutboxEvent> events = outboxEventRepository.findAll().stream()
+                .filter(event -> event.getAggregateId().equals(appointmentId) && event.getEventType() == type)
+                .toList();
+        assertEquals(1, events.size());
+        return events.get(0);
+    }
+}
@@ -0,0 +1,158 @@
+package com.saas.medical.service;
+
+import com.saas.medical.model.entity.Appointment;
+import com.saas.medical.model.entity.OutboxEvent;
+import com.saas.medical.model.entity.Patient;
+import com.saas.medical.model.entity.Professional;
+import com.saas.medical.model.entity.ReminderRun;
+import com.saas.medical.model.entity.Tenant;
+import com.saas.medical.repository.AppointmentRepository;
+import com.saas.medical.repository.OutboxEventRepository;
+import com.saas.medical.repository.PatientRepository;
+import com.saas.medical.repository.ReminderRunRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Recordatorios por ventana: un solo nodo procesa cada ventana, un reclamo abandonado se retoma,
+ * el scan por keyset cruza varios lotes y un turno no se recuerda dos veces. Cada test usa un
+ * {@code now} propio, años adelante, para que la ventana solo contenga sus turnos.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ReminderServiceTest {
+
+    private static final int BATCH_SIZE = 200;
+
+    @Autowired
+    private ReminderService reminderService;
+
+    @Autowired
+    private ReminderRunRepository reminderRunRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private SchedulingFixtures fixtures;
+
+    private Tenant tenant;
+    private Professional professional;
+    private Patient patient;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = SchedulingFixtures.suffix();
+        // En la zona del servidor, así la hora de la ventana y la del turno coinciden
+        tenant = fixtures.tenant("recordatorios", suffix, ZoneId.systemDefault().getId());
+        professional = fixtures.professional(tenant, "Inés");
+
+        Patient newPatient = new Patient();
+        newPatient.setTenant(tenant);
+        newPatient.setDni("81" + Math.abs(suffix.hashCode() % 1_000_000));
+        newPatient.setFirstName("Paciente");
+        newPatient.setLastName(suffix);
+        newPatient.setPhone("1100000000");
+        patient = patientRepository.save(newPatient);
+    }
+
+    @Test
+    void keysetScanCrossesBatchesAndNeverRequeues() {
+        LocalDateTime now = LocalDate.now().plusYears(3).atTime(10, 0);
+        LocalDateTime windowStart = now.plusHours(24);
+
+        // Más turnos que un lote, con inicios repetidos para que el desempate sea por id
+        List<LocalDateTime> starts = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE + 5; i++) {
+            starts.add(windowStart.minusMinutes(15L * (i % 5)));
+        }
+        Set<Long> ids = save(starts);
+
+        assertEquals(BATCH_SIZE + 5, reminderService.runWindow(now));
+        for (Appointment appointment : appointmentRepository.findAllById(ids)) {
+            assertNotNull(appointment.getReminderSentAt());
+        }
+        assertEquals(BATCH_SIZE + 5, remindersFor(ids));
+
+        // La ventana siguiente vuelve a mirar la última hora, pero esos turnos ya están marcados
+        assertEquals(0, reminderService.runWindow(now.plusMinutes(5)));
+        assertEquals(BATCH_SIZE + 5, remindersFor(ids));
+    }
+
+    @Test
+    void eachWindowHasASingleClaimer() {
+        LocalDateTime now = LocalDate.now().plusYears(3).plusDays(1).atTime(10, 0);
+        Set<Long> ids = save(List.of(now.plusHours(24)));
+
+        assertEquals(1, reminderService.runWindow(now));
+        assertEquals(-1, reminderService.runWindow(now));
+
+        // Otro nodo reclamó la ventana recién: este la saltea sin tocar sus turnos
+        LocalDateTime later = now.plusHours(2);
+        Set<Long> claimedElsewhere = save(List.of(later.plusHours(24)));
+        reminderRunRepository.saveAndFlush(new ReminderRun(later.plusHours(24), "otro-nodo", later));
+        assertEquals(-1, reminderService.runWindow(later));
+        assertNull(appointmentRepository.findById(claimedElsewhere.iterator().next()).orElseThrow().getReminderSentAt());
+        assertEquals(1, remindersFor(ids));
+    }
+
+    @Test
+    void staleClaimIsTakenOver() {
+        LocalDateTime now = LocalDate.now().plusYears(3).plusDays(2).atTime(10, 0);
+        LocalDateTime windowStart = now.plusHours(24);
+        Set<Long> ids = save(List.of(windowStart));
+
+        // El nodo que la reclamó hace 20 minutos nunca la terminó
+        reminderRunRepository.saveAndFlush(new ReminderRun(windowStart, "nodo-caido", now.minusMinutes(20)));
+
+        assertEquals(1, reminderService.runWindow(now));
+        ReminderRun run = reminderRunRepository.findById(windowStart).orElseThrow();
+        assertNotNull(run.getCompletedAt());
+        assertEquals(1, run.getRemindersQueued());
+        assertEquals(1, remindersFor(ids));
+    }
+
+    private Set<Long> save(List<LocalDateTime> starts) {
+        List<Appointment> appointments = new ArrayList<>();
+        for (LocalDateTime start : starts) {
+            Appointment appointment = new Appointment();
+            appointment.setTenantId(tenant.getId());
+            appointment.setProfessional(professional);
+            appointment.setPatient(patient);
+            appointment.setStartDateTime(start);
+            appointment.setEndDateTime(start.plusMinutes(15));
+            appointments.add(appointment);
+        }
+        return appointmentRepository.saveAll(appointments).stream()
+                .map(Appointment::getId)
+                .collect(Collectors.toSet());
+    }
+
+    private long remindersFor(Set<Long> ids) {
+        return outboxEventRepository.findAll().stream()
+                .filter(event -> event.getEventType() == OutboxEvent.EventType.APPOINTMENT_REMINDER
+                        && ids.contains(event.getAggregateId()))
+                .count();
+    }
+}
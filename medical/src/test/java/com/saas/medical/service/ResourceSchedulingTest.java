@@ -0,0 +1,220 @@
+package com.saas.medical.service;
+
+import com.saas.medical.exception.SlotConflictException;
+import com.saas.medical.model.dto.slot.AvailableSlotResponse;
+import com.saas.medical.model.entity.Appointment;
+import com.saas.medical.model.entity.Patient;
+import com.saas.medical.model.entity.Procedure;
+import com.saas.medical.model.entity.Professional;
+import com.saas.medical.model.entity.Resource;
+import com.saas.medical.model.entity.Specialty;
+import com.saas.medical.model.entity.Tenant;
+import com.saas.medical.repository.AppointmentRepository;
+import com.saas.medical.repository.PatientRepository;
+import com.saas.medical.repository.ProcedureRepository;
+import com.saas.medical.repository.ResourceRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.saas.medical.service.SchedulingFixtures.bookingRequest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Agenda de salas y equipos compartidos: un recurso ocupado por un profesional deja de estar
+ * disponible para los demás, y la verificación no agrega consultas por recurso.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Slf4j
+class ResourceSchedulingTest {
+
+    private static final int PROFESSIONALS = 50;
+    private static final int RESOURCES = 5;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private SlotService slotService;
+
+    @Autowired
+    private SchedulingFixtures fixtures;
+
+    @Autowired
+    private ProcedureRepository procedureRepository;
+
+    @Autowired
+    private ResourceRepository resourceRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void sharedResourceBlocksOtherProfessionals() {
+        String suffix = SchedulingFixtures.suffix();
+        Tenant tenant = fixtures.tenant("recursos", suffix);
+        Specialty specialty = fixtures.specialty("Cardiología");
+        LocalDate day = LocalDate.now().plusDays(4);
+
+        Professional first = professional(tenant, specialty, "Ana", day);
+        Professional second = professional(tenant, specialty, "Bruno", day);
+        Resource echo = resource(tenant, "Ecógrafo " + suffix);
+        Procedure echocardiogram = procedure(tenant, "Ecocardiograma " + suffix, Set.of(echo));
+
+        String slug = tenant.getSlug();
+        LocalDateTime slot = day.atTime(10, 0);
+        appointmentService.createAppointment(slug, bookingRequest(first.getId(), echocardiogram.getId(), slot, "61" + suffix));
+
+        List<AvailableSlotResponse> slots = slotService.getAvailableSlots(slug, second.getId(), day, day, echocardiogram.getId());
+        assertFalse(slots.stream().anyMatch(s -> s.getStartDateTime().equals(slot)));
+        assertTrue(slots.stream().anyMatch(s -> s.getStartDateTime().equals(day.atTime(10, 30))));
+
+        Long secondId = second.getId();
+        Long procedureId = echocardiogram.getId();
+        SlotConflictException conflict = assertThrows(SlotConflictException.class, () ->
+                appointmentService.createAppointment(slug, bookingRequest(secondId, procedureId, slot, "62" + suffix)));
+        assertEquals(AppointmentService.RESOURCE_MESSAGE, conflict.getMessage());
+        assertEquals(day.atTime(10, 30), conflict.getAlternatives().getAfter().get(0).getStartDateTime());
+
+        // Sin el procedimiento que usa el equipo, el segundo profesional sí puede atender a esa hora
+        assertNotNull(appointmentService.createAppointment(slug, bookingRequest(secondId, null, slot, "63" + suffix)));
+    }
+
+    @Test
+    void benchmarkFiftyProfessionalsSharingFiveResources() {
+        String suffix = SchedulingFixtures.suffix();
+        Tenant tenant = fixtures.tenant("recursos-bench", suffix);
+        Specialty specialty = fixtures.specialty("Cardiología");
+        LocalDate day = LocalDate.now().plusDays(5);
+
+        List<Resource> resources = new ArrayList<>();
+        List<Procedure> singleResource = new ArrayList<>();
+        for (int r = 0; r < RESOURCES; r++) {
+            Resource resource = resource(tenant, "Sala " + r + " " + suffix);
+            resources.add(resource);
+            singleResource.add(procedure(tenant, "Estudio " + r + " " + suffix, Set.of(resource)));
+        }
+        Procedure allResources = procedure(tenant, "Estudio completo " + suffix, new HashSet<>(resources));
+
+        List<Professional> professionals = new ArrayList<>();
+        for (int i = 0; i < PROFESSIONALS; i++) {
+            professionals.add(professional(tenant, specialty, "Profesional" + i, day));
+        }
+
+        Patient patient = new Patient();
+        patient.setTenant(tenant);
+        patient.setDni("64" + suffix);
+        patient.setFirstName("Paciente");
+        patient.setLastName(suffix);
+        patient.setPhone("1100000000");
+        patient = patientRepository.save(patient);
+
+        // Cada profesional usa una sala distinta en un horario distinto: entre todos cubren el día entero
+        List<Appointment> appointments = new ArrayList<>();
+        for (int i = 0; i < PROFESSIONALS; i++) {
+            LocalDateTime start = day.atTime(9, 0).plusMinutes(30L * (i % 16));
+            Appointment appointment = new Appointment();
+            appointment.setTenantId(tenant.getId());
+            appointment.setProfessional(professionals.get(i));
+            appointment.setPatient(patient);
+            appointment.setProcedure(singleResource.get(i % RESOURCES));
+            appointment.setStartDateTime(start);
+            appointment.setEndDateTime(start.plusMinutes(30));
+            appointments.add(appointment);
+        }
+        appointmentRepository.saveAll(appointments);
+
+        String slug = tenant.getSlug();
+        Long professionalId = professionals.get(0).getId();
+        slotService.getAvailableSlots(slug, professionalId, day, day, singleResource.get(0).getId());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        slotService.getAvailableSlots(slug, professionalId, day, day, singleResource.get(0).getId());
+        long singleResourceQueries = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        List<AvailableSlotResponse> none = slotService.getAvailableSlots(slug, professionalId, day, day, allResources.getId());
+        long allResourcesQueries = statistics.getPrepareStatementCount();
+
+        assertTrue(none.isEmpty(), "Con las cinco salas ocupadas en distintos horarios no queda ningún turno");
+        assertEquals(singleResourceQueries, allResourcesQueries,
+                "La ocupación de varios recursos se resuelve con la misma cantidad de consultas que la de uno");
+
+        long started = System.nanoTime();
+        int freeSlots = 0;
+        for (Professional professional : professionals) {
+            freeSlots += slotService.getAvailableSlots(slug, professional.getId(), day, day, singleResource.get(1).getId()).size();
+        }
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        log.info("Agenda con recursos: {} profesionales y {} salas en {} ms ({} turnos libres)",
+                PROFESSIONALS, RESOURCES, elapsedMillis, freeSlots);
+
+        // La sala 1 está ocupada en los horarios de los profesionales 1, 6, 11... (10 de las 16 medias horas)
+        Set<Integer> busyHalfHours = new HashSet<>();
+        for (int i = 1; i < PROFESSIONALS; i += RESOURCES) {
+            busyHalfHours.add(i % 16);
+        }
+        int expectedPerProfessional = 16 - busyHalfHours.size();
+        assertEquals(PROFESSIONALS * expectedPerProfessional - ownBookingsOutsideRoom(busyHalfHours), freeSlots);
+    }
+
+    /**
+     * Turnos propios de cada profesional que caen en horarios en que la sala 1 está libre: también
+     * quitan un turno libre de su agenda.
+     */
+    private static int ownBookingsOutsideRoom(Set<Integer> busyHalfHours) {
+        int count = 0;
+        for (int i = 0; i < PROFESSIONALS; i++) {
+            if (!busyHalfHours.contains(i % 16)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private Professional professional(Tenant tenant, Specialty specialty, String firstName, LocalDate day) {
+        Professional professional = fixtures.professional(tenant, specialty, firstName);
+        fixtures.availability(professional, day, LocalTime.of(9, 0), LocalTime.of(17, 0), 30);
+        return professional;
+    }
+
+    private Resource resource(Tenant tenant, String name) {
+        Resource resource = new Resource();
+        resource.setTenantId(tenant.getId());
+        resource.setName(name);
+        return resourceRepository.save(resource);
+    }
+
+    private Procedure procedure(Tenant tenant, String name, Set<Resource> resources) {
+        Procedure procedure = new Procedure();
+        procedure.setTenantId(tenant.getId());
+        procedure.setName(name);
+        procedure.setResources(new HashSet<>(resources));
+        return procedureRepository.save(procedure);
+    }
+}
@@ -0,0 +1,143 @@
+package com.saas.medical.service;
+
+import com.saas.medical.model.dto.appointment.AppointmentRequest;
+import com.saas.medical.model.dto.slot.AvailableSlotResponse;
+import com.saas.medical.model.entity.Professional;
+import com.saas.medical.model.entity.ProfessionalAvailability;
+import com.saas.medical.model.entity.Specialty;
+import com.saas.medical.model.entity.Tenant;
+import com.saas.medical.model.enums.DayOfWeek;
+import com.saas.medical.repository.ProfessionalAvailabilityRepository;
+import com.saas.medical.repository.ProfessionalRepository;
+import com.saas.medical.repository.SpecialtyRepository;
+import com.saas.medical.repository.TenantRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Datos de prueba compartidos por los tests de agenda: consultorio, especialidad, profesional y
+ * disponibilidades guardados, más los pedidos de reserva. Cada consultorio lleva un sufijo al azar,
+ * así los tests que comparten contexto no chocan entre sí.
+ */
+@Component
+@RequiredArgsConstructor
+class SchedulingFixtures {
+
+    static final List<DayOfWeek> WEEKDAYS = List.of(DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY,
+            DayOfWeek.THURSDAY, DayOfWeek.FRIDAY);
+
+    private final TenantRepository tenantRepository;
+    private final SpecialtyRepository specialtyRepository;
+    private final ProfessionalRepository professionalRepository;
+    private final ProfessionalAvailabilityRepository availabilityRepository;
+
+    static String suffix() {
+        return UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Consultorio {@code <prefix>-<suffix>} en la zona por defecto.
+     */
+    Tenant tenant(String prefix, String suffix) {
+        return tenant(prefix, suffix, null);
+    }
+
+    Tenant tenant(String prefix, String suffix, String timezone) {
+        Tenant tenant = new Tenant();
+        tenant.setName("Consultorio " + prefix + " " + suffix);
+        tenant.setSlug(prefix + "-" + suffix);
+        tenant.setTimezone(timezone);
+        return tenantRepository.save(tenant);
+    }
+
+    Specialty specialty(String name) {
+        Specialty specialty = new Specialty();
+        specialty.setName(name + " " + suffix());
+        return specialtyRepository.save(specialty);
+    }
+
+    Professional professional(Tenant tenant, Specialty specialty, String firstName) {
+        Professional professional = new Professional();
+        professional.setTenantId(tenant.getId());
+        professional.setSpecialty(specialty);
+        professional.setFirstName(firstName);
+        professional.setLastName("Sosa");
+        return professionalRepository.save(professional);
+    }
+
+    /**
+     * Profesional con una especialidad propia.
+     */
+    Professional professional(Tenant tenant, String firstName) {
+        return professional(tenant, specialty("Clínica"), firstName);
+    }
+
+    /**
+     * Atención de lunes a viernes en [start, end) con turnos de 30 minutos.
+     */
+    void weekdays(Professional professional, LocalTime start, LocalTime end) {
+        for (DayOfWeek dayOfWeek : WEEKDAYS) {
+            ProfessionalAvailability availability = new ProfessionalAvailability();
+            availability.setProfessional(professional);
+            availability.setDayOfWeek(dayOfWeek);
+            availability.setStartTime(start);
+            availability.setEndTime(end);
+            availability.setSlotDurationMinutes(30);
+            availabilityRepository.save(availability);
+        }
+    }
+
+    /**
+     * Atención en una fecha puntual.
+     */
+    ProfessionalAvailability availability(Professional professional, LocalDate day, LocalTime start, LocalTime end,
+                                          int slotDurationMinutes) {
+        ProfessionalAvailability availability = new ProfessionalAvailability();
+        availability.setProfessional(professional);
+        availability.setSpecificDate(day);
+        availability.setStartTime(start);
+        availability.setEndTime(end);
+        availability.setSlotDurationMinutes(slotDurationMinutes);
+        return availabilityRepository.save(availability);
+    }
+
+    static AppointmentRequest bookingRequest(Long professionalId, LocalDateTime slot, String dni) {
+        return bookingRequest(professionalId, null, slot, dni);
+    }
+
+    static AppointmentRequest bookingRequest(Long professionalId, Long procedureId, LocalDateTime slot, String dni) {
+        AppointmentRequest request = new AppointmentRequest();
+        request.setProfessionalId(professionalId);
+        request.setProcedureId(procedureId);
+        request.setStartDateTime(slot);
+        request.setPatient(patient(dni));
+        return request;
+    }
+
+    static AppointmentRequest.PatientInfo patient(String dni) {
+        AppointmentRequest.PatientInfo patient = new AppointmentRequest.PatientInfo();
+        patient.setDni(dni);
+        patient.setFirstName("Paciente");
+        patient.setLastName(dni);
+        patient.setEmail(dni + "@example.com");
+        patient.setPhone("1100000000");
+        return patient;
+    }
+
+    static LocalDate nextWeekday(LocalDate date) {
+        while (date.getDayOfWeek().getValue() > 5) {
+            date = date.plusDays(1);
+        }
+        return date;
+    }
+
+    static List<LocalDateTime> starts(List<AvailableSlotResponse> slots) {
+        return slots.stream().map(AvailableSlotResponse::getStartDateTime).toList();
+    }
+}
@@ -0,0 +1,53 @@
+package com.saas.medical.service;
+
+import com.saas.medical.exception.SlotConflictException;
+import com.saas.medical.model.dto.slot.SlotAlternativesResponse;
+import com.saas.medical.model.entity.Professional;
+import com.saas.medical.model.entity.Tenant;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static com.saas.medical.service.SchedulingFixtures.bookingRequest;
+import static com.saas.medical.service.SchedulingFixtures.starts;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SlotConflictAlternativesTest {
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private SchedulingFixtures fixtures;
+
+    @Test
+    void conflictReturnsNearestFreeSlotsAroundRequestedTime() {
+        String suffix = SchedulingFixtures.suffix();
+        Tenant tenant = fixtures.tenant("conflictos", suffix);
+        Professional professional = fixtures.professional(tenant, "Marta");
+        LocalDate day = LocalDate.now().plusDays(6);
+        fixtures.availability(professional, day, LocalTime.of(9, 0), LocalTime.of(12, 0), 30);
+
+        String tenantSlug = tenant.getSlug();
+        Long professionalId = professional.getId();
+        appointmentService.createAppointment(tenantSlug, bookingRequest(professionalId, day.atTime(10, 0), "51" + suffix));
+        appointmentService.createAppointment(tenantSlug, bookingRequest(professionalId, day.atTime(11, 0), "52" + suffix));
+
+        SlotConflictException conflict = assertThrows(SlotConflictException.class, () ->
+                appointmentService.createAppointment(tenantSlug, bookingRequest(professionalId, day.atTime(10, 0), "53" + suffix)));
+
+        assertEquals(HttpStatus.CONFLICT, conflict.getStatus());
+        SlotAlternativesResponse alternatives = conflict.getAlternatives();
+        assertEquals(List.of(day.atTime(9, 30), day.atTime(9, 0)), starts(alternatives.getBefore()));
+        assertEquals(List.of(day.atTime(10, 30), day.atTime(11, 30)), starts(alternatives.getAfter()));
+    }
+}
@@ -0,0 +1,150 @@
+package com.saas.medical.service;
+
+import com.saas.medical.exception.BusinessException;
+import com.saas.medical.model.dto.appointment.AppointmentRequest;
+import com.saas.medical.model.dto.appointment.AppointmentResponse;
+import com.saas.medical.model.dto.slot.AvailableSlotResponse;
+import com.saas.medical.model.dto.slot.SlotHoldRequest;
+import com.saas.medical.model.dto.slot.SlotHoldResponse;
+import com.saas.medical.model.entity.Professional;
+import com.saas.medical.model.entity.SlotHold;
+import com.saas.medical.model.entity.Tenant;
+import com.saas.medical.repository.SlotHoldRepository;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SlotHoldTest {
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private SlotService slotService;
+
+    @Autowired
+    private SlotHoldService slotHoldService;
+
+    @Autowired
+    private SchedulingFixtures fixtures;
+
+    @Test
+    void heldSlotIsHiddenAndOnlyRedeemableWithItsToken() {
+        String suffix = SchedulingFixtures.suffix();
+        Tenant tenant = fixtures.tenant("reservas", suffix);
+        Professional professional = fixtures.professional(tenant, "Laura");
+        LocalDate day = LocalDate.now().plusDays(5);
+        fixtures.availability(professional, day, LocalTime.of(9, 0), LocalTime.of(11, 0), 30);
+
+        LocalDateTime slot = day.atTime(10, 0);
+        SlotHoldRequest holdRequest = new SlotHoldRequest();
+        holdRequest.setProfessionalId(professional.getId());
+        holdRequest.setStartDateTime(slot);
+        SlotHoldResponse hold = appointmentService.createHold(tenant.getSlug(), holdRequest);
+
+        List<AvailableSlotResponse> slots = slotService.getAvailableSlots(tenant.getSlug(), professional.getId(), day, day, null);
+        assertEquals(3, slots.size());
+        assertFalse(slots.stream().anyMatch(s -> s.getStartDateTime().equals(slot)));
+
+        // Otro paciente no puede tomar ni reservar el horario apartado
+        String tenantSlug = tenant.getSlug();
+        Long professionalId = professional.getId();
+        assertThrows(BusinessException.class, () -> appointmentService.createHold(tenantSlug, holdRequest));
+        assertThrows(BusinessException.class,
+                () -> appointmentService.createAppointment(tenantSlug, bookingRequest(professionalId, slot, "41" + suffix, null)));
+
+        AppointmentResponse booked = appointmentService.createAppointment(tenantSlug,
+                bookingRequest(professionalId, slot, "42" + suffix, hold.getToken()));
+        assertEquals(slot, booked.getStartDateTime());
+        assertTrue(slotHoldService.find(hold.getToken()).isEmpty());
+    }
+
+    /**
+     * Con la copia en base, la fila de la reserva se borra dentro de la transacción del turno: ni
+     * queda bloqueando a los demás nodos hasta vencer ni hace fallar una reserva ya confirmada.
+     */
+    @Nested
+    @TestPropertySource(properties = "app.slot-holds.db-mirror=true")
+    class WithDbMirror {
+
+        @Autowired
+        private AppointmentService mirroredAppointmentService;
+
+        @Autowired
+        private SlotService mirroredSlotService;
+
+        @Autowired
+        private SlotHoldService mirroredSlotHoldService;
+
+        @Autowired
+        private SlotHoldRepository slotHoldRepository;
+
+        @Autowired
+        private SchedulingFixtures mirroredFixtures;
+
+        @Test
+        void bookingDeletesTheMirroredHold() {
+            String suffix = SchedulingFixtures.suffix();
+            Tenant tenant = mirroredFixtures.tenant("reservas", suffix);
+            Professional professional = mirroredFixtures.professional(tenant, "Laura");
+            LocalDate day = LocalDate.now().plusDays(5);
+            mirroredFixtures.availability(professional, day, LocalTime.of(9, 0), LocalTime.of(11, 0), 30);
+            String tenantSlug = tenant.getSlug();
+            Long professionalId = professional.getId();
+
+            // Reserva de este nodo
+            LocalDateTime slot = day.atTime(9, 0);
+            SlotHoldRequest holdRequest = new SlotHoldRequest();
+            holdRequest.setProfessionalId(professionalId);
+            holdRequest.setStartDateTime(slot);
+            String token = mirroredAppointmentService.createHold(tenantSlug, holdRequest).getToken();
+            assertTrue(slotHoldRepository.existsById(token));
+
+            mirroredAppointmentService.createAppointment(tenantSlug, bookingRequest(professionalId, slot, "43" + suffix, token));
+            assertFalse(slotHoldRepository.existsById(token));
+            assertTrue(mirroredSlotHoldService.find(token).isEmpty());
+
+            // Reserva hecha por otro nodo: solo está en la base
+            LocalDateTime otherSlot = day.atTime(10, 0);
+            SlotHold foreign = new SlotHold();
+            foreign.setToken(UUID.randomUUID().toString());
+            foreign.setTenantId(tenant.getId());
+            foreign.setProfessionalId(professionalId);
+            foreign.setStartDateTime(otherSlot);
+            foreign.setEndDateTime(otherSlot.plusMinutes(30));
+            LocalDateTime tenantNow = LocalDateTime.now(ZoneId.of(TenantTimeZones.DEFAULT_TIMEZONE));
+            foreign.setExpiresAt(tenantNow.plusMinutes(5));
+            foreign.setCreatedAt(tenantNow);
+            slotHoldRepository.save(foreign);
+            assertFalse(mirroredSlotService.getAvailableSlots(tenantSlug, professionalId, day, day, null).stream()
+                    .anyMatch(s -> s.getStartDateTime().equals(otherSlot)));
+
+            mirroredAppointmentService.createAppointment(tenantSlug,
+                    bookingRequest(professionalId, otherSlot, "44" + suffix, foreign.getToken()));
+            assertFalse(slotHoldRepository.existsById(foreign.getToken()));
+        }
+    }
+
+    private static AppointmentRequest bookingRequest(Long professionalId, LocalDateTime slot, String dni, String holdToken) {
+        AppointmentRequest request = SchedulingFixtures.bookingRequest(professionalId, slot, dni);
+        request.setHoldToken(holdToken);
+        return request;
+    }
+}
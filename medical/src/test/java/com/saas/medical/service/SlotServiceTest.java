@@ -0,0 +1,190 @@
+package com.saas.medical.service;
+
+import com.saas.medical.exception.BusinessException;
+import com.saas.medical.exception.ResourceNotFoundException;
+import com.saas.medical.model.dto.slot.AvailableSlotResponse;
+import com.saas.medical.model.dto.slot.CalendarDayResponse;
+import com.saas.medical.model.dto.slot.FirstAvailableSlotResponse;
+import com.saas.medical.model.entity.Procedure;
+import com.saas.medical.model.entity.Professional;
+import com.saas.medical.model.entity.ProfessionalBlock;
+import com.saas.medical.model.entity.Specialty;
+import com.saas.medical.model.entity.Tenant;
+import com.saas.medical.repository.ProcedureRepository;
+import com.saas.medical.repository.ProfessionalBlockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static com.saas.medical.service.SchedulingFixtures.bookingRequest;
+import static com.saas.medical.service.SchedulingFixtures.starts;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Consultas públicas de agenda: turnos libres de un profesional en un rango, calendario del mes y
+ * primer turno libre del consultorio.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SlotServiceTest {
+
+    @Autowired
+    private SlotService slotService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private ProcedureRepository procedureRepository;
+
+    @Autowired
+    private ProfessionalBlockRepository professionalBlockRepository;
+
+    @Autowired
+    private SchedulingFixtures fixtures;
+
+    private Tenant tenant;
+    private Professional professional;
+    private LocalDate day;
+
+    @BeforeEach
+    void setUp() {
+        tenant = fixtures.tenant("agenda-publica", SchedulingFixtures.suffix());
+        professional = fixtures.professional(tenant, "Sofía");
+        day = SchedulingFixtures.nextWeekday(LocalDate.now().plusDays(10));
+        fixtures.availability(professional, day, LocalTime.of(9, 0), LocalTime.of(12, 0), 30);
+    }
+
+    @Test
+    void availableSlotsSkipBookingsAndBlocksAndFollowTheProcedureLength() {
+        String slug = tenant.getSlug();
+        Long professionalId = professional.getId();
+
+        List<AvailableSlotResponse> open = slotService.getAvailableSlots(slug, professionalId, day, day.plusDays(1), null);
+        assertEquals(List.of(day.atTime(9, 0), day.atTime(9, 30), day.atTime(10, 0),
+                day.atTime(10, 30), day.atTime(11, 0), day.atTime(11, 30)), starts(open));
+        assertTrue(open.stream().allMatch(slot -> slot.getDurationMinutes() == 30
+                && slot.getEndDateTime().equals(slot.getStartDateTime().plusMinutes(30))));
+
+        appointmentService.createAppointment(slug, bookingRequest(professionalId, day.atTime(9, 30), "73000001"));
+        ProfessionalBlock block = new ProfessionalBlock();
+        block.setTenantId(tenant.getId());
+        block.setProfessional(professional);
+        block.setStartDateTime(day.atTime(11, 0));
+        block.setEndDateTime(day.atTime(11, 30));
+        block.setReason("Reunión");
+        professionalBlockRepository.save(block);
+
+        assertEquals(List.of(day.atTime(9, 0), day.atTime(10, 0), day.atTime(10, 30), day.atTime(11, 30)),
+                starts(slotService.getAvailableSlots(slug, professionalId, day, day, null)));
+
+        // Un procedimiento de una hora necesita dos bloques seguidos libres; los inicios siguen cada 30 minutos
+        Procedure consultation = new Procedure();
+        consultation.setTenantId(tenant.getId());
+        consultation.setName("Consulta larga " + SchedulingFixtures.suffix());
+        consultation.setDurationMinutes(60);
+        consultation = procedureRepository.save(consultation);
+        List<AvailableSlotResponse> hourLong = slotService.getAvailableSlots(slug, professionalId, day, day, consultation.getId());
+        assertEquals(List.of(day.atTime(10, 0)), starts(hourLong));
+        assertEquals(day.atTime(11, 0), hourLong.get(0).getEndDateTime());
+    }
+
+    @Test
+    void availableSlotsRejectInvalidRangesAndForeignProfessionals() {
+        String slug = tenant.getSlug();
+        Long professionalId = professional.getId();
+
+        assertThrows(BusinessException.class,
+                () -> slotService.getAvailableSlots(slug, professionalId, day, day.minusDays(1), null));
+        assertThrows(BusinessException.class,
+                () -> slotService.getAvailableSlots(slug, professionalId, day, day.plusDays(SlotService.MAX_RANGE_DAYS), null));
+
+        Tenant other = fixtures.tenant("agenda-publica", SchedulingFixtures.suffix());
+        assertThrows(ResourceNotFoundException.class,
+                () -> slotService.getAvailableSlots(other.getSlug(), professionalId, day, day, null));
+    }
+
+    @Test
+    void firstAvailableIsTheEarliestSlotAmongMatchingProfessionals() {
+        String slug = tenant.getSlug();
+        Specialty pediatrics = fixtures.specialty("Pediatría");
+        Professional pediatrician = fixtures.professional(tenant, pediatrics, "Tomás");
+        LocalDate earlier = SchedulingFixtures.nextWeekday(day.minusDays(3));
+        fixtures.availability(pediatrician, earlier, LocalTime.of(15, 0), LocalTime.of(16, 0), 30);
+
+        FirstAvailableSlotResponse first = slotService.findFirstAvailable(slug, null, null, null, null);
+        assertEquals(pediatrician.getId(), first.getProfessionalId());
+        assertEquals(earlier.atTime(15, 0), first.getStartDateTime());
+        assertEquals(pediatrics.getId(), first.getSpecialtyId());
+
+        // Tomado ese horario, el siguiente del mismo día gana a los del otro profesional
+        appointmentService.createAppointment(slug, bookingRequest(pediatrician.getId(), earlier.atTime(15, 0), "73000002"));
+        assertEquals(earlier.atTime(15, 30), slotService.findFirstAvailable(slug, null, null, null, null).getStartDateTime());
+
+        // Filtrando por especialidad o buscando después de ese día queda la agenda de la otra profesional
+        FirstAvailableSlotResponse bySpecialty = slotService.findFirstAvailable(slug,
+                professional.getSpecialty().getId(), null, null, null);
+        assertEquals(professional.getId(), bySpecialty.getProfessionalId());
+        assertEquals(day.atTime(9, 0), bySpecialty.getStartDateTime());
+        assertEquals(day.atTime(9, 0),
+                slotService.findFirstAvailable(slug, null, null, null, earlier.plusDays(1).atStartOfDay()).getStartDateTime());
+
+        Long withoutProfessionals = fixtures.specialty("Dermatología").getId();
+        assertThrows(ResourceNotFoundException.class,
+                () -> slotService.findFirstAvailable(slug, withoutProfessionals, null, null, null));
+
+        Procedure checkup = new Procedure();
+        checkup.setTenantId(tenant.getId());
+        checkup.setSpecialty(pediatrics);
+        checkup.setName("Control " + SchedulingFixtures.suffix());
+        Long checkupId = procedureRepository.save(checkup).getId();
+        Long otherSpecialty = professional.getSpecialty().getId();
+        assertThrows(BusinessException.class,
+                () -> slotService.findFirstAvailable(slug, otherSpecialty, checkupId, null, null));
+    }
+
+    @Test
+    void monthCalendarCountsFreeSlotsPerDay() {
+        String slug = tenant.getSlug();
+        Long professionalId = professional.getId();
+        YearMonth month = YearMonth.from(day);
+
+        List<CalendarDayResponse> calendar = slotService.getMonthCalendar(slug, professionalId, month, null);
+        assertEquals(month.lengthOfMonth(), calendar.size());
+        assertEquals(month.atDay(1), calendar.get(0).getDate());
+        for (CalendarDayResponse calendarDay : calendar) {
+            assertEquals(calendarDay.getDate().equals(day) ? 6 : 0, calendarDay.getFreeSlots());
+        }
+
+        appointmentService.createAppointment(slug, bookingRequest(professionalId, day.atTime(9, 30), "73000003"));
+        assertEquals(5, freeSlotsOn(slotService.getMonthCalendar(slug, professionalId, month, null)));
+
+        // Con un procedimiento de una hora cuentan los inicios que tienen la hora entera libre
+        Procedure consultation = new Procedure();
+        consultation.setTenantId(tenant.getId());
+        consultation.setName("Consulta larga " + SchedulingFixtures.suffix());
+        consultation.setDurationMinutes(60);
+        Long consultationId = procedureRepository.save(consultation).getId();
+        assertEquals(3, freeSlotsOn(slotService.getMonthCalendar(slug, professionalId, month, consultationId)));
+
+        Tenant other = fixtures.tenant("agenda-publica", SchedulingFixtures.suffix());
+        assertThrows(ResourceNotFoundException.class,
+                () -> slotService.getMonthCalendar(other.getSlug(), professionalId, month, null));
+    }
+
+    private int freeSlotsOn(List<CalendarDayResponse> calendar) {
+        return calendar.stream()
+                .filter(calendarDay -> calendarDay.getDate().equals(day))
+                .findFirst().orElseThrow()
+                .getFreeSlots();
+    }
+}
@@ -0,0 +1,133 @@
+package com.saas.medical.service;
+
+import com.saas.medical.exception.BusinessException;
+import com.saas.medical.model.dto.slot.CalendarDayResponse;
+import com.saas.medical.model.dto.tenant.TenantClosureRequest;
+import com.saas.medical.model.dto.tenant.TenantClosureResponse;
+import com.saas.medical.model.entity.Professional;
+import com.saas.medical.model.entity.ProfessionalAvailability;
+import com.saas.medical.model.entity.Specialty;
+import com.saas.medical.model.entity.Tenant;
+import com.saas.medical.model.entity.TenantClosure;
+import com.saas.medical.security.TenantContext;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.saas.medical.service.SchedulingFixtures.bookingRequest;
+import static com.saas.medical.service.SchedulingFixtures.nextWeekday;
+import static com.saas.medical.service.SchedulingFixtures.starts;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Mismo contexto que {@link OpenSlotTest}: los cierres se verifican también sobre la tabla materializada.
+ */
+@SpringBootTest(properties = "app.open-slots.horizon-days=30")
+@ActiveProfiles("test")
+class TenantClosureTest {
+
+    private static final int PROFESSIONALS = 3;
+
+    @Autowired
+    private TenantClosureService tenantClosureService;
+
+    @Autowired
+    private OpenSlotService openSlotService;
+
+    @Autowired
+    private SlotService slotService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private SchedulingFixtures fixtures;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void clearTenant() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void oneClosureMasksEveryProfessionalAndRefreshesOnlyItsDays() {
+        String suffix = SchedulingFixtures.suffix();
+        Tenant tenant = fixtures.tenant("cierres", suffix);
+        Specialty specialty = fixtures.specialty("Clínica");
+
+        List<Long> professionalIds = new ArrayList<>();
+        for (int i = 0; i < PROFESSIONALS; i++) {
+            Professional professional = fixtures.professional(tenant, specialty, "Profesional " + i);
+            fixtures.weekdays(professional, LocalTime.of(9, 0), LocalTime.of(12, 0));
+            professionalIds.add(professional.getId());
+        }
+
+        TenantContext.setCurrentTenant(tenant.getId().toString());
+        String slug = tenant.getSlug();
+        LocalDate holiday = nextWeekday(LocalDate.now().plusDays(3));
+        LocalDate maintenance = nextWeekday(holiday.plusDays(1));
+        openSlotService.extendHorizon();
+        openSlotService.refreshDirty();
+
+        // Un feriado es una sola fila y un UPDATE sobre los días afectados, no una regla por profesional
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        TenantClosureResponse closure = tenantClosureService.create(
+                closure(holiday.atStartOfDay(), holiday.plusDays(1).atStartOfDay(), "Feriado nacional"));
+        assertEquals(1, statistics.getEntityStatistics(TenantClosure.class.getName()).getInsertCount());
+        assertEquals(0, statistics.getEntityStatistics(ProfessionalAvailability.class.getName()).getInsertCount());
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        // Solo se recalcula el día del feriado de cada profesional del consultorio
+        assertEquals(PROFESSIONALS, openSlotService.refreshDirty());
+        for (Long professionalId : professionalIds) {
+            assertTrue(slotService.getAvailableSlots(slug, professionalId, holiday, holiday, null).isEmpty());
+        }
+        CalendarDayResponse holidayInCalendar = slotService.getMonthCalendar(slug, professionalIds.get(0),
+                YearMonth.from(holiday), null).stream().filter(day -> day.getDate().equals(holiday)).findFirst().orElseThrow();
+        assertEquals(0, holidayInCalendar.getFreeSlots());
+        assertEquals(nextWeekday(holiday.plusDays(1)).atTime(9, 0),
+                slotService.findFirstAvailable(slug, null, null, null, holiday.atStartOfDay()).getStartDateTime());
+        BusinessException closed = assertThrows(BusinessException.class, () -> appointmentService.createAppointment(slug,
+                bookingRequest(professionalIds.get(0), holiday.atTime(10, 0), "71" + suffix)));
+        assertEquals(AppointmentService.CLOSED_MESSAGE, closed.getMessage());
+
+        // Un cierre parcial solo saca los turnos que se solapan con él
+        tenantClosureService.create(closure(maintenance.atTime(10, 0), maintenance.atTime(11, 0), "Mantenimiento"));
+        assertEquals(PROFESSIONALS, openSlotService.refreshDirty());
+        assertEquals(List.of(maintenance.atTime(9, 0), maintenance.atTime(9, 30),
+                        maintenance.atTime(11, 0), maintenance.atTime(11, 30)),
+                starts(slotService.getAvailableSlots(slug, professionalIds.get(1), maintenance, maintenance, null)));
+        assertEquals(2, tenantClosureService.findUpcomingByCurrentTenant().size());
+
+        tenantClosureService.delete(closure.getId());
+        assertEquals(PROFESSIONALS, openSlotService.refreshDirty());
+        assertEquals(6, slotService.getAvailableSlots(slug, professionalIds.get(2), holiday, holiday, null).size());
+        appointmentService.createAppointment(slug, bookingRequest(professionalIds.get(0), holiday.atTime(10, 0), "72" + suffix));
+        openSlotService.refreshDirty();
+    }
+
+    private static TenantClosureRequest closure(LocalDateTime start, LocalDateTime end, String reason) {
+        TenantClosureRequest request = new TenantClosureRequest();
+        request.setStartDateTime(start);
+        request.setEndDateTime(end);
+        request.setReason(reason);
+        return request;
+    }
+}
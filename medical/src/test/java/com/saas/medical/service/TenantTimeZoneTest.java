@@ -0,0 +1,195 @@
+package com.saas.medical.service;
+
+import com.saas.medical.exception.BusinessException;
+import com.saas.medical.model.dto.slot.AvailableSlotResponse;
+import com.saas.medical.model.dto.slot.SlotHoldRequest;
+import com.saas.medical.model.dto.slot.SlotHoldResponse;
+import com.saas.medical.model.entity.Professional;
+import com.saas.medical.model.entity.Tenant;
+import com.saas.medical.repository.AppointmentRepository;
+import com.saas.medical.repository.TenantRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.time.zone.ZoneOffsetTransition;
+import java.util.List;
+import java.util.UUID;
+
+import static com.saas.medical.service.SchedulingFixtures.bookingRequest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TenantTimeZoneTest {
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    @Autowired
+    private TenantTimeZones tenantTimeZones;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private SlotService slotService;
+
+    @Autowired
+    private ReminderService reminderService;
+
+    @Autowired
+    private SlotHoldService slotHoldService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    @Autowired
+    private SchedulingFixtures fixtures;
+
+    @Test
+    void precomputedTableMatchesZoneRulesAcrossTransitions() {
+        TenantZone zone = tenantTimeZones.of("America/New_York");
+        ZoneOffsetTransition spring = nextTransition(true);
+        ZoneOffsetTransition fall = nextTransition(false);
+
+        for (ZoneOffsetTransition transition : List.of(spring, fall)) {
+            Instant from = transition.getInstant().minus(Duration.ofHours(6));
+            for (Instant instant = from; instant.isBefore(from.plus(Duration.ofHours(12))); instant = instant.plusSeconds(900)) {
+                LocalDateTime local = LocalDateTime.ofInstant(instant, NEW_YORK);
+                assertEquals(local, zone.toLocal(instant));
+                assertEquals(local.atZone(NEW_YORK).toInstant(), zone.toInstant(local));
+            }
+        }
+
+        // El salto de primavera no existe; la hora repetida de otoño toma el offset previo al cambio
+        LocalDateTime inGap = spring.getDateTimeBefore().plusMinutes(30);
+        assertTrue(zone.isGap(inGap));
+        assertFalse(zone.isGap(spring.getDateTimeAfter()));
+        assertTrue(zone.crossesGap(spring.getDateTimeBefore().minusMinutes(30), spring.getDateTimeBefore().plusMinutes(1)));
+        LocalDateTime repeated = fall.getDateTimeAfter().plusMinutes(30);
+        assertFalse(zone.isGap(repeated));
+        assertEquals(repeated.atZone(NEW_YORK).toInstant(), zone.toInstant(repeated));
+
+        // Una zona inválida cae en la zona por defecto, y la tabla es compartida entre consultorios
+        assertEquals(ZoneId.of(TenantTimeZones.DEFAULT_TIMEZONE), tenantTimeZones.of("Marte/Olympus").getZoneId());
+        assertTrue(zone == tenantTimeZones.of("America/New_York"));
+    }
+
+    @Test
+    void slotEngineAndBookingSkipTheSpringForwardGap() {
+        Professional professional = professional(tenant("America/New_York"));
+        String tenantSlug = tenantRepository.findById(professional.getTenantId()).orElseThrow().getSlug();
+
+        LocalDate springDay = nextTransition(true).getDateTimeBefore().toLocalDate();
+        LocalDate fallDay = nextTransition(false).getDateTimeBefore().toLocalDate();
+        availability(professional, springDay);
+        availability(professional, fallDay);
+
+        List<LocalTime> springSlots = slotService.getAvailableSlots(tenantSlug, professional.getId(), springDay, springDay, null)
+                .stream().map(slot -> slot.getStartDateTime().toLocalTime()).toList();
+        assertEquals(List.of(LocalTime.of(0, 0), LocalTime.of(1, 0), LocalTime.of(3, 0), LocalTime.of(4, 0)), springSlots);
+
+        // En otoño la hora repetida se ofrece una sola vez: los turnos están en hora local
+        List<AvailableSlotResponse> fallSlots = slotService.getAvailableSlots(tenantSlug, professional.getId(), fallDay, fallDay, null);
+        assertEquals(5, fallSlots.size());
+
+        BusinessException gap = assertThrows(BusinessException.class, () -> appointmentService.createAppointment(tenantSlug,
+                bookingRequest(professional.getId(), springDay.atTime(2, 0), "81" + UUID.randomUUID().toString().substring(0, 6))));
+        assertEquals(AppointmentService.DST_GAP_MESSAGE, gap.getMessage());
+        assertNotNull(appointmentService.createAppointment(tenantSlug,
+                bookingRequest(professional.getId(), springDay.atTime(3, 0), "82" + UUID.randomUUID().toString().substring(0, 6))));
+    }
+
+    @Test
+    void pastCheckUsesTheTenantClock() {
+        // Kiritimati va 14 horas adelante de UTC y Pago Pago 11 atrás: el reloj del servidor se equivoca con ambos
+        Professional ahead = professional(tenant("Pacific/Kiritimati"));
+        String aheadSlug = tenantRepository.findById(ahead.getTenantId()).orElseThrow().getSlug();
+        LocalDateTime anHourAgoThere = LocalDateTime.now(ZoneId.of("Pacific/Kiritimati")).minusHours(1).truncatedTo(ChronoUnit.MINUTES);
+        assertThrows(BusinessException.class, () -> appointmentService.createAppointment(aheadSlug,
+                bookingRequest(ahead.getId(), anHourAgoThere, "83" + UUID.randomUUID().toString().substring(0, 6))));
+
+        Professional behind = professional(tenant("Pacific/Pago_Pago"));
+        String behindSlug = tenantRepository.findById(behind.getTenantId()).orElseThrow().getSlug();
+        LocalDateTime inAnHourThere = LocalDateTime.now(ZoneId.of("Pacific/Pago_Pago")).plusHours(1).truncatedTo(ChronoUnit.MINUTES);
+        assertNotNull(appointmentService.createAppointment(behindSlug,
+                bookingRequest(behind.getId(), inAnHourThere, "84" + UUID.randomUUID().toString().substring(0, 6))));
+    }
+
+    @Test
+    void reminderWindowIsTranslatedToEachTenantZone() {
+        LocalDateTime serverNow = LocalDateTime.now();
+        Instant dueAt = serverNow.plusHours(24).atZone(ZoneId.systemDefault()).toInstant();
+        LocalDateTime tokyoStart = LocalDateTime.ofInstant(dueAt, ZoneId.of("Asia/Tokyo")).truncatedTo(ChronoUnit.MINUTES);
+
+        Professional tokyo = professional(tenant("Asia/Tokyo"));
+        Long tokyoAppointment = appointmentService.createAppointment(
+                tenantRepository.findById(tokyo.getTenantId()).orElseThrow().getSlug(),
+                bookingRequest(tokyo.getId(), tokyoStart, "85" + UUID.randomUUID().toString().substring(0, 6))).getId();
+
+        // La misma hora de reloj en Buenos Aires ocurre 12 horas después: no entra en la ventana
+        Professional buenosAires = professional(tenant(null));
+        Long buenosAiresAppointment = appointmentService.createAppointment(
+                tenantRepository.findById(buenosAires.getTenantId()).orElseThrow().getSlug(),
+                bookingRequest(buenosAires.getId(), tokyoStart, "86" + UUID.randomUUID().toString().substring(0, 6))).getId();
+
+        assertTrue(reminderService.runWindow(serverNow) >= 1);
+        assertNotNull(appointmentRepository.findById(tokyoAppointment).orElseThrow().getReminderSentAt());
+        assertNull(appointmentRepository.findById(buenosAiresAppointment).orElseThrow().getReminderSentAt());
+    }
+
+    @Test
+    void holdExpiresOnTheTenantClock() {
+        Professional ahead = professional(tenant("Pacific/Kiritimati"));
+        LocalDate day = LocalDate.now(ZoneId.of("Pacific/Kiritimati")).plusDays(2);
+        availability(ahead, day);
+
+        SlotHoldRequest request = new SlotHoldRequest();
+        request.setProfessionalId(ahead.getId());
+        request.setStartDateTime(day.atTime(1, 0));
+        LocalDateTime before = LocalDateTime.now(ZoneId.of("Pacific/Kiritimati"));
+        SlotHoldResponse hold = appointmentService.createHold(
+                tenantRepository.findById(ahead.getTenantId()).orElseThrow().getSlug(), request);
+
+        // Con el reloj del servidor el vencimiento quedaría 14 horas antes de la hora del consultorio
+        assertTrue(hold.getExpiresAt().isAfter(before));
+        assertTrue(hold.getExpiresAt().isBefore(before.plusMinutes(10)));
+        assertTrue(slotHoldService.find(hold.getToken()).isPresent());
+    }
+
+    private static ZoneOffsetTransition nextTransition(boolean gap) {
+        ZoneOffsetTransition transition = NEW_YORK.getRules().nextTransition(Instant.now().plus(Duration.ofDays(2)));
+        while (transition.isGap() != gap) {
+            transition = NEW_YORK.getRules().nextTransition(transition.getInstant());
+        }
+        return transition;
+    }
+
+    private Tenant tenant(String timezone) {
+        return fixtures.tenant("zona", SchedulingFixtures.suffix(), timezone);
+    }
+
+    private Professional professional(Tenant tenant) {
+        return fixtures.professional(tenant, "Sofía");
+    }
+
+    private void availability(Professional professional, LocalDate day) {
+        fixtures.availability(professional, day, LocalTime.of(0, 0), LocalTime.of(5, 0), 60);
+    }
+}
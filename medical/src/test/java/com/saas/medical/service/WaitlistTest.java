@@ -0,0 +1,82 @@
+package com.saas.medical.service;
+
+import com.saas.medical.model.dto.appointment.AppointmentResponse;
+import com.saas.medical.model.dto.waitlist.WaitlistEntryResponse;
+import com.saas.medical.model.dto.waitlist.WaitlistRequest;
+import com.saas.medical.model.entity.OutboxEvent;
+import com.saas.medical.model.entity.Professional;
+import com.saas.medical.model.entity.Tenant;
+import com.saas.medical.model.entity.WaitlistEntry;
+import com.saas.medical.repository.OutboxEventRepository;
+import com.saas.medical.repository.WaitlistEntryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static com.saas.medical.service.SchedulingFixtures.bookingRequest;
+import static com.saas.medical.service.SchedulingFixtures.patient;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class WaitlistTest {
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private SchedulingFixtures fixtures;
+
+    @Test
+    void cancellationOffersSlotToFirstWaitingPatient() {
+        String suffix = SchedulingFixtures.suffix();
+        Tenant tenant = fixtures.tenant("espera", suffix);
+        Professional professional = fixtures.professional(tenant, "Sofía");
+
+        LocalDate day = LocalDate.now().plusDays(4);
+        LocalDateTime slot = day.atTime(11, 0);
+        AppointmentResponse booked = appointmentService.createAppointment(tenant.getSlug(),
+                bookingRequest(professional.getId(), slot, "61" + suffix));
+
+        // Rango que no incluye el día del turno: no debe recibir el aviso
+        WaitlistEntryResponse otherRange = waitlistService.join(tenant.getSlug(),
+                waitlistRequest(professional.getId(), day.plusDays(1), day.plusDays(5), "62" + suffix));
+        WaitlistEntryResponse first = waitlistService.join(tenant.getSlug(),
+                waitlistRequest(professional.getId(), day.minusDays(2), day.plusDays(2), "63" + suffix));
+        WaitlistEntryResponse second = waitlistService.join(tenant.getSlug(),
+                waitlistRequest(professional.getId(), day, day, "64" + suffix));
+
+        appointmentService.cancel(booked.getId());
+
+        assertEquals(WaitlistEntry.Status.OFFERED, waitlistEntryRepository.findById(first.getId()).orElseThrow().getStatus());
+        assertEquals(slot, waitlistEntryRepository.findById(first.getId()).orElseThrow().getOfferedStartDateTime());
+        assertEquals(WaitlistEntry.Status.WAITING, waitlistEntryRepository.findById(second.getId()).orElseThrow().getStatus());
+        assertEquals(WaitlistEntry.Status.WAITING, waitlistEntryRepository.findById(otherRange.getId()).orElseThrow().getStatus());
+        assertEquals(1, outboxEventRepository.findAll().stream()
+                .filter(event -> event.getEventType() == OutboxEvent.EventType.WAITLIST_OFFER)
+                .filter(event -> event.getAggregateId().equals(first.getId()))
+                .count());
+    }
+
+    private static WaitlistRequest waitlistRequest(Long professionalId, LocalDate from, LocalDate to, String dni) {
+        WaitlistRequest request = new WaitlistRequest();
+        request.setProfessionalId(professionalId);
+        request.setFromDate(from);
+        request.setToDate(to);
+        request.setPatient(patient(dni));
+        return request;
+    }
+}